@@ -0,0 +1,27 @@
+package com.whatsapp.chat.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Conversation Page DTO
+ *
+ * Keyset page of a user's conversation list. Pass {@code nextCursor}
+ * back as {@code cursor} to fetch the following page.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationPageDto {
+
+    private List<ConversationSummaryDto> conversations;
+    private String nextCursor;
+    private boolean hasMore;
+}
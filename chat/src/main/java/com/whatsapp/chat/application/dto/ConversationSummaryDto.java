@@ -0,0 +1,33 @@
+package com.whatsapp.chat.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Conversation Summary DTO
+ *
+ * One row of a user's conversation list. For ONE_TO_ONE conversations
+ * the peer fields identify the other participant (used as title).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummaryDto {
+
+    private String id;
+    private String type;
+    private String name;
+    private String avatarUrl;
+    private String lastMessageId;
+    private Instant lastMessageTimestamp;
+    private int unreadCount;
+    private String peerUserId;
+    private String peerDisplayName;
+}
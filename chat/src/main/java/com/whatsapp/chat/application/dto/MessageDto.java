@@ -22,8 +22,12 @@ public class MessageDto {
 
     private String id;
     private String conversationId;
+    private Long seq;
     private String senderId;
-    private String receiverId;
+    private String receiverId;        // null for group/broadcast messages
+    private Integer recipientCount;   // group/broadcast messages only
+    private Integer deliveredCount;   // group/broadcast messages only
+    private Integer readCount;        // group/broadcast messages only
     private String contentType;
     private String content;
     private String mediaUrl;
@@ -60,5 +60,8 @@ public class MessageReceivedResponse {
 
     /** Server-side timestamp for ordering */
     private Instant serverTimestamp;
+
+    /** True on carbon copies: a message the user sent from another device */
+    private boolean carbon;
 }
 
@@ -0,0 +1,28 @@
+package com.whatsapp.chat.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Presence Update DTO
+ *
+ * Online/offline state of one watched user, pushed to subscribers
+ * in batches on {@code /user/queue/presence}.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceUpdateDto {
+
+    private String userId;
+    private boolean online;
+    private Instant lastSeen;
+    private Instant changedAt;
+}
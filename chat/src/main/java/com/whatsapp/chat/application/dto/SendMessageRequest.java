@@ -24,7 +24,7 @@ public class SendMessageRequest {
     /** ID of the user sending the message (resolved from auth principal when available) */
     private String senderId;
 
-    @NotBlank(message = "Receiver ID is required")
+    /** Receiver of a direct message; omitted for group and broadcast messages */
     private String receiverId;
 
     @NotBlank(message = "Conversation ID is required")
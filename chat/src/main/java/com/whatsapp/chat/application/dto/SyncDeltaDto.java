@@ -0,0 +1,35 @@
+package com.whatsapp.chat.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Sync Delta DTO
+ *
+ * Changes of a user's sync log after a given sequence number.
+ *
+ * Client contract:
+ * - Apply {@code events} in order, then persist {@code nextSeq}
+ * - If {@code hasMore}, request again with {@code since = nextSeq}
+ * - If {@code resetRequired}, the log no longer reaches back to
+ *   {@code since}: drop local state and do a full resync
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDeltaDto {
+
+    private String userId;
+    private long since;
+    private long nextSeq;
+    private boolean hasMore;
+    private boolean resetRequired;
+    private List<SyncEventDto> events;
+}
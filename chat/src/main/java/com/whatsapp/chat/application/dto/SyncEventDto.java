@@ -0,0 +1,30 @@
+package com.whatsapp.chat.application.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Sync Event DTO
+ *
+ * One change in a user's sync delta.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncEventDto {
+
+    private long seq;
+    private String type;
+    private String conversationId;
+    private String messageId;
+    private Map<String, String> data;
+    private Instant createdAt;
+}
@@ -1,7 +1,9 @@
 package com.whatsapp.chat.application.mapper;
 
 import com.whatsapp.chat.application.dto.ConversationDto;
+import com.whatsapp.chat.application.dto.ConversationSummaryDto;
 import com.whatsapp.chat.domain.model.Conversation;
+import com.whatsapp.chat.domain.model.ConversationSummary;
 import com.whatsapp.chat.domain.model.vo.Participant;
 
 import org.springframework.stereotype.Component;
@@ -11,7 +13,8 @@ import java.util.stream.Collectors;
 /**
  * Conversation Mapper
  *
- * Maps between Conversation domain model and ConversationDto.
+ * Maps between Conversation domain model and ConversationDto, and from
+ * the ConversationSummary read model to ConversationSummaryDto.
  *
  * @author WhatsApp Clone Team
  */
@@ -43,4 +46,25 @@ public class ConversationMapper {
 
         return dto;
     }
+
+    /**
+     * Convert ConversationSummary read model to ConversationSummaryDto
+     */
+    public ConversationSummaryDto toSummaryDto(ConversationSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        return ConversationSummaryDto.builder()
+                .id(summary.getConversationId())
+                .type(summary.getType().name())
+                .name(summary.getName())
+                .avatarUrl(summary.getAvatarUrl())
+                .lastMessageId(summary.getLastMessageId())
+                .lastMessageTimestamp(summary.getLastMessageTimestamp())
+                .unreadCount(summary.getUnreadCount())
+                .peerUserId(summary.getPeerUserId())
+                .peerDisplayName(summary.getPeerDisplayName())
+                .build();
+    }
 }
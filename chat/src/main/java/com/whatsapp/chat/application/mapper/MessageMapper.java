@@ -1,10 +1,14 @@
 package com.whatsapp.chat.application.mapper;
 
 import com.whatsapp.chat.application.dto.MessageDto;
+import com.whatsapp.chat.application.dto.MessageReceivedResponse;
 import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
 
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
 /**
  * Message Mapper
  *
@@ -26,6 +30,7 @@ public class MessageMapper {
         MessageDto dto = new MessageDto();
         dto.setId(message.getId().getValue());
         dto.setConversationId(message.getConversationId().getValue());
+        dto.setSeq(message.getSeq());
         dto.setSenderId(message.getSenderId());
         dto.setReceiverId(message.getReceiverId());
         dto.setContentType(message.getContent().getType().name());
@@ -38,7 +43,46 @@ public class MessageMapper {
         dto.setReplyToMessageId(message.getReplyToMessageId());
         dto.setDeleted(message.isDeleted());
         dto.setCreatedAt(message.getCreatedAt());
+        if (message.isShared()) {
+            dto.setRecipientCount(message.getRecipientCount());
+        }
+
+        return dto;
+    }
+
+    /**
+     * Build the real-time push of a sent message
+     *
+     * @param carbon whether it is a copy for the sender's other devices
+     */
+    public MessageReceivedResponse toReceivedResponse(MessageDto sent, boolean carbon) {
+        return MessageReceivedResponse.builder()
+                .messageId(sent.getId())
+                .conversationId(sent.getConversationId())
+                .senderId(sent.getSenderId())
+                .receiverId(sent.getReceiverId())
+                .contentType(sent.getContentType())
+                .content(sent.getContent())
+                .mediaUrl(sent.getMediaUrl())
+                .status(sent.getStatus())
+                .sentAt(sent.getSentAt())
+                .replyToMessageId(sent.getReplyToMessageId())
+                .deleted(sent.isDeleted())
+                .serverTimestamp(Instant.now())
+                .carbon(carbon)
+                .build();
+    }
 
+    /**
+     * Convert a shared message with its receipt progress (null if unknown)
+     */
+    public MessageDto toDto(Message message, ReceiptProgress progress) {
+        MessageDto dto = toDto(message);
+        if (dto != null && progress != null) {
+            dto.setRecipientCount(progress.getRecipientCount());
+            dto.setDeliveredCount(progress.getDeliveredCount());
+            dto.setReadCount(progress.getReadCount());
+        }
         return dto;
     }
 }
@@ -3,22 +3,32 @@ package com.whatsapp.chat.application.service;
 import com.whatsapp.chat.application.dto.MessageDto;
 import com.whatsapp.chat.application.dto.SendMessageRequest;
 import com.whatsapp.chat.application.mapper.MessageMapper;
+import com.whatsapp.chat.domain.model.ConversationType;
 import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
 import com.whatsapp.chat.domain.model.vo.MessageContent;
 import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.SeqRange;
 import com.whatsapp.chat.domain.repository.ConversationRepository;
+import com.whatsapp.chat.domain.repository.MessageReceiptRepository;
 import com.whatsapp.chat.domain.repository.MessageRepository;
 import com.whatsapp.chat.domain.service.MessageDomainService;
 import com.whatsapp.chat.infrastructure.cache.InboxCacheService;
+import com.whatsapp.chat.infrastructure.cache.MessageCounterCache;
+import com.whatsapp.chat.infrastructure.idgen.ConversationSequenceGenerator;
 import com.whatsapp.chat.infrastructure.messaging.MessageEventPublisher;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +38,10 @@ import java.util.stream.Collectors;
  * tracking,
  * and message history retrieval.
  *
+ * Messages without a receiver are shared (group/broadcast) messages: stored
+ * once, with per-recipient delivery and read state in receipts that are
+ * applied in batches by the {@link ReceiptAggregator}.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -36,12 +50,19 @@ import java.util.stream.Collectors;
 @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
 public class ChatApplicationService {
 
+    private static final int MAX_GAP_RANGES = 50;
+
     private final MessageRepository messageRepository;
+    private final MessageReceiptRepository receiptRepository;
+    private final ReceiptAggregator receiptAggregator;
     private final ConversationRepository conversationRepository;
     private final MessageDomainService messageDomainService;
     private final InboxCacheService cacheService;
+    private final MessageCounterCache counterCache;
     private final MessageEventPublisher eventPublisher;
     private final MessageMapper messageMapper;
+    private final SyncService syncService;
+    private final ConversationSequenceGenerator sequenceGenerator;
 
     /**
      * Send a new message
@@ -51,17 +72,19 @@ public class ChatApplicationService {
         log.info("Sending message from {} to {} in conversation {}",
                 request.getSenderId(), request.getReceiverId(), request.getConversationId());
 
-        // Validate conversation exists
+        // Validate sender is participant (single indexed row lookup, no aggregate load)
         ConversationId conversationId = ConversationId.of(request.getConversationId());
-        var conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(
-                        () -> new IllegalArgumentException("Conversation not found: " + request.getConversationId()));
-
-        // Validate sender is participant
-        if (!conversation.isParticipant(request.getSenderId())) {
+        if (!conversationRepository.isParticipant(conversationId, request.getSenderId())) {
+            if (!conversationRepository.existsById(conversationId)) {
+                throw new IllegalArgumentException("Conversation not found: " + request.getConversationId());
+            }
             throw new IllegalArgumentException("Sender is not a participant in this conversation");
         }
 
+        if (request.getReceiverId() == null || request.getReceiverId().isBlank()) {
+            return sendSharedMessage(request, conversationId);
+        }
+
         // Create message content
         MessageContent content = MessageContent.text(request.getContent());
 
@@ -73,25 +96,78 @@ public class ChatApplicationService {
                 content,
                 request.getReplyToMessageId());
 
-        // Save message
-        Message savedMessage = messageRepository.save(message);
+        // Assign per-conversation sequence and save message
+        Message savedMessage = saveSequenced(message, conversationId);
 
         // Update conversation
-        conversation.updateLastMessage(savedMessage.getId().getValue(), savedMessage.getSentAt());
-        conversation.incrementUnreadCount(request.getReceiverId());
-        conversationRepository.save(conversation);
+        conversationRepository.recordMessage(
+                conversationId,
+                savedMessage.getId().getValue(),
+                savedMessage.getSentAt(),
+                request.getReceiverId());
 
-        // Invalidate cache
+        // Invalidate cache, maintain counters
         cacheService.evictConversation(request.getConversationId());
+        counterCache.onMessageSent(request.getConversationId(), request.getReceiverId());
 
         // Publish event
         eventPublisher.publishMessageSent(savedMessage);
+        syncService.recordMessageSent(savedMessage);
 
         log.info("Message sent successfully: {}", savedMessage.getId());
 
         return messageMapper.toDto(savedMessage);
     }
 
+    /**
+     * Send a group or broadcast message: one stored copy, one receipt
+     * bitmap, one unread update for the whole group
+     */
+    private MessageDto sendSharedMessage(SendMessageRequest request, ConversationId conversationId) {
+        ConversationType type = conversationRepository.findType(conversationId)
+                .orElseThrow(() -> new IllegalArgumentException("Conversation not found: " + request.getConversationId()));
+        if (type == ConversationType.ONE_TO_ONE) {
+            throw new IllegalArgumentException("Receiver is required in one-to-one conversations");
+        }
+        if (type == ConversationType.BROADCAST && !conversationRepository.isAdmin(conversationId, request.getSenderId())) {
+            throw new IllegalArgumentException("Only admins can send to a broadcast list");
+        }
+
+        List<String> recipients = conversationRepository.findMemberIds(conversationId).stream()
+                .filter(userId -> !userId.equals(request.getSenderId()))
+                .collect(Collectors.toList());
+        if (recipients.isEmpty()) {
+            throw new IllegalArgumentException("Conversation has no other members");
+        }
+
+        Message message = Message.createShared(
+                conversationId,
+                request.getSenderId(),
+                recipients.size(),
+                MessageContent.text(request.getContent()),
+                request.getReplyToMessageId());
+
+        Message savedMessage = saveSequenced(message, conversationId);
+        receiptRepository.create(savedMessage, recipients);
+
+        // Update conversation (one statement for all members' unread counts)
+        conversationRepository.recordGroupMessage(
+                conversationId,
+                savedMessage.getId().getValue(),
+                savedMessage.getSentAt(),
+                request.getSenderId());
+
+        cacheService.evictConversation(request.getConversationId());
+        counterCache.onMessageSent(request.getConversationId(), null);
+
+        eventPublisher.publishMessageSent(savedMessage, recipients);
+        syncService.recordMessageSent(savedMessage, recipients);
+
+        log.info("Shared message sent successfully: {} ({} recipients)", savedMessage.getId(), recipients.size());
+
+        return messageMapper.toDto(savedMessage, ReceiptProgress.of(recipients.size(), 0, 0));
+    }
+
     /**
      * Mark message as delivered
      */
@@ -102,16 +178,27 @@ public class ChatApplicationService {
         Message message = messageRepository.findById(MessageId.of(messageId))
                 .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
 
+        if (message.isShared()) {
+            return markSharedAsDelivered(message, userId);
+        }
+
         // Validate user is receiver
         if (!message.getReceiverId().equals(userId)) {
             throw new IllegalArgumentException("User is not the receiver of this message");
         }
 
         message.markAsDelivered();
-        Message updatedMessage = messageRepository.save(message);
+        if (!messageRepository.update(message)) {
+            // Already delivered or read: nothing written, no duplicate events
+            log.debug("Message {} already past DELIVERED, skipping", messageId);
+            return messageMapper.toDto(currentState(message));
+        }
+        Message updatedMessage = message;
+        counterCache.onMessagesDelivered(userId, 1);
 
         // Publish event
         eventPublisher.publishMessageDelivered(updatedMessage);
+        syncService.recordMessageStatus(updatedMessage);
 
         log.info("Message marked as delivered: {}", messageId);
 
@@ -128,32 +215,105 @@ public class ChatApplicationService {
         Message message = messageRepository.findById(MessageId.of(messageId))
                 .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
 
+        if (message.isShared()) {
+            return markSharedAsRead(message, userId);
+        }
+
         // Validate user is receiver
         if (!message.getReceiverId().equals(userId)) {
             throw new IllegalArgumentException("User is not the receiver of this message");
         }
 
+        MessageStatus priorStatus = message.getStatus();
         message.markAsRead();
-        Message updatedMessage = messageRepository.save(message);
+        if (!messageRepository.update(message)) {
+            // Already read: nothing written, no duplicate events
+            log.debug("Message {} already READ, skipping", messageId);
+            return messageMapper.toDto(currentState(message));
+        }
+        Message updatedMessage = message;
+        if (priorStatus == MessageStatus.SENT) {
+            counterCache.onMessagesDelivered(userId, 1);
+        }
 
         // Update conversation unread count
-        var conversation = conversationRepository.findById(message.getConversationId())
-                .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
-
-        conversation.resetUnreadCount(userId);
-        conversationRepository.save(conversation);
+        conversationRepository.resetUnreadCount(message.getConversationId(), userId);
 
         // Invalidate cache
-        cacheService.evictConversation(conversation.getId().getValue());
+        cacheService.evictConversation(message.getConversationId().getValue());
 
         // Publish event
         eventPublisher.publishMessageRead(updatedMessage);
+        syncService.recordMessageStatus(updatedMessage);
 
         log.info("Message marked as read: {}", messageId);
 
         return messageMapper.toDto(updatedMessage);
     }
 
+    /**
+     * One recipient received a shared message. Journaled for the next batch
+     * of the {@link ReceiptAggregator}; receipts of non-recipients are dropped there.
+     *
+     * @return the message with its progress as applied so far
+     */
+    private MessageDto markSharedAsDelivered(Message message, String userId) {
+        requireRecipient(message, userId);
+        receiptAggregator.recordDelivered(message, userId);
+        return withProgress(message);
+    }
+
+    /**
+     * One recipient read a shared message. Journaled for the next batch
+     * of the {@link ReceiptAggregator}; receipts of non-recipients are dropped there.
+     *
+     * @return the message with its progress as applied so far
+     */
+    private MessageDto markSharedAsRead(Message message, String userId) {
+        requireRecipient(message, userId);
+        receiptAggregator.recordRead(message, userId);
+        return withProgress(message);
+    }
+
+    private MessageDto withProgress(Message message) {
+        ReceiptProgress progress = receiptRepository.findProgress(List.of(message.getId())).get(message.getId());
+        return progress != null ? messageMapper.toDto(message, progress) : messageMapper.toDto(message);
+    }
+
+    /**
+     * Per-recipient status of a shared message (sender only)
+     */
+    @Transactional(readOnly = true)
+    public Map<String, String> getReceipts(String messageId, String requesterId) {
+        Message message = messageRepository.findById(MessageId.of(messageId))
+                .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+        if (!message.getSenderId().equals(requesterId)) {
+            throw new IllegalArgumentException("Only sender can view receipts");
+        }
+
+        Map<String, String> receipts = new LinkedHashMap<>();
+        if (!message.isShared()) {
+            receipts.put(message.getReceiverId(), message.getStatus().name());
+            return receipts;
+        }
+        receiptRepository.findRecipientStatuses(message.getId())
+                .forEach((userId, status) -> receipts.put(userId, status.name()));
+        return receipts;
+    }
+
+    /**
+     * Recipients of a message: its receiver, or the roster of a shared message
+     */
+    @Transactional(readOnly = true)
+    public List<String> getMessageRecipients(String messageId) {
+        Message message = messageRepository.findById(MessageId.of(messageId))
+                .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+        if (!message.isShared()) {
+            return List.of(message.getReceiverId());
+        }
+        return receiptRepository.findRecipients(message.getId()).orElse(List.of());
+    }
+
     /**
      * Get message by ID
      */
@@ -164,7 +324,7 @@ public class ChatApplicationService {
         Message message = messageRepository.findById(MessageId.of(messageId))
                 .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
 
-        return messageMapper.toDto(message);
+        return toDtos(List.of(message)).get(0);
     }
 
     /**
@@ -176,12 +336,47 @@ public class ChatApplicationService {
 
         List<Message> messages = messageRepository.findByConversationId(
                 ConversationId.of(conversationId),
-                page,
+                page * size,
                 size);
 
-        return messages.stream()
-                .map(messageMapper::toDto)
-                .collect(Collectors.toList());
+        return toDtos(messages);
+    }
+
+    /**
+     * Get messages older than a cursor message (keyset pagination)
+     *
+     * Preferred for deep scrolling: cost does not grow with depth and the
+     * page transparently continues into archived history.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDto> getConversationMessagesBefore(String conversationId, String beforeMessageId, int size) {
+        log.debug("Getting messages for conversation: {}, before: {}, size: {}", conversationId, beforeMessageId, size);
+
+        List<Message> messages = messageRepository.findByConversationIdBefore(
+                ConversationId.of(conversationId),
+                beforeMessageId != null ? MessageId.of(beforeMessageId) : null,
+                size);
+
+        return toDtos(messages);
+    }
+
+    /**
+     * Get messages by per-conversation sequence ranges (gap-fill)
+     *
+     * Clients that see a hole in the sequence numbers they received request
+     * exactly the missing ranges; all ranges are served by one query.
+     */
+    @Transactional(readOnly = true)
+    public List<MessageDto> getMessagesBySeqRanges(String conversationId, List<SeqRange> ranges) {
+        log.debug("Gap-fill for conversation: {}, ranges: {}", conversationId, ranges);
+
+        if (ranges.isEmpty() || ranges.size() > MAX_GAP_RANGES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_GAP_RANGES + " sequence ranges are required");
+        }
+
+        List<Message> messages = messageRepository.findBySeqRanges(ConversationId.of(conversationId), ranges);
+
+        return toDtos(messages);
     }
 
     /**
@@ -200,8 +395,82 @@ public class ChatApplicationService {
         }
 
         message.delete(userId);
-        messageRepository.save(message);
+        if (!messageRepository.update(message)) {
+            log.debug("Message {} was already deleted concurrently", messageId);
+            return;
+        }
+        counterCache.onMessageDeleted(message.getConversationId().getValue(), message.getReceiverId(),
+                message.getStatus() == MessageStatus.SENT);
+        if (message.isShared()) {
+            syncService.recordMessageDeleted(message,
+                    receiptRepository.findRecipients(message.getId()).orElse(List.of()));
+        } else {
+            syncService.recordMessageDeleted(message);
+        }
 
         log.info("Message deleted: {}", messageId);
     }
+
+    /**
+     * Save with the next per-conversation sequence number
+     */
+    private Message saveSequenced(Message message, ConversationId conversationId) {
+        message.assignSequence(sequenceGenerator.next(conversationId));
+        try {
+            return messageRepository.save(message);
+        } catch (DuplicateKeyException e) {
+            // Counter fell behind the persisted high-water mark (e.g. Redis failover)
+            sequenceGenerator.resync(conversationId);
+            message.assignSequence(sequenceGenerator.next(conversationId));
+            return saveOrVoid(message, conversationId);
+        } catch (RuntimeException e) {
+            sequenceGenerator.voided(conversationId, message.getSeq());
+            throw e;
+        }
+    }
+
+    private Message saveOrVoid(Message message, ConversationId conversationId) {
+        try {
+            return messageRepository.save(message);
+        } catch (RuntimeException e) {
+            sequenceGenerator.voided(conversationId, message.getSeq());
+            throw e;
+        }
+    }
+
+    /**
+     * History page as DTOs; receipt progress of its shared messages is
+     * loaded in one query
+     */
+    private List<MessageDto> toDtos(List<Message> messages) {
+        List<MessageId> sharedIds = messages.stream()
+                .filter(Message::isShared)
+                .map(Message::getId)
+                .collect(Collectors.toList());
+        Map<MessageId, ReceiptProgress> progress = sharedIds.isEmpty()
+                ? Map.of()
+                : receiptRepository.findProgress(sharedIds);
+
+        return messages.stream()
+                .map(message -> messageMapper.toDto(message, progress.get(message.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private void requireRecipient(Message message, String userId) {
+        // Membership in the roster is checked when the receipt is applied
+        if (message.getSenderId().equals(userId)) {
+            throw new IllegalArgumentException("User is not a recipient of this message");
+        }
+    }
+
+    /**
+     * Stored state of a message whose transition was not applied.
+     * Only re-reads when a concurrent writer got there first.
+     */
+    private Message currentState(Message message) {
+        if (!message.isDirty()) {
+            return message;
+        }
+        return messageRepository.findById(message.getId()).orElse(message);
+    }
 }
@@ -1,10 +1,13 @@
 package com.whatsapp.chat.application.service;
 
 import com.whatsapp.chat.application.dto.ConversationDto;
+import com.whatsapp.chat.application.dto.ConversationPageDto;
 import com.whatsapp.chat.application.dto.CreateConversationRequest;
 import com.whatsapp.chat.application.mapper.ConversationMapper;
 import com.whatsapp.chat.domain.model.Conversation;
+import com.whatsapp.chat.domain.model.ConversationSummary;
 import com.whatsapp.chat.domain.model.ConversationType;
+import com.whatsapp.chat.domain.model.vo.ConversationCursor;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
 import com.whatsapp.chat.domain.model.vo.Participant;
 import com.whatsapp.chat.domain.repository.ConversationRepository;
@@ -30,9 +33,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ConversationService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ConversationRepository conversationRepository;
     private final InboxCacheService cacheService;
     private final ConversationMapper conversationMapper;
+    private final SyncService syncService;
 
     /**
      * Create a new conversation
@@ -75,6 +81,10 @@ public class ConversationService {
 
         Conversation savedConversation = conversationRepository.save(conversation);
 
+        syncService.recordConversationJoined(savedConversation, savedConversation.getParticipants().stream()
+                .map(Participant::getUserId)
+                .collect(Collectors.toList()));
+
         log.info("Conversation created successfully: {}", savedConversation.getId());
 
         return conversationMapper.toDto(savedConversation);
@@ -112,6 +122,40 @@ public class ConversationService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get one keyset page of a user's conversation list (flat summaries)
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public ConversationPageDto getConversationPage(String userId, String cursor, int limit) {
+        log.debug("Getting conversation page for user: {} after {}", userId, cursor);
+
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ConversationCursor after = cursor == null || cursor.isBlank() ? null : ConversationCursor.parse(cursor);
+
+        // Fetch one extra row to know whether another page exists
+        List<ConversationSummary> rows = conversationRepository.findSummaries(userId, after, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<ConversationSummary> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ConversationSummary last = page.get(page.size() - 1);
+            nextCursor = ConversationCursor.of(last.getActivityAt(), last.getConversationId()).encode();
+        }
+
+        return ConversationPageDto.builder()
+                .conversations(page.stream()
+                        .map(conversationMapper::toSummaryDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     /**
      * Mark conversation as read for a user
      */
@@ -119,16 +163,18 @@ public class ConversationService {
     public void markAsRead(String conversationId, String userId) {
         log.info("Marking conversation as read: {} for user: {}", conversationId, userId);
 
-        Conversation conversation = conversationRepository.findById(ConversationId.of(conversationId))
-                .orElseThrow(() -> new IllegalArgumentException("Conversation not found: " + conversationId));
+        ConversationId id = ConversationId.of(conversationId);
 
         // Validate user is participant
-        if (!conversation.isParticipant(userId)) {
+        if (!conversationRepository.isParticipant(id, userId)) {
+            if (!conversationRepository.existsById(id)) {
+                throw new IllegalArgumentException("Conversation not found: " + conversationId);
+            }
             throw new IllegalArgumentException("User is not a participant in this conversation");
         }
 
-        conversation.resetUnreadCount(userId);
-        conversationRepository.save(conversation);
+        conversationRepository.resetUnreadCount(id, userId);
+        syncService.recordConversationRead(conversationId, userId);
 
         // Invalidate cache
         cacheService.evictConversation(conversationId);
@@ -156,14 +202,18 @@ public class ConversationService {
         Participant newParticipant = Participant.create(newParticipantId, newParticipantName);
         conversation.addParticipant(newParticipant);
 
-        Conversation updatedConversation = conversationRepository.save(conversation);
+        // Write only the new member's row
+        conversationRepository.addParticipant(conversation.getId(), newParticipant);
+
+        syncService.recordConversationJoined(conversation, List.of(newParticipantId));
+        syncService.recordConversationUpdated(conversation, "PARTICIPANT_ADDED", newParticipantId);
 
         // Invalidate cache
         cacheService.evictConversation(conversationId);
 
         log.info("Participant added successfully to conversation: {}", conversationId);
 
-        return conversationMapper.toDto(updatedConversation);
+        return conversationMapper.toDto(conversation);
     }
 
     /**
@@ -182,7 +232,10 @@ public class ConversationService {
         }
 
         conversation.removeParticipant(participantToRemove);
-        conversationRepository.save(conversation);
+        conversationRepository.removeParticipant(conversation.getId(), participantToRemove);
+
+        syncService.recordConversationLeft(conversationId, participantToRemove);
+        syncService.recordConversationUpdated(conversation, "PARTICIPANT_REMOVED", participantToRemove);
 
         // Invalidate cache
         cacheService.evictConversation(conversationId);
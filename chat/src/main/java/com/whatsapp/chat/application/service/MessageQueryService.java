@@ -65,7 +65,7 @@ public class MessageQueryService {
         log.debug("Fetching history for conversation={} page={} size={}", conversationId, page, size);
 
         List<Message> messages = messageRepository.findByConversationId(
-                ConversationId.of(conversationId), page, size);
+                ConversationId.of(conversationId), page * size, size);
 
         return messages.stream()
                 .map(messageMapper::toDto)
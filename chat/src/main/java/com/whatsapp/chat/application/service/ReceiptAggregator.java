@@ -0,0 +1,238 @@
+package com.whatsapp.chat.application.service;
+
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.ReceiptUpdate;
+import com.whatsapp.chat.domain.repository.ConversationRepository;
+import com.whatsapp.chat.domain.repository.MessageReceiptRepository;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import com.whatsapp.chat.infrastructure.cache.InboxCacheService;
+import com.whatsapp.chat.infrastructure.cache.ReceiptJournal;
+import com.whatsapp.chat.infrastructure.messaging.MessageEventPublisher;
+import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receipt Aggregator
+ *
+ * Collects delivery and read receipts of shared (group/broadcast) messages
+ * and applies them in batches, instead of one write and one sender push
+ * per member per state change.
+ *
+ * Receipts are journaled in Redis ({@link ReceiptJournal}) before the
+ * client is answered, and leave the journal only once applied: a crashed
+ * node's receipts are applied by another node after the claim timeout.
+ *
+ * Flow (every flush interval):
+ * 1. Take up to a batch of receipts from the journal
+ * 2. Apply them to the receipt bitmaps (one guarded write per message)
+ * 3. For recipients whose state the write changed: events, sync log,
+ *    unread reset
+ * 4. Move the message to DELIVERED/READ once every recipient got there
+ * 5. Push one receipt summary per touched message to its sender
+ *    ("delivered 87/120, read 40/120")
+ * 6. Acknowledge the batch in the journal (a failed write leaves it there
+ *    for the next interval)
+ *
+ * The flush interval bounds summary pushes: at most one per message per
+ * interval (4 per second at the default 250 ms).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+public class ReceiptAggregator {
+
+    private final ReceiptJournal journal;
+    private final MessageReceiptRepository receiptRepository;
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final InboxCacheService cacheService;
+    private final MessageEventPublisher eventPublisher;
+    private final SyncService syncService;
+    private final WebSocketSessionManager sessionManager;
+    private final int batchSize;
+
+    public ReceiptAggregator(ReceiptJournal journal,
+                             MessageReceiptRepository receiptRepository,
+                             MessageRepository messageRepository,
+                             ConversationRepository conversationRepository,
+                             InboxCacheService cacheService,
+                             MessageEventPublisher eventPublisher,
+                             SyncService syncService,
+                             WebSocketSessionManager sessionManager,
+                             @Value("${app.message.receipts.batch-size:2000}") int batchSize) {
+        this.journal = journal;
+        this.receiptRepository = receiptRepository;
+        this.messageRepository = messageRepository;
+        this.conversationRepository = conversationRepository;
+        this.cacheService = cacheService;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
+        this.sessionManager = sessionManager;
+        this.batchSize = batchSize;
+    }
+
+    // ---------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------
+
+    /**
+     * A recipient received a shared message (journaled when this returns)
+     */
+    public void recordDelivered(Message message, String userId) {
+        journal.append(message.getId().getValue(), userId, false);
+    }
+
+    /**
+     * A recipient read a shared message, which implies delivered
+     * (journaled when this returns)
+     */
+    public void recordRead(Message message, String userId) {
+        journal.append(message.getId().getValue(), userId, true);
+    }
+
+    // ---------------------------------------------------------------
+    // Flushing
+    // ---------------------------------------------------------------
+
+    /**
+     * Apply journaled receipts until the journal has no full batch left
+     */
+    @Scheduled(fixedDelayString = "${app.message.receipts.flush-interval-ms:250}")
+    public void flush() {
+        int applied;
+        do {
+            applied = flushBatch();
+        } while (applied == batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Applying journaled receipts before shutdown");
+        flush();
+    }
+
+    /**
+     * @return receipts taken from the journal, or 0 if any of them failed
+     */
+    int flushBatch() {
+        List<ReceiptJournal.Entry> entries;
+        try {
+            entries = journal.poll(batchSize);
+        } catch (Exception e) {
+            log.error("Failed to read the receipt journal: {}", e.getMessage());
+            return 0;
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        Map<MessageId, Set<String>> delivered = new HashMap<>();
+        Map<MessageId, Set<String>> read = new HashMap<>();
+        for (ReceiptJournal.Entry entry : entries) {
+            (entry.read() ? read : delivered)
+                    .computeIfAbsent(MessageId.of(entry.messageId()), id -> new HashSet<>())
+                    .add(entry.userId());
+        }
+
+        Set<MessageId> messageIds = new HashSet<>(delivered.keySet());
+        messageIds.addAll(read.keySet());
+        Map<MessageId, Message> messages = new HashMap<>();
+        Map<MessageId, ReceiptUpdate> updates;
+        try {
+            messageRepository.findAllById(messageIds).forEach(message -> messages.put(message.getId(), message));
+            updates = receiptRepository.markAll(delivered, read);
+        } catch (Exception e) {
+            log.error("Failed to apply {} receipts, retrying next interval: {}",
+                    entries.size(), e.getMessage(), e);
+            return 0;
+        }
+
+        updates.forEach((messageId, update) -> {
+            Message message = messages.get(messageId);
+            if (update.hasChanges() && message != null) {
+                apply(message, update);
+            }
+        });
+
+        // Receipts of messages whose write failed stay journaled for the next interval
+        List<ReceiptJournal.Entry> done = entries.stream()
+                .filter(entry -> {
+                    MessageId messageId = MessageId.of(entry.messageId());
+                    return updates.containsKey(messageId) || !messages.containsKey(messageId);
+                })
+                .toList();
+        try {
+            journal.ack(done);
+        } catch (Exception e) {
+            // Applied again from the journal: the bitmaps report no changes the second time
+            log.warn("Failed to acknowledge {} applied receipts: {}", done.size(), e.getMessage());
+        }
+        log.debug("Applied {} of {} receipts ({} messages)", done.size(), entries.size(), updates.size());
+        return done.size() == entries.size() ? entries.size() : 0;
+    }
+
+    private void apply(Message message, ReceiptUpdate update) {
+        try {
+            ReceiptProgress progress = update.getProgress();
+            if (progress.allRead()) {
+                message.markAsRead();
+                messageRepository.update(message);
+            } else if (progress.allDelivered()) {
+                message.markAsDelivered();
+                messageRepository.update(message);
+            }
+
+            for (String userId : update.getNewlyDelivered()) {
+                eventPublisher.publishMessageDelivered(message, userId);
+                syncService.recordRecipientStatus(message, userId, false);
+            }
+            for (String userId : update.getNewlyRead()) {
+                conversationRepository.resetUnreadCount(message.getConversationId(), userId);
+                eventPublisher.publishMessageRead(message, userId);
+                syncService.recordRecipientStatus(message, userId, true);
+            }
+            if (!update.getNewlyRead().isEmpty()) {
+                cacheService.evictConversation(message.getConversationId().getValue());
+            }
+
+            pushSummary(message, progress);
+
+        } catch (Exception e) {
+            log.error("Failed to apply receipt update of message {}: {}", message.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One frame for the sender with the progress across all recipients
+     */
+    private void pushSummary(Message message, ReceiptProgress progress) {
+        if (!sessionManager.isUserConnected(message.getSenderId())) {
+            return;
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "RECEIPT_SUMMARY");
+        summary.put("messageId", message.getId().getValue());
+        summary.put("conversationId", message.getConversationId().getValue());
+        summary.put("recipientCount", progress.getRecipientCount());
+        summary.put("deliveredCount", progress.getDeliveredCount());
+        summary.put("readCount", progress.getReadCount());
+        summary.put("timestamp", Instant.now().toString());
+        sessionManager.sendToUser(message.getSenderId(), "/queue/receipts", summary);
+    }
+}
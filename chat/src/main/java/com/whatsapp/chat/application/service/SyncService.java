@@ -0,0 +1,382 @@
+package com.whatsapp.chat.application.service;
+
+import com.whatsapp.chat.application.dto.SyncDeltaDto;
+import com.whatsapp.chat.application.dto.SyncEventDto;
+import com.whatsapp.chat.domain.model.Conversation;
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.SyncEvent;
+import com.whatsapp.chat.domain.model.SyncEventType;
+import com.whatsapp.chat.domain.model.vo.Participant;
+import com.whatsapp.chat.domain.repository.SyncLogRepository;
+import com.whatsapp.chat.infrastructure.cache.DeviceCursorStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sync Service
+ *
+ * Maintains every user's append-only sync log and serves incremental deltas.
+ *
+ * Recording:
+ * - Called by the command services after a change is persisted
+ * - Failures are logged and never fail the originating command; a client
+ *   that misses an entry still converges on its next full resync
+ *
+ * Reading:
+ * - "Everything since seq N" returns only changes after N, so a reconnect
+ *   costs O(changes) instead of O(history)
+ * - Superseded receipts/updates within a delta are collapsed, and a delete
+ *   drops earlier events of the same message
+ * - A delta stops at the contiguous watermark: sequence numbers are reserved
+ *   before the entries are inserted, so a concurrent append can make N+1
+ *   visible before N. A missing number is waited for (the delta ends before
+ *   it) until the entry after it is {@link #GAP_GRACE} old; after that it is
+ *   a hole left by a failed insert and is skipped
+ *
+ * Devices:
+ * - Every device of a user keeps its own cursor into the shared log
+ *   ({@link DeviceCursorStore}); a device resumes from its cursor and
+ *   acknowledges what it applied, independently of the user's other devices
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private static final int DEFAULT_LIMIT = 500;
+    private static final int MAX_LIMIT = 1000;
+
+    /** How long a missing sequence number counts as an insert still in flight */
+    static final Duration GAP_GRACE = Duration.ofSeconds(30);
+
+    private final SyncLogRepository syncLogRepository;
+    private final DeviceCursorStore deviceCursorStore;
+
+    // ---------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------
+
+    /**
+     * Record a new message for sender (other devices) and receiver
+     */
+    public void recordMessageSent(Message message) {
+        Map<String, String> data = new HashMap<>();
+        data.put("senderId", message.getSenderId());
+        putIfNotNull(data, "seq", message.getSeq());
+        putIfNotNull(data, "receiverId", message.getReceiverId());
+        data.put("contentType", message.getContent().getType().name());
+        putIfNotNull(data, "content", message.getContent().getText());
+        data.put("status", message.getStatus().name());
+        data.put("sentAt", message.getSentAt().toString());
+
+        record(messageParties(message), SyncEventType.MESSAGE_NEW,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record a new shared (group/broadcast) message for sender and recipients
+     *
+     * The body is not copied into every recipient's log: entries carry the
+     * message id and clients fetch the single stored copy.
+     */
+    public void recordMessageSent(Message message, Collection<String> recipientIds) {
+        Map<String, String> data = new HashMap<>();
+        data.put("senderId", message.getSenderId());
+        putIfNotNull(data, "seq", message.getSeq());
+        data.put("recipientCount", String.valueOf(message.getRecipientCount()));
+        data.put("contentType", message.getContent().getType().name());
+        data.put("sentAt", message.getSentAt().toString());
+
+        Set<String> parties = new LinkedHashSet<>();
+        parties.add(message.getSenderId());
+        parties.addAll(recipientIds);
+        record(parties, SyncEventType.MESSAGE_NEW,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record one recipient's receipt of a shared message for sender and recipient
+     */
+    public void recordRecipientStatus(Message message, String recipientId, boolean read) {
+        Map<String, String> data = new HashMap<>();
+        data.put("status", read ? "READ" : "DELIVERED");
+        data.put("recipientId", recipientId);
+
+        record(List.of(message.getSenderId(), recipientId),
+                read ? SyncEventType.MESSAGE_READ : SyncEventType.MESSAGE_DELIVERED,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record a delivery or read receipt for sender and receiver
+     */
+    public void recordMessageStatus(Message message) {
+        SyncEventType type = message.isRead() ? SyncEventType.MESSAGE_READ : SyncEventType.MESSAGE_DELIVERED;
+        Map<String, String> data = new HashMap<>();
+        data.put("status", message.getStatus().name());
+        putIfNotNull(data, "deliveredAt", message.getDeliveredAt());
+        putIfNotNull(data, "readAt", message.getReadAt());
+
+        record(messageParties(message), type,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record a message deletion for sender and receiver
+     */
+    public void recordMessageDeleted(Message message) {
+        Map<String, String> data = new HashMap<>();
+        putIfNotNull(data, "deletedAt", message.getDeletedAt());
+
+        record(messageParties(message), SyncEventType.MESSAGE_DELETED,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record a shared message deletion for sender and recipients
+     */
+    public void recordMessageDeleted(Message message, Collection<String> recipientIds) {
+        Map<String, String> data = new HashMap<>();
+        putIfNotNull(data, "deletedAt", message.getDeletedAt());
+
+        Set<String> parties = new LinkedHashSet<>();
+        parties.add(message.getSenderId());
+        parties.addAll(recipientIds);
+        record(parties, SyncEventType.MESSAGE_DELETED,
+                message.getConversationId().getValue(), message.getId().getValue(), data);
+    }
+
+    /**
+     * Record that users joined a conversation (creation or being added)
+     */
+    public void recordConversationJoined(Conversation conversation, Collection<String> userIds) {
+        Map<String, String> data = new HashMap<>();
+        data.put("type", conversation.getType().name());
+        putIfNotNull(data, "name", conversation.getName());
+
+        record(userIds, SyncEventType.CONVERSATION_JOINED, conversation.getId().getValue(), null, data);
+    }
+
+    /**
+     * Record a membership change for the remaining members of a conversation
+     */
+    public void recordConversationUpdated(Conversation conversation, String change, String affectedUserId) {
+        Map<String, String> data = Map.of("change", change, "userId", affectedUserId);
+        Set<String> members = conversation.getParticipants().stream()
+                .map(Participant::getUserId)
+                .filter(id -> !id.equals(affectedUserId))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        record(members, SyncEventType.CONVERSATION_UPDATED, conversation.getId().getValue(), null, data);
+    }
+
+    /**
+     * Record that a user left (or was removed from) a conversation
+     */
+    public void recordConversationLeft(String conversationId, String userId) {
+        record(List.of(userId), SyncEventType.CONVERSATION_LEFT, conversationId, null, null);
+    }
+
+    /**
+     * Record that a user read a conversation (for the user's other devices)
+     */
+    public void recordConversationRead(String conversationId, String userId) {
+        record(List.of(userId), SyncEventType.CONVERSATION_READ, conversationId, null, null);
+    }
+
+    // ---------------------------------------------------------------
+    // Reading
+    // ---------------------------------------------------------------
+
+    /**
+     * Get the changes of a user's sync log after {@code since}
+     *
+     * @param userId User ID
+     * @param since  Last sequence number the client has applied (0 for none)
+     * @param limit  Max number of log entries to scan
+     * @return compacted delta
+     */
+    public SyncDeltaDto getChangesSince(String userId, long since, int limit) {
+        int effectiveLimit = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<SyncEvent> events = syncLogRepository.findAfter(userId, since, effectiveLimit);
+
+        // The log no longer reaches back to `since` (entries expired): client must resync fully
+        boolean resetRequired = events.isEmpty()
+                ? since < syncLogRepository.findLatestSeq(userId) && syncLogRepository.findOldestSeq(userId) == 0L
+                : events.get(0).getSeq() > since + 1 && syncLogRepository.findOldestSeq(userId) > since + 1;
+
+        long nextSeq;
+        boolean hasMore;
+        if (resetRequired) {
+            nextSeq = syncLogRepository.findLatestSeq(userId);
+            hasMore = false;
+            events = List.of();
+        } else {
+            List<SyncEvent> committed = contiguous(userId, since, events, Instant.now());
+            hasMore = committed.size() == effectiveLimit;
+            events = committed;
+            nextSeq = events.isEmpty() ? since : events.get(events.size() - 1).getSeq();
+        }
+
+        log.debug("Sync delta for user {}: since={} entries={} next={} reset={}",
+                userId, since, events.size(), nextSeq, resetRequired);
+
+        return SyncDeltaDto.builder()
+                .userId(userId)
+                .since(since)
+                .nextSeq(nextSeq)
+                .hasMore(hasMore)
+                .resetRequired(resetRequired)
+                .events(compact(events))
+                .build();
+    }
+
+    /**
+     * Get the changes a device has not acknowledged yet
+     *
+     * @param userId   User ID
+     * @param deviceId Device ID
+     * @param limit    Max number of log entries to scan
+     * @return compacted delta after the device's cursor
+     */
+    public SyncDeltaDto getChangesForDevice(String userId, String deviceId, int limit) {
+        return getChangesSince(userId, deviceCursorStore.get(userId, deviceId), limit);
+    }
+
+    /**
+     * Record that a device applied everything up to {@code seq}
+     *
+     * @return the device's cursor afterwards (never moves back)
+     */
+    public long acknowledge(String userId, String deviceId, long seq) {
+        long latest = syncLogRepository.findLatestSeq(userId);
+        if (seq > latest) {
+            throw new IllegalArgumentException("Cannot acknowledge seq " + seq + " beyond latest " + latest);
+        }
+        return deviceCursorStore.advance(userId, deviceId, seq);
+    }
+
+    /**
+     * Cursor of a device (0 if it never acknowledged anything)
+     */
+    public long getDeviceCursor(String userId, String deviceId) {
+        return deviceCursorStore.get(userId, deviceId);
+    }
+
+    /**
+     * Cursors of all devices of a user
+     */
+    public Map<String, Long> getDeviceCursors(String userId) {
+        return deviceCursorStore.getAll(userId);
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    private void record(Collection<String> userIds, SyncEventType type,
+                        String conversationId, String messageId, Map<String, String> data) {
+        try {
+            List<SyncEvent> events = userIds.stream()
+                    .distinct()
+                    .map(userId -> SyncEvent.create(userId, type, conversationId, messageId, data))
+                    .collect(Collectors.toList());
+            syncLogRepository.appendAll(events);
+        } catch (Exception e) {
+            log.error("Failed to record {} sync event for conversation {}", type, conversationId, e);
+        }
+    }
+
+    /**
+     * Leading events without an in-flight gap: stops before the first
+     * missing sequence number whose successor is younger than
+     * {@link #GAP_GRACE}, so a cursor never moves past an entry that is
+     * still being inserted
+     */
+    static List<SyncEvent> contiguous(String userId, long since, List<SyncEvent> events, Instant now) {
+        Instant graceStart = now.minus(GAP_GRACE);
+        long expected = since + 1;
+        for (int i = 0; i < events.size(); i++) {
+            SyncEvent event = events.get(i);
+            if (event.getSeq() != expected) {
+                if (event.getCreatedAt().isAfter(graceStart)) {
+                    return events.subList(0, i);
+                }
+                log.warn("Skipping sync log hole of user {}: seq {}..{} was never written",
+                        userId, expected, event.getSeq() - 1);
+            }
+            expected = event.getSeq() + 1;
+        }
+        return events;
+    }
+
+    /**
+     * Drop events superseded later in the same delta
+     */
+    private List<SyncEventDto> compact(List<SyncEvent> events) {
+        Set<String> seenTargets = new HashSet<>();
+        Set<String> deletedMessages = new HashSet<>();
+        List<SyncEventDto> compacted = new ArrayList<>(events.size());
+
+        // Walk newest-first so the latest event per target wins
+        for (int i = events.size() - 1; i >= 0; i--) {
+            SyncEvent event = events.get(i);
+
+            if (event.getMessageId() != null && deletedMessages.contains(event.getMessageId())) {
+                continue;
+            }
+            if (event.getType() == SyncEventType.MESSAGE_DELETED) {
+                deletedMessages.add(event.getMessageId());
+            } else if (event.getType().isCollapsible() && !seenTargets.add(event.targetKey())) {
+                continue;
+            }
+            compacted.add(toDto(event));
+        }
+
+        Collections.reverse(compacted);
+        return compacted;
+    }
+
+    private Set<String> messageParties(Message message) {
+        Set<String> parties = new LinkedHashSet<>();
+        parties.add(message.getSenderId());
+        if (message.getReceiverId() != null) {
+            parties.add(message.getReceiverId());
+        }
+        return parties;
+    }
+
+    private void putIfNotNull(Map<String, String> data, String key, Object value) {
+        if (value != null) {
+            data.put(key, value.toString());
+        }
+    }
+
+    private SyncEventDto toDto(SyncEvent event) {
+        return SyncEventDto.builder()
+                .seq(event.getSeq())
+                .type(event.getType().name())
+                .conversationId(event.getConversationId())
+                .messageId(event.getMessageId())
+                .data(event.getData())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
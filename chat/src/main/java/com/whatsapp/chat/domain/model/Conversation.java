@@ -8,9 +8,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -29,6 +31,9 @@ import java.util.stream.Collectors;
  * - lastMessageId / lastMessageTimestamp are updated on every new message
  * - Per-user unread counts are tracked in a map
  *
+ * Membership is indexed by userId (insertion-ordered hash map), so
+ * participant/admin checks are O(1) regardless of group size.
+ *
  * @author WhatsApp Clone Team
  */
 @Getter
@@ -41,7 +46,7 @@ public class Conversation {
     private String name;
     private String description;
     private String avatarUrl;
-    private List<Participant> participants;
+    private Map<String, Participant> participants; // userId → participant (join order)
     private String lastMessageId;
     private Instant lastMessageTimestamp;
     private Map<String, Integer> unreadCounts; // userId → unread count
@@ -59,14 +64,14 @@ public class Conversation {
             String name,
             String description,
             String avatarUrl,
-            List<Participant> participants,
+            Collection<Participant> participants,
             String lastMessageId,
             Instant lastMessageTimestamp,
             Map<String, Integer> unreadCounts,
             boolean active,
             Instant createdAt,
             Instant updatedAt) {
-        return new Conversation(id, type, name, description, avatarUrl, participants,
+        return new Conversation(id, type, name, description, avatarUrl, indexByUserId(participants),
                 lastMessageId, lastMessageTimestamp, unreadCounts, active, createdAt, updatedAt);
     }
 
@@ -87,9 +92,9 @@ public class Conversation {
             throw new IllegalArgumentException("Cannot create a conversation with yourself");
         }
 
-        List<Participant> participants = new ArrayList<>();
-        participants.add(Participant.create(user1Id, user1Name));
-        participants.add(Participant.create(user2Id, user2Name));
+        Map<String, Participant> participants = indexByUserId(List.of(
+                Participant.create(user1Id, user1Name),
+                Participant.create(user2Id, user2Name)));
 
         Instant now = Instant.now();
         Map<String, Integer> unread = new HashMap<>();
@@ -130,14 +135,14 @@ public class Conversation {
         Objects.requireNonNull(name, "Group name cannot be null");
         validateUserId(creatorId);
 
-        List<Participant> allParticipants = new ArrayList<>();
-        allParticipants.add(Participant.createAdmin(creatorId, creatorName));
+        Map<String, Participant> allParticipants = new LinkedHashMap<>();
+        allParticipants.put(creatorId, Participant.createAdmin(creatorId, creatorName));
         if (additionalParticipants != null) {
-            allParticipants.addAll(additionalParticipants);
+            additionalParticipants.forEach(p -> allParticipants.putIfAbsent(p.getUserId(), p));
         }
 
-        Map<String, Integer> unread = new HashMap<>();
-        allParticipants.forEach(p -> unread.put(p.getUserId(), 0));
+        Map<String, Integer> unread = new HashMap<>(allParticipants.size() * 2);
+        allParticipants.keySet().forEach(userId -> unread.put(userId, 0));
 
         Instant now = Instant.now();
         return new Conversation(
@@ -203,19 +208,33 @@ public class Conversation {
         return unreadCounts.getOrDefault(userId, 0);
     }
 
+    /**
+     * Current participants in join order (read-only view).
+     */
+    public Collection<Participant> getParticipants() {
+        return Collections.unmodifiableCollection(participants.values());
+    }
+
+    /**
+     * Number of current participants.
+     */
+    public int getParticipantCount() {
+        return participants.size();
+    }
+
     /**
      * Check if a user is a participant.
      */
     public boolean isParticipant(String userId) {
-        return participants.stream().anyMatch(p -> p.getUserId().equals(userId));
+        return participants.containsKey(userId);
     }
 
     /**
      * Check if a user is an admin.
      */
     public boolean isAdmin(String userId) {
-        return participants.stream()
-                .anyMatch(p -> p.getUserId().equals(userId) && p.isAdmin());
+        Participant participant = participants.get(userId);
+        return participant != null && participant.isAdmin();
     }
 
     /**
@@ -228,7 +247,7 @@ public class Conversation {
         if (isParticipant(participant.getUserId())) {
             throw new IllegalArgumentException("User is already a participant: " + participant.getUserId());
         }
-        participants.add(participant);
+        participants.put(participant.getUserId(), participant);
         unreadCounts.put(participant.getUserId(), 0);
         this.updatedAt = Instant.now();
     }
@@ -240,7 +259,7 @@ public class Conversation {
         if (type != ConversationType.GROUP) {
             throw new IllegalStateException("Cannot remove participants from a ONE_TO_ONE conversation");
         }
-        participants.removeIf(p -> p.getUserId().equals(userId));
+        participants.remove(userId);
         unreadCounts.remove(userId);
         this.updatedAt = Instant.now();
     }
@@ -252,8 +271,7 @@ public class Conversation {
         if (type != ConversationType.ONE_TO_ONE) {
             throw new IllegalStateException("Not a ONE_TO_ONE conversation");
         }
-        return participants.stream()
-                .map(Participant::getUserId)
+        return participants.keySet().stream()
                 .filter(id -> !id.equals(userId))
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("User is not a participant: " + userId));
@@ -274,8 +292,7 @@ public class Conversation {
      */
     public boolean matchesParticipants(String user1Id, String user2Id) {
         if (type != ConversationType.ONE_TO_ONE) return false;
-        List<String> mine = participants.stream()
-                .map(Participant::getUserId)
+        List<String> mine = participants.keySet().stream()
                 .sorted()
                 .collect(Collectors.toList());
         List<String> query = Arrays.asList(user1Id, user2Id);
@@ -283,6 +300,16 @@ public class Conversation {
         return mine.equals(query);
     }
 
+    // ---------------------------------------------------------------
+    // Membership index helpers
+    // ---------------------------------------------------------------
+
+    private static Map<String, Participant> indexByUserId(Collection<Participant> participants) {
+        Map<String, Participant> index = new LinkedHashMap<>(Math.max(16, participants.size() * 4 / 3 + 1));
+        participants.forEach(p -> index.put(p.getUserId(), p));
+        return index;
+    }
+
     // ---------------------------------------------------------------
     // Validation helpers
     // ---------------------------------------------------------------
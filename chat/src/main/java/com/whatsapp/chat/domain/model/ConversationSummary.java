@@ -0,0 +1,56 @@
+package com.whatsapp.chat.domain.model;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Conversation Summary (read model)
+ *
+ * Flat, read-only row of a user's conversation list: the conversation
+ * header plus the requesting user's own unread count and, for
+ * ONE_TO_ONE conversations, the other participant.
+ *
+ * Built directly by the list query (no aggregate, no participant
+ * collection), so listing N conversations costs one SQL statement.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+public class ConversationSummary {
+
+    private final String conversationId;
+    private final ConversationType type;
+    private final String name;
+    private final String avatarUrl;
+    private final String lastMessageId;
+    private final Instant lastMessageTimestamp;
+    /** Sort key: last message time, or creation time for empty conversations */
+    private final Instant activityAt;
+    private final int unreadCount;
+    private final String peerUserId;
+    private final String peerDisplayName;
+
+    public ConversationSummary(
+            String conversationId,
+            String type,
+            String name,
+            String avatarUrl,
+            String lastMessageId,
+            Instant lastMessageTimestamp,
+            Instant activityAt,
+            int unreadCount,
+            String peerUserId,
+            String peerDisplayName) {
+        this.conversationId = conversationId;
+        this.type = ConversationType.valueOf(type);
+        this.name = name;
+        this.avatarUrl = avatarUrl;
+        this.lastMessageId = lastMessageId;
+        this.lastMessageTimestamp = lastMessageTimestamp;
+        this.activityAt = activityAt;
+        this.unreadCount = unreadCount;
+        this.peerUserId = peerUserId;
+        this.peerDisplayName = peerDisplayName;
+    }
+}
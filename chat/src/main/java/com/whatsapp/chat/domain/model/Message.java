@@ -9,7 +9,11 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Message Domain Model (Aggregate Root)
@@ -18,11 +22,18 @@ import java.util.Objects;
  * Contains business logic for message lifecycle.
  *
  * Business Rules:
- * - Message must have sender and receiver
+ * - Message must have sender and receiver, except shared (group/broadcast)
+ *   messages: stored once for all recipients, whose individual delivery
+ *   and read state is kept in receipts; their status here is the aggregate
+ *   (DELIVERED/READ once every recipient got there)
  * - Message content cannot be empty
  * - Message can be delivered, read, or deleted
  * - Sender cannot delete message after 1 hour
  * - Message status transitions: SENT → DELIVERED → READ
+ * - Sequence number is dense per conversation and assigned before first save
+ *
+ * State transitions record which fields they changed (and their persisted
+ * values), so repositories can write only those fields.
  *
  * @author WhatsApp Clone Team
  */
@@ -44,6 +55,19 @@ public class Message {
     private Instant deliveredAt;
     private Instant readAt;
     private Instant deletedAt;
+    private Long seq;
+    private int recipientCount; // shared messages only, 0 for direct messages
+
+    /**
+     * Fields that state transitions can change after the message was persisted
+     */
+    public enum Field {
+        STATUS, DELIVERED_AT, READ_AT, DELETED, DELETED_AT
+    }
+
+    /** Persisted value of every field changed since load or last write */
+    @Getter(AccessLevel.NONE)
+    private final Map<Field, Object> originalValues = new EnumMap<>(Field.class);
 
     /**
      * Factory method to create a new Message (without reply)
@@ -85,7 +109,51 @@ public class Message {
                 now,
                 null,
                 null,
-                null
+                null,
+                null,
+                0
+        );
+    }
+
+    /**
+     * Factory method to create a shared message: one copy for all recipients
+     * of a group or broadcast conversation
+     */
+    public static Message createShared(
+            ConversationId conversationId,
+            String senderId,
+            int recipientCount,
+            MessageContent content,
+            String replyToMessageId) {
+
+        Objects.requireNonNull(senderId, "Sender ID cannot be null");
+        if (senderId.isBlank()) {
+            throw new IllegalArgumentException("Sender ID cannot be empty");
+        }
+        if (recipientCount <= 0) {
+            throw new IllegalArgumentException("Shared message needs at least one recipient");
+        }
+        Objects.requireNonNull(conversationId, "Conversation ID cannot be null");
+        Objects.requireNonNull(content, "Content cannot be null");
+
+        Instant now = Instant.now();
+
+        return new Message(
+                MessageId.generate(),
+                conversationId,
+                senderId,
+                null,
+                content,
+                MessageStatus.SENT,
+                false,
+                replyToMessageId,
+                now,
+                now,
+                null,
+                null,
+                null,
+                null,
+                recipientCount
         );
     }
 
@@ -106,9 +174,31 @@ public class Message {
             Instant createdAt,
             Instant deliveredAt,
             Instant readAt,
-            Instant deletedAt) {
-        return new Message(id, conversationId, senderId, receiverId, content,
-                status, deleted, replyToMessageId, sentAt, createdAt, deliveredAt, readAt, deletedAt);
+            Instant deletedAt,
+            Long seq,
+            int recipientCount) {
+        return new Message(id, conversationId, senderId, receiverId, content, status, deleted,
+                replyToMessageId, sentAt, createdAt, deliveredAt, readAt, deletedAt, seq, recipientCount);
+    }
+
+    /**
+     * Assign the per-conversation sequence number
+     *
+     * May be re-assigned before the message is persisted (e.g. when the
+     * allocated number collided with an existing one).
+     */
+    public void assignSequence(long seq) {
+        if (seq <= 0) {
+            throw new IllegalArgumentException("Sequence number must be positive");
+        }
+        this.seq = seq;
+    }
+
+    /**
+     * Check if message has a sequence number (messages sent before sequencing was introduced do not)
+     */
+    public boolean hasSequence() {
+        return this.seq != null;
     }
 
     /**
@@ -116,6 +206,8 @@ public class Message {
      */
     public void markAsDelivered() {
         if (this.status == MessageStatus.SENT) {
+            track(Field.STATUS, this.status);
+            track(Field.DELIVERED_AT, this.deliveredAt);
             this.status = MessageStatus.DELIVERED;
             this.deliveredAt = Instant.now();
         }
@@ -126,11 +218,14 @@ public class Message {
      */
     public void markAsRead() {
         if (this.status == MessageStatus.DELIVERED || this.status == MessageStatus.SENT) {
+            track(Field.STATUS, this.status);
+            track(Field.READ_AT, this.readAt);
             this.status = MessageStatus.READ;
             this.readAt = Instant.now();
 
             // Auto-mark as delivered if not already
             if (this.deliveredAt == null) {
+                track(Field.DELIVERED_AT, null);
                 this.deliveredAt = this.readAt;
             }
         }
@@ -157,10 +252,50 @@ public class Message {
             throw new IllegalStateException("Message is already deleted");
         }
 
+        track(Field.DELETED, false);
+        track(Field.DELETED_AT, this.deletedAt);
         this.deleted = true;
         this.deletedAt = Instant.now();
     }
 
+    /**
+     * Fields changed since the message was loaded or last persisted
+     */
+    public Set<Field> getDirtyFields() {
+        return Collections.unmodifiableSet(originalValues.keySet());
+    }
+
+    /**
+     * Check if any field changed since the message was loaded or last persisted
+     */
+    public boolean isDirty() {
+        return !originalValues.isEmpty();
+    }
+
+    /**
+     * Status as last persisted (the expected prior status of a partial update)
+     */
+    public MessageStatus getPersistedStatus() {
+        return originalValues.containsKey(Field.STATUS)
+                ? (MessageStatus) originalValues.get(Field.STATUS)
+                : this.status;
+    }
+
+    /**
+     * Clear change tracking after the changes were written.
+     * For use by repository implementations only.
+     */
+    public void markPersisted() {
+        originalValues.clear();
+    }
+
+    /**
+     * Check if this is a shared (group/broadcast) message
+     */
+    public boolean isShared() {
+        return this.receiverId == null;
+    }
+
     /**
      * Check if message is delivered
      */
@@ -183,6 +318,15 @@ public class Message {
         return !this.deleted && this.createdAt.isAfter(oneHourAgo);
     }
 
+    /**
+     * Remember the persisted value of a field on its first change
+     */
+    private void track(Field field, Object persistedValue) {
+        if (!originalValues.containsKey(field)) {
+            originalValues.put(field, persistedValue);
+        }
+    }
+
     /**
      * Validate participants
      */
@@ -0,0 +1,76 @@
+package com.whatsapp.chat.domain.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * SyncEvent Domain Model
+ *
+ * One entry of a user's append-only sync log. Each user has an independent,
+ * dense sequence; a client that has applied everything up to seq N can
+ * reconnect and ask for the changes after N only.
+ *
+ * Entries are deliberately compact: ids plus the few fields a client needs
+ * to apply the change without an extra round trip.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class SyncEvent {
+
+    private String userId;
+    private long seq;               // 0 until assigned by the repository
+    private SyncEventType type;
+    private String conversationId;
+    private String messageId;       // null for conversation-level events
+    private Map<String, String> data;
+    private Instant createdAt;
+
+    /**
+     * Create a new, not yet sequenced event.
+     */
+    public static SyncEvent create(
+            String userId,
+            SyncEventType type,
+            String conversationId,
+            String messageId,
+            Map<String, String> data) {
+        Objects.requireNonNull(userId, "User ID cannot be null");
+        Objects.requireNonNull(type, "Event type cannot be null");
+        return new SyncEvent(userId, 0L, type, conversationId, messageId,
+                data != null ? data : Map.of(), Instant.now());
+    }
+
+    /**
+     * Reconstitute a sequenced event from persistent storage.
+     * For use by repository implementations only.
+     */
+    public static SyncEvent reconstitute(
+            String userId,
+            long seq,
+            SyncEventType type,
+            String conversationId,
+            String messageId,
+            Map<String, String> data,
+            Instant createdAt) {
+        return new SyncEvent(userId, seq, type, conversationId, messageId,
+                data != null ? data : Map.of(), createdAt);
+    }
+
+    /**
+     * Key identifying what this event changes; collapsible events with the
+     * same key supersede each other. Receipts of shared messages are kept
+     * per recipient.
+     */
+    public String targetKey() {
+        String key = type.name() + ":" + (messageId != null ? messageId : conversationId);
+        String recipientId = data.get("recipientId");
+        return recipientId != null ? key + ":" + recipientId : key;
+    }
+}
@@ -0,0 +1,70 @@
+package com.whatsapp.chat.domain.model;
+
+/**
+ * SyncEventType Enum
+ *
+ * Kinds of changes recorded in a user's sync log.
+ *
+ * @author WhatsApp Clone Team
+ */
+public enum SyncEventType {
+
+    /**
+     * New message in one of the user's conversations
+     */
+    MESSAGE_NEW("New message"),
+
+    /**
+     * Message delivery receipt
+     */
+    MESSAGE_DELIVERED("Message delivered"),
+
+    /**
+     * Message read receipt
+     */
+    MESSAGE_READ("Message read"),
+
+    /**
+     * Message deleted by its sender
+     */
+    MESSAGE_DELETED("Message deleted"),
+
+    /**
+     * Conversation created, or user added to it
+     */
+    CONVERSATION_JOINED("Conversation joined"),
+
+    /**
+     * Conversation membership changed (other participant added/removed)
+     */
+    CONVERSATION_UPDATED("Conversation updated"),
+
+    /**
+     * User removed from (or left) a conversation
+     */
+    CONVERSATION_LEFT("Conversation left"),
+
+    /**
+     * User marked a conversation as read (unread counter reset)
+     */
+    CONVERSATION_READ("Conversation read");
+
+    private final String displayName;
+
+    SyncEventType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Whether a later event of this type supersedes earlier ones for the same
+     * target (so a delta only needs to carry the latest one).
+     */
+    public boolean isCollapsible() {
+        return this == MESSAGE_DELIVERED || this == MESSAGE_READ
+                || this == CONVERSATION_UPDATED || this == CONVERSATION_READ;
+    }
+}
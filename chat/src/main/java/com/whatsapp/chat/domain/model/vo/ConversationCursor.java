@@ -0,0 +1,83 @@
+package com.whatsapp.chat.domain.model.vo;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Conversation Cursor Value Object
+ *
+ * Keyset position in a user's conversation list, ordered by
+ * (activityAt DESC, conversationId DESC). The next page starts strictly
+ * after this position, so pages stay stable while new messages arrive.
+ *
+ * Encoded for clients as "{ISO instant}_{conversationId}"; the instant keeps
+ * full precision so no row is skipped between two pages.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ConversationCursor {
+
+    private Instant activityAt;
+    private String conversationId;
+
+    /**
+     * Position of the given row
+     */
+    public static ConversationCursor of(Instant activityAt, String conversationId) {
+        Objects.requireNonNull(activityAt, "Cursor activity time cannot be null");
+        if (conversationId == null || conversationId.isBlank()) {
+            throw new IllegalArgumentException("Cursor conversation ID cannot be empty");
+        }
+        return new ConversationCursor(activityAt, conversationId);
+    }
+
+    /**
+     * Parse a cursor produced by {@link #encode()}
+     */
+    public static ConversationCursor parse(String value) {
+        Objects.requireNonNull(value, "Cursor cannot be null");
+        int separator = value.indexOf('_');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid conversation cursor: " + value);
+        }
+        try {
+            return of(Instant.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid conversation cursor: " + value);
+        }
+    }
+
+    /**
+     * Opaque client representation
+     */
+    public String encode() {
+        return activityAt + "_" + conversationId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversationCursor that = (ConversationCursor) o;
+        return activityAt.equals(that.activityAt) && conversationId.equals(that.conversationId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(activityAt, conversationId);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,50 @@
+package com.whatsapp.chat.domain.model.vo;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Receipt Progress Value Object
+ *
+ * Delivery and read progress of one shared (group/broadcast) message
+ * across its recipients.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReceiptProgress {
+
+    private int recipientCount;
+    private int deliveredCount;
+    private int readCount;
+
+    public static ReceiptProgress of(int recipientCount, int deliveredCount, int readCount) {
+        if (deliveredCount > recipientCount || readCount > deliveredCount) {
+            throw new IllegalArgumentException("Receipt counts out of range");
+        }
+        return new ReceiptProgress(recipientCount, deliveredCount, readCount);
+    }
+
+    /**
+     * Check if every recipient has the message
+     */
+    public boolean allDelivered() {
+        return deliveredCount >= recipientCount;
+    }
+
+    /**
+     * Check if every recipient has read the message
+     */
+    public boolean allRead() {
+        return readCount >= recipientCount;
+    }
+
+    @Override
+    public String toString() {
+        return "delivered " + deliveredCount + "/" + recipientCount + ", read " + readCount + "/" + recipientCount;
+    }
+}
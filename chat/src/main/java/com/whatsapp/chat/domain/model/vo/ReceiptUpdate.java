@@ -0,0 +1,37 @@
+package com.whatsapp.chat.domain.model.vo;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * Receipt Update Value Object
+ *
+ * Outcome of applying a batch of receipts to one shared message: the
+ * recipients whose state actually changed, and the progress afterwards.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReceiptUpdate {
+
+    private Set<String> newlyDelivered;
+    private Set<String> newlyRead;
+    private ReceiptProgress progress;
+
+    public static ReceiptUpdate of(Set<String> newlyDelivered, Set<String> newlyRead, ReceiptProgress progress) {
+        return new ReceiptUpdate(Set.copyOf(newlyDelivered), Set.copyOf(newlyRead), progress);
+    }
+
+    /**
+     * Check if the batch changed anything
+     */
+    public boolean hasChanges() {
+        return !newlyDelivered.isEmpty() || !newlyRead.isEmpty();
+    }
+}
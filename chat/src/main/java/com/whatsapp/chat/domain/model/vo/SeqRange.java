@@ -0,0 +1,82 @@
+package com.whatsapp.chat.domain.model.vo;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+/**
+ * Sequence Range Value Object
+ *
+ * Inclusive range of per-conversation message sequence numbers,
+ * used by clients to request messages they detected as missing.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class SeqRange {
+
+    private long from;
+    private long to;
+
+    /**
+     * Create an inclusive range [from, to]
+     */
+    public static SeqRange of(long from, long to) {
+        if (from <= 0) {
+            throw new IllegalArgumentException("Sequence range must start at 1 or above");
+        }
+        if (to < from) {
+            throw new IllegalArgumentException("Sequence range end cannot be before its start");
+        }
+        return new SeqRange(from, to);
+    }
+
+    /**
+     * Parse "from-to" or a single "seq"
+     */
+    public static SeqRange parse(String value) {
+        Objects.requireNonNull(value, "Sequence range cannot be null");
+        String trimmed = value.trim();
+        int dash = trimmed.indexOf('-', 1);
+        try {
+            if (dash < 0) {
+                long seq = Long.parseLong(trimmed);
+                return of(seq, seq);
+            }
+            return of(Long.parseLong(trimmed.substring(0, dash).trim()),
+                    Long.parseLong(trimmed.substring(dash + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sequence range: " + value);
+        }
+    }
+
+    /**
+     * Number of sequence numbers in the range
+     */
+    public long size() {
+        return to - from + 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SeqRange that = (SeqRange) o;
+        return from == that.from && to == that.to;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return from + "-" + to;
+    }
+}
@@ -1,10 +1,17 @@
 package com.whatsapp.chat.domain.repository;
 
 import com.whatsapp.chat.domain.model.Conversation;
+import com.whatsapp.chat.domain.model.ConversationSummary;
+import com.whatsapp.chat.domain.model.ConversationType;
+import com.whatsapp.chat.domain.model.vo.ConversationCursor;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.model.vo.Participant;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Conversation Repository Interface (Domain Layer)
@@ -38,12 +45,64 @@ public interface ConversationRepository {
     /** Paginated variant of {@link #findByParticipantId}. */
     List<Conversation> findByUserId(String userId, int offset, int limit);
 
+    /**
+     * Page of a user's conversation list as flat read models, most recent
+     * activity first (single query, participants are not loaded).
+     *
+     * @param after keyset position to continue from, or null for the first page
+     */
+    List<ConversationSummary> findSummaries(String userId, ConversationCursor after, int limit);
+
     /** Check whether a ONE_TO_ONE conversation already exists between two users. */
     boolean existsByParticipants(String user1Id, String user2Id);
 
     /** Count conversations for a user. */
     long countByUserId(String userId);
 
+    /** Check whether a conversation exists. */
+    boolean existsById(ConversationId conversationId);
+
+    /** Type of a conversation, without loading it. */
+    Optional<ConversationType> findType(ConversationId conversationId);
+
+    // ---------------------------------------------------------------
+    // Membership-scoped operations (do not load the participant collection)
+    // ---------------------------------------------------------------
+
+    /** Check whether a user is a current participant of a conversation. */
+    boolean isParticipant(ConversationId conversationId, String userId);
+
+    /** Check whether a user is a current admin of a conversation. */
+    boolean isAdmin(ConversationId conversationId, String userId);
+
+    /** Current member ids, sorted (no aggregate load). */
+    List<String> findMemberIds(ConversationId conversationId);
+
+    /** Those of the given users who share a current conversation with the user. */
+    Set<String> findCoMemberIds(String userId, Collection<String> userIds);
+
+    /**
+     * Record a new message: update last-message metadata and increment the
+     * recipient's unread count. May be applied asynchronously (write-combined).
+     */
+    void recordMessage(ConversationId conversationId, String messageId, Instant sentAt, String recipientId);
+
+    /**
+     * Record a new shared (group/broadcast) message: update last-message
+     * metadata and increment the unread count of every member but the
+     * sender. May be applied asynchronously (write-combined).
+     */
+    void recordGroupMessage(ConversationId conversationId, String messageId, Instant sentAt, String senderId);
+
+    /** Reset a participant's unread count to zero. */
+    void resetUnreadCount(ConversationId conversationId, String userId);
+
+    /** Add one member (single row insert, or reactivation of a former member). */
+    void addParticipant(ConversationId conversationId, Participant participant);
+
+    /** Remove one member (marks their row as left). */
+    void removeParticipant(ConversationId conversationId, String userId);
+
     /** Delete a conversation by ID. */
     void delete(ConversationId conversationId);
 }
\ No newline at end of file
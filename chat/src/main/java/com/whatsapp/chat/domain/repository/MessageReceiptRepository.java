@@ -0,0 +1,58 @@
+package com.whatsapp.chat.domain.repository;
+
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.ReceiptUpdate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Message Receipt Repository Interface (Domain Layer)
+ *
+ * Per-recipient delivery and read state of shared (group/broadcast)
+ * messages, which are stored once for all their recipients.
+ * Implementation is in infrastructure layer (MongoDB).
+ *
+ * @author WhatsApp Clone Team
+ */
+public interface MessageReceiptRepository {
+
+    /**
+     * Start tracking a shared message for a fixed set of recipients
+     * (the members at send time, sender excluded)
+     */
+    void create(Message message, List<String> recipientIds);
+
+    /**
+     * Apply a batch of receipts (idempotent). Reading implies delivered.
+     * Users that are not recipients of a message are ignored.
+     *
+     * @param delivered recipients that received each message
+     * @param read      recipients that read each message
+     * @return per message whose receipts were applied: who changed state
+     *         (exactly the recipients this call flipped), and the progress afterwards.
+     *         Messages whose write failed are absent and can be applied again.
+     */
+    Map<MessageId, ReceiptUpdate> markAll(Map<MessageId, Set<String>> delivered, Map<MessageId, Set<String>> read);
+
+    /**
+     * Progress of many messages in one query; messages without receipts are absent
+     */
+    Map<MessageId, ReceiptProgress> findProgress(Collection<MessageId> messageIds);
+
+    /**
+     * Recipients of a message, in roster order
+     */
+    Optional<List<String>> findRecipients(MessageId messageId);
+
+    /**
+     * Status of every recipient of a message
+     */
+    Map<String, MessageStatus> findRecipientStatuses(MessageId messageId);
+}
@@ -3,7 +3,9 @@ package com.whatsapp.chat.domain.repository;
 import com.whatsapp.chat.domain.model.Message;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
 import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.SeqRange;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,11 +24,32 @@ public interface MessageRepository {
      */
     Message save(Message message);
 
+    /**
+     * Persist only the fields changed by state transitions (see {@link Message#getDirtyFields()}).
+     * Guarded by the persisted status, so a repeated or concurrent transition is applied once.
+     *
+     * @return true if the stored message was updated
+     */
+    boolean update(Message message);
+
+    /**
+     * Batch form of {@link #update(Message)}: all transitions in one bulk write.
+     * Only messages whose update was applied are marked persisted; the others stay dirty.
+     *
+     * @return number of stored messages updated
+     */
+    int updateAll(List<Message> messages);
+
     /**
      * Find message by ID
      */
     Optional<Message> findById(MessageId messageId);
 
+    /**
+     * Find messages by ID in one query (missing IDs are skipped)
+     */
+    List<Message> findAllById(Collection<MessageId> messageIds);
+
     /**
      * Find messages by conversation ID
      */
@@ -37,6 +60,23 @@ public interface MessageRepository {
      */
     List<Message> findByConversationId(ConversationId conversationId, int offset, int limit);
 
+    /**
+     * Find messages older than the given message (keyset pagination, newest first).
+     * A null cursor returns the newest page.
+     */
+    List<Message> findByConversationIdBefore(ConversationId conversationId, MessageId before, int limit);
+
+    /**
+     * Find messages whose sequence numbers fall in any of the given ranges,
+     * ordered by sequence ascending (gap-fill)
+     */
+    List<Message> findBySeqRanges(ConversationId conversationId, List<SeqRange> ranges);
+
+    /**
+     * Highest sequence number persisted in a conversation (0 if none)
+     */
+    long findMaxSeq(ConversationId conversationId);
+
     /**
      * Find undelivered messages for receiver
      */
@@ -48,12 +88,12 @@ public interface MessageRepository {
     List<Message> findBySenderAndReceiver(String senderId, String receiverId, int limit);
 
     /**
-     * Count messages in conversation
+     * Count non-deleted messages in conversation (maintained counter, O(1))
      */
     long countByConversationId(ConversationId conversationId);
 
     /**
-     * Count undelivered messages for user
+     * Count non-deleted undelivered messages for user (maintained counter, O(1))
      */
     long countUndeliveredMessages(String receiverId);
 
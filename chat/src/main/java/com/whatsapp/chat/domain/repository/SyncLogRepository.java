@@ -0,0 +1,39 @@
+package com.whatsapp.chat.domain.repository;
+
+import com.whatsapp.chat.domain.model.SyncEvent;
+
+import java.util.List;
+
+/**
+ * Sync Log Repository Interface (Domain Layer)
+ *
+ * Append-only, per-user change log used for incremental client sync.
+ * Implementation is in infrastructure layer (MongoDB).
+ *
+ * @author WhatsApp Clone Team
+ */
+public interface SyncLogRepository {
+
+    /**
+     * Append events, assigning each one the next sequence number of its user.
+     * Events of the same user keep their relative order.
+     *
+     * @return the appended events with sequence numbers
+     */
+    List<SyncEvent> appendAll(List<SyncEvent> events);
+
+    /**
+     * Find events of a user with seq greater than {@code afterSeq}, ascending
+     */
+    List<SyncEvent> findAfter(String userId, long afterSeq, int limit);
+
+    /**
+     * Lowest sequence number still retained for a user (0 if none)
+     */
+    long findOldestSeq(String userId);
+
+    /**
+     * Latest sequence number assigned to a user (0 if none)
+     */
+    long findLatestSeq(String userId);
+}
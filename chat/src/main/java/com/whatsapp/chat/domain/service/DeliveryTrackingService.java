@@ -9,7 +9,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Delivery Tracking Service (Domain Service)
@@ -22,7 +24,7 @@ import java.util.List;
  *   SENT  →  DELIVERED  →  READ
  *
  * Responsibilities:
- * - Bulk-mark messages as delivered when a user comes online
+ * - Mark messages as delivered once they were pushed to a user who came online
  * - Validate status transitions (guard against illegal state changes)
  * - Provide delivery stats for a conversation
  *
@@ -37,26 +39,38 @@ public class DeliveryTrackingService {
     private final MessageRepository messageRepository;
 
     /**
-     * Mark all undelivered messages for a recipient as DELIVERED.
+     * Hand every undelivered message of a recipient to {@code push} (oldest
+     * first) and mark the ones it took as DELIVERED.
      * Called when the user's WebSocket session is established.
      *
+     * Stops at the first message {@code push} rejects, so a recipient whose
+     * session went away keeps the rest SENT, in order, for the next connect.
+     *
      * @param receiverId ID of the user who just came online
+     * @param push       pushes one message to the user, {@code false} if it could not
      * @return number of messages marked as delivered
      */
-    public int deliverPendingMessages(String receiverId) {
+    public int deliverPendingMessages(String receiverId, Predicate<Message> push) {
         log.info("Delivering pending messages for user: {}", receiverId);
 
         List<Message> undelivered = messageRepository.findUndeliveredMessages(receiverId);
 
-        int count = 0;
+        List<Message> pushed = new ArrayList<>(undelivered.size());
         for (Message message : undelivered) {
+            if (!push.test(message)) {
+                log.warn("Push to user {} failed, {} pending messages left for the next connect",
+                        receiverId, undelivered.size() - pushed.size());
+                break;
+            }
             if (message.getStatus() == MessageStatus.SENT) {
                 message.markAsDelivered();
-                messageRepository.save(message);
-                count++;
             }
+            pushed.add(message);
         }
 
+        // One bulk write of status/deliveredAt instead of a full replace per message
+        int count = messageRepository.updateAll(pushed);
+
         log.info("Delivered {} pending messages to user: {}", count, receiverId);
         return count;
     }
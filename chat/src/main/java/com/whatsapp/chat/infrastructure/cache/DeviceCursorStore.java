@@ -0,0 +1,87 @@
+package com.whatsapp.chat.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Device Cursor Store
+ *
+ * Per-device delivery cursors into the user's sync log: the highest sync
+ * sequence number each device has acknowledged. A reconnecting device
+ * resumes from its own cursor, so it neither misses what another device
+ * consumed nor re-downloads what it already has.
+ *
+ * Data structure:
+ *   Key   : "sync:cursor:{userId}"  (Hash)
+ *   Field : deviceId
+ *   Value : last acknowledged sync seq
+ *   TTL   : 30 days (sync log retention), refreshed on every advance
+ *
+ * Cursors only move forward (late or replayed acks are ignored).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeviceCursorStore {
+
+    private static final String KEY_PREFIX = "sync:cursor:";
+    private static final Duration CURSOR_TTL = Duration.ofDays(30);
+
+    /** HSET only if the new value is greater; returns the resulting cursor */
+    private static final RedisScript<Long> ADVANCE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], ARGV[1]) or '0') " +
+            "local next = tonumber(ARGV[2]) " +
+            "if next > current then redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) current = next end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "return current",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    /**
+     * Move a device's cursor forward
+     *
+     * @return the device's cursor after the call
+     */
+    public long advance(String userId, String deviceId, long seq) {
+        Long cursor = redisTemplate.execute(ADVANCE_SCRIPT, List.of(KEY_PREFIX + userId),
+                deviceId, String.valueOf(seq), String.valueOf(CURSOR_TTL.toSeconds()));
+        return cursor != null ? cursor : 0L;
+    }
+
+    /**
+     * Last sync seq acknowledged by a device (0 if the device is unknown)
+     */
+    public long get(String userId, String deviceId) {
+        Object value = redisTemplate.opsForHash().get(KEY_PREFIX + userId, deviceId);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    /**
+     * Cursors of all known devices of a user
+     */
+    public Map<String, Long> getAll(String userId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(KEY_PREFIX + userId);
+        Map<String, Long> cursors = new HashMap<>(entries.size() * 2);
+        entries.forEach((deviceId, seq) -> cursors.put(deviceId.toString(), Long.parseLong(seq.toString())));
+        return cursors;
+    }
+
+    /**
+     * Forget a device (logged out / unlinked)
+     */
+    public void remove(String userId, String deviceId) {
+        redisTemplate.opsForHash().delete(KEY_PREFIX + userId, deviceId);
+    }
+}
@@ -11,7 +11,8 @@ import java.util.Set;
 /**
  * Inbox Cache Service
  *
- * Manages caching of conversation data and online users using Redis.
+ * Manages caching of conversation data using Redis.
+ * Presence lives in the shared heartbeat store (PresenceRegistry).
  *
  * @author WhatsApp Clone Team
  */
@@ -24,7 +25,6 @@ public class InboxCacheService {
 
     private static final String CONVERSATION_KEY_PREFIX = "conversation:";
     private static final String USER_CONVERSATIONS_KEY_PREFIX = "user:conversations:";
-    private static final String ONLINE_USERS_KEY = "online:users";
     private static final Duration CACHE_TTL = Duration.ofMinutes(30);
 
     /**
@@ -92,52 +92,4 @@ public class InboxCacheService {
             return null;
         }
     }
-
-    /**
-     * Add user to online users set
-     */
-    public void addOnlineUser(String userId) {
-        try {
-            redisTemplate.opsForSet().add(ONLINE_USERS_KEY, userId);
-            log.debug("Added online user: {}", userId);
-        } catch (Exception e) {
-            log.error("Failed to add online user: {}", userId, e);
-        }
-    }
-
-    /**
-     * Remove user from online users set
-     */
-    public void removeOnlineUser(String userId) {
-        try {
-            redisTemplate.opsForSet().remove(ONLINE_USERS_KEY, userId);
-            log.debug("Removed online user: {}", userId);
-        } catch (Exception e) {
-            log.error("Failed to remove online user: {}", userId, e);
-        }
-    }
-
-    /**
-     * Check if user is online
-     */
-    public boolean isUserOnline(String userId) {
-        try {
-            return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(ONLINE_USERS_KEY, userId));
-        } catch (Exception e) {
-            log.error("Failed to check online status for user: {}", userId, e);
-            return false;
-        }
-    }
-
-    /**
-     * Get all online users
-     */
-    public Set<Object> getOnlineUsers() {
-        try {
-            return redisTemplate.opsForSet().members(ONLINE_USERS_KEY);
-        } catch (Exception e) {
-            log.error("Failed to get online users", e);
-            return Set.of();
-        }
-    }
 }
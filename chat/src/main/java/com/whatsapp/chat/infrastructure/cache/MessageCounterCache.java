@@ -0,0 +1,188 @@
+package com.whatsapp.chat.infrastructure.cache;
+
+import com.whatsapp.common.counter.MessageCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Message Counter Cache
+ *
+ * Incrementally maintained message counts in Redis, so badge and count
+ * reads are a single GET instead of a MongoDB index range scan.
+ *
+ * Data structure: shared {@link MessageCounters} schema
+ *   Key   : "counter:conversation:{conversationId}"  – non-deleted messages
+ *   Key   : "counter:undelivered:{receiverId}"       – non-deleted SENT messages
+ *   Value : integer (Redis string)
+ *   TTL   : 7 days, refreshed on seed and reconciliation
+ *
+ * Writers (each adjusts by the documents it actually changed):
+ * - chat: send, delivery, read, delete (this class)
+ * - message-processor: status write-behind (SENT → DELIVERED/READ)
+ * - scheduled-jobs: archival and cleanup deletions
+ *
+ * Consistency:
+ * - Counters are seeded lazily from MongoDB on the first read
+ * - Updates only touch existing counters, so a missing counter is never
+ *   mistaken for zero; it is simply seeded again on the next read
+ * - An adjustment lost between a document write and its counter update
+ *   (crash, Redis error) is repaired by {@link MessageCounterReconciler},
+ *   so a served count is off by such losses for at most one
+ *   reconciliation interval (15 minutes by default)
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageCounterCache {
+
+    static final String CONVERSATION_KEY_PREFIX = MessageCounters.CONVERSATION_KEY_PREFIX;
+    static final String UNDELIVERED_KEY_PREFIX = MessageCounters.UNDELIVERED_KEY_PREFIX;
+    static final Duration COUNTER_TTL = MessageCounters.COUNTER_TTL;
+
+    /** INCRBY only if the counter exists, never below zero */
+    private static final RedisScript<Long> ADJUST_SCRIPT =
+            new DefaultRedisScript<>(MessageCounters.ADJUST_LUA, Long.class);
+
+    /** SET only if the counter still holds the value read before recounting */
+    private static final RedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    // ---------------------------------------------------------------
+    // Read operations
+    // ---------------------------------------------------------------
+
+    /**
+     * Number of messages in a conversation
+     *
+     * @param conversationId conversation ID
+     * @param recount        authoritative count, used to seed a missing counter
+     */
+    public long getConversationCount(String conversationId, LongSupplier recount) {
+        return getOrSeed(CONVERSATION_KEY_PREFIX + conversationId, recount);
+    }
+
+    /**
+     * Number of undelivered messages for a receiver (badge)
+     *
+     * @param receiverId receiver's user ID
+     * @param recount    authoritative count, used to seed a missing counter
+     */
+    public long getUndeliveredCount(String receiverId, LongSupplier recount) {
+        return getOrSeed(UNDELIVERED_KEY_PREFIX + receiverId, recount);
+    }
+
+    // ---------------------------------------------------------------
+    // Write operations
+    // ---------------------------------------------------------------
+
+    /**
+     * A message was sent: one more in the conversation and the receiver's inbox
+     */
+    public void onMessageSent(String conversationId, String receiverId) {
+        adjust(CONVERSATION_KEY_PREFIX + conversationId, 1);
+        if (receiverId != null) { // shared messages track delivery in receipts
+            adjust(UNDELIVERED_KEY_PREFIX + receiverId, 1);
+        }
+    }
+
+    /**
+     * Messages left the undelivered state (delivered or read)
+     */
+    public void onMessagesDelivered(String receiverId, long count) {
+        if (count > 0) {
+            adjust(UNDELIVERED_KEY_PREFIX + receiverId, -count);
+        }
+    }
+
+    /**
+     * A message was deleted
+     *
+     * @param wasUndelivered whether it was still counted as undelivered
+     */
+    public void onMessageDeleted(String conversationId, String receiverId, boolean wasUndelivered) {
+        adjust(CONVERSATION_KEY_PREFIX + conversationId, -1);
+        if (wasUndelivered && receiverId != null) {
+            adjust(UNDELIVERED_KEY_PREFIX + receiverId, -1);
+        }
+    }
+
+    /**
+     * Drop a conversation's counter (e.g. after all its messages were removed)
+     */
+    public void evictConversation(String conversationId) {
+        try {
+            redisTemplate.delete(CONVERSATION_KEY_PREFIX + conversationId);
+        } catch (Exception e) {
+            log.error("Failed to evict message counter for conversation {}: {}", conversationId, e.getMessage(), e);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Reconciliation support
+    // ---------------------------------------------------------------
+
+    /**
+     * Raw counter value, or null if the counter does not exist
+     */
+    String peek(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    /**
+     * Replace a counter value unless it changed since {@code expected} was read
+     *
+     * @return true if the counter was repaired
+     */
+    boolean repair(String key, String expected, long actual) {
+        Long result = redisTemplate.execute(COMPARE_AND_SET_SCRIPT, List.of(key),
+                expected, String.valueOf(actual), String.valueOf(COUNTER_TTL.toSeconds()));
+        return result != null && result == 1L;
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    private long getOrSeed(String key, LongSupplier recount) {
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            log.error("Failed to read message counter {}: {}", key, e.getMessage(), e);
+            return recount.getAsLong();
+        }
+
+        long count = recount.getAsLong();
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(count), COUNTER_TTL);
+        } catch (Exception e) {
+            log.error("Failed to seed message counter {}: {}", key, e.getMessage(), e);
+        }
+        return count;
+    }
+
+    private void adjust(String key, long delta) {
+        try {
+            redisTemplate.execute(ADJUST_SCRIPT, List.of(key), String.valueOf(delta));
+        } catch (Exception e) {
+            log.error("Failed to adjust message counter {} by {}: {}", key, delta, e.getMessage(), e);
+        }
+    }
+}
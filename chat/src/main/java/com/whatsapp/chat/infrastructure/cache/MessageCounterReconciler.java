@@ -0,0 +1,158 @@
+package com.whatsapp.chat.infrastructure.cache;
+
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.repository.MessageMongoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Message Counter Reconciler
+ *
+ * Periodically compares every live counter of {@link MessageCounterCache}
+ * with the authoritative MongoDB count, reports drift and repairs it.
+ *
+ * Flow (per counter):
+ * 1. Read the counter value
+ * 2. Recount in MongoDB
+ * 3. Compare-and-set the recount, skipping counters that changed meanwhile
+ *    (they are picked up again by the next run)
+ *
+ * Safe to run on several instances at once: repairs are compare-and-set.
+ *
+ * Metrics:
+ * - message_counter_drift_total: Counters found out of sync (tag type)
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class MessageCounterReconciler {
+
+    private static final int SCAN_BATCH = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MessageCounterCache counterCache;
+    private final MessageMongoRepository mongoRepository;
+    private final Counter conversationDrift;
+    private final Counter undeliveredDrift;
+
+    public MessageCounterReconciler(StringRedisTemplate redisTemplate,
+                                    MessageCounterCache counterCache,
+                                    MessageMongoRepository mongoRepository,
+                                    MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.counterCache = counterCache;
+        this.mongoRepository = mongoRepository;
+        this.conversationDrift = Counter.builder("message_counter_drift_total")
+                .description("Message counters found out of sync with MongoDB")
+                .tag("service", "chat")
+                .tag("type", "conversation")
+                .register(meterRegistry);
+        this.undeliveredDrift = Counter.builder("message_counter_drift_total")
+                .description("Message counters found out of sync with MongoDB")
+                .tag("service", "chat")
+                .tag("type", "undelivered")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reconcile all counters
+     *
+     * Runs every 15 minutes by default
+     */
+    @Scheduled(fixedDelayString = "${app.message.counters.reconcile-interval-ms:900000}",
+            initialDelayString = "${app.message.counters.reconcile-initial-delay-ms:60000}")
+    public void reconcile() {
+        log.info("Starting message counter reconciliation...");
+
+        try {
+            Result conversations = reconcile(MessageCounterCache.CONVERSATION_KEY_PREFIX, conversationDrift,
+                    conversationId -> mongoRepository.countByConversationIdAndDeletedNot(conversationId, true));
+            Result undelivered = reconcile(MessageCounterCache.UNDELIVERED_KEY_PREFIX, undeliveredDrift,
+                    receiverId -> mongoRepository.countByReceiverIdAndStatusAndDeletedNot(
+                            receiverId, MessageStatus.SENT.name(), true));
+
+            log.info("Message counter reconciliation done: conversations {}, undelivered {}",
+                    conversations, undelivered);
+
+        } catch (Exception e) {
+            log.error("Error during message counter reconciliation", e);
+        }
+    }
+
+    private Result reconcile(String prefix, Counter driftCounter, ToLongFunction<String> recount) {
+        Result result = new Result();
+        List<String> batch = new ArrayList<>(SCAN_BATCH);
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH).build();
+
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(new String(cursor.next(), StandardCharsets.UTF_8));
+                    if (batch.size() >= SCAN_BATCH) {
+                        batch.forEach(key -> check(key, prefix, driftCounter, recount, result));
+                        batch.clear();
+                    }
+                }
+            }
+            return null;
+        });
+        batch.forEach(key -> check(key, prefix, driftCounter, recount, result));
+        return result;
+    }
+
+    private void check(String key, String prefix, Counter driftCounter,
+                       ToLongFunction<String> recount, Result result) {
+        try {
+            String cached = counterCache.peek(key);
+            if (cached == null) {
+                return; // expired meanwhile, seeded again on next read
+            }
+            result.checked++;
+
+            long actual = recount.applyAsLong(key.substring(prefix.length()));
+            long drift = Long.parseLong(cached) - actual;
+            if (drift == 0) {
+                return;
+            }
+
+            result.drifted++;
+            result.totalDrift += Math.abs(drift);
+            driftCounter.increment();
+            if (counterCache.repair(key, cached, actual)) {
+                result.repaired++;
+                log.debug("Repaired counter {}: {} -> {}", key, cached, actual);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile counter {}: {}", key, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Per-run summary for one counter type
+     */
+    private static final class Result {
+        private long checked;
+        private long drifted;
+        private long repaired;
+        private long totalDrift;
+
+        @Override
+        public String toString() {
+            return String.format("checked=%d drifted=%d repaired=%d totalDrift=%d",
+                    checked, drifted, repaired, totalDrift);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.whatsapp.chat.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Receipt Journal
+ *
+ * Durable queue of the receipts of shared (group/broadcast) messages
+ * between the request that reports them and the flush that applies them.
+ * A receipt is in Redis before the client gets its answer, so a crashed
+ * chat node loses none.
+ *
+ * Data structure:
+ *   Key      : "receipts:pending"  (Stream)
+ *   Fields   : m = messageId, u = userId, t = "D" (delivered) / "R" (read)
+ *   Group    : "receipt-aggregator", one consumer per chat node
+ *
+ * Lifecycle of an entry:
+ * 1. append(): XADD
+ * 2. poll(): the node's own unacknowledged entries (a failed flush), then
+ *    entries a crashed node left pending longer than the claim timeout
+ *    (taken over with XCLAIM), then new ones
+ * 3. ack(): XACK + XDEL once the flush applied them
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class ReceiptJournal {
+
+    static final String STREAM_KEY = "receipts:pending";
+    static final String GROUP = "receipt-aggregator";
+
+    private static final String MESSAGE = "m";
+    private static final String USER = "u";
+    private static final String TYPE = "t";
+    private static final String DELIVERED = "D";
+    private static final String READ = "R";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String consumer;
+    private final Duration claimAfter;
+    private volatile boolean groupCreated;
+
+    public ReceiptJournal(StringRedisTemplate redisTemplate,
+                          @Value("${app.presence.node-id:${HOSTNAME:}}") String nodeId,
+                          @Value("${app.message.receipts.claim-after-ms:30000}") long claimAfterMs) {
+        this.redisTemplate = redisTemplate;
+        this.consumer = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.claimAfter = Duration.ofMillis(claimAfterMs);
+    }
+
+    /**
+     * One journaled receipt
+     */
+    public record Entry(RecordId id, String messageId, String userId, boolean read) {
+    }
+
+    // ---------------------------------------------------------------
+    // Writing
+    // ---------------------------------------------------------------
+
+    /**
+     * Journal a receipt; throws if Redis did not take it
+     */
+    public void append(String messageId, String userId, boolean read) {
+        streams().add(STREAM_KEY, Map.of(MESSAGE, messageId, USER, userId, TYPE, read ? READ : DELIVERED));
+    }
+
+    // ---------------------------------------------------------------
+    // Draining
+    // ---------------------------------------------------------------
+
+    /**
+     * Up to {@code count} receipts to apply: unacknowledged ones of this node
+     * first, then stale ones of crashed nodes, then new ones
+     */
+    public List<Entry> poll(int count) {
+        ensureGroup();
+        try {
+            return pollGroup(count);
+        } catch (RedisSystemException e) {
+            // Stream or group removed behind our back: create it again next time
+            groupCreated = false;
+            throw e;
+        }
+    }
+
+    private List<Entry> pollGroup(int count) {
+        List<Entry> entries = new ArrayList<>(read(ReadOffset.from("0"), count));
+        if (entries.size() < count) {
+            entries.addAll(claimStale(count - entries.size()));
+        }
+        if (entries.size() < count) {
+            entries.addAll(read(ReadOffset.lastConsumed(), count - entries.size()));
+        }
+        return entries;
+    }
+
+    /**
+     * Remove applied receipts from the journal
+     */
+    public void ack(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RecordId[] ids = entries.stream().map(Entry::id).toArray(RecordId[]::new);
+        streams().acknowledge(STREAM_KEY, GROUP, ids);
+        streams().delete(STREAM_KEY, ids);
+    }
+
+    private List<Entry> read(ReadOffset offset, int count) {
+        List<MapRecord<String, Object, Object>> records = streams().read(Consumer.from(GROUP, consumer),
+                StreamReadOptions.empty().count(count), StreamOffset.create(STREAM_KEY, offset));
+        return toEntries(records);
+    }
+
+    private List<Entry> claimStale(int count) {
+        List<RecordId> stale = new ArrayList<>();
+        for (PendingMessage pending : streams().pending(STREAM_KEY, GROUP, Range.unbounded(), count)) {
+            if (!consumer.equals(pending.getConsumerName())
+                    && pending.getElapsedTimeSinceLastDelivery().compareTo(claimAfter) >= 0) {
+                stale.add(pending.getId());
+            }
+        }
+        if (stale.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> claimed = toEntries(streams().claim(STREAM_KEY, GROUP, consumer, claimAfter,
+                stale.toArray(RecordId[]::new)));
+        log.info("Took over {} receipts left pending by other nodes", claimed.size());
+        return claimed;
+    }
+
+    private List<Entry> toEntries(List<MapRecord<String, Object, Object>> records) {
+        if (records == null || records.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> entries = new ArrayList<>(records.size());
+        List<RecordId> malformed = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> fields = record.getValue();
+            Object messageId = fields.get(MESSAGE);
+            Object userId = fields.get(USER);
+            if (messageId == null || userId == null) {
+                malformed.add(record.getId());
+                continue;
+            }
+            entries.add(new Entry(record.getId(), messageId.toString(), userId.toString(),
+                    READ.equals(fields.get(TYPE))));
+        }
+        if (!malformed.isEmpty()) {
+            log.warn("Dropping {} malformed receipt entries", malformed.size());
+            RecordId[] ids = malformed.toArray(RecordId[]::new);
+            streams().acknowledge(STREAM_KEY, GROUP, ids);
+            streams().delete(STREAM_KEY, ids);
+        }
+        return entries;
+    }
+
+    private void ensureGroup() {
+        if (groupCreated) {
+            return;
+        }
+        try {
+            streams().createGroup(STREAM_KEY, ReadOffset.from("0"), GROUP);
+        } catch (RedisSystemException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (reason == null || !reason.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupCreated = true;
+    }
+
+    private StreamOperations<String, Object, Object> streams() {
+        return redisTemplate.opsForStream();
+    }
+}
@@ -1,16 +1,20 @@
 package com.whatsapp.chat.infrastructure.cache;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.whatsapp.chat.application.dto.MessageDto;
+import com.whatsapp.common.inbox.InboxEntry;
+import com.whatsapp.common.inbox.InboxStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Undelivered Message Cache
@@ -18,17 +22,22 @@ import java.util.stream.Collectors;
  * Manages a per-user inbox in Redis that temporarily stores messages
  * waiting to be delivered while the recipient is offline.
  *
- * Data structure:
- *   Key   : "inbox:{receiverId}"           (Redis List)
- *   Value : JSON-serialised {@link MessageDto}
- *   TTL   : 7 days (configurable)
+ * Data structure (shared with message-processor, see {@link InboxStore}):
+ *   Inbox   : "inbox:v2:user:{receiverId}"  (Sorted Set of message IDs)
+ *   Payload : "inbox:v2:msg:{messageId}"    (JSON-serialised {@link MessageDto},
+ *                                           stored once per message)
+ *   TTL     : 7 days per entry (configurable)
  *
  * Workflow:
  *  1. When a message is sent and the recipient is OFFLINE →
- *       push {@link MessageDto} to inbox list via {@link #pushMessage}.
+ *       push {@link MessageDto} to the inbox via {@link #pushMessage}.
  *  2. When the recipient comes ONLINE →
- *       pop all messages via {@link #popAllMessages} and deliver them.
- *  3. The list is also used for unread-count badges via {@link #getMessageCount}.
+ *       peek the inbox via {@link #peekPending}, push, and
+ *       {@link #acknowledge} only the messages that went out.
+ *  3. The inbox is also used for unread-count badges via {@link #getMessageCount}.
+ *
+ * Entries enqueued by message-processor carry no payload: the reader has
+ * to load those messages from MongoDB (see OfflineInboxRedriver).
  *
  * @author WhatsApp Clone Team
  */
@@ -37,11 +46,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UndeliveredMessageCache {
 
-    private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String INBOX_KEY_PREFIX = "inbox:";
-    /** 7-day TTL – after this period undelivered messages are evicted. */
-    private static final Duration INBOX_TTL = Duration.ofDays(7);
+    private final InboxStore inboxStore;
+    private final ObjectMapper objectMapper;
 
     // ---------------------------------------------------------------
     // Write operations
@@ -55,9 +61,7 @@ public class UndeliveredMessageCache {
      */
     public void pushMessage(String receiverId, MessageDto message) {
         try {
-            String key = inboxKey(receiverId);
-            redisTemplate.opsForList().rightPush(key, message);
-            redisTemplate.expire(key, INBOX_TTL);
+            inboxStore.add(receiverId, message.getId(), objectMapper.writeValueAsString(message));
             log.debug("Pushed message {} to inbox of user {}", message.getId(), receiverId);
         } catch (Exception e) {
             log.error("Failed to push message to inbox for user {}: {}", receiverId, e.getMessage(), e);
@@ -65,33 +69,19 @@ public class UndeliveredMessageCache {
     }
 
     /**
-     * Pop (drain) all messages from the recipient's inbox.
-     * Atomically removes every entry and returns them in FIFO order.
+     * Acknowledge the messages of a {@link #peekPending} that were pushed:
+     * only these leave the inbox.
      *
      * @param receiverId receiver's user ID
-     * @return list of pending messages, oldest first
+     * @param messageIds IDs of the messages pushed
      */
-    @SuppressWarnings("unchecked")
-    public List<MessageDto> popAllMessages(String receiverId) {
+    public void acknowledge(String receiverId, Collection<String> messageIds) {
         try {
-            String key = inboxKey(receiverId);
-            Long size = redisTemplate.opsForList().size(key);
-            if (size == null || size == 0) {
-                return Collections.emptyList();
-            }
-
-            List<Object> raw = redisTemplate.opsForList().range(key, 0, size - 1);
-            redisTemplate.delete(key);
-
-            if (raw == null) return Collections.emptyList();
-
-            return raw.stream()
-                    .filter(o -> o instanceof MessageDto)
-                    .map(o -> (MessageDto) o)
-                    .collect(Collectors.toList());
+            inboxStore.ack(receiverId, messageIds);
+            log.debug("Acknowledged {} inbox messages of user {}", messageIds.size(), receiverId);
         } catch (Exception e) {
-            log.error("Failed to pop messages from inbox for user {}: {}", receiverId, e.getMessage(), e);
-            return Collections.emptyList();
+            // They stay pending and are pushed again on the next flush
+            log.error("Failed to acknowledge inbox messages of user {}: {}", receiverId, e.getMessage(), e);
         }
     }
 
@@ -103,20 +93,7 @@ public class UndeliveredMessageCache {
      */
     public void removeMessage(String receiverId, String messageId) {
         try {
-            String key = inboxKey(receiverId);
-            Long size = redisTemplate.opsForList().size(key);
-            if (size == null || size == 0) return;
-
-            List<Object> items = redisTemplate.opsForList().range(key, 0, size - 1);
-            if (items == null) return;
-
-            items.stream()
-                    .filter(o -> o instanceof MessageDto)
-                    .map(o -> (MessageDto) o)
-                    .filter(m -> messageId.equals(m.getId()))
-                    .findFirst()
-                    .ifPresent(m -> redisTemplate.opsForList().remove(key, 1, m));
-
+            inboxStore.remove(receiverId, messageId);
             log.debug("Removed message {} from inbox of user {}", messageId, receiverId);
         } catch (Exception e) {
             log.error("Failed to remove message {} from inbox for user {}: {}", messageId, receiverId, e.getMessage(), e);
@@ -135,8 +112,7 @@ public class UndeliveredMessageCache {
      */
     public long getMessageCount(String receiverId) {
         try {
-            Long size = redisTemplate.opsForList().size(inboxKey(receiverId));
-            return size != null ? size : 0L;
+            return inboxStore.size(receiverId);
         } catch (Exception e) {
             log.error("Failed to get message count for user {}: {}", receiverId, e.getMessage(), e);
             return 0L;
@@ -159,26 +135,36 @@ public class UndeliveredMessageCache {
      * @param receiverId receiver's user ID
      * @return list of pending messages, oldest first
      */
-    @SuppressWarnings("unchecked")
     public List<MessageDto> peekMessages(String receiverId) {
         try {
-            String key = inboxKey(receiverId);
-            Long size = redisTemplate.opsForList().size(key);
-            if (size == null || size == 0) return Collections.emptyList();
-
-            List<Object> raw = redisTemplate.opsForList().range(key, 0, size - 1);
-            if (raw == null) return Collections.emptyList();
-
-            return raw.stream()
-                    .filter(o -> o instanceof MessageDto)
-                    .map(o -> (MessageDto) o)
-                    .collect(Collectors.toList());
+            return toMessages(inboxStore.peek(receiverId));
         } catch (Exception e) {
             log.error("Failed to peek messages for user {}: {}", receiverId, e.getMessage(), e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * Every pending entry without removing it, oldest first: message ID to
+     * cached message, or to null for ID-only entries (and unreadable or
+     * expired payloads), which the caller loads from MongoDB.
+     *
+     * @param receiverId receiver's user ID
+     * @return pending entries by message ID, oldest first
+     */
+    public Map<String, MessageDto> peekPending(String receiverId) {
+        try {
+            Map<String, MessageDto> pending = new LinkedHashMap<>();
+            for (InboxEntry entry : inboxStore.peek(receiverId)) {
+                pending.put(entry.getMessageId(), entry.hasPayload() ? toMessage(entry) : null);
+            }
+            return pending;
+        } catch (Exception e) {
+            log.error("Failed to peek inbox entries for user {}: {}", receiverId, e.getMessage(), e);
+            return Collections.emptyMap();
+        }
+    }
+
     // ---------------------------------------------------------------
     // Maintenance
     // ---------------------------------------------------------------
@@ -190,7 +176,7 @@ public class UndeliveredMessageCache {
      */
     public void clearInbox(String receiverId) {
         try {
-            redisTemplate.delete(inboxKey(receiverId));
+            inboxStore.clear(receiverId);
             log.debug("Cleared inbox for user {}", receiverId);
         } catch (Exception e) {
             log.error("Failed to clear inbox for user {}: {}", receiverId, e.getMessage(), e);
@@ -201,8 +187,29 @@ public class UndeliveredMessageCache {
     // Helpers
     // ---------------------------------------------------------------
 
-    private String inboxKey(String receiverId) {
-        return INBOX_KEY_PREFIX + receiverId;
+    /**
+     * Deserialise the entries that carry a payload
+     */
+    private List<MessageDto> toMessages(List<InboxEntry> entries) {
+        List<MessageDto> messages = new ArrayList<>(entries.size());
+        for (InboxEntry entry : entries) {
+            MessageDto message = entry.hasPayload() ? toMessage(entry) : null;
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
     }
-}
 
+    /**
+     * Deserialise an entry's payload, or null if unreadable
+     */
+    private MessageDto toMessage(InboxEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), MessageDto.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable inbox payload of message {}: {}", entry.getMessageId(), e.getMessage());
+            return null;
+        }
+    }
+}
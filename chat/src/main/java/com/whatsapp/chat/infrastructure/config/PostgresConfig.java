@@ -1,10 +1,26 @@
 package com.whatsapp.chat.infrastructure.config;
 
+import com.whatsapp.common.datasource.ReadYourWritesFilter;
+import com.whatsapp.common.datasource.ReadYourWritesTracker;
+import com.whatsapp.common.datasource.ReplicaRoutingDataSource;
+import com.whatsapp.common.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * PostgreSQL / JPA Configuration
  *
@@ -12,6 +28,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * - JPA repository scanning for the postgres persistence layer
  * - Auditing (auto-populate @CreatedDate / @LastModifiedDate)
  * - Declarative transaction management
+ * - Read-replica routing: read-only transactions go to the replicas
+ *   configured under app.datasource.routing (primary only if none)
  *
  * Connection pool settings and dialect are defined in application.yaml.
  *
@@ -20,11 +38,51 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @Configuration
 @EnableJpaAuditing
 @EnableTransactionManagement
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
 @EnableJpaRepositories(
         basePackages = "com.whatsapp.chat.infrastructure.persistence.postgres.repository"
 )
 public class PostgresConfig {
-    // All datasource / JPA properties are configured via application.yaml.
-    // This class activates auditing and repository scanning only.
-}
 
+    /**
+     * Primary (read-write) pool, from spring.datasource.*
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties routing,
+                                                       StringRedisTemplate stringRedisTemplate) {
+        return new ReadYourWritesTracker(stringRedisTemplate, routing.getStickyWindow());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            ReplicaRoutingProperties routing,
+            ReadYourWritesTracker tracker,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        routing.getReplicas().forEach(replica -> replicas.put(replica.getName(),
+                ReplicaRoutingDataSource.createReplicaPool(
+                        replica, primaryDataSource, routing.getPoolSize(), meterRegistry)));
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, tracker, routing, meterRegistry);
+    }
+
+    /**
+     * DataSource used by JPA, Flyway and the transaction manager
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return routingDataSource.lazy();
+    }
+}
@@ -1,5 +1,6 @@
 package com.whatsapp.chat.infrastructure.config;
 
+import com.whatsapp.common.messaging.EventTopology;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -11,65 +12,67 @@ import org.springframework.context.annotation.Configuration;
 /**
  * RabbitMQ Configuration
  *
- * Configures RabbitMQ exchanges, queues, and bindings for message events.
+ * Configures the message and call events exchanges and this node's push
+ * queue.
+ *
+ * Topology ({@link EventTopology}):
+ * - Message events are published to the {@value EventTopology#MESSAGE_EXCHANGE}
+ *   topic exchange; each consuming service binds its own queues
+ * - Every chat node binds one server-named, exclusive queue
+ *   ("chat.push.*") to all message events: pushes go to the WebSocket
+ *   sessions held by the node, so each node needs every event. The queue
+ *   goes away with the node; clients catch up on missed pushes via sync.
  *
  * @author WhatsApp Clone Team
  */
 @Configuration
 public class RabbitMQConfig {
 
-    public static final String MESSAGE_EXCHANGE = "message.exchange";
-    public static final String MESSAGE_SENT_QUEUE = "message.sent.queue";
-    public static final String MESSAGE_DELIVERED_QUEUE = "message.delivered.queue";
-    public static final String MESSAGE_READ_QUEUE = "message.read.queue";
+    public static final String MESSAGE_EXCHANGE = EventTopology.MESSAGE_EXCHANGE;
+    public static final String PUSH_QUEUE_PREFIX = "chat.push.";
 
-    public static final String MESSAGE_SENT_ROUTING_KEY = "message.sent";
-    public static final String MESSAGE_DELIVERED_ROUTING_KEY = "message.delivered";
-    public static final String MESSAGE_READ_ROUTING_KEY = "message.read";
+    public static final String MESSAGE_SENT_ROUTING_KEY = EventTopology.MESSAGE_SENT_KEY;
+    public static final String MESSAGE_DELIVERED_ROUTING_KEY = EventTopology.MESSAGE_DELIVERED_KEY;
+    public static final String MESSAGE_READ_ROUTING_KEY = EventTopology.MESSAGE_READ_KEY;
 
     @Bean
     public TopicExchange messageExchange() {
         return new TopicExchange(MESSAGE_EXCHANGE);
     }
 
+    /**
+     * Call signaling exchange (call.ring, consumed by the notification service)
+     */
     @Bean
-    public Queue messageSentQueue() {
-        return QueueBuilder.durable(MESSAGE_SENT_QUEUE)
-                .withArgument("x-message-ttl", 86400000) // 24 hours
-                .build();
-    }
-
-    @Bean
-    public Queue messageDeliveredQueue() {
-        return QueueBuilder.durable(MESSAGE_DELIVERED_QUEUE)
-                .withArgument("x-message-ttl", 86400000)
-                .build();
+    public TopicExchange callEventsExchange() {
+        return new TopicExchange(EventTopology.CALL_EXCHANGE);
     }
 
+    /**
+     * This node's push queue (non-durable, exclusive, auto-delete)
+     */
     @Bean
-    public Queue messageReadQueue() {
-        return QueueBuilder.durable(MESSAGE_READ_QUEUE)
-                .withArgument("x-message-ttl", 86400000)
-                .build();
+    public Queue chatPushQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy(PUSH_QUEUE_PREFIX));
     }
 
     @Bean
-    public Binding messageSentBinding(Queue messageSentQueue, TopicExchange messageExchange) {
-        return BindingBuilder.bind(messageSentQueue)
+    public Binding messageSentBinding(Queue chatPushQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(chatPushQueue)
                 .to(messageExchange)
                 .with(MESSAGE_SENT_ROUTING_KEY);
     }
 
     @Bean
-    public Binding messageDeliveredBinding(Queue messageDeliveredQueue, TopicExchange messageExchange) {
-        return BindingBuilder.bind(messageDeliveredQueue)
+    public Binding messageDeliveredBinding(Queue chatPushQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(chatPushQueue)
                 .to(messageExchange)
                 .with(MESSAGE_DELIVERED_ROUTING_KEY);
     }
 
     @Bean
-    public Binding messageReadBinding(Queue messageReadQueue, TopicExchange messageExchange) {
-        return BindingBuilder.bind(messageReadQueue)
+    public Binding messageReadBinding(Queue chatPushQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(chatPushQueue)
                 .to(messageExchange)
                 .with(MESSAGE_READ_ROUTING_KEY);
     }
@@ -1,5 +1,9 @@
 package com.whatsapp.chat.infrastructure.config;
 
+import com.whatsapp.common.inbox.InboxStore;
+import com.whatsapp.common.presence.PresenceRegistry;
+import com.whatsapp.common.presence.SessionRoutes;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +11,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -56,4 +62,45 @@ public class RedisConfig {
                 .cacheDefaults(config)
                 .build();
     }
+
+    /**
+     * Pub/sub listener container (presence fan-out between chat nodes,
+     * inbox re-drive requests)
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * Shared heartbeat presence store
+     */
+    @Bean
+    public PresenceRegistry presenceRegistry(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${app.presence.buckets:64}") int buckets,
+            @Value("${app.presence.heartbeat-ttl-ms:90000}") long heartbeatTtlMs) {
+        return new PresenceRegistry(stringRedisTemplate, buckets, Duration.ofMillis(heartbeatTtlMs));
+    }
+
+    /**
+     * Shared offline inboxes (same TTL and size limit as message-processor)
+     */
+    @Bean
+    public InboxStore inboxStore(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${app.inbox.ttl:7d}") Duration ttl,
+            @Value("${app.inbox.max-entries:1000}") int maxEntries) {
+        return new InboxStore(stringRedisTemplate, ttl, maxEntries);
+    }
+
+    /**
+     * Shared user → chat node routes (read by the message-processor sweeper)
+     */
+    @Bean
+    public SessionRoutes sessionRoutes(StringRedisTemplate stringRedisTemplate) {
+        return new SessionRoutes(stringRedisTemplate, Duration.ofDays(1));
+    }
 }
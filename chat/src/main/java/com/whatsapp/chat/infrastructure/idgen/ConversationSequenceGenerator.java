@@ -0,0 +1,136 @@
+package com.whatsapp.chat.infrastructure.idgen;
+
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Conversation Sequence Generator
+ *
+ * Allocates dense, per-conversation message sequence numbers (1, 2, 3, ...)
+ * so clients can detect missing messages by looking for holes.
+ *
+ * Allocation:
+ * - Redis INCR on "conversation:seq:{conversationId}" – one round trip per send
+ * - When the counter is missing (first message, Redis flush or failover) it is
+ *   seeded with the high-water mark persisted in MongoDB, i.e. max(seq), and
+ *   incremented in one script (SET NX + INCR): concurrent seeders cannot
+ *   lift each other's numbers, they just continue after the winner's seed
+ *
+ * Recovery:
+ * - The unique (conversationId, seq) index rejects a number that was handed
+ *   out twice; callers then {@link #resync} and allocate again
+ *
+ * Gaps:
+ * - A number whose save fails for any other reason is not handed back (later
+ *   numbers may already be in use), so it stays a permanent hole. Callers
+ *   report it through {@link #voided}; clients treat a number that is still
+ *   missing on a later gap-fill as void and stop asking for it
+ *
+ * Metrics:
+ * - message_seq_voided_total: sequence numbers lost to failed saves
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class ConversationSequenceGenerator {
+
+    private static final String KEY_PREFIX = "conversation:seq:";
+
+    /** INCR an existing counter; 0 if the counter is missing (never creates it) */
+    private static final RedisScript<Long> NEXT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCR', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    /** Seed a missing counter with ARGV[1] (first seeder wins), then INCR */
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('SET', KEYS[1], ARGV[1], 'NX') " +
+            "return redis.call('INCR', KEYS[1])",
+            Long.class);
+
+    /** Raise the counter to ARGV[1] if it is below it; never lowers it */
+    private static final RedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "local floor = tonumber(ARGV[1]) " +
+            "if current < floor then redis.call('SET', KEYS[1], ARGV[1]) return floor end " +
+            "return current",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MessageRepository messageRepository;
+    private final Counter voided;
+
+    public ConversationSequenceGenerator(StringRedisTemplate redisTemplate, MessageRepository messageRepository,
+                                         MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.messageRepository = messageRepository;
+        this.voided = Counter.builder("message_seq_voided_total")
+                .description("Message sequence numbers lost to failed saves")
+                .tag("service", "chat")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Allocate the next sequence number of a conversation
+     *
+     * @param conversationId Conversation ID
+     * @return sequence number, starting at 1
+     */
+    public long next(ConversationId conversationId) {
+        List<String> key = List.of(key(conversationId));
+        Long seq = redisTemplate.execute(NEXT_SCRIPT, key);
+
+        if (seq != null && seq == 0L) {
+            // Counter missing: continue after what is already persisted
+            long highWaterMark = messageRepository.findMaxSeq(conversationId);
+            seq = redisTemplate.execute(SEED_SCRIPT, key, String.valueOf(highWaterMark));
+            if (highWaterMark > 0) {
+                log.info("Recovered sequence counter for conversation {} from high-water mark {}",
+                        conversationId.getValue(), highWaterMark);
+            }
+        }
+
+        if (seq == null) {
+            throw new IllegalStateException("Failed to allocate sequence for conversation " + conversationId.getValue());
+        }
+        return seq;
+    }
+
+    /**
+     * Record that an allocated number will never be persisted (its save failed)
+     *
+     * @param conversationId Conversation ID
+     * @param seq            The lost sequence number
+     */
+    public void voided(ConversationId conversationId, long seq) {
+        voided.increment();
+        log.warn("Sequence number {} of conversation {} is void (save failed)", seq, conversationId.getValue());
+    }
+
+    /**
+     * Raise the counter to the persisted high-water mark after a collision
+     *
+     * @param conversationId Conversation ID
+     */
+    public void resync(ConversationId conversationId) {
+        long highWaterMark = messageRepository.findMaxSeq(conversationId);
+        Long current = redisTemplate.execute(RAISE_SCRIPT, List.of(key(conversationId)),
+                String.valueOf(highWaterMark));
+        log.warn("Resynced sequence counter for conversation {} (high-water mark {}, counter {})",
+                conversationId.getValue(), highWaterMark, current);
+    }
+
+    private String key(ConversationId conversationId) {
+        return KEY_PREFIX + conversationId.getValue();
+    }
+}
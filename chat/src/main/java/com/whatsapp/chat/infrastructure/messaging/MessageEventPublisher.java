@@ -4,14 +4,17 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.whatsapp.chat.domain.model.Message;
 import com.whatsapp.chat.infrastructure.config.RabbitMQConfig;
+import com.whatsapp.common.messaging.EventTopology;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +27,13 @@ import java.util.Map;
  * - message.delivered: When message is delivered to recipient
  * - message.read: When message is read by recipient
  *
+ * Shared (group/broadcast) messages are published once: MESSAGE_SENT
+ * carries the recipient list, receipt events carry the recipient.
+ *
+ * Every event carries its conversation in the
+ * {@value EventTopology#CONVERSATION_HEADER} header, the key consumers
+ * partition on to keep a conversation's events in order.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -38,14 +48,25 @@ public class MessageEventPublisher {
      * Publish message sent event
      */
     public void publishMessageSent(Message message) {
+        publishMessageSent(message, null);
+    }
+
+    /**
+     * Publish message sent event of a shared message, with its recipients
+     */
+    public void publishMessageSent(Message message, List<String> recipientIds) {
         try {
             Map<String, Object> event = createMessageEvent(message, "MESSAGE_SENT");
+            if (recipientIds != null) {
+                event.put("recipientIds", recipientIds);
+            }
             String messageJson = objectMapper.writeValueAsString(event);
 
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.MESSAGE_EXCHANGE,
                     RabbitMQConfig.MESSAGE_SENT_ROUTING_KEY,
-                    messageJson);
+                    messageJson,
+                    withConversation(message));
 
             log.info("Published MESSAGE_SENT event for message: {}", message.getId());
         } catch (JsonProcessingException e) {
@@ -57,14 +78,23 @@ public class MessageEventPublisher {
      * Publish message delivered event
      */
     public void publishMessageDelivered(Message message) {
+        publishMessageDelivered(message, message.getReceiverId());
+    }
+
+    /**
+     * Publish message delivered event for one recipient
+     */
+    public void publishMessageDelivered(Message message, String recipientId) {
         try {
             Map<String, Object> event = createMessageEvent(message, "MESSAGE_DELIVERED");
+            event.put("recipientId", recipientId);
             String messageJson = objectMapper.writeValueAsString(event);
 
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.MESSAGE_EXCHANGE,
                     RabbitMQConfig.MESSAGE_DELIVERED_ROUTING_KEY,
-                    messageJson);
+                    messageJson,
+                    withConversation(message));
 
             log.info("Published MESSAGE_DELIVERED event for message: {}", message.getId());
         } catch (JsonProcessingException e) {
@@ -76,14 +106,23 @@ public class MessageEventPublisher {
      * Publish message read event
      */
     public void publishMessageRead(Message message) {
+        publishMessageRead(message, message.getReceiverId());
+    }
+
+    /**
+     * Publish message read event for one recipient
+     */
+    public void publishMessageRead(Message message, String recipientId) {
         try {
             Map<String, Object> event = createMessageEvent(message, "MESSAGE_READ");
+            event.put("recipientId", recipientId);
             String messageJson = objectMapper.writeValueAsString(event);
 
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.MESSAGE_EXCHANGE,
                     RabbitMQConfig.MESSAGE_READ_ROUTING_KEY,
-                    messageJson);
+                    messageJson,
+                    withConversation(message));
 
             log.info("Published MESSAGE_READ event for message: {}", message.getId());
         } catch (JsonProcessingException e) {
@@ -91,6 +130,17 @@ public class MessageEventPublisher {
         }
     }
 
+    /**
+     * Set the partitioning header of a message's events
+     */
+    private MessagePostProcessor withConversation(Message message) {
+        String conversationId = message.getConversationId().getValue();
+        return amqpMessage -> {
+            amqpMessage.getMessageProperties().setHeader(EventTopology.CONVERSATION_HEADER, conversationId);
+            return amqpMessage;
+        };
+    }
+
     /**
      * Create message event payload
      */
@@ -99,6 +149,7 @@ public class MessageEventPublisher {
         event.put("eventType", eventType);
         event.put("messageId", message.getId().getValue());
         event.put("conversationId", message.getConversationId().getValue());
+        event.put("seq", message.getSeq());
         event.put("senderId", message.getSenderId());
         event.put("receiverId", message.getReceiverId());
         event.put("status", message.getStatus().name());
@@ -0,0 +1,92 @@
+package com.whatsapp.chat.infrastructure.messaging;
+
+import com.whatsapp.common.messaging.CallEvent;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.TypingEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Signaling Event Publisher
+ *
+ * Publishes the time-critical events of the notification service's
+ * priority lanes:
+ * - call.ring on {@value EventTopology#CALL_EXCHANGE}: an incoming call
+ *   (CALL lane, preempts message pushes)
+ * - message.typing on {@value EventTopology#MESSAGE_EXCHANGE}: a typing
+ *   indicator (EPHEMERAL lane, dropped under load)
+ *
+ * Both are worthless once late: they are published non-persistent with a
+ * per-message expiration, and a failed publish is logged, never retried.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+public class SignalingEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String callRingTtlMs;
+    private final String typingTtlMs;
+
+    public SignalingEventPublisher(RabbitTemplate rabbitTemplate,
+                                   @Value("${app.signaling.call-ring-ttl-ms:30000}") long callRingTtlMs,
+                                   @Value("${app.signaling.typing-ttl-ms:5000}") long typingTtlMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.callRingTtlMs = String.valueOf(callRingTtlMs);
+        this.typingTtlMs = String.valueOf(typingTtlMs);
+    }
+
+    /**
+     * Publish an incoming call for the callee's devices
+     */
+    public void publishCallRing(String callId, String callerId, String callerName, String calleeId) {
+        CallEvent event = new CallEvent();
+        event.setEventType(EventTopology.CALL_RING);
+        event.setCallId(callId);
+        event.setCallerId(callerId);
+        event.setCallerName(callerName);
+        event.setCalleeId(calleeId);
+        event.setTimestamp(Instant.now().toString());
+        publish(EventTopology.CALL_EXCHANGE, EventTopology.CALL_RING_KEY, event, callRingTtlMs);
+    }
+
+    /**
+     * Publish a typing indicator for a receiver
+     */
+    public void publishTyping(String conversationId, String senderId, String receiverId, boolean typing) {
+        TypingEvent event = new TypingEvent();
+        event.setEventType(EventTopology.TYPING);
+        event.setConversationId(conversationId);
+        event.setSenderId(senderId);
+        event.setReceiverId(receiverId);
+        event.setTyping(typing);
+        event.setTimestamp(Instant.now().toString());
+        publish(EventTopology.MESSAGE_EXCHANGE, EventTopology.MESSAGE_TYPING_KEY, event, typingTtlMs);
+    }
+
+    private void publish(String exchange, String routingKey, Object event, String ttlMs) {
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, event, nonPersistent(ttlMs));
+            log.debug("Published {} event", routingKey);
+        } catch (AmqpException e) {
+            log.warn("Failed to publish {} event: {}", routingKey, e.getMessage());
+        }
+    }
+
+    private static MessagePostProcessor nonPersistent(String ttlMs) {
+        return amqpMessage -> {
+            amqpMessage.getMessageProperties().setDeliveryMode(MessageDeliveryMode.NON_PERSISTENT);
+            amqpMessage.getMessageProperties().setExpiration(ttlMs);
+            return amqpMessage;
+        };
+    }
+}
@@ -1,76 +1,96 @@
 package com.whatsapp.chat.infrastructure.messaging.consumer;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.whatsapp.chat.application.service.ChatApplicationService;
-import com.whatsapp.chat.infrastructure.config.RabbitMQConfig;
 import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.util.List;
 
 /**
  * Message Queue Consumer
  *
- * Listens to RabbitMQ queues and reacts to message lifecycle events
- * published by this service or by other micro-services.
+ * Listens to this node's push queue and reacts to message lifecycle
+ * events published by this service or by other micro-services.
  *
- * Queues consumed:
- *   {@value RabbitMQConfig#MESSAGE_SENT_QUEUE}      – new messages to forward via WebSocket
- *   {@value RabbitMQConfig#MESSAGE_DELIVERED_QUEUE} – delivery ACKs to propagate back to senders
- *   {@value RabbitMQConfig#MESSAGE_READ_QUEUE}      – read receipts to propagate back to senders
+ * Events handled (routed by type with an {@link EventDispatcher}):
+ *   MESSAGE_SENT      – new messages to forward via WebSocket
+ *   MESSAGE_DELIVERED – delivery ACKs to propagate back to senders
+ *   MESSAGE_READ      – read receipts to propagate back to senders
  *
- * Each listener is idempotent; duplicate events are safely ignored.
+ * Every chat node receives every event and only pushes to the sessions it
+ * holds. Each handler is idempotent; duplicate events are safely ignored.
+ *
+ * Receipts of group/broadcast messages are not forwarded one by one: their
+ * senders get throttled summaries from the ReceiptAggregator.
  *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MessageQueueConsumer {
 
-    private final ObjectMapper            objectMapper;
     private final WebSocketSessionManager sessionManager;
     private final ChatApplicationService  chatApplicationService;
+    private final EventDispatcher         dispatcher;
+
+    public MessageQueueConsumer(ObjectMapper objectMapper,
+                                WebSocketSessionManager sessionManager,
+                                ChatApplicationService chatApplicationService) {
+        this.sessionManager = sessionManager;
+        this.chatApplicationService = chatApplicationService;
+        this.dispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.MESSAGE_SENT, MessageEvent.class, this::onMessageSent)
+                .on(EventTopology.MESSAGE_DELIVERED, MessageEvent.class, this::onMessageDelivered)
+                .on(EventTopology.MESSAGE_READ, MessageEvent.class, this::onMessageRead);
+    }
+
+    /**
+     * Consume this node's push queue
+     */
+    @RabbitListener(queues = "#{chatPushQueue.name}")
+    public void onEvent(Message message) {
+        dispatcher.dispatch(message.getBody());
+    }
 
     // ---------------------------------------------------------------
-    // Consumers
+    // Handlers
     // ---------------------------------------------------------------
 
     /**
      * Handle MESSAGE_SENT events.
      *
      * When a message is persisted, push it in real-time to the
-     * recipient's WebSocket session (if they are online).
-     *
-     * @param payload JSON string from RabbitMQ
+     * recipient's WebSocket session (if they are online here).
      */
-    @RabbitListener(queues = RabbitMQConfig.MESSAGE_SENT_QUEUE)
-    public void onMessageSent(String payload) {
-        try {
-            Map<String, Object> event = parseEvent(payload);
-            String messageId     = getString(event, "messageId");
-            String receiverId    = getString(event, "receiverId");
-
-            log.debug("Received MESSAGE_SENT event: messageId={} receiverId={}", messageId, receiverId);
-
-            // Forward to recipient via WebSocket if they are online
-            if (sessionManager.isUserConnected(receiverId)) {
-                sessionManager.sendToUser(receiverId, "/queue/messages", event);
-                log.info("Forwarded MESSAGE_SENT to online user {} via WebSocket", receiverId);
-
-                // Immediately mark as delivered
-                chatApplicationService.markAsDelivered(messageId, receiverId);
-            } else {
-                log.debug("Recipient {} is offline; message {} queued for later delivery", receiverId, messageId);
-                // Message stays in the undelivered cache (pushed before publishing)
-            }
-        } catch (Exception e) {
-            log.error("Error processing MESSAGE_SENT event: {}", e.getMessage(), e);
+    private void onMessageSent(MessageEvent event) {
+        String messageId  = event.getMessageId();
+        String receiverId = event.getReceiverId();
+
+        if (event.getRecipientIds() != null) {
+            forwardShared(event, messageId, event.getRecipientIds());
+            return;
+        }
+
+        log.debug("Received MESSAGE_SENT event: messageId={} receiverId={}", messageId, receiverId);
+
+        // Forward to recipient via WebSocket if they are online
+        if (sessionManager.isUserConnected(receiverId)) {
+            sessionManager.sendToUser(receiverId, "/queue/messages", event);
+            log.info("Forwarded MESSAGE_SENT to online user {} via WebSocket", receiverId);
+
+            // Immediately mark as delivered
+            chatApplicationService.markAsDelivered(messageId, receiverId);
+        } else {
+            log.debug("Recipient {} is not connected here; message {} stays queued", receiverId, messageId);
+            // Message stays in the undelivered cache (pushed before publishing)
         }
     }
 
@@ -78,25 +98,20 @@ public class MessageQueueConsumer {
      * Handle MESSAGE_DELIVERED events.
      *
      * Notify the original sender (if online) that their message was delivered.
-     *
-     * @param payload JSON string from RabbitMQ
      */
-    @RabbitListener(queues = RabbitMQConfig.MESSAGE_DELIVERED_QUEUE)
-    public void onMessageDelivered(String payload) {
-        try {
-            Map<String, Object> event = parseEvent(payload);
-            String messageId  = getString(event, "messageId");
-            String senderId   = getString(event, "senderId");
-
-            log.debug("Received MESSAGE_DELIVERED event: messageId={} senderId={}", messageId, senderId);
-
-            // Push delivery receipt to sender in real-time
-            if (sessionManager.isUserConnected(senderId)) {
-                sessionManager.sendToUser(senderId, "/queue/receipts", event);
-                log.debug("Sent delivery receipt to sender {} for message {}", senderId, messageId);
-            }
-        } catch (Exception e) {
-            log.error("Error processing MESSAGE_DELIVERED event: {}", e.getMessage(), e);
+    private void onMessageDelivered(MessageEvent event) {
+        String messageId = event.getMessageId();
+        String senderId  = event.getSenderId();
+
+        log.debug("Received MESSAGE_DELIVERED event: messageId={} senderId={}", messageId, senderId);
+        if (event.isShared()) {
+            return;
+        }
+
+        // Push delivery receipt to sender in real-time
+        if (sessionManager.isUserConnected(senderId)) {
+            sessionManager.sendToUser(senderId, "/queue/receipts", event);
+            log.debug("Sent delivery receipt to sender {} for message {}", senderId, messageId);
         }
     }
 
@@ -104,25 +119,20 @@ public class MessageQueueConsumer {
      * Handle MESSAGE_READ events.
      *
      * Notify the original sender (if online) that their message was read.
-     *
-     * @param payload JSON string from RabbitMQ
      */
-    @RabbitListener(queues = RabbitMQConfig.MESSAGE_READ_QUEUE)
-    public void onMessageRead(String payload) {
-        try {
-            Map<String, Object> event = parseEvent(payload);
-            String messageId  = getString(event, "messageId");
-            String senderId   = getString(event, "senderId");
-
-            log.debug("Received MESSAGE_READ event: messageId={} senderId={}", messageId, senderId);
-
-            // Push read receipt to sender in real-time
-            if (sessionManager.isUserConnected(senderId)) {
-                sessionManager.sendToUser(senderId, "/queue/receipts", event);
-                log.debug("Sent read receipt to sender {} for message {}", senderId, messageId);
-            }
-        } catch (Exception e) {
-            log.error("Error processing MESSAGE_READ event: {}", e.getMessage(), e);
+    private void onMessageRead(MessageEvent event) {
+        String messageId = event.getMessageId();
+        String senderId  = event.getSenderId();
+
+        log.debug("Received MESSAGE_READ event: messageId={} senderId={}", messageId, senderId);
+        if (event.isShared()) {
+            return;
+        }
+
+        // Push read receipt to sender in real-time
+        if (sessionManager.isUserConnected(senderId)) {
+            sessionManager.sendToUser(senderId, "/queue/receipts", event);
+            log.debug("Sent read receipt to sender {} for message {}", senderId, messageId);
         }
     }
 
@@ -130,13 +140,19 @@ public class MessageQueueConsumer {
     // Helpers
     // ---------------------------------------------------------------
 
-    private Map<String, Object> parseEvent(String payload) throws Exception {
-        return objectMapper.readValue(payload, new TypeReference<Map<String, Object>>() {});
-    }
-
-    private String getString(Map<String, Object> map, String key) {
-        Object val = map.get(key);
-        return val != null ? val.toString() : null;
+    /**
+     * Push a group/broadcast message to its locally connected recipients;
+     * their delivery receipts are batched by the ReceiptAggregator
+     */
+    private void forwardShared(MessageEvent event, String messageId, List<String> recipientIds) {
+        int forwarded = 0;
+        for (String recipientId : recipientIds) {
+            if (sessionManager.isUserConnected(recipientId)) {
+                sessionManager.sendToUser(recipientId, "/queue/messages", event);
+                chatApplicationService.markAsDelivered(messageId, recipientId);
+                forwarded++;
+            }
+        }
+        log.debug("Forwarded shared message {} to {}/{} local recipients", messageId, forwarded, recipientIds.size());
     }
 }
-
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.whatsapp.chat.domain.model.Message;
 import com.whatsapp.chat.infrastructure.config.RabbitMQConfig;
+import com.whatsapp.common.messaging.EventTopology;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +30,9 @@ import java.util.Map;
  *   Message delivered → {@value RabbitMQConfig#MESSAGE_DELIVERED_ROUTING_KEY}
  *   Message read      → {@value RabbitMQConfig#MESSAGE_READ_ROUTING_KEY}
  *
+ * Every event carries its conversation in the
+ * {@value EventTopology#CONVERSATION_HEADER} header (partitioning key).
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -77,7 +81,11 @@ public class MessageQueueProducer {
     private void publish(Message message, String eventType, String routingKey) {
         try {
             String payload = objectMapper.writeValueAsString(buildPayload(message, eventType));
-            rabbitTemplate.convertAndSend(RabbitMQConfig.MESSAGE_EXCHANGE, routingKey, payload);
+            String conversationId = message.getConversationId().getValue();
+            rabbitTemplate.convertAndSend(RabbitMQConfig.MESSAGE_EXCHANGE, routingKey, payload, amqpMessage -> {
+                amqpMessage.getMessageProperties().setHeader(EventTopology.CONVERSATION_HEADER, conversationId);
+                return amqpMessage;
+            });
             log.info("Published {} event for messageId={}", eventType, message.getId());
         } catch (JsonProcessingException e) {
             log.error("Serialisation error publishing {} event for messageId={}: {}",
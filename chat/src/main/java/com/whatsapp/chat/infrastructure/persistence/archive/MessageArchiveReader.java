@@ -0,0 +1,100 @@
+package com.whatsapp.chat.infrastructure.persistence.archive;
+
+import com.whatsapp.common.archive.ArchivedMessage;
+import com.whatsapp.common.archive.MessageSegmentFormat;
+import com.whatsapp.common.archive.MessageSegmentReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Message Archive Reader
+ *
+ * Read-through access to cold-tier message segments written by the
+ * scheduled-jobs archival job. Used by the message repository when a
+ * history page extends past the oldest message still in MongoDB.
+ *
+ * Failures never break history queries: on I/O errors the archive is
+ * treated as empty and the error is logged. Conversation IDs that cannot
+ * name a segment directory (see {@link MessageSegmentFormat}) are rejected
+ * before any path is resolved and have no archive.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class MessageArchiveReader {
+
+    private final boolean enabled;
+    private final MessageSegmentReader segmentReader;
+
+    public MessageArchiveReader(
+            @Value("${app.message.archive.enabled:true}") boolean enabled,
+            @Value("${app.message.archive.root-path:data/archive/messages}") String rootPath,
+            @Value("${app.message.archive.max-open-indexes:1024}") int maxOpenIndexes,
+            @Value("${app.message.archive.block-cache-size:256}") int blockCacheSize) {
+        this.enabled = enabled;
+        this.segmentReader = new MessageSegmentReader(Path.of(rootPath), maxOpenIndexes, blockCacheSize);
+        log.info("Message archive read-through {} (root={})", enabled ? "enabled" : "disabled", rootPath);
+    }
+
+    /**
+     * Archived messages older than the given Snowflake id, newest first
+     */
+    public List<ArchivedMessage> findBefore(String conversationId, long beforeId, int limit) {
+        if (!readable(conversationId)) {
+            return Collections.emptyList();
+        }
+        try {
+            return segmentReader.readBefore(conversationId, beforeId, limit);
+        } catch (Exception e) {
+            log.error("Failed to read archive for conversation: {}", conversationId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Archived messages by position, newest first
+     */
+    public List<ArchivedMessage> findNewest(String conversationId, long skip, int limit) {
+        if (!readable(conversationId)) {
+            return Collections.emptyList();
+        }
+        try {
+            return segmentReader.readNewest(conversationId, skip, limit);
+        } catch (Exception e) {
+            log.error("Failed to read archive for conversation: {}", conversationId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Number of archived messages in a conversation
+     */
+    public long count(String conversationId) {
+        if (!readable(conversationId)) {
+            return 0L;
+        }
+        try {
+            return segmentReader.count(conversationId);
+        } catch (Exception e) {
+            log.error("Failed to count archive for conversation: {}", conversationId, e);
+            return 0L;
+        }
+    }
+
+    private boolean readable(String conversationId) {
+        if (!enabled) {
+            return false;
+        }
+        if (!MessageSegmentFormat.isValidConversationId(conversationId)) {
+            log.warn("Rejected archive read for invalid conversation ID: {}", conversationId);
+            return false;
+        }
+        return true;
+    }
+}
@@ -22,7 +22,10 @@ import java.time.Instant;
  */
 @Document(collection = "messages")
 @CompoundIndex(name = "conversation_created_idx", def = "{'conversationId': 1, 'createdAt': -1}")
+@CompoundIndex(name = "conversation_id_idx", def = "{'conversationId': 1, '_id': -1}")
 @CompoundIndex(name = "receiver_status_idx", def = "{'receiverId': 1, 'status': 1}")
+@CompoundIndex(name = "conversation_seq_idx", def = "{'conversationId': 1, 'seq': 1}", unique = true,
+        partialFilter = "{ 'seq': { $exists: true } }")
 @Data
 @Builder
 @NoArgsConstructor
@@ -30,16 +33,20 @@ import java.time.Instant;
 public class MessageDocument {
 
     @Id
-    private String id;
+    private String id; // Snowflake ID, fixed-width decimal: string order is creation order
 
     @Indexed
     private String conversationId;
 
+    private Long seq; // dense per-conversation sequence, absent on messages sent before sequencing
+
     @Indexed
     private String senderId;
 
     @Indexed
-    private String receiverId;
+    private String receiverId; // absent on shared (group/broadcast) messages
+
+    private Integer recipientCount; // shared messages only; per-recipient state in message_receipts
 
     private String contentText;
 
@@ -0,0 +1,51 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Message Receipt MongoDB Document
+ *
+ * Per-recipient state of one shared message as two bitmaps over the
+ * recipients of its roster: bit i of word i / 64 is recipient i.
+ * A 256-member group needs 4 words per bitmap instead of 256 documents.
+ *
+ * The counts are maintained with the bits, in the same atomic update.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Document(collection = "message_receipts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageReceiptDocument {
+
+    @Id
+    private String id; // message id
+
+    @Indexed
+    private String conversationId;
+
+    private String rosterId;
+
+    private int recipientCount;
+
+    private List<Long> delivered;
+
+    private List<Long> read;
+
+    private int deliveredCount;
+
+    private int readCount;
+
+    private Instant createdAt;
+}
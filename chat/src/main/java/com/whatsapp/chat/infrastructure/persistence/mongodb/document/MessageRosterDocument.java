@@ -0,0 +1,40 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Message Roster MongoDB Document
+ *
+ * Immutable, sorted recipient list of shared messages. Receipts refer to
+ * a roster by id and address recipients by their index in it, so the
+ * messages of one sender to an unchanged group all share one roster.
+ *
+ * The id is derived from the conversation and the recipient list
+ * ("{conversationId}:{hash}"), so equal rosters are written once.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Document(collection = "message_rosters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageRosterDocument {
+
+    @Id
+    private String id;
+
+    private String conversationId;
+
+    private List<String> members;
+
+    private Instant createdAt;
+}
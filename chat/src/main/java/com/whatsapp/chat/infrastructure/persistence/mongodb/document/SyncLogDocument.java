@@ -0,0 +1,48 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Sync Log MongoDB Document
+ *
+ * One entry of a user's append-only sync log.
+ * Entries expire after 30 days; clients further behind perform a full resync.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Document(collection = "sync_log")
+@CompoundIndex(name = "user_seq_idx", def = "{'userId': 1, 'seq': 1}", unique = true)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncLogDocument {
+
+    @Id
+    private String id;
+
+    private String userId;
+
+    private long seq;
+
+    private String type;
+
+    private String conversationId;
+
+    private String messageId;
+
+    private Map<String, String> data;
+
+    @Indexed(expireAfter = "30d")
+    private Instant createdAt;
+}
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Message MongoDB Repository
@@ -16,7 +17,9 @@ import java.util.List;
  *
  * Indexes (defined on the document class):
  *  - conversation_created_idx  (conversationId ASC, createdAt DESC)  – history queries
+ *  - conversation_id_idx       (conversationId ASC, _id DESC)        – keyset history pages
  *  - receiver_status_idx       (receiverId ASC, status ASC)          – inbox queries
+ *  - conversation_seq_idx      (conversationId ASC, seq ASC, unique)  – gap-fill, sequence recovery
  *
  * @author WhatsApp Clone Team
  */
@@ -32,6 +35,29 @@ public interface MessageMongoRepository extends MongoRepository<MessageDocument,
      */
     List<MessageDocument> findByConversationIdOrderByCreatedAtDesc(String conversationId, Pageable pageable);
 
+    /**
+     * Find messages in a conversation with an ID below a cursor, newest first.
+     * Backs keyset (cursor) pagination over history: Snowflake IDs are
+     * fixed-width decimal strings, so string order is creation order and
+     * messages created in the same millisecond are never skipped.
+     *
+     * @param conversationId the conversation ID
+     * @param id             exclusive upper bound on the message ID
+     * @param pageable       pagination parameters (sorted by _id descending)
+     * @return list of message documents
+     */
+    List<MessageDocument> findByConversationIdAndIdLessThan(String conversationId, String id, Pageable pageable);
+
+    /**
+     * Find the message with the highest sequence number in a conversation.
+     * Used to recover the sequence counter's high-water mark.
+     *
+     * @param conversationId the conversation ID
+     * @param exists         should be true (keeps the query on the partial seq index)
+     * @return latest sequenced message, if any
+     */
+    Optional<MessageDocument> findFirstByConversationIdAndSeqExistsOrderBySeqDesc(String conversationId, boolean exists);
+
     /**
      * Find all messages in a conversation with no pagination limit
      * (internal use only – prefer the paginated variant).
@@ -70,6 +96,27 @@ public interface MessageMongoRepository extends MongoRepository<MessageDocument,
      */
     long countByConversationId(String conversationId);
 
+    /**
+     * Count messages in a conversation, excluding soft-deleted ones.
+     * Authoritative source of the maintained conversation counter.
+     *
+     * @param conversationId the conversation ID
+     * @param deleted        should be true
+     * @return non-deleted message count
+     */
+    long countByConversationIdAndDeletedNot(String conversationId, Boolean deleted);
+
+    /**
+     * Count messages for a recipient in a status, excluding soft-deleted ones.
+     * Authoritative source of the maintained undelivered counter.
+     *
+     * @param receiverId the recipient's user ID
+     * @param status     should be "SENT"
+     * @param deleted    should be true
+     * @return non-deleted message count
+     */
+    long countByReceiverIdAndStatusAndDeletedNot(String receiverId, String status, Boolean deleted);
+
     /**
      * Count undelivered messages for a recipient.
      *
@@ -0,0 +1,312 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.ReceiptUpdate;
+import com.whatsapp.chat.domain.repository.MessageReceiptRepository;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageReceiptDocument;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageRosterDocument;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Message Receipt Repository Implementation
+ *
+ * Keeps per-recipient state of shared messages in "message_receipts"
+ * (two bitmaps per message) against recipient lists in "message_rosters".
+ *
+ * Bit updates (batched):
+ *  Receipts are applied in batches: one read of the touched bitmaps, then
+ *  one findAndModify per message that sets all its new bits and counts
+ *  them. The write matches only while every one of those bits is clear
+ *  ($bitsAllClear), so repeated or concurrent receipts never skew the
+ *  counts, and the recipients reported as changed are the ones this write
+ *  flipped: a receipt raced by another node is reported by one of them.
+ *
+ * Rosters are immutable and cached in memory (LRU).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class MessageReceiptRepositoryImpl implements MessageReceiptRepository {
+
+    private static final int WORD_BITS = 64;
+    private static final int ROSTER_CACHE_SIZE = 10_000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String DELIVERED = "delivered";
+    private static final String READ = "read";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, List<String>> rosterCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                    return size() > ROSTER_CACHE_SIZE;
+                }
+            });
+
+    // ---------------------------------------------------------------
+    // MessageReceiptRepository implementation
+    // ---------------------------------------------------------------
+
+    @Override
+    public void create(Message message, List<String> recipientIds) {
+        List<String> members = recipientIds.stream().distinct().sorted().toList();
+        String conversationId = message.getConversationId().getValue();
+        String rosterId = saveRoster(conversationId, members);
+
+        int words = (members.size() + WORD_BITS - 1) / WORD_BITS;
+        mongoTemplate.insert(MessageReceiptDocument.builder()
+                .id(message.getId().getValue())
+                .conversationId(conversationId)
+                .rosterId(rosterId)
+                .recipientCount(members.size())
+                .delivered(new ArrayList<>(Collections.nCopies(words, 0L)))
+                .read(new ArrayList<>(Collections.nCopies(words, 0L)))
+                .deliveredCount(0)
+                .readCount(0)
+                .createdAt(message.getCreatedAt())
+                .build());
+    }
+
+    @Override
+    public Map<MessageId, ReceiptUpdate> markAll(Map<MessageId, Set<String>> delivered,
+                                                 Map<MessageId, Set<String>> read) {
+        Set<String> ids = new HashSet<>();
+        delivered.keySet().forEach(id -> ids.add(id.getValue()));
+        read.keySet().forEach(id -> ids.add(id.getValue()));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<MessageId, ReceiptUpdate> updates = new LinkedHashMap<>();
+        for (MessageReceiptDocument doc : mongoTemplate.find(new Query(Criteria.where("_id").in(ids)),
+                MessageReceiptDocument.class)) {
+            MessageId messageId = MessageId.of(doc.getId());
+            try {
+                ReceiptUpdate update = mark(doc,
+                        delivered.getOrDefault(messageId, Set.of()), read.getOrDefault(messageId, Set.of()));
+                if (update != null) {
+                    updates.put(messageId, update);
+                }
+            } catch (Exception e) {
+                log.error("Failed to apply receipts of message {}: {}", doc.getId(), e.getMessage());
+            }
+        }
+        return updates;
+    }
+
+    @Override
+    public Map<MessageId, ReceiptProgress> findProgress(Collection<MessageId> messageIds) {
+        if (messageIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(messageIds.stream().map(MessageId::getValue).toList()));
+        query.fields().include("recipientCount", "deliveredCount", "readCount");
+
+        Map<MessageId, ReceiptProgress> progress = new LinkedHashMap<>();
+        for (MessageReceiptDocument doc : mongoTemplate.find(query, MessageReceiptDocument.class)) {
+            progress.put(MessageId.of(doc.getId()), toProgress(doc));
+        }
+        return progress;
+    }
+
+    @Override
+    public Optional<List<String>> findRecipients(MessageId messageId) {
+        Query query = new Query(Criteria.where("_id").is(messageId.getValue()));
+        query.fields().include("rosterId");
+        MessageReceiptDocument doc = mongoTemplate.findOne(query, MessageReceiptDocument.class);
+        return Optional.ofNullable(doc).map(receipt -> roster(receipt.getRosterId()));
+    }
+
+    @Override
+    public Map<String, MessageStatus> findRecipientStatuses(MessageId messageId) {
+        MessageReceiptDocument doc = mongoTemplate.findById(messageId.getValue(), MessageReceiptDocument.class);
+        if (doc == null) {
+            return Map.of();
+        }
+        List<String> members = roster(doc.getRosterId());
+        Map<String, MessageStatus> statuses = new LinkedHashMap<>(members.size() * 2);
+        for (int i = 0; i < members.size(); i++) {
+            MessageStatus status = isSet(doc.getRead(), i) ? MessageStatus.READ
+                    : isSet(doc.getDelivered(), i) ? MessageStatus.DELIVERED
+                    : MessageStatus.SENT;
+            statuses.put(members.get(i), status);
+        }
+        return statuses;
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    /**
+     * Apply the receipts of one message in a single guarded write
+     *
+     * The write matches only while every bit it sets is clear, so the
+     * recipients it reports as new are exactly the ones it flipped. If
+     * another writer set one of the bits first, the receipts are planned
+     * again against the current bitmaps.
+     *
+     * @return the update, or null if the message's receipts are gone
+     */
+    private ReceiptUpdate mark(MessageReceiptDocument doc, Set<String> delivered, Set<String> read) {
+        List<String> members = roster(doc.getRosterId());
+        Map<String, Integer> indexes = new HashMap<>();
+        Set<String> receivers = new HashSet<>(delivered);
+        receivers.addAll(read);
+        for (String userId : receivers) {
+            int index = Collections.binarySearch(members, userId);
+            if (index < 0) {
+                log.warn("Ignoring receipt of {} for message {}: not a recipient", userId, doc.getId());
+                continue;
+            }
+            indexes.put(userId, index);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Map<String, Integer> newlyDelivered = new HashMap<>();
+            Map<String, Integer> newlyRead = new HashMap<>();
+            for (Map.Entry<String, Integer> recipient : indexes.entrySet()) {
+                if (!isSet(doc.getDelivered(), recipient.getValue())) {
+                    newlyDelivered.put(recipient.getKey(), recipient.getValue());
+                }
+                if (read.contains(recipient.getKey()) && !isSet(doc.getRead(), recipient.getValue())) {
+                    newlyRead.put(recipient.getKey(), recipient.getValue());
+                }
+            }
+            if (newlyDelivered.isEmpty() && newlyRead.isEmpty()) {
+                return ReceiptUpdate.of(Set.of(), Set.of(), toProgress(doc));
+            }
+
+            Query guard = new Query(Criteria.where("_id").is(doc.getId()));
+            Update update = new Update();
+            setBits(guard, update, DELIVERED, newlyDelivered.values());
+            setBits(guard, update, READ, newlyRead.values());
+            MessageReceiptDocument updated = mongoTemplate.findAndModify(guard, update,
+                    FindAndModifyOptions.options().returnNew(true), MessageReceiptDocument.class);
+            if (updated != null) {
+                return ReceiptUpdate.of(newlyDelivered.keySet(), newlyRead.keySet(), toProgress(updated));
+            }
+
+            if (attempt == MAX_ATTEMPTS) {
+                throw new IllegalStateException("Receipts of message " + doc.getId() + " kept conflicting");
+            }
+            doc = mongoTemplate.findById(doc.getId(), MessageReceiptDocument.class);
+            if (doc == null) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Guard on the bits being clear, then set them and count them
+     */
+    private void setBits(Query guard, Update update, String bitmap, Collection<Integer> indexes) {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<Integer>> bitsByWord = new TreeMap<>();
+        for (int index : indexes) {
+            bitsByWord.computeIfAbsent(index / WORD_BITS, word -> new ArrayList<>()).add(index % WORD_BITS);
+        }
+        bitsByWord.forEach((word, bits) -> {
+            guard.addCriteria(Criteria.where(bitmap + "." + word).bits().allClear(bits));
+            long mask = 0;
+            for (int bit : bits) {
+                mask |= 1L << bit;
+            }
+            update.bitwise(bitmap + "." + word).or(mask);
+        });
+        update.inc(bitmap + "Count", indexes.size());
+    }
+
+    private List<String> roster(String rosterId) {
+        List<String> members = rosterCache.get(rosterId);
+        if (members != null) {
+            return members;
+        }
+        MessageRosterDocument doc = mongoTemplate.findById(rosterId, MessageRosterDocument.class);
+        if (doc == null) {
+            throw new IllegalStateException("Receipt roster not found: " + rosterId);
+        }
+        members = List.copyOf(doc.getMembers());
+        rosterCache.put(rosterId, members);
+        return members;
+    }
+
+    /**
+     * Write a roster unless an equal one exists
+     *
+     * @return the roster id
+     */
+    private String saveRoster(String conversationId, List<String> members) {
+        String rosterId = conversationId + ":" + hash(members);
+        if (rosterCache.containsKey(rosterId)) {
+            return rosterId;
+        }
+        try {
+            mongoTemplate.upsert(
+                    new Query(Criteria.where("_id").is(rosterId)),
+                    new Update()
+                            .setOnInsert("conversationId", conversationId)
+                            .setOnInsert("members", members)
+                            .setOnInsert("createdAt", Instant.now()),
+                    MessageRosterDocument.class);
+        } catch (DuplicateKeyException e) {
+            log.debug("Roster {} inserted concurrently", rosterId);
+        }
+        rosterCache.put(rosterId, List.copyOf(members));
+        return rosterId;
+    }
+
+    private static String hash(List<String> members) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.join("\n", members).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isSet(List<Long> bitmap, int index) {
+        int word = index / WORD_BITS;
+        return bitmap != null && word < bitmap.size() && (bitmap.get(word) & (1L << (index % WORD_BITS))) != 0;
+    }
+
+    private static ReceiptProgress toProgress(MessageReceiptDocument doc) {
+        return ReceiptProgress.of(doc.getRecipientCount(), doc.getDeliveredCount(), doc.getReadCount());
+    }
+}
@@ -5,17 +5,33 @@ import com.whatsapp.chat.domain.model.MessageStatus;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
 import com.whatsapp.chat.domain.model.vo.MessageContent;
 import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.SeqRange;
 import com.whatsapp.chat.domain.repository.MessageRepository;
+import com.whatsapp.chat.infrastructure.cache.MessageCounterCache;
+import com.whatsapp.chat.infrastructure.persistence.archive.MessageArchiveReader;
 import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageDocument;
+import com.whatsapp.common.archive.ArchivedMessage;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,6 +43,21 @@ import java.util.stream.Collectors;
  *
  * Mapping strategy:
  *  Message domain model  ↔  MessageDocument (MongoDB)
+ *  Message domain model  ←  ArchivedMessage (cold-tier segments, read-only)
+ *
+ * History reads are served from MongoDB first; when a page runs past the
+ * oldest hot message, the remainder is read through from the archive
+ * written by the scheduled-jobs archival job.
+ *
+ * Status transitions (delivered, read, deleted) are written as targeted
+ * $set updates of the dirty fields, guarded by the persisted status, instead
+ * of replacing the whole document.
+ *
+ * Counts are served from counters maintained in Redis
+ * ({@link MessageCounterCache}); MongoDB is only counted to seed them.
+ *
+ * Gap-fill reads go to MongoDB only: a client detects gaps in recent
+ * history, and archived messages are long past any live sync window.
  *
  * @author WhatsApp Clone Team
  */
@@ -36,7 +67,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MessageRepositoryImpl implements MessageRepository {
 
+    /** Upper bound on messages returned by a single gap-fill query */
+    private static final int MAX_GAP_FILL = 500;
+
+    /** Width of a Snowflake ID in decimal (every ID from 2018 until 2080) */
+    private static final int SNOWFLAKE_DIGITS = 19;
+
+    /** Keyset cursor above every message ID */
+    private static final String MAX_CURSOR = String.valueOf(Long.MAX_VALUE);
+
     private final MessageMongoRepository mongoRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MessageArchiveReader archiveReader;
+    private final MessageWriteMetrics writeMetrics;
+    private final MessageCounterCache counterCache;
 
     // ---------------------------------------------------------------
     // MessageRepository implementation
@@ -45,15 +89,127 @@ public class MessageRepositoryImpl implements MessageRepository {
     @Override
     public Message save(Message message) {
         MessageDocument doc = toDocument(message);
+        long start = System.nanoTime();
         MessageDocument saved = mongoRepository.save(doc);
+        writeMetrics.record(MessageWriteMetrics.Mode.FULL, start);
+        if (writeMetrics.sampleSize()) {
+            writeMetrics.recordSize(MessageWriteMetrics.Mode.FULL, sizeOf(doc));
+        }
+        message.markPersisted();
         return toDomain(saved);
     }
 
+    @Override
+    public boolean update(Message message) {
+        if (!message.isDirty()) {
+            return false;
+        }
+
+        Query query = guard(message);
+        Update update = toUpdate(message);
+        long start = System.nanoTime();
+        UpdateResult result = mongoTemplate.updateFirst(query, update, MessageDocument.class);
+        writeMetrics.record(MessageWriteMetrics.Mode.PARTIAL, start);
+        if (writeMetrics.sampleSize()) {
+            writeMetrics.recordSize(MessageWriteMetrics.Mode.PARTIAL, writeMetrics.sizeOf(update.getUpdateObject()));
+        }
+
+        boolean applied = result.getModifiedCount() > 0;
+        if (applied) {
+            message.markPersisted();
+        } else {
+            log.debug("Skipped stale {} update for message {} (expected status {})",
+                    message.getDirtyFields(), message.getId(), message.getPersistedStatus());
+        }
+        return applied;
+    }
+
+    @Override
+    public int updateAll(List<Message> messages) {
+        List<Message> dirty = messages.stream().filter(Message::isDirty).collect(Collectors.toList());
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageDocument.class);
+        boolean sampled = writeMetrics.sampleSize();
+        long bytes = 0;
+        for (Message message : dirty) {
+            Update update = toUpdate(message);
+            bulk.updateOne(guard(message), update);
+            if (sampled) {
+                bytes += writeMetrics.sizeOf(update.getUpdateObject());
+            }
+        }
+
+        long start = System.nanoTime();
+        BulkWriteResult result = bulk.execute();
+        writeMetrics.record(MessageWriteMetrics.Mode.BULK, start);
+        if (sampled) {
+            writeMetrics.recordSize(MessageWriteMetrics.Mode.BULK, bytes);
+        }
+
+        if (result.getMatchedCount() >= dirty.size()) {
+            dirty.forEach(Message::markPersisted);
+        } else {
+            markApplied(dirty);
+        }
+        log.debug("Bulk updated {}/{} messages", result.getModifiedCount(), dirty.size());
+        return result.getModifiedCount();
+    }
+
+    /**
+     * Mark persisted only the messages of a bulk update whose guard matched
+     *
+     * An unordered bulk write reports counts, not which operations matched:
+     * the stored documents are read back, and a message counts as applied
+     * if its guarded fields now hold the values it wrote. The others stay
+     * dirty, like a rejected {@link #update(Message)}.
+     */
+    private void markApplied(List<Message> dirty) {
+        Query stored = new Query(Criteria.where("_id").in(
+                dirty.stream().map(message -> message.getId().getValue()).toList()));
+        stored.fields().include("status", "deleted");
+        Map<Object, Document> documents = new HashMap<>();
+        mongoTemplate.find(stored, Document.class, mongoTemplate.getCollectionName(MessageDocument.class))
+                .forEach(doc -> documents.put(doc.get("_id"), doc));
+
+        for (Message message : dirty) {
+            Document doc = documents.get(message.getId().getValue());
+            if (doc != null && holdsWrittenValues(message, doc)) {
+                message.markPersisted();
+            } else {
+                log.debug("Skipped stale {} update for message {} (expected status {})",
+                        message.getDirtyFields(), message.getId(), message.getPersistedStatus());
+            }
+        }
+    }
+
+    private static boolean holdsWrittenValues(Message message, Document doc) {
+        if (message.getDirtyFields().contains(Message.Field.STATUS)
+                && !message.getStatus().name().equals(doc.getString("status"))) {
+            return false;
+        }
+        return !message.getDirtyFields().contains(Message.Field.DELETED)
+                || message.isDeleted() == Boolean.TRUE.equals(doc.getBoolean("deleted"));
+    }
+
     @Override
     public Optional<Message> findById(MessageId messageId) {
         return mongoRepository.findById(messageId.getValue()).map(this::toDomain);
     }
 
+    @Override
+    public List<Message> findAllById(Collection<MessageId> messageIds) {
+        if (messageIds.isEmpty()) {
+            return List.of();
+        }
+        List<Message> messages = new ArrayList<>(messageIds.size());
+        mongoRepository.findAllById(messageIds.stream().map(MessageId::getValue).toList())
+                .forEach(doc -> messages.add(toDomain(doc)));
+        return messages;
+    }
+
     @Override
     public List<Message> findByConversationId(ConversationId conversationId, int limit) {
         return mongoRepository.findByConversationIdOrderByCreatedAtDesc(
@@ -65,10 +221,71 @@ public class MessageRepositoryImpl implements MessageRepository {
     @Override
     public List<Message> findByConversationId(ConversationId conversationId, int offset, int limit) {
         int page = offset / limit;
-        return mongoRepository.findByConversationIdOrderByCreatedAtDesc(
+        List<Message> messages = mongoRepository.findByConversationIdOrderByCreatedAtDesc(
                         conversationId.getValue(),
                         PageRequest.of(page, limit, Sort.by(Sort.Direction.DESC, "createdAt")))
                 .stream().map(this::toDomain).collect(Collectors.toList());
+
+        if (messages.size() >= limit) {
+            return messages;
+        }
+
+        // Page crosses the archive boundary: continue in cold segments
+        long archiveSkip = 0;
+        if (messages.isEmpty()) {
+            long hotCount = mongoRepository.countByConversationId(conversationId.getValue());
+            archiveSkip = Math.max(0, (long) page * limit - hotCount);
+        }
+        archiveReader.findNewest(conversationId.getValue(), archiveSkip, limit - messages.size())
+                .forEach(archived -> messages.add(fromArchive(archived)));
+        return messages;
+    }
+
+    @Override
+    public List<Message> findByConversationIdBefore(ConversationId conversationId, MessageId before, int limit) {
+        // Exact keyset on _id: a short page means MongoDB holds nothing older
+        String beforeId = before != null ? keysetCursor(before) : MAX_CURSOR;
+        List<MessageDocument> docs = mongoRepository.findByConversationIdAndIdLessThan(
+                conversationId.getValue(),
+                beforeId,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "_id")));
+
+        List<Message> messages = docs.stream().map(this::toDomain).collect(Collectors.toCollection(ArrayList::new));
+        if (messages.size() < limit) {
+            // Hot history exhausted: continue in cold segments below the oldest hot message
+            long oldestId = docs.isEmpty()
+                    ? (before != null ? Long.parseLong(beforeId) : Long.MAX_VALUE)
+                    : Long.parseLong(docs.get(docs.size() - 1).getId());
+            archiveReader.findBefore(conversationId.getValue(), oldestId, limit - messages.size())
+                    .forEach(archived -> messages.add(fromArchive(archived)));
+        }
+        return messages;
+    }
+
+    @Override
+    public List<Message> findBySeqRanges(ConversationId conversationId, List<SeqRange> ranges) {
+        if (ranges.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // One query for all ranges: $or of bounded scans on conversation_seq_idx
+        Criteria[] bounds = ranges.stream()
+                .map(range -> Criteria.where("seq").gte(range.getFrom()).lte(range.getTo()))
+                .toArray(Criteria[]::new);
+        Query query = new Query(Criteria.where("conversationId").is(conversationId.getValue())
+                .orOperator(bounds))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(MAX_GAP_FILL);
+
+        return mongoTemplate.find(query, MessageDocument.class)
+                .stream().map(this::toDomain).collect(Collectors.toList());
+    }
+
+    @Override
+    public long findMaxSeq(ConversationId conversationId) {
+        return mongoRepository.findFirstByConversationIdAndSeqExistsOrderBySeqDesc(conversationId.getValue(), true)
+                .map(MessageDocument::getSeq)
+                .orElse(0L);
     }
 
     @Override
@@ -86,12 +303,15 @@ public class MessageRepositoryImpl implements MessageRepository {
 
     @Override
     public long countByConversationId(ConversationId conversationId) {
-        return mongoRepository.countByConversationId(conversationId.getValue());
+        String id = conversationId.getValue();
+        return counterCache.getConversationCount(id,
+                () -> mongoRepository.countByConversationIdAndDeletedNot(id, true));
     }
 
     @Override
     public long countUndeliveredMessages(String receiverId) {
-        return mongoRepository.countByReceiverIdAndStatus(receiverId, MessageStatus.SENT.name());
+        return counterCache.getUndeliveredCount(receiverId,
+                () -> mongoRepository.countByReceiverIdAndStatusAndDeletedNot(receiverId, MessageStatus.SENT.name(), true));
     }
 
     @Override
@@ -102,6 +322,7 @@ public class MessageRepositoryImpl implements MessageRepository {
     @Override
     public void deleteByConversationId(ConversationId conversationId) {
         mongoRepository.deleteByConversationId(conversationId.getValue());
+        counterCache.evictConversation(conversationId.getValue());
     }
 
     // ---------------------------------------------------------------
@@ -112,8 +333,10 @@ public class MessageRepositoryImpl implements MessageRepository {
         return MessageDocument.builder()
                 .id(domain.getId().getValue())
                 .conversationId(domain.getConversationId().getValue())
+                .seq(domain.getSeq())
                 .senderId(domain.getSenderId())
                 .receiverId(domain.getReceiverId())
+                .recipientCount(domain.isShared() ? domain.getRecipientCount() : null)
                 .contentText(domain.getContent().getText())
                 .contentType(domain.getContent().getType().name())
                 .status(domain.getStatus().name())
@@ -125,6 +348,52 @@ public class MessageRepositoryImpl implements MessageRepository {
                 .build();
     }
 
+    /**
+     * Match the stored message only while it is still in the state the transition started from
+     */
+    private Query guard(Message message) {
+        Criteria criteria = Criteria.where("_id").is(message.getId().getValue());
+        if (message.getDirtyFields().contains(Message.Field.STATUS)) {
+            criteria.and("status").is(message.getPersistedStatus().name());
+        }
+        if (message.getDirtyFields().contains(Message.Field.DELETED)) {
+            criteria.and("deleted").ne(true);
+        }
+        return new Query(criteria);
+    }
+
+    private Update toUpdate(Message message) {
+        Update update = new Update();
+        for (Message.Field field : message.getDirtyFields()) {
+            switch (field) {
+                case STATUS       -> update.set("status", message.getStatus().name());
+                case DELIVERED_AT -> update.set("deliveredAt", message.getDeliveredAt());
+                case READ_AT      -> update.set("readAt", message.getReadAt());
+                case DELETED      -> update.set("deleted", message.isDeleted());
+                case DELETED_AT   -> update.set("deletedAt", message.getDeletedAt());
+            }
+        }
+        return update;
+    }
+
+    /**
+     * Cursor of a keyset page: only fixed-width Snowflake IDs compare
+     * correctly as strings
+     */
+    private static String keysetCursor(MessageId before) {
+        String value = before.getValue();
+        if (value.length() != SNOWFLAKE_DIGITS || !value.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Invalid message cursor: " + value);
+        }
+        return value;
+    }
+
+    private long sizeOf(MessageDocument doc) {
+        Document target = new Document();
+        mongoTemplate.getConverter().write(doc, target);
+        return writeMetrics.sizeOf(target);
+    }
+
     private Message toDomain(MessageDocument doc) {
         MessageContent content = buildContent(doc.getContentText(), doc.getContentType());
 
@@ -141,7 +410,29 @@ public class MessageRepositoryImpl implements MessageRepository {
                 doc.getCreatedAt(),
                 doc.getDeliveredAt(),
                 doc.getReadAt(),
-                doc.getDeletedAt()
+                doc.getDeletedAt(),
+                doc.getSeq(),
+                doc.getRecipientCount() != null ? doc.getRecipientCount() : 0
+        );
+    }
+
+    private Message fromArchive(ArchivedMessage archived) {
+        return Message.reconstitute(
+                MessageId.of(String.valueOf(archived.getId())),
+                ConversationId.of(archived.getConversationId()),
+                archived.getSenderId(),
+                archived.getReceiverId(),
+                buildContent(archived.getContentText(), archived.getContentType()),
+                MessageStatus.valueOf(archived.getStatus()),
+                archived.isDeleted(),
+                null,
+                archived.getCreatedAt(),
+                archived.getCreatedAt(),
+                archived.getDeliveredAt(),
+                archived.getReadAt(),
+                archived.getDeletedAt(),
+                archived.getSeq(),
+                archived.getRecipientCount() != null ? archived.getRecipientCount() : 0
         );
     }
 
@@ -0,0 +1,109 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Message Write Metrics
+ *
+ * Tracks size and latency of message writes to MongoDB, per write mode,
+ * so full-document replaces and partial updates can be compared.
+ *
+ * Metrics (tag mode = full | partial | bulk):
+ * - message_write_bytes: BSON size of the document or update sent, for
+ *   1 in {@value #SIZE_SAMPLE_RATE} writes (measuring needs an extra BSON
+ *   encode, kept off most writes; the distribution is unbiased, its count
+ *   is not the write count)
+ * - message_write_duration: Round-trip time of every write
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class MessageWriteMetrics {
+
+    /**
+     * Kind of message write
+     */
+    public enum Mode {
+        FULL, PARTIAL, BULK
+    }
+
+    /** One write in this many has its BSON size measured */
+    static final int SIZE_SAMPLE_RATE = 64;
+
+    private static final DocumentCodec CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    private final Map<Mode, DistributionSummary> bytes = new EnumMap<>(Mode.class);
+    private final Map<Mode, Timer> durations = new EnumMap<>(Mode.class);
+    private final AtomicLong writes = new AtomicLong();
+
+    public MessageWriteMetrics(MeterRegistry meterRegistry) {
+        for (Mode mode : Mode.values()) {
+            String tag = mode.name().toLowerCase();
+            bytes.put(mode, DistributionSummary.builder("message_write_bytes")
+                    .description("BSON bytes sent per message write")
+                    .baseUnit("bytes")
+                    .tag("service", "chat")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+            durations.put(mode, Timer.builder("message_write_duration")
+                    .description("Time taken by a message write")
+                    .tag("service", "chat")
+                    .tag("mode", tag)
+                    .register(meterRegistry));
+        }
+        log.info("Message write metrics initialized");
+    }
+
+    /**
+     * Whether the size of the next write should be measured
+     */
+    public boolean sampleSize() {
+        return writes.incrementAndGet() % SIZE_SAMPLE_RATE == 0;
+    }
+
+    /**
+     * Record the duration of one write
+     *
+     * @param mode       write mode
+     * @param startNanos {@link System#nanoTime()} taken before the write
+     */
+    public void record(Mode mode, long startNanos) {
+        durations.get(mode).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the size of a sampled write ({@link #sampleSize()})
+     *
+     * @param mode      write mode
+     * @param bsonBytes bytes sent
+     */
+    public void recordSize(Mode mode, long bsonBytes) {
+        bytes.get(mode).record(bsonBytes);
+    }
+
+    /**
+     * Encoded BSON size of a document (best effort, 0 if it cannot be encoded)
+     */
+    public long sizeOf(Document document) {
+        try {
+            return new RawBsonDocument(document, CODEC).getByteBuffer().remaining();
+        } catch (Exception e) {
+            log.debug("Could not measure BSON size: {}", e.getMessage());
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.whatsapp.chat.domain.model.SyncEvent;
+import com.whatsapp.chat.domain.model.SyncEventType;
+import com.whatsapp.chat.domain.repository.SyncLogRepository;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.SyncLogDocument;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sync Log Repository Implementation
+ *
+ * Stores sync log entries in the "sync_log" collection and allocates
+ * per-user sequence numbers from the "sync_sequences" collection.
+ *
+ * Sequence allocation:
+ *  One atomic findAndModify ($inc by the number of events) per user per
+ *  append, so a batch for one user reserves a contiguous range.
+ *
+ *  Reserving and inserting are two steps (MongoDB runs standalone, without
+ *  multi-document transactions): a concurrent append may insert N+1 before
+ *  N, and a failed insert leaves its range unused for good. Readers
+ *  therefore only serve the contiguous prefix of the log (see
+ *  {@code SyncService}).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class SyncLogRepositoryImpl implements SyncLogRepository {
+
+    private static final String SEQUENCES_COLLECTION = "sync_sequences";
+
+    private final MongoTemplate mongoTemplate;
+
+    // ---------------------------------------------------------------
+    // SyncLogRepository implementation
+    // ---------------------------------------------------------------
+
+    @Override
+    public List<SyncEvent> appendAll(List<SyncEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+
+        Map<String, List<SyncEvent>> byUser = events.stream()
+                .collect(Collectors.groupingBy(SyncEvent::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+        List<SyncLogDocument> docs = new ArrayList<>(events.size());
+        List<SyncEvent> sequenced = new ArrayList<>(events.size());
+        byUser.forEach((userId, userEvents) -> {
+            long last = reserve(userId, userEvents.size());
+            long seq = last - userEvents.size();
+            for (SyncEvent event : userEvents) {
+                seq++;
+                docs.add(toDocument(event, seq));
+                sequenced.add(SyncEvent.reconstitute(event.getUserId(), seq, event.getType(),
+                        event.getConversationId(), event.getMessageId(), event.getData(), event.getCreatedAt()));
+            }
+        });
+
+        try {
+            mongoTemplate.insertAll(docs);
+        } catch (RuntimeException e) {
+            // Reserved but unwritten: readers skip the hole once it is past the gap grace period
+            log.error("Sync log insert failed, leaving {} reserved sequence numbers unused for users {}",
+                    docs.size(), byUser.keySet(), e);
+            throw e;
+        }
+        return sequenced;
+    }
+
+    @Override
+    public List<SyncEvent> findAfter(String userId, long afterSeq, int limit) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("seq").gt(afterSeq))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(limit);
+        return mongoTemplate.find(query, SyncLogDocument.class).stream()
+                .map(this::toDomain)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long findOldestSeq(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(1);
+        query.fields().include("seq");
+        SyncLogDocument oldest = mongoTemplate.findOne(query, SyncLogDocument.class);
+        return oldest != null ? oldest.getSeq() : 0L;
+    }
+
+    @Override
+    public long findLatestSeq(String userId) {
+        Document counter = mongoTemplate.findById(userId, Document.class, SEQUENCES_COLLECTION);
+        return counter != null ? ((Number) counter.get("seq")).longValue() : 0L;
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    /**
+     * Atomically reserve {@code count} sequence numbers for a user.
+     *
+     * @return the last reserved sequence number
+     */
+    private long reserve(String userId, int count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().inc("seq", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                SEQUENCES_COLLECTION);
+        return ((Number) counter.get("seq")).longValue();
+    }
+
+    private SyncLogDocument toDocument(SyncEvent event, long seq) {
+        return SyncLogDocument.builder()
+                .userId(event.getUserId())
+                .seq(seq)
+                .type(event.getType().name())
+                .conversationId(event.getConversationId())
+                .messageId(event.getMessageId())
+                .data(event.getData())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+
+    private SyncEvent toDomain(SyncLogDocument doc) {
+        return SyncEvent.reconstitute(
+                doc.getUserId(),
+                doc.getSeq(),
+                SyncEventType.valueOf(doc.getType()),
+                doc.getConversationId(),
+                doc.getMessageId(),
+                doc.getData(),
+                doc.getCreatedAt());
+    }
+}
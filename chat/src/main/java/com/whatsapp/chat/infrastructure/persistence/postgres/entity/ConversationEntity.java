@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -17,7 +18,8 @@ import java.util.List;
  * Conversation JPA Entity
  *
  * Stores conversation metadata in PostgreSQL.
- * Participants are stored in a separate {@link ConversationParticipantEntity} table.
+ * Participants are stored in a separate {@link ConversationParticipantEntity} table
+ * and are loaded in batches when several conversations are mapped at once.
  *
  * @author WhatsApp Clone Team
  */
@@ -68,6 +70,7 @@ public class ConversationEntity {
     private Instant updatedAt;
 
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     @Builder.Default
     private List<ConversationParticipantEntity> participants = new ArrayList<>();
 
@@ -19,7 +19,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "conversation_participants", indexes = {
         @Index(name = "idx_conversation_participants_conversation", columnList = "conversation_id"),
-        @Index(name = "idx_conversation_participants_user",         columnList = "user_id")
+        @Index(name = "idx_conversation_participants_user",         columnList = "user_id"),
+        @Index(name = "idx_conversation_participants_user_active",  columnList = "user_id, left_at")
 })
 @Data
 @Builder
@@ -27,8 +28,11 @@ import java.time.Instant;
 @AllArgsConstructor
 public class ConversationParticipantEntity {
 
+    /** Pooled sequence ids: 50 per round trip, and inserts can be JDBC-batched (IDENTITY cannot) */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conversation_participants_seq")
+    @SequenceGenerator(name = "conversation_participants_seq",
+            sequenceName = "conversation_participants_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,11 +1,15 @@
 package com.whatsapp.chat.infrastructure.persistence.postgres.repository;
 
+import com.whatsapp.chat.domain.model.ConversationSummary;
 import com.whatsapp.chat.infrastructure.persistence.postgres.entity.ConversationEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +54,55 @@ public interface ConversationJpaRepository extends JpaRepository<ConversationEnt
             @Param("off")    int offset,
             @Param("lim")    int limit);
 
+    // ---------------------------------------------------------------
+    // Conversation list (read side)
+    //
+    // Driven by the user's membership rows (covering index
+    // idx_conversation_participants_user_active), joined to the
+    // conversation by primary key and, for ONE_TO_ONE, to the other
+    // member. Rows are built as flat ConversationSummary objects: no
+    // entities are loaded, so the participant collection is never touched.
+    // ---------------------------------------------------------------
+
+    String SUMMARY_SELECT = """
+            SELECT new com.whatsapp.chat.domain.model.ConversationSummary(
+                   c.id, c.type, c.name, c.avatarUrl, c.lastMessageId, c.lastMessageTimestamp,
+                   COALESCE(c.lastMessageTimestamp, c.createdAt), p.unreadCount,
+                   o.userId, o.displayName)
+              FROM ConversationParticipantEntity p
+              JOIN p.conversation c
+              LEFT JOIN ConversationParticipantEntity o
+                ON o.conversation = c AND c.type = 'ONE_TO_ONE'
+               AND o.userId <> p.userId AND o.leftAt IS NULL
+             WHERE p.userId = :userId AND p.leftAt IS NULL
+            """;
+
+    String SUMMARY_ORDER = """
+             ORDER BY COALESCE(c.lastMessageTimestamp, c.createdAt) DESC, c.id DESC
+            """;
+
+    /**
+     * First page of a user's conversation list, most recent activity first.
+     */
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<ConversationSummary> findSummariesByUserId(
+            @Param("userId") String userId,
+            Pageable page);
+
+    /**
+     * Next page of a user's conversation list, strictly after the keyset
+     * position (activityAt, conversationId).
+     */
+    @Query(SUMMARY_SELECT + """
+               AND (COALESCE(c.lastMessageTimestamp, c.createdAt) < :afterAt
+                    OR (COALESCE(c.lastMessageTimestamp, c.createdAt) = :afterAt AND c.id < :afterId))
+            """ + SUMMARY_ORDER)
+    List<ConversationSummary> findSummariesByUserIdAfter(
+            @Param("userId")  String userId,
+            @Param("afterAt") Instant afterAt,
+            @Param("afterId") String afterId,
+            Pageable page);
+
     /**
      * Find a ONE_TO_ONE conversation between exactly two users.
      * Both users must be current (leftAt IS NULL) participants.
@@ -98,4 +151,38 @@ public interface ConversationJpaRepository extends JpaRepository<ConversationEnt
              WHERE p.userId = :userId AND p.leftAt IS NULL
             """)
     long countByParticipantUserId(@Param("userId") String userId);
+
+    /**
+     * Move the last-message pointer forward without touching participants.
+     * Never moves it back, so out-of-order and replayed writes are harmless.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationEntity c
+               SET c.lastMessageId = :messageId,
+                   c.lastMessageTimestamp = :sentAt,
+                   c.updatedAt = :updatedAt
+             WHERE c.id = :id
+               AND (c.lastMessageTimestamp IS NULL OR c.lastMessageTimestamp <= :sentAt)
+            """)
+    int updateLastMessageIfNewer(
+            @Param("id")        String id,
+            @Param("messageId") String messageId,
+            @Param("sentAt")    Instant sentAt,
+            @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * Conversation type only (no participant load).
+     */
+    @Query("SELECT c.type FROM ConversationEntity c WHERE c.id = :id")
+    Optional<String> findTypeById(@Param("id") String id);
+
+    /**
+     * Bump updatedAt after a membership change.
+     */
+    @Modifying
+    @Query("UPDATE ConversationEntity c SET c.updatedAt = :updatedAt WHERE c.id = :id")
+    int touch(
+            @Param("id")        String id,
+            @Param("updatedAt") Instant updatedAt);
 }
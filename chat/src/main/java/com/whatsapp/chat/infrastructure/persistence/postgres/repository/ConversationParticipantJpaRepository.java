@@ -0,0 +1,171 @@
+package com.whatsapp.chat.infrastructure.persistence.postgres.repository;
+
+import com.whatsapp.chat.infrastructure.persistence.postgres.entity.ConversationParticipantEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Conversation Participant JPA Repository
+ *
+ * Row-level queries against conversation_participants for commands that
+ * only need one member's data. Lets hot paths (send, mark-read) avoid
+ * loading the full participant collection of large groups.
+ *
+ * All lookups are served by UNIQUE (conversation_id, user_id).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Repository
+public interface ConversationParticipantJpaRepository extends JpaRepository<ConversationParticipantEntity, Long> {
+
+    /**
+     * Check whether a user is a current member.
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM ConversationParticipantEntity p
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+               AND p.leftAt IS NULL
+            """)
+    boolean existsActiveMember(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId);
+
+    /**
+     * Check whether a user is a current admin.
+     */
+    @Query("""
+            SELECT COUNT(p) > 0 FROM ConversationParticipantEntity p
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+               AND p.admin = true
+               AND p.leftAt IS NULL
+            """)
+    boolean existsActiveAdmin(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId);
+
+    /**
+     * Current member ids in a stable order (group fan-out, receipt rosters).
+     */
+    @Query("""
+            SELECT p.userId FROM ConversationParticipantEntity p
+             WHERE p.conversation.id = :conversationId
+               AND p.leftAt IS NULL
+             ORDER BY p.userId
+            """)
+    List<String> findActiveMemberIds(@Param("conversationId") String conversationId);
+
+    /**
+     * Those of the candidates who are current members of a conversation the
+     * user is a current member of too (presence authorisation).
+     */
+    @Query("""
+            SELECT DISTINCT other.userId FROM ConversationParticipantEntity other,
+                                              ConversationParticipantEntity self
+             WHERE self.conversation.id = other.conversation.id
+               AND self.userId = :userId
+               AND self.leftAt IS NULL
+               AND other.userId IN :candidateIds
+               AND other.leftAt IS NULL
+            """)
+    List<String> findCoMemberIds(
+            @Param("userId")       String userId,
+            @Param("candidateIds") Collection<String> candidateIds);
+
+    /**
+     * Add a (combined) delta to the unread count of every current member
+     * except one (the sender of group messages): one statement per group.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationParticipantEntity p
+               SET p.unreadCount = p.unreadCount + :delta
+             WHERE p.conversation.id = :conversationId
+               AND p.userId <> :excludedUserId
+               AND p.leftAt IS NULL
+            """)
+    int addUnreadCountExcept(
+            @Param("conversationId") String conversationId,
+            @Param("excludedUserId") String excludedUserId,
+            @Param("delta")          int delta);
+
+    /**
+     * Add a (combined) delta to one member's unread count.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationParticipantEntity p
+               SET p.unreadCount = p.unreadCount + :delta
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+            """)
+    int addUnreadCount(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId,
+            @Param("delta")          int delta);
+
+    /**
+     * Set one member's unread count.
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationParticipantEntity p
+               SET p.unreadCount = :count
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+            """)
+    int setUnreadCount(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId,
+            @Param("count")          int count);
+
+    /**
+     * Reactivate the row of a former member (UNIQUE (conversation_id, user_id)
+     * keeps one row per user, so rejoining reuses it).
+     *
+     * @return 1 if the user had left before, 0 if a new row must be inserted
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationParticipantEntity p
+               SET p.leftAt = NULL,
+                   p.joinedAt = :joinedAt,
+                   p.displayName = :displayName,
+                   p.admin = :admin,
+                   p.unreadCount = 0
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+               AND p.leftAt IS NOT NULL
+            """)
+    int rejoin(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId,
+            @Param("displayName")    String displayName,
+            @Param("admin")          boolean admin,
+            @Param("joinedAt")       Instant joinedAt);
+
+    /**
+     * Mark a member as having left (the row is kept for history and rejoin).
+     */
+    @Modifying
+    @Query("""
+            UPDATE ConversationParticipantEntity p
+               SET p.leftAt = :leftAt,
+                   p.admin = false
+             WHERE p.conversation.id = :conversationId
+               AND p.userId = :userId
+               AND p.leftAt IS NULL
+            """)
+    int markLeft(
+            @Param("conversationId") String conversationId,
+            @Param("userId")         String userId,
+            @Param("leftAt")         Instant leftAt);
+}
@@ -1,23 +1,34 @@
 package com.whatsapp.chat.infrastructure.persistence.postgres.repository;
 
 import com.whatsapp.chat.domain.model.Conversation;
+import com.whatsapp.chat.domain.model.ConversationSummary;
 import com.whatsapp.chat.domain.model.ConversationType;
+import com.whatsapp.chat.domain.model.vo.ConversationCursor;
 import com.whatsapp.chat.domain.model.vo.ConversationId;
 import com.whatsapp.chat.domain.model.vo.Participant;
 import com.whatsapp.chat.domain.repository.ConversationRepository;
 import com.whatsapp.chat.infrastructure.persistence.postgres.entity.ConversationEntity;
 import com.whatsapp.chat.infrastructure.persistence.postgres.entity.ConversationParticipantEntity;
+import com.whatsapp.chat.infrastructure.persistence.writecombine.ConversationWriteCombiner;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +41,9 @@ import java.util.stream.Collectors;
  *  - ConversationEntity       ↔ Conversation domain model
  *  - ConversationParticipantEntity ↔ Participant value object
  *
+ * Per-message writes (last message, unread counts) go through the
+ * {@link ConversationWriteCombiner} instead of hitting the row directly.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -39,17 +53,36 @@ import java.util.stream.Collectors;
 public class ConversationRepositoryImpl implements ConversationRepository {
 
     private final ConversationJpaRepository jpaRepository;
+    private final ConversationParticipantJpaRepository participantJpaRepository;
+    private final ConversationWriteCombiner writeCombiner;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // ---------------------------------------------------------------
     // ConversationRepository implementation
     // ---------------------------------------------------------------
 
+    /**
+     * New conversations are persisted with all participant rows in JDBC
+     * batches. Existing ones are updated in place: header fields are copied
+     * and membership is reconciled row by row, so only changed rows are
+     * written (unread counts are left to the write combiner).
+     */
     @Override
     @Transactional
     public Conversation save(Conversation conversation) {
-        ConversationEntity entity = toEntity(conversation);
-        ConversationEntity saved  = jpaRepository.save(entity);
-        return toDomain(saved);
+        Optional<ConversationEntity> existing = jpaRepository.findById(conversation.getId().getValue());
+        if (existing.isEmpty()) {
+            ConversationEntity entity = toEntity(conversation);
+            entityManager.persist(entity);
+            return toDomain(entity);
+        }
+
+        ConversationEntity entity = existing.get();
+        copyHeader(conversation, entity);
+        reconcileParticipants(conversation, entity);
+        return toDomain(entity);
     }
 
     @Override
@@ -85,6 +118,17 @@ public class ConversationRepositoryImpl implements ConversationRepository {
                 .stream().map(this::toDomain).collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConversationSummary> findSummaries(String userId, ConversationCursor after, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        if (after == null) {
+            return jpaRepository.findSummariesByUserId(userId, page);
+        }
+        return jpaRepository.findSummariesByUserIdAfter(
+                userId, after.getActivityAt(), after.getConversationId(), page);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean existsByParticipants(String user1Id, String user2Id) {
@@ -97,6 +141,87 @@ public class ConversationRepositoryImpl implements ConversationRepository {
         return jpaRepository.countByParticipantUserId(userId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(ConversationId conversationId) {
+        return jpaRepository.existsById(conversationId.getValue());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ConversationType> findType(ConversationId conversationId) {
+        return jpaRepository.findTypeById(conversationId.getValue()).map(ConversationType::valueOf);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isParticipant(ConversationId conversationId, String userId) {
+        return participantJpaRepository.existsActiveMember(conversationId.getValue(), userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isAdmin(ConversationId conversationId, String userId) {
+        return participantJpaRepository.existsActiveAdmin(conversationId.getValue(), userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findMemberIds(ConversationId conversationId) {
+        return participantJpaRepository.findActiveMemberIds(conversationId.getValue());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findCoMemberIds(String userId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(participantJpaRepository.findCoMemberIds(userId, userIds));
+    }
+
+    @Override
+    public void recordMessage(ConversationId conversationId, String messageId, Instant sentAt, String recipientId) {
+        // Combined in memory, flushed at most once per interval per conversation
+        writeCombiner.recordMessage(conversationId.getValue(), messageId, sentAt, recipientId);
+    }
+
+    @Override
+    public void recordGroupMessage(ConversationId conversationId, String messageId, Instant sentAt, String senderId) {
+        writeCombiner.recordGroupMessage(conversationId.getValue(), messageId, sentAt, senderId);
+    }
+
+    @Override
+    public void resetUnreadCount(ConversationId conversationId, String userId) {
+        writeCombiner.resetUnread(conversationId.getValue(), userId);
+    }
+
+    @Override
+    @Transactional
+    public void addParticipant(ConversationId conversationId, Participant participant) {
+        Instant now = Instant.now();
+        int rejoined = participantJpaRepository.rejoin(conversationId.getValue(), participant.getUserId(),
+                participant.getDisplayName(), participant.isAdmin(), now);
+        if (rejoined == 0) {
+            participantJpaRepository.save(ConversationParticipantEntity.builder()
+                    .conversation(jpaRepository.getReferenceById(conversationId.getValue()))
+                    .userId(participant.getUserId())
+                    .displayName(participant.getDisplayName())
+                    .admin(participant.isAdmin())
+                    .joinedAt(now)
+                    .build());
+        }
+        jpaRepository.touch(conversationId.getValue(), now);
+    }
+
+    @Override
+    @Transactional
+    public void removeParticipant(ConversationId conversationId, String userId) {
+        Instant now = Instant.now();
+        participantJpaRepository.markLeft(conversationId.getValue(), userId, now);
+        jpaRepository.touch(conversationId.getValue(), now);
+    }
+
     @Override
     @Transactional
     public void delete(ConversationId conversationId) {
@@ -137,14 +262,68 @@ public class ConversationRepositoryImpl implements ConversationRepository {
         return entity;
     }
 
-    private Conversation toDomain(ConversationEntity entity) {
-        List<Participant> participants = entity.getParticipants().stream()
-                .filter(p -> p.getLeftAt() == null)
-                .map(p -> Participant.of(p.getUserId(), p.getDisplayName(), p.isAdmin()))
-                .collect(Collectors.toList());
+    private void copyHeader(Conversation domain, ConversationEntity entity) {
+        entity.setName(domain.getName());
+        entity.setDescription(domain.getDescription());
+        entity.setAvatarUrl(domain.getAvatarUrl());
+        entity.setActive(domain.isActive());
+    }
+
+    /**
+     * Apply membership changes as row deltas: insert joiners, reactivate
+     * rejoiners, mark leavers, update changed roles/names
+     */
+    private void reconcileParticipants(Conversation domain, ConversationEntity entity) {
+        Instant now = Instant.now();
+        Map<String, ConversationParticipantEntity> rows = new HashMap<>(entity.getParticipants().size() * 2);
+        entity.getParticipants().forEach(row -> rows.put(row.getUserId(), row));
+
+        for (Participant participant : domain.getParticipants()) {
+            ConversationParticipantEntity row = rows.remove(participant.getUserId());
+            if (row == null) {
+                ConversationParticipantEntity added = ConversationParticipantEntity.builder()
+                        .conversation(entity)
+                        .userId(participant.getUserId())
+                        .displayName(participant.getDisplayName())
+                        .admin(participant.isAdmin())
+                        .joinedAt(now)
+                        .build();
+                entity.getParticipants().add(added);
+                continue;
+            }
+            if (row.getLeftAt() != null) {
+                row.setLeftAt(null);
+                row.setJoinedAt(now);
+                row.setUnreadCount(0);
+            }
+            if (row.isAdmin() != participant.isAdmin()) {
+                row.setAdmin(participant.isAdmin());
+            }
+            if (!participant.getDisplayName().equals(row.getDisplayName())) {
+                row.setDisplayName(participant.getDisplayName());
+            }
+        }
 
-        Map<String, Integer> unreadCounts = new HashMap<>();
-        entity.getParticipants().forEach(p -> unreadCounts.put(p.getUserId(), p.getUnreadCount()));
+        // Rows left over are no longer members
+        rows.values().stream()
+                .filter(row -> row.getLeftAt() == null)
+                .forEach(row -> {
+                    row.setLeftAt(now);
+                    row.setAdmin(false);
+                });
+    }
+
+    private Conversation toDomain(ConversationEntity entity) {
+        // Single pass over participant rows builds both the membership list and unread map
+        List<ConversationParticipantEntity> rows = entity.getParticipants();
+        List<Participant> participants = new ArrayList<>(rows.size());
+        Map<String, Integer> unreadCounts = new HashMap<>(rows.size() * 2);
+        for (ConversationParticipantEntity p : rows) {
+            unreadCounts.put(p.getUserId(), p.getUnreadCount());
+            if (p.getLeftAt() == null) {
+                participants.add(Participant.of(p.getUserId(), p.getDisplayName(), p.isAdmin()));
+            }
+        }
 
         return Conversation.reconstitute(
                 ConversationId.of(entity.getId()),
@@ -0,0 +1,264 @@
+package com.whatsapp.chat.infrastructure.persistence.writecombine;
+
+import com.whatsapp.chat.infrastructure.persistence.postgres.repository.ConversationJpaRepository;
+import com.whatsapp.chat.infrastructure.persistence.postgres.repository.ConversationParticipantJpaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Conversation Write Combiner
+ *
+ * Absorbs the per-message writes to hot conversation rows (last-message
+ * pointer and unread counts) in memory and flushes each conversation at
+ * most once per interval.
+ *
+ * Without it, every message in a busy group updates the same
+ * {@code conversations} row, so concurrent senders queue on its row lock.
+ *
+ * Merge semantics (per conversation):
+ * - Last message: keeps the one with the latest timestamp (max)
+ * - Unread count: deltas per participant are summed; a reset drops the
+ *   deltas recorded before it and is written as an absolute value
+ * - Group messages: counted per sender and written as one statement for
+ *   all members but the sender, ahead of the per-participant changes
+ *
+ * Pending writes are kept in stripes selected by conversation ID hash:
+ * writers of different conversations rarely contend, and a flush drains
+ * one stripe at a time.
+ *
+ * Flushed writes are conditional (the last-message pointer only moves
+ * forward), so several chat nodes can combine writes for the same row.
+ * Last-message pointers pending at a crash are rebuilt from MongoDB on
+ * startup by {@link ConversationWriteReplay}; pending unread deltas and
+ * resets (at most one flush interval) are lost.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class ConversationWriteCombiner {
+
+    private final ConversationJpaRepository conversationJpaRepository;
+    private final ConversationParticipantJpaRepository participantJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Stripe[] stripes;
+
+    public ConversationWriteCombiner(
+            ConversationJpaRepository conversationJpaRepository,
+            ConversationParticipantJpaRepository participantJpaRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.conversation.write-combining.stripes:64}") int stripeCount) {
+        this.conversationJpaRepository = conversationJpaRepository;
+        this.participantJpaRepository = participantJpaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------
+
+    /**
+     * Record a new message: moves the last-message pointer and adds one
+     * unread message for the recipient (if any)
+     */
+    public void recordMessage(String conversationId, String messageId, Instant sentAt, String recipientId) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            PendingWrite write = stripe.pending.computeIfAbsent(conversationId, id -> new PendingWrite());
+            write.mergeLastMessage(messageId, sentAt);
+            if (recipientId != null) {
+                write.addUnread(recipientId, 1);
+            }
+        }
+    }
+
+    /**
+     * Record a new group message: moves the last-message pointer and adds one
+     * unread message for every current member except the sender
+     */
+    public void recordGroupMessage(String conversationId, String messageId, Instant sentAt, String senderId) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            PendingWrite write = stripe.pending.computeIfAbsent(conversationId, id -> new PendingWrite());
+            write.mergeLastMessage(messageId, sentAt);
+            write.addGroupUnread(senderId, 1);
+        }
+    }
+
+    /**
+     * Record that a participant read the conversation
+     */
+    public void resetUnread(String conversationId, String userId) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            stripe.pending.computeIfAbsent(conversationId, id -> new PendingWrite()).resetUnread(userId);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Flushing
+    // ---------------------------------------------------------------
+
+    /**
+     * Write all pending conversation updates
+     */
+    @Scheduled(fixedDelayString = "${app.conversation.write-combining.flush-interval-ms:500}")
+    public void flush() {
+        int flushed = 0;
+        for (Stripe stripe : stripes) {
+            Map<String, PendingWrite> drained;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                drained = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            for (Map.Entry<String, PendingWrite> entry : drained.entrySet()) {
+                if (write(entry.getKey(), entry.getValue())) {
+                    flushed++;
+                }
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Flushed combined writes for {} conversations", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Flushing pending conversation writes before shutdown");
+        flush();
+    }
+
+    private boolean write(String conversationId, PendingWrite write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (write.lastMessageId != null) {
+                    conversationJpaRepository.updateLastMessageIfNewer(
+                            conversationId, write.lastMessageId, write.lastMessageAt, Instant.now());
+                }
+                // Group deltas first: absolute resets written after them win
+                write.groupUnread.forEach((senderId, delta) ->
+                        participantJpaRepository.addUnreadCountExcept(conversationId, senderId, delta));
+                write.unread.forEach((userId, change) -> {
+                    if (change.reset) {
+                        participantJpaRepository.setUnreadCount(conversationId, userId, change.delta);
+                    } else if (change.delta != 0) {
+                        participantJpaRepository.addUnreadCount(conversationId, userId, change.delta);
+                    }
+                });
+            });
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to flush writes for conversation {}, retrying next interval: {}",
+                    conversationId, e.getMessage(), e);
+            requeue(conversationId, write);
+            return false;
+        }
+    }
+
+    /**
+     * Put a failed write back, underneath anything recorded since
+     */
+    private void requeue(String conversationId, PendingWrite failed) {
+        Stripe stripe = stripe(conversationId);
+        synchronized (stripe) {
+            PendingWrite newer = stripe.pending.get(conversationId);
+            if (newer != null) {
+                failed.mergeNewer(newer);
+            }
+            stripe.pending.put(conversationId, failed);
+        }
+    }
+
+    private Stripe stripe(String conversationId) {
+        return stripes[Math.floorMod(conversationId.hashCode(), stripes.length)];
+    }
+
+    // ---------------------------------------------------------------
+    // Pending state
+    // ---------------------------------------------------------------
+
+    private static final class Stripe {
+        private Map<String, PendingWrite> pending = new HashMap<>();
+    }
+
+    /**
+     * Combined writes of one conversation (guarded by its stripe)
+     */
+    private static final class PendingWrite {
+        private String lastMessageId;
+        private Instant lastMessageAt;
+        private final Map<String, UnreadChange> unread = new HashMap<>();
+        private final Map<String, Integer> groupUnread = new HashMap<>(); // senderId -> messages
+
+        void mergeLastMessage(String messageId, Instant sentAt) {
+            if (lastMessageAt == null || !sentAt.isBefore(lastMessageAt)) {
+                lastMessageId = messageId;
+                lastMessageAt = sentAt;
+            }
+        }
+
+        void addUnread(String userId, int delta) {
+            unread.computeIfAbsent(userId, id -> new UnreadChange()).delta += delta;
+        }
+
+        /**
+         * Members with a pending reset are written as absolute values after
+         * the group deltas, so the message is also counted into their reset
+         */
+        void addGroupUnread(String senderId, int delta) {
+            groupUnread.merge(senderId, delta, Integer::sum);
+            unread.forEach((userId, change) -> {
+                if (change.reset && !userId.equals(senderId)) {
+                    change.delta += delta;
+                }
+            });
+        }
+
+        void resetUnread(String userId) {
+            UnreadChange change = unread.computeIfAbsent(userId, id -> new UnreadChange());
+            change.reset = true;
+            change.delta = 0;
+        }
+
+        /**
+         * Apply writes recorded after this one
+         */
+        void mergeNewer(PendingWrite newer) {
+            if (newer.lastMessageId != null) {
+                mergeLastMessage(newer.lastMessageId, newer.lastMessageAt);
+            }
+            newer.groupUnread.forEach(this::addGroupUnread);
+            newer.unread.forEach((userId, change) -> {
+                if (change.reset) {
+                    unread.put(userId, change);
+                } else {
+                    addUnread(userId, change.delta);
+                }
+            });
+        }
+    }
+
+    /**
+     * Unread count change of one participant: either "+delta" or "= delta"
+     */
+    private static final class UnreadChange {
+        private boolean reset;
+        private int delta;
+    }
+}
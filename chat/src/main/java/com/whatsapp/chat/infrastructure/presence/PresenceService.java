@@ -0,0 +1,455 @@
+package com.whatsapp.chat.infrastructure.presence;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.chat.application.dto.PresenceUpdateDto;
+import com.whatsapp.chat.domain.repository.ConversationRepository;
+import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
+import com.whatsapp.common.presence.PresenceRegistry;
+import com.whatsapp.common.presence.SessionRoutes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Presence Service
+ *
+ * Push-based presence: clients subscribe to the users of their open
+ * conversations and receive online/offline/last-seen changes. A user can
+ * only watch users they share a current conversation with.
+ *
+ * Debounce:
+ * - Transitions of users connected to this node are held until the next
+ *   flush; offline transitions additionally wait for a grace period
+ * - A transition is only announced if it differs from the last announced
+ *   state, so a flapping connection (drop + reconnect) fans out nothing
+ *
+ * Liveness:
+ * - Every node heartbeats its connected users in one pipelined batch into
+ *   the shared {@link PresenceRegistry}; a graceful disconnect removes the
+ *   user at once
+ * - Users of a crashed node stop heartbeating and are swept out after the
+ *   heartbeat TTL, then announced offline like any other transition
+ * - Every node records itself as a route of its connected users
+ *   ({@link SessionRoutes}), so other services can reach their sessions
+ *
+ * Fan-out (sharded across chat nodes):
+ * - Each node keeps its watchers in memory and registers node-level
+ *   interest per watched user in {@link PresenceStore}, refreshed on every
+ *   subscribe and heartbeat so it only expires once the node is gone
+ * - A transition is published once per interested node (not per watcher);
+ *   every node pushes to its own local watchers, so a user with 10k watchers
+ *   costs each node only its share of them
+ * - Pushes are coalesced per watcher: one {@code /queue/presence} frame per
+ *   flush with the latest state of every changed user
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class PresenceService implements MessageListener {
+
+    private static final String PRESENCE_DESTINATION = "/queue/presence";
+    private static final int SWEEP_BATCH = 1000;
+    private static final TypeReference<List<PresenceUpdateDto>> UPDATE_LIST = new TypeReference<>() {};
+
+    private final PresenceStore store;
+    private final PresenceRegistry presenceRegistry;
+    private final SessionRoutes sessionRoutes;
+    private final ConversationRepository conversationRepository;
+    private final WebSocketSessionManager sessionManager;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long offlineGraceMs;
+    private final int maxSubscriptions;
+
+    /** watched userId → local watcher userIds */
+    private final Map<String, Set<String>> watchersByTarget = new ConcurrentHashMap<>();
+    /** watcher userId → watched userIds */
+    private final Map<String, Set<String>> targetsByWatcher = new ConcurrentHashMap<>();
+    /** userId → transition waiting for its debounce deadline */
+    private final Map<String, PendingTransition> pending = new ConcurrentHashMap<>();
+    /** watcher userId → (watched userId → latest update) waiting to be pushed */
+    private final Map<String, Map<String, PresenceUpdateDto>> outbox = new ConcurrentHashMap<>();
+
+    public PresenceService(
+            PresenceStore store,
+            PresenceRegistry presenceRegistry,
+            SessionRoutes sessionRoutes,
+            ConversationRepository conversationRepository,
+            WebSocketSessionManager sessionManager,
+            RedisMessageListenerContainer listenerContainer,
+            ObjectMapper objectMapper,
+            @Value("${app.presence.node-id:${HOSTNAME:}}") String nodeId,
+            @Value("${app.presence.offline-grace-ms:5000}") long offlineGraceMs,
+            @Value("${app.presence.max-subscriptions:1000}") int maxSubscriptions) {
+        this.store = store;
+        this.presenceRegistry = presenceRegistry;
+        this.sessionRoutes = sessionRoutes;
+        this.conversationRepository = conversationRepository;
+        this.sessionManager = sessionManager;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.offlineGraceMs = offlineGraceMs;
+        this.maxSubscriptions = maxSubscriptions;
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(store.nodeChannel(nodeId)));
+        log.info("Presence service started on node {}", nodeId);
+    }
+
+    /**
+     * ID of this chat node (pub/sub channels, session routes)
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchersByTarget.keySet().forEach(target -> {
+            try {
+                store.removeInterest(target, nodeId);
+            } catch (Exception e) {
+                log.debug("Failed to drop presence interest for {}: {}", target, e.getMessage());
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Connection lifecycle (users connected to this node)
+    // ---------------------------------------------------------------
+
+    /**
+     * A session of the user opened on this node
+     */
+    public void onConnected(String userId) {
+        try {
+            store.incrementConnections(userId);
+            sessionRoutes.addRoute(userId, nodeId);
+            presenceRegistry.heartbeat(userId);
+            pending.put(userId, new PendingTransition(true, System.currentTimeMillis()));
+        } catch (Exception e) {
+            log.error("Failed to record presence connect for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The last session of the user on this node closed
+     */
+    public void onDisconnected(String userId) {
+        try {
+            sessionRoutes.removeRoute(userId, nodeId);
+            if (store.decrementConnections(userId) > 0) {
+                return; // still connected on another node
+            }
+            presenceRegistry.markOffline(userId);
+            pending.put(userId, new PendingTransition(false, System.currentTimeMillis() + offlineGraceMs));
+        } catch (Exception e) {
+            log.error("Failed to record presence disconnect for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Subscriptions (watchers connected to this node)
+    // ---------------------------------------------------------------
+
+    /**
+     * Watch the presence of users (typically the members of open conversations)
+     *
+     * Users the watcher shares no current conversation with are ignored.
+     *
+     * @return current state of the newly watched users
+     */
+    public List<PresenceUpdateDto> subscribe(String watcherId, Collection<String> userIds) {
+        Set<String> targets = targetsByWatcher.computeIfAbsent(watcherId, k -> ConcurrentHashMap.newKeySet());
+
+        Set<String> requested = new LinkedHashSet<>();
+        for (String target : userIds) {
+            if (target == null || target.equals(watcherId) || targets.contains(target)) {
+                continue;
+            }
+            if (targets.size() + requested.size() >= maxSubscriptions) {
+                log.warn("User {} reached the presence subscription limit ({})", watcherId, maxSubscriptions);
+                break;
+            }
+            requested.add(target);
+        }
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> allowed;
+        try {
+            allowed = conversationRepository.findCoMemberIds(watcherId, requested);
+        } catch (Exception e) {
+            log.error("Failed to authorise presence subscription of user {}: {}", watcherId, e.getMessage(), e);
+            return List.of();
+        }
+        if (allowed.size() < requested.size()) {
+            log.warn("User {} may not watch {} of {} requested users (no shared conversation)",
+                    watcherId, requested.size() - allowed.size(), requested.size());
+        }
+
+        List<String> added = new ArrayList<>();
+        for (String target : requested) {
+            if (!allowed.contains(target) || !targets.add(target)) {
+                continue;
+            }
+            watchersByTarget.computeIfAbsent(target, t -> ConcurrentHashMap.newKeySet()).add(watcherId);
+            added.add(target);
+        }
+        try {
+            store.refreshInterest(added, nodeId);
+        } catch (Exception e) {
+            // Registered again by the next heartbeat
+            log.error("Failed to register presence interest of node {}: {}", nodeId, e.getMessage(), e);
+        }
+        return currentState(added);
+    }
+
+    /**
+     * Stop watching users
+     */
+    public void unsubscribe(String watcherId, Collection<String> userIds) {
+        Set<String> targets = targetsByWatcher.get(watcherId);
+        if (targets == null) {
+            return;
+        }
+        for (String target : userIds) {
+            if (targets.remove(target)) {
+                removeWatcher(target, watcherId);
+            }
+        }
+    }
+
+    /**
+     * Drop every subscription of a watcher (last local session closed)
+     */
+    public void unsubscribeAll(String watcherId) {
+        Set<String> targets = targetsByWatcher.remove(watcherId);
+        if (targets != null) {
+            targets.forEach(target -> removeWatcher(target, watcherId));
+        }
+        outbox.remove(watcherId);
+    }
+
+    /**
+     * Check whether a user is connected to any chat node
+     */
+    public boolean isOnline(String userId) {
+        try {
+            return store.isOnline(userId);
+        } catch (Exception e) {
+            log.error("Failed to read presence of user {}: {}", userId, e.getMessage(), e);
+            return sessionManager.isUserConnected(userId);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Flush: announce due transitions, push coalesced batches
+    // ---------------------------------------------------------------
+
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            announceDueTransitions();
+        } catch (Exception e) {
+            log.error("Failed to announce presence transitions", e);
+        }
+        pushOutbox();
+    }
+
+    /**
+     * Heartbeat every user connected to this node and refresh this node's
+     * interest in every locally watched user, each in one pipelined batch
+     */
+    @Scheduled(fixedDelayString = "${app.presence.heartbeat-interval-ms:30000}")
+    public void heartbeatConnectedUsers() {
+        try {
+            presenceRegistry.heartbeatAll(sessionManager.getConnectedUserIds());
+        } catch (Exception e) {
+            log.error("Failed to send presence heartbeats", e);
+        }
+        try {
+            store.refreshInterest(new ArrayList<>(watchersByTarget.keySet()), nodeId);
+        } catch (Exception e) {
+            log.error("Failed to refresh presence interest of node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Announce users whose heartbeat expired (e.g. their chat node crashed) as offline
+     */
+    @Scheduled(fixedDelayString = "${app.presence.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        try {
+            List<String> expired = presenceRegistry.sweepExpired(SWEEP_BATCH);
+            long now = System.currentTimeMillis();
+            for (String userId : expired) {
+                store.clearConnections(userId);
+                pending.putIfAbsent(userId, new PendingTransition(false, now));
+            }
+            if (!expired.isEmpty()) {
+                log.info("Presence sweep: {} users expired", expired.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to sweep expired presence", e);
+        }
+    }
+
+    /**
+     * Receive a batch of updates routed to this node
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            List<PresenceUpdateDto> updates = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), UPDATE_LIST);
+            updates.forEach(this::enqueueForWatchers);
+        } catch (Exception e) {
+            log.error("Failed to handle presence batch: {}", e.getMessage(), e);
+        }
+    }
+
+    private void announceDueTransitions() {
+        long now = System.currentTimeMillis();
+        Map<String, List<PresenceUpdateDto>> byNode = new HashMap<>();
+
+        Iterator<Map.Entry<String, PendingTransition>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PendingTransition> entry = it.next();
+            PendingTransition transition = entry.getValue();
+            if (transition.dueAt() > now) {
+                continue;
+            }
+            String userId = entry.getKey();
+            if (!pending.remove(userId, transition)) {
+                continue; // superseded meanwhile, handled next flush
+            }
+
+            // Re-check against the cluster view: the user may have reconnected elsewhere
+            boolean online = transition.online() || store.isOnline(userId);
+            if (!store.swapAnnouncedState(userId, online)) {
+                continue; // flapped back to the announced state
+            }
+
+            Instant changedAt = Instant.now();
+            if (!online) {
+                store.setLastSeen(userId, changedAt);
+            }
+            PresenceUpdateDto update = PresenceUpdateDto.builder()
+                    .userId(userId)
+                    .online(online)
+                    .lastSeen(online ? null : changedAt)
+                    .changedAt(changedAt)
+                    .build();
+            for (String node : store.interestedNodes(userId)) {
+                byNode.computeIfAbsent(node, k -> new ArrayList<>()).add(update);
+            }
+        }
+
+        byNode.forEach((node, updates) -> {
+            try {
+                store.publish(node, objectMapper.writeValueAsString(updates));
+            } catch (Exception e) {
+                log.error("Failed to publish {} presence updates to node {}: {}", updates.size(), node, e.getMessage());
+            }
+        });
+    }
+
+    private void enqueueForWatchers(PresenceUpdateDto update) {
+        Set<String> watchers = watchersByTarget.get(update.getUserId());
+        if (watchers == null) {
+            return;
+        }
+        for (String watcher : watchers) {
+            outbox.computeIfAbsent(watcher, k -> new ConcurrentHashMap<>()).put(update.getUserId(), update);
+        }
+    }
+
+    private void pushOutbox() {
+        for (String watcher : outbox.keySet()) {
+            Map<String, PresenceUpdateDto> batch = outbox.remove(watcher);
+            if (batch == null || batch.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("updates", new ArrayList<>(batch.values()));
+            payload.put("timestamp", Instant.now().toString());
+            sessionManager.sendToUser(watcher, PRESENCE_DESTINATION, payload);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    private void removeWatcher(String target, String watcherId) {
+        watchersByTarget.computeIfPresent(target, (t, watchers) -> {
+            watchers.remove(watcherId);
+            if (watchers.isEmpty()) {
+                store.removeInterest(t, nodeId);
+                return null;
+            }
+            return watchers;
+        });
+    }
+
+    private List<PresenceUpdateDto> currentState(List<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Set<String> online;
+        try {
+            online = store.areOnline(userIds);
+        } catch (Exception e) {
+            log.error("Failed to read presence snapshot: {}", e.getMessage(), e);
+            return List.of();
+        }
+
+        Instant now = Instant.now();
+        List<PresenceUpdateDto> snapshot = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            boolean isOnline = online.contains(userId);
+            snapshot.add(PresenceUpdateDto.builder()
+                    .userId(userId)
+                    .online(isOnline)
+                    .lastSeen(isOnline ? null : store.getLastSeen(userId))
+                    .changedAt(now)
+                    .build());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Transition waiting for its debounce deadline
+     */
+    private record PendingTransition(boolean online, long dueAt) {
+    }
+}
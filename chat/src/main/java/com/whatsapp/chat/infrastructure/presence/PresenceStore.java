@@ -0,0 +1,192 @@
+package com.whatsapp.chat.infrastructure.presence;
+
+import com.whatsapp.common.presence.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Presence Store
+ *
+ * Cluster-wide presence state shared by all chat nodes in Redis.
+ * Liveness itself lives in the shared heartbeat store ({@link PresenceRegistry}).
+ *
+ * Data structure:
+ *   "presence:connections:{userId}" – open WebSocket sessions across nodes
+ *   "presence:lastseen:{userId}"    – ISO instant of the last offline transition
+ *   "presence:announced:{userId}"   – last state fanned out ("1" online, "0" offline)
+ *   "presence:interest:{userId}"    – SET of chat node IDs with local watchers
+ *   "presence:node:{nodeId}"        – pub/sub channel of one chat node
+ *
+ * The interest sets shard subscriptions by node: a transition is published
+ * once per interested node, and each node fans out to its own watchers.
+ * Nodes refresh their interest on every heartbeat, so the interest of a
+ * crashed node expires after {@link #INTEREST_TTL}.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresenceStore {
+
+    private static final String CONNECTIONS_KEY_PREFIX = "presence:connections:";
+    private static final String LAST_SEEN_KEY_PREFIX = "presence:lastseen:";
+    private static final String ANNOUNCED_KEY_PREFIX = "presence:announced:";
+    private static final String INTEREST_KEY_PREFIX = "presence:interest:";
+    private static final String NODE_CHANNEL_PREFIX = "presence:node:";
+
+    private static final Duration CONNECTIONS_TTL = Duration.ofDays(1);
+    private static final Duration LAST_SEEN_TTL = Duration.ofDays(30);
+    private static final Duration INTEREST_TTL = Duration.ofMinutes(10);
+
+    /** DECR that never goes below zero */
+    private static final RedisScript<Long> DECREMENT_SCRIPT = new DefaultRedisScript<>(
+            "local value = redis.call('DECR', KEYS[1]) " +
+            "if value <= 0 then redis.call('DEL', KEYS[1]) return 0 end " +
+            "return value",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final PresenceRegistry presenceRegistry;
+
+    // ---------------------------------------------------------------
+    // Connections
+    // ---------------------------------------------------------------
+
+    /**
+     * A session of the user opened on some node
+     *
+     * @return sessions of the user across all nodes
+     */
+    public long incrementConnections(String userId) {
+        String key = CONNECTIONS_KEY_PREFIX + userId;
+        Long count = redisTemplate.opsForValue().increment(key);
+        redisTemplate.expire(key, CONNECTIONS_TTL);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * A session of the user closed on some node
+     *
+     * @return sessions of the user still open across all nodes
+     */
+    public long decrementConnections(String userId) {
+        Long count = redisTemplate.execute(DECREMENT_SCRIPT, List.of(CONNECTIONS_KEY_PREFIX + userId));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Forget the session count of a user whose heartbeat expired (node crash)
+     */
+    public void clearConnections(String userId) {
+        redisTemplate.delete(CONNECTIONS_KEY_PREFIX + userId);
+    }
+
+    /**
+     * Check whether the user has a live heartbeat
+     */
+    public boolean isOnline(String userId) {
+        return presenceRegistry.isOnline(userId);
+    }
+
+    /**
+     * Batch online check
+     *
+     * @return the subset of users that are online
+     */
+    public Set<String> areOnline(Collection<String> userIds) {
+        return presenceRegistry.areOnline(userIds);
+    }
+
+    // ---------------------------------------------------------------
+    // Last seen
+    // ---------------------------------------------------------------
+
+    public void setLastSeen(String userId, Instant lastSeen) {
+        redisTemplate.opsForValue().set(LAST_SEEN_KEY_PREFIX + userId, lastSeen.toString(), LAST_SEEN_TTL);
+    }
+
+    public Instant getLastSeen(String userId) {
+        String value = redisTemplate.opsForValue().get(LAST_SEEN_KEY_PREFIX + userId);
+        return value != null ? Instant.parse(value) : null;
+    }
+
+    /**
+     * Record the state fanned out for a user, cluster-wide
+     *
+     * @return true if it differs from the previously announced state
+     */
+    public boolean swapAnnouncedState(String userId, boolean online) {
+        String key = ANNOUNCED_KEY_PREFIX + userId;
+        String state = online ? "1" : "0";
+        String previous = redisTemplate.opsForValue().getAndSet(key, state);
+        redisTemplate.expire(key, LAST_SEEN_TTL);
+        return previous == null ? online : !previous.equals(state);
+    }
+
+    // ---------------------------------------------------------------
+    // Node interest (subscription sharding)
+    // ---------------------------------------------------------------
+
+    /**
+     * Register that a node has local watchers of the users and restart the
+     * TTL of its interest (one pipelined round trip)
+     */
+    public void refreshInterest(Collection<String> userIds, String nodeId) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        long ttlSeconds = INTEREST_TTL.toSeconds();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection commands = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                commands.sAdd(INTEREST_KEY_PREFIX + userId, nodeId);
+                commands.expire(INTEREST_KEY_PREFIX + userId, ttlSeconds);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Unregister a node once its last local watcher of the user is gone
+     */
+    public void removeInterest(String userId, String nodeId) {
+        redisTemplate.opsForSet().remove(INTEREST_KEY_PREFIX + userId, nodeId);
+    }
+
+    /**
+     * Nodes that have local watchers of the user
+     */
+    public Set<String> interestedNodes(String userId) {
+        Set<String> nodes = redisTemplate.opsForSet().members(INTEREST_KEY_PREFIX + userId);
+        return nodes != null ? nodes : Collections.emptySet();
+    }
+
+    // ---------------------------------------------------------------
+    // Node channels
+    // ---------------------------------------------------------------
+
+    public String nodeChannel(String nodeId) {
+        return NODE_CHANNEL_PREFIX + nodeId;
+    }
+
+    /**
+     * Publish a batch of updates to one node
+     */
+    public void publish(String nodeId, String payload) {
+        redisTemplate.convertAndSend(nodeChannel(nodeId), payload);
+    }
+}
@@ -1,9 +1,11 @@
 package com.whatsapp.chat.infrastructure.websocket;
 
-import com.whatsapp.chat.infrastructure.cache.InboxCacheService;
+import com.whatsapp.chat.infrastructure.presence.PresenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
@@ -20,12 +22,14 @@ import java.util.concurrent.ConcurrentHashMap;
  * and keeps the {@link WebSocketSessionManager} in sync.
  *
  * On connect:
- *  1. Registers the session in {@link WebSocketSessionManager}
- *  2. Marks the user as online in Redis via {@link InboxCacheService}
+ *  1. Registers the session in {@link WebSocketSessionManager}, with the
+ *     device ID sent in the CONNECT frame's {@value #DEVICE_ID_HEADER} header
+ *  2. Reports the connection to {@link PresenceService} (heartbeat store,
+ *     debounced fan-out)
  *
  * On disconnect:
  *  1. Removes the session from {@link WebSocketSessionManager}
- *  2. Marks the user as offline in Redis
+ *  2. Reports the disconnection and drops the user's presence subscriptions
  *
  * The user identity is read from the {@link Principal} attached to the
  * STOMP session by the security layer.
@@ -37,8 +41,10 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class ConnectionRegistry {
 
+    public static final String DEVICE_ID_HEADER = "device-id";
+
     private final WebSocketSessionManager sessionManager;
-    private final InboxCacheService        inboxCacheService;
+    private final PresenceService          presenceService;
 
     /** sessionId → userId  (used on disconnect where Principal may be gone) */
     private final Map<String, String> sessionUserMap = new ConcurrentHashMap<>();
@@ -65,10 +71,11 @@ public class ConnectionRegistry {
 
         String userId = principal.getName();
         sessionUserMap.put(sessionId, userId);
-        sessionManager.addSession(userId, sessionId);
-        inboxCacheService.addOnlineUser(userId);
+        String deviceId = deviceId(accessor);
+        sessionManager.addSession(userId, sessionId, deviceId);
+        presenceService.onConnected(userId);
 
-        log.info("WebSocket connected: userId={} sessionId={}", userId, sessionId);
+        log.info("WebSocket connected: userId={} sessionId={} deviceId={}", userId, sessionId, deviceId);
     }
 
     /**
@@ -91,7 +98,8 @@ public class ConnectionRegistry {
 
         // Only mark offline if no more sessions remain
         if (!sessionManager.isUserConnected(userId)) {
-            inboxCacheService.removeOnlineUser(userId);
+            presenceService.onDisconnected(userId);
+            presenceService.unsubscribeAll(userId);
             log.info("User went offline: userId={}", userId);
         }
 
@@ -111,5 +119,18 @@ public class ConnectionRegistry {
     public String getUserIdForSession(String sessionId) {
         return sessionUserMap.get(sessionId);
     }
+
+    /**
+     * Device ID from the native headers of the original CONNECT frame
+     * (the CONNECTED event only wraps it).
+     */
+    static String deviceId(StompHeaderAccessor connectedAccessor) {
+        Object connect = connectedAccessor.getHeader(SimpMessageHeaderAccessor.CONNECT_MESSAGE_HEADER);
+        if (!(connect instanceof Message<?> connectMessage)) {
+            return null;
+        }
+        String deviceId = StompHeaderAccessor.wrap(connectMessage).getFirstNativeHeader(DEVICE_ID_HEADER);
+        return deviceId != null && !deviceId.isBlank() ? deviceId : null;
+    }
 }
 
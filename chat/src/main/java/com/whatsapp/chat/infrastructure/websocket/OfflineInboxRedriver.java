@@ -0,0 +1,193 @@
+package com.whatsapp.chat.infrastructure.websocket;
+
+import com.whatsapp.chat.application.dto.MessageDto;
+import com.whatsapp.chat.application.mapper.MessageMapper;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import com.whatsapp.chat.domain.service.DeliveryTrackingService;
+import com.whatsapp.chat.infrastructure.cache.MessageCounterCache;
+import com.whatsapp.chat.infrastructure.cache.UndeliveredMessageCache;
+import com.whatsapp.chat.infrastructure.presence.PresenceService;
+import com.whatsapp.common.presence.SessionRoutes;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline Inbox Redriver
+ *
+ * Flushes a user's pending inbox over their WebSocket sessions on this
+ * node: undelivered messages are pushed to {@code /queue/messages} one by
+ * one and each is marked delivered only once its push went out, then the
+ * inbox entries not pushed that way follow. The inbox is peeked, and only
+ * the entries pushed (or already pushed above) are acked; ID-only entries
+ * (enqueued by message-processor, e.g. group messages) are loaded from
+ * MongoDB. A failed push stops the flush and leaves the rest pending.
+ *
+ * Triggered:
+ * - On session connect and on a plain sync request (by the WebSocket handler)
+ * - By re-drive requests on this node's channel (the message-processor
+ *   sweeper finds users that are online with a non-empty inbox and asks
+ *   the node that holds their sessions, see {@link SessionRoutes})
+ *
+ * Users without a session on this node are ignored (stale route).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OfflineInboxRedriver implements MessageListener {
+
+    private final DeliveryTrackingService deliveryTrackingService;
+    private final MessageRepository       messageRepository;
+    private final UndeliveredMessageCache undeliveredCache;
+    private final MessageCounterCache     counterCache;
+    private final MessageMapper           messageMapper;
+    private final WebSocketSessionManager sessionManager;
+    private final PresenceService         presenceService;
+    private final SessionRoutes           sessionRoutes;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this,
+                new ChannelTopic(sessionRoutes.redriveChannel(presenceService.getNodeId())));
+    }
+
+    /**
+     * Re-drive request from another service
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> userIds = SessionRoutes.parseRedrive(new String(message.getBody(), StandardCharsets.UTF_8));
+        int flushed = 0;
+        for (String userId : userIds) {
+            if (!sessionManager.isUserConnected(userId)) {
+                continue;
+            }
+            try {
+                flushed += flush(userId);
+            } catch (Exception e) {
+                log.error("Failed to re-drive inbox of user {}: {}", userId, e.getMessage(), e);
+            }
+        }
+        log.info("Re-drive request for {} users: {} messages pushed", userIds.size(), flushed);
+    }
+
+    /**
+     * Deliver everything pending for a user connected to this node
+     *
+     * @return number of messages pushed
+     */
+    public int flush(String userId) {
+        // Push messages that arrived while the user was offline; only pushed ones become DELIVERED
+        Set<String> pushed = new HashSet<>();
+        int delivered = deliveryTrackingService.deliverPendingMessages(userId, message -> {
+            if (!sessionManager.sendToUser(userId, "/queue/messages", messageMapper.toDto(message))) {
+                return false;
+            }
+            pushed.add(message.getId().getValue());
+            return true;
+        });
+        if (delivered > 0) {
+            counterCache.onMessagesDelivered(userId, delivered);
+            log.info("Flushed {} offline messages to user {}", delivered, userId);
+        }
+
+        // Then the inbox entries not pushed above
+        return pushed.size() + flushInbox(userId, pushed);
+    }
+
+    /**
+     * Push the inbox entries not pushed yet, oldest first, and ack the sent ones
+     *
+     * @param pushed Messages already pushed by this flush (acked without a second push)
+     * @return number of messages pushed
+     */
+    private int flushInbox(String userId, Set<String> pushed) {
+        Map<String, MessageDto> pending = undeliveredCache.peekPending(userId);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Map<String, MessageDto> stored = loadIdOnly(pending, pushed);
+
+        List<String> acked = new ArrayList<>();
+        int sent = 0;
+        boolean sessionFailed = false;
+        for (Map.Entry<String, MessageDto> entry : pending.entrySet()) {
+            String messageId = entry.getKey();
+            if (pushed.contains(messageId)) {
+                acked.add(messageId);
+                continue;
+            }
+            if (sessionFailed) {
+                continue;
+            }
+            MessageDto message = entry.getValue();
+            if (message == null) {
+                if (stored == null) {
+                    continue; // MongoDB unavailable: keep the entry for the next flush
+                }
+                message = stored.get(messageId);
+                if (message == null) {
+                    acked.add(messageId); // Deleted meanwhile, nothing to deliver
+                    continue;
+                }
+            }
+            if (!sessionManager.sendToUser(userId, "/queue/messages", message)) {
+                sessionFailed = true;
+                continue;
+            }
+            acked.add(messageId);
+            sent++;
+        }
+
+        if (!acked.isEmpty()) {
+            undeliveredCache.acknowledge(userId, acked);
+        }
+        if (sent > 0) {
+            log.info("Pushed {} inbox messages to user {}", sent, userId);
+        }
+        return sent;
+    }
+
+    /**
+     * Load the messages of ID-only entries from MongoDB
+     *
+     * @return messages by ID, or null if MongoDB could not be read
+     */
+    private Map<String, MessageDto> loadIdOnly(Map<String, MessageDto> pending, Set<String> pushed) {
+        List<MessageId> ids = new ArrayList<>();
+        pending.forEach((messageId, message) -> {
+            if (message == null && !pushed.contains(messageId)) {
+                ids.add(MessageId.of(messageId));
+            }
+        });
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<String, MessageDto> stored = new HashMap<>();
+            messageRepository.findAllById(ids)
+                    .forEach(message -> stored.put(message.getId().getValue(), messageMapper.toDto(message)));
+            return stored;
+        } catch (Exception e) {
+            log.error("Failed to load {} inbox messages from MongoDB: {}", ids.size(), e.getMessage(), e);
+            return null;
+        }
+    }
+}
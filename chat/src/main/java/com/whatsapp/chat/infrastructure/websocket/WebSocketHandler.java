@@ -1,9 +1,10 @@
 package com.whatsapp.chat.infrastructure.websocket;
 
 import com.whatsapp.chat.application.dto.MessageDto;
+import com.whatsapp.chat.application.dto.SyncDeltaDto;
+import com.whatsapp.chat.application.mapper.MessageMapper;
 import com.whatsapp.chat.application.service.ChatApplicationService;
-import com.whatsapp.chat.domain.service.DeliveryTrackingService;
-import com.whatsapp.chat.infrastructure.cache.UndeliveredMessageCache;
+import com.whatsapp.chat.application.service.SyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -15,7 +16,6 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 
 import java.security.Principal;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,9 +27,14 @@ import java.util.Map;
  *  /app/chat.sendMessage  – client sends a message
  *  /app/chat.markRead     – client marks a conversation as read
  *  /app/chat.sync         – client requests inbox sync on reconnect
+ *                           (or a sync-log delta when "since" is given,
+ *                           or from the device's cursor when "device" is set)
+ *  /app/sync.ack          – device acknowledges sync-log entries up to a seq
  *
  * On session connect, this handler flushes the user's undelivered
- * message inbox so they receive messages sent while offline.
+ * message inbox so they receive messages sent while offline. A device
+ * that declared its ID and has a cursor also gets the sync-log delta
+ * after its cursor, on its own session only.
  *
  * @author WhatsApp Clone Team
  */
@@ -39,9 +44,10 @@ import java.util.Map;
 public class WebSocketHandler {
 
     private final ChatApplicationService  chatService;
-    private final DeliveryTrackingService deliveryTrackingService;
-    private final UndeliveredMessageCache undeliveredCache;
+    private final OfflineInboxRedriver    inboxRedriver;
     private final WebSocketSessionManager sessionManager;
+    private final SyncService             syncService;
+    private final MessageMapper           messageMapper;
 
     // ---------------------------------------------------------------
     // Connect hook – deliver offline messages
@@ -59,20 +65,14 @@ public class WebSocketHandler {
 
         String userId = principal.getName();
 
-        // Deliver messages that arrived while the user was offline
-        int delivered = deliveryTrackingService.deliverPendingMessages(userId);
-        if (delivered > 0) {
-            log.info("Flushed {} offline messages to user {}", delivered, userId);
+        // Resume a known device from its own cursor
+        String deviceId = ConnectionRegistry.deviceId(accessor);
+        if (deviceId != null) {
+            pushDeviceDelta(userId, deviceId, accessor.getSessionId());
         }
 
-        // Also push cached undelivered messages directly over the new WebSocket
-        List<MessageDto> cachedMessages = undeliveredCache.popAllMessages(userId);
-        for (MessageDto msg : cachedMessages) {
-            sessionManager.sendToUser(userId, "/queue/messages", msg);
-        }
-        if (!cachedMessages.isEmpty()) {
-            log.info("Pushed {} cached inbox messages to user {}", cachedMessages.size(), userId);
-        }
+        // Deliver messages that arrived while the user was offline
+        inboxRedriver.flush(userId);
     }
 
     // ---------------------------------------------------------------
@@ -128,6 +128,10 @@ public class WebSocketHandler {
 
             MessageDto sent = chatService.sendMessage(request);
             log.info("WebSocket message sent: id={} from={} to={}", sent.getId(), senderId, receiverId);
+
+            // Carbon copies to the sender's other devices
+            sessionManager.sendToOtherSessions(senderId, headerAccessor.getSessionId(),
+                    "/queue/messages", messageMapper.toReceivedResponse(sent, true));
         } catch (Exception e) {
             log.error("Error handling WebSocket sendMessage from {}: {}", senderId, e.getMessage(), e);
         }
@@ -169,8 +173,13 @@ public class WebSocketHandler {
      *
      * Expected payload fields:
      * <pre>
-     * { "userId": "user-123" }
+     * { "userId": "user-123", "since": "42" }
      * </pre>
+     *
+     * With {@code since}, the delta of the user's sync log after that
+     * sequence number is pushed to {@code /queue/sync}. Without it, the
+     * user's pending messages and inbox are flushed
+     * ({@link OfflineInboxRedriver#flush}).
      */
     @MessageMapping("/chat.sync")
     public void handleSync(
@@ -183,11 +192,79 @@ public class WebSocketHandler {
 
         if (userId == null) return;
 
-        List<MessageDto> pending = undeliveredCache.popAllMessages(userId);
-        for (MessageDto msg : pending) {
-            sessionManager.sendToUser(userId, "/queue/messages", msg);
+        String since = payload.get("since");
+        if (since == null && Boolean.parseBoolean(payload.get("device"))) {
+            String sessionId = headerAccessor.getSessionId();
+            pushDeviceDelta(userId, sessionManager.getDeviceId(sessionId), sessionId);
+            return;
+        }
+        if (since != null) {
+            try {
+                SyncDeltaDto delta = syncService.getChangesSince(userId, Long.parseLong(since), 0);
+                sessionManager.sendToUser(userId, "/queue/sync", delta);
+                log.info("Sync: pushed {} changes after seq {} to user {}", delta.getEvents().size(), since, userId);
+            } catch (Exception e) {
+                log.error("Error handling sync for user {}: {}", userId, e.getMessage(), e);
+            }
+            return;
+        }
+
+        int pushed = inboxRedriver.flush(userId);
+        log.info("Sync: pushed {} messages to user {}", pushed, userId);
+    }
+
+    /**
+     * Handle a device's acknowledgement of applied sync-log entries.
+     *
+     * Expected payload fields:
+     * <pre>
+     * { "seq": "42" }
+     * </pre>
+     *
+     * Advances the cursor of the device this session belongs to. Acks of
+     * sessions that declared no device-id are ignored.
+     */
+    @MessageMapping("/sync.ack")
+    public void handleSyncAck(
+            @Payload Map<String, String> payload,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        Principal principal = headerAccessor.getUser();
+        String seq = payload.get("seq");
+        if (principal == null || seq == null) return;
+
+        String userId = principal.getName();
+        String deviceId = sessionManager.getDeviceId(headerAccessor.getSessionId());
+        if (deviceId == null) {
+            log.debug("Ignoring sync ack of user {}: session declared no device", userId);
+            return;
+        }
+
+        try {
+            long cursor = syncService.acknowledge(userId, deviceId, Long.parseLong(seq));
+            log.debug("Sync ack: user {} device {} cursor {}", userId, deviceId, cursor);
+        } catch (Exception e) {
+            log.error("Error handling sync ack for user {} device {}: {}", userId, deviceId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Push the sync-log delta after a device's cursor to one of its sessions
+     */
+    private void pushDeviceDelta(String userId, String deviceId, String sessionId) {
+        if (deviceId == null) return;
+        try {
+            long cursor = syncService.getDeviceCursor(userId, deviceId);
+            if (cursor == 0L) {
+                return; // new device: nothing to resume, client does a full load
+            }
+            SyncDeltaDto delta = syncService.getChangesSince(userId, cursor, 0);
+            sessionManager.sendToSession(userId, sessionId, "/queue/sync", delta);
+            log.info("Sync: pushed {} changes after cursor {} to device {} of user {}",
+                    delta.getEvents().size(), cursor, deviceId, userId);
+        } catch (Exception e) {
+            log.error("Error resuming device {} of user {}: {}", deviceId, userId, e.getMessage(), e);
         }
-        log.info("Sync: pushed {} messages to user {}", pending.size(), userId);
     }
 }
 
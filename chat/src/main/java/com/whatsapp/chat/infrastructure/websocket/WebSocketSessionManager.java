@@ -1,6 +1,8 @@
 package com.whatsapp.chat.infrastructure.websocket;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
@@ -16,6 +18,8 @@ import java.util.concurrent.ConcurrentHashMap;
  *  - Check whether a user is currently connected
  *  - Push server-initiated messages to a specific user
  *  - Maintain session metadata (e.g. subscribed topics)
+ *  - Know which device each session belongs to (one user, many devices),
+ *    so a push can target one session or all sessions but one
  *
  * Thread-safety: all internal maps use {@link ConcurrentHashMap}.
  *
@@ -30,6 +34,9 @@ public class WebSocketSessionManager {
     /** userId → set of active session IDs */
     private final Map<String, Set<String>> userSessions = new ConcurrentHashMap<>();
 
+    /** sessionId → device ID declared by the client (absent if it declared none) */
+    private final Map<String, String> sessionDevices = new ConcurrentHashMap<>();
+
     public WebSocketSessionManager(SimpMessagingTemplate messagingTemplate) {
         this.messagingTemplate = messagingTemplate;
     }
@@ -45,6 +52,23 @@ public class WebSocketSessionManager {
      * @param sessionId the STOMP session ID
      */
     public void addSession(String userId, String sessionId) {
+        addSession(userId, sessionId, null);
+    }
+
+    /**
+     * Register a new session of a known device for the given user.
+     *
+     * Sessions without a device ID have no per-device state: their sync
+     * acks keep no cursor (it would be a new one per connection).
+     *
+     * @param userId    the authenticated user's ID
+     * @param sessionId the STOMP session ID
+     * @param deviceId  the client's stable device ID, or {@code null}
+     */
+    public void addSession(String userId, String sessionId, String deviceId) {
+        if (deviceId != null) {
+            sessionDevices.put(sessionId, deviceId);
+        }
         userSessions.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
         log.debug("Session registered: userId={} sessionId={} (total sessions for user: {})",
                 userId, sessionId, userSessions.get(userId).size());
@@ -57,6 +81,7 @@ public class WebSocketSessionManager {
      * @param sessionId the STOMP session ID
      */
     public void removeSession(String userId, String sessionId) {
+        sessionDevices.remove(sessionId);
         Set<String> sessions = userSessions.get(userId);
         if (sessions != null) {
             sessions.remove(sessionId);
@@ -93,6 +118,26 @@ public class WebSocketSessionManager {
         return userSessions.getOrDefault(userId, Set.of());
     }
 
+    /**
+     * Get the device a session belongs to.
+     *
+     * @param sessionId STOMP session ID
+     * @return device ID, or {@code null} for an unknown session or one
+     *         that declared no device
+     */
+    public String getDeviceId(String sessionId) {
+        return sessionId != null ? sessionDevices.get(sessionId) : null;
+    }
+
+    /**
+     * Snapshot of the IDs of all users connected to this node.
+     *
+     * @return connected user IDs
+     */
+    public Set<String> getConnectedUserIds() {
+        return Set.copyOf(userSessions.keySet());
+    }
+
     /**
      * Return the total number of distinct connected users.
      *
@@ -115,14 +160,58 @@ public class WebSocketSessionManager {
      * @param userId      the target user's ID
      * @param destination STOMP destination suffix (e.g. {@code /queue/messages})
      * @param payload     the message payload (will be serialised to JSON)
+     * @return {@code true} if the broker took the message
      */
-    public void sendToUser(String userId, String destination, Object payload) {
+    public boolean sendToUser(String userId, String destination, Object payload) {
         try {
             messagingTemplate.convertAndSendToUser(userId, destination, payload);
             log.debug("Sent message to user {} at destination {}", userId, destination);
+            return true;
         } catch (Exception e) {
             log.error("Failed to send message to user {} at {}: {}", userId, destination, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Send a payload to one session of a user only.
+     *
+     * @param userId      the target user's ID
+     * @param sessionId   the target STOMP session ID
+     * @param destination STOMP destination suffix (e.g. {@code /queue/sync})
+     * @param payload     the message payload (will be serialised to JSON)
+     */
+    public void sendToSession(String userId, String sessionId, String destination, Object payload) {
+        try {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+            messagingTemplate.convertAndSendToUser(userId, destination, payload, headers.getMessageHeaders());
+            log.debug("Sent message to session {} of user {} at destination {}", sessionId, userId, destination);
+        } catch (Exception e) {
+            log.error("Failed to send message to session {} at {}: {}", sessionId, destination, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Send a payload to every session of a user except one (carbon copies to
+     * the user's other devices).
+     *
+     * @param userId           the target user's ID
+     * @param excludedSessionId session that must not receive it, or {@code null} for none
+     * @param destination      STOMP destination suffix
+     * @param payload          the message payload
+     * @return number of sessions sent to
+     */
+    public int sendToOtherSessions(String userId, String excludedSessionId, String destination, Object payload) {
+        int sent = 0;
+        for (String sessionId : getUserSessions(userId)) {
+            if (!sessionId.equals(excludedSessionId)) {
+                sendToSession(userId, sessionId, destination, payload);
+                sent++;
+            }
         }
+        return sent;
     }
 
     /**
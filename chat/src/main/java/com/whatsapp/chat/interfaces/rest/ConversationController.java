@@ -1,6 +1,7 @@
 package com.whatsapp.chat.interfaces.rest;
 
 import com.whatsapp.chat.application.dto.ConversationDto;
+import com.whatsapp.chat.application.dto.ConversationPageDto;
 import com.whatsapp.chat.application.dto.CreateConversationRequest;
 import com.whatsapp.chat.application.service.ConversationService;
 
@@ -21,6 +22,7 @@ import java.util.List;
  * Endpoints:
  * - POST /conversations - Create a new conversation
  * - GET /conversations - Get user conversations
+ * - GET /conversations/page - Get user conversation list (keyset paginated summaries)
  * - GET /conversations/{id} - Get conversation by ID
  * - PUT /conversations/{id}/read - Mark conversation as read
  * - POST /conversations/{id}/participants - Add participant
@@ -64,6 +66,24 @@ public class ConversationController {
         return ResponseEntity.ok(conversations);
     }
 
+    /**
+     * Get user conversation list, one keyset page at a time
+     *
+     * GET /api/v1/conversations/page?userId={userId}&cursor={nextCursor}&limit=50
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ConversationPageDto> getConversationPage(
+            @RequestParam String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        log.debug("Getting conversation page for user: {}", userId);
+
+        ConversationPageDto page = conversationService.getConversationPage(userId, cursor, limit);
+
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Get conversation by ID
      *
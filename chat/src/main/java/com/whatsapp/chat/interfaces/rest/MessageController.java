@@ -2,7 +2,10 @@ package com.whatsapp.chat.interfaces.rest;
 
 import com.whatsapp.chat.application.dto.MessageDto;
 import com.whatsapp.chat.application.dto.SendMessageRequest;
+import com.whatsapp.chat.application.mapper.MessageMapper;
 import com.whatsapp.chat.application.service.ChatApplicationService;
+import com.whatsapp.chat.domain.model.vo.SeqRange;
+import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +15,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Message REST Controller
@@ -22,8 +27,11 @@ import java.util.List;
  * - POST /messages - Send a new message
  * - GET /messages/{id} - Get message by ID
  * - GET /messages/conversation/{conversationId} - Get conversation messages
+ *   (page/size, or keyset with ?before={messageId})
+ * - GET /messages/conversation/{conversationId}/gaps - Get missing sequence ranges
  * - PUT /messages/{id}/delivered - Mark message as delivered
  * - PUT /messages/{id}/read - Mark message as read
+ * - GET /messages/{id}/receipts - Per-recipient status (sender only)
  * - DELETE /messages/{id} - Delete message
  *
  * @author WhatsApp Clone Team
@@ -35,6 +43,8 @@ import java.util.List;
 public class MessageController {
 
     private final ChatApplicationService chatService;
+    private final WebSocketSessionManager sessionManager;
+    private final MessageMapper messageMapper;
 
     /**
      * Send a new message
@@ -47,6 +57,10 @@ public class MessageController {
 
         MessageDto message = chatService.sendMessage(request);
 
+        // Carbon copies to the sender's connected devices
+        sessionManager.sendToOtherSessions(request.getSenderId(), null,
+                "/queue/messages", messageMapper.toReceivedResponse(message, true));
+
         return ResponseEntity.status(HttpStatus.CREATED).body(message);
     }
 
@@ -68,20 +82,47 @@ public class MessageController {
      * Get conversation messages with pagination
      *
      * GET /api/v1/messages/conversation/{conversationId}
+     * GET /api/v1/messages/conversation/{conversationId}?before={messageId}&size=50
      */
     @GetMapping("/conversation/{conversationId}")
     public ResponseEntity<List<MessageDto>> getConversationMessages(
             @PathVariable String conversationId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "50") int size) {
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String before) {
 
         log.debug("Getting messages for conversation: {}", conversationId);
 
-        List<MessageDto> messages = chatService.getConversationMessages(conversationId, page, size);
+        List<MessageDto> messages = before != null
+                ? chatService.getConversationMessagesBefore(conversationId, before, size)
+                : chatService.getConversationMessages(conversationId, page, size);
 
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * Get messages for missing sequence ranges (gap-fill)
+     *
+     * GET /api/v1/messages/conversation/{conversationId}/gaps?ranges=10-15,20-22
+     *
+     * A number may be missing while its message is still being saved; one
+     * that is still missing on a later retry is void (its save failed) and
+     * will never be filled.
+     */
+    @GetMapping("/conversation/{conversationId}/gaps")
+    public ResponseEntity<List<MessageDto>> getMessageGaps(
+            @PathVariable String conversationId,
+            @RequestParam List<String> ranges) {
+
+        log.debug("Gap-fill for conversation: {}, ranges: {}", conversationId, ranges);
+
+        List<SeqRange> seqRanges = ranges.stream()
+                .map(SeqRange::parse)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(chatService.getMessagesBySeqRanges(conversationId, seqRanges));
+    }
+
     /**
      * Mark message as delivered
      *
@@ -116,6 +157,21 @@ public class MessageController {
         return ResponseEntity.ok(message);
     }
 
+    /**
+     * Get per-recipient delivery/read status of a message
+     *
+     * GET /api/v1/messages/{id}/receipts?userId={senderId}
+     */
+    @GetMapping("/{id}/receipts")
+    public ResponseEntity<Map<String, String>> getReceipts(
+            @PathVariable String id,
+            @RequestParam String userId) {
+
+        log.debug("Getting receipts of message: {}", id);
+
+        return ResponseEntity.ok(chatService.getReceipts(id, userId));
+    }
+
     /**
      * Delete message
      *
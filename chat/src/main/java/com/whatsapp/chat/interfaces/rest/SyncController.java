@@ -0,0 +1,85 @@
+package com.whatsapp.chat.interfaces.rest;
+
+import com.whatsapp.chat.application.dto.SyncDeltaDto;
+import com.whatsapp.chat.application.service.SyncService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Sync REST Controller
+ *
+ * Incremental sync for reconnecting clients.
+ *
+ * Endpoints:
+ * - GET /sync?userId={id}&since={seq} - Changes after the given sequence number
+ * - GET /sync?userId={id}&deviceId={device} - Changes after the device's cursor
+ * - PUT /sync/cursor?userId={id}&deviceId={device}&seq={seq} - Acknowledge up to seq
+ * - GET /sync/cursors?userId={id} - Cursors of all devices
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    /**
+     * Get changes since a sequence number
+     *
+     * GET /api/v1/sync?userId={id}&since={seq}&limit={n}
+     * GET /api/v1/sync?userId={id}&deviceId={device}&limit={n} (from the device's cursor)
+     */
+    @GetMapping
+    public ResponseEntity<SyncDeltaDto> getChanges(
+            @RequestParam String userId,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        log.debug("Sync request for user: {} since: {} device: {}", userId, since, deviceId);
+
+        SyncDeltaDto delta = since == null && deviceId != null
+                ? syncService.getChangesForDevice(userId, deviceId, limit)
+                : syncService.getChangesSince(userId, since != null ? since : 0L, limit);
+
+        return ResponseEntity.ok(delta);
+    }
+
+    /**
+     * Acknowledge sync-log entries applied by a device
+     *
+     * PUT /api/v1/sync/cursor?userId={id}&deviceId={device}&seq={seq}
+     */
+    @PutMapping("/cursor")
+    public ResponseEntity<Map<String, Long>> acknowledge(
+            @RequestParam String userId,
+            @RequestParam String deviceId,
+            @RequestParam long seq) {
+
+        long cursor = syncService.acknowledge(userId, deviceId, seq);
+
+        return ResponseEntity.ok(Map.of("cursor", cursor));
+    }
+
+    /**
+     * Get the cursors of all devices of a user
+     *
+     * GET /api/v1/sync/cursors?userId={id}
+     */
+    @GetMapping("/cursors")
+    public ResponseEntity<Map<String, Long>> getCursors(@RequestParam String userId) {
+        return ResponseEntity.ok(syncService.getDeviceCursors(userId));
+    }
+}
@@ -3,7 +3,9 @@ package com.whatsapp.chat.interfaces.websocket;
 import com.whatsapp.chat.application.dto.MessageDto;
 import com.whatsapp.chat.application.dto.MessageReceivedResponse;
 import com.whatsapp.chat.application.dto.SendMessageRequest;
+import com.whatsapp.chat.application.mapper.MessageMapper;
 import com.whatsapp.chat.application.service.ChatApplicationService;
+import com.whatsapp.chat.infrastructure.messaging.SignalingEventPublisher;
 import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
 
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,12 +29,21 @@ import java.util.Map;
  *  /app/chat.message        – send a new chat message
  *  /app/chat.delivered      – acknowledge message delivery
  *  /app/chat.read           – mark a message as read
+ *  /app/chat.typing         – typing indicator for a conversation partner
+ *  /app/call.ring           – ring a callee
  *
  * Server push destinations:
- *  /user/{userId}/queue/messages  – incoming messages
- *  /user/{userId}/queue/receipts  – delivery / read receipts
+ *  /user/{userId}/queue/messages  – incoming messages, and carbon copies of
+ *                                   messages sent from the user's other devices
+ *  /user/{userId}/queue/receipts  – delivery / read receipts (summaries for group messages)
+ *  /user/{userId}/queue/typing    – typing indicators
+ *  /user/{userId}/queue/calls     – incoming calls
  *  /topic/conversation.{id}       – broadcast in a group conversation
  *
+ * Typing indicators for receivers without a local session, and every
+ * ring (it must wake all of the callee's devices), are published to the
+ * notification service's priority lanes ({@link SignalingEventPublisher}).
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -41,6 +53,8 @@ public class ChatWebSocketController {
 
     private final ChatApplicationService  chatService;
     private final WebSocketSessionManager sessionManager;
+    private final MessageMapper           messageMapper;
+    private final SignalingEventPublisher signalingPublisher;
 
     // ---------------------------------------------------------------
     // Send message
@@ -60,6 +74,9 @@ public class ChatWebSocketController {
      * }
      * </pre>
      *
+     * Without "receiverId" the message goes to all members of a group or
+     * broadcast conversation (stored once, pushed to each member).
+     *
      * The sender is resolved from the authenticated STOMP {@link Principal}.
      */
     @MessageMapping("/chat.message")
@@ -80,7 +97,7 @@ public class ChatWebSocketController {
         String contentType    = payload.getOrDefault("contentType", "TEXT");
         String replyToId      = payload.get("replyToMessageId");
 
-        if (receiverId == null || conversationId == null || content == null) {
+        if (conversationId == null || content == null) {
             log.warn("Incomplete chat.message payload from {}: {}", senderId, payload);
             return;
         }
@@ -97,31 +114,25 @@ public class ChatWebSocketController {
 
             MessageDto sent = chatService.sendMessage(request);
 
-            // Build real-time response
-            MessageReceivedResponse response = MessageReceivedResponse.builder()
-                    .messageId(sent.getId())
-                    .conversationId(sent.getConversationId())
-                    .senderId(sent.getSenderId())
-                    .receiverId(sent.getReceiverId())
-                    .contentType(sent.getContentType())
-                    .content(sent.getContent())
-                    .mediaUrl(sent.getMediaUrl())
-                    .status(sent.getStatus())
-                    .sentAt(sent.getSentAt())
-                    .replyToMessageId(sent.getReplyToMessageId())
-                    .deleted(sent.isDeleted())
-                    .serverTimestamp(Instant.now())
-                    .build();
+            MessageReceivedResponse response = messageMapper.toReceivedResponse(sent, false);
 
-            // Push to receiver (if online)
-            if (sessionManager.isUserConnected(receiverId)) {
-                sessionManager.sendToUser(receiverId, "/queue/messages", response);
+            // Push to receiver(s) (if online)
+            List<String> recipients = receiverId != null
+                    ? List.of(receiverId)
+                    : chatService.getMessageRecipients(sent.getId());
+            for (String recipientId : recipients) {
+                if (sessionManager.isUserConnected(recipientId)) {
+                    sessionManager.sendToUser(recipientId, "/queue/messages", response);
+                }
             }
 
-            // Echo back to sender (for multi-device sync)
-            sessionManager.sendToUser(senderId, "/queue/messages", response);
+            // Echo to the sending session, carbon copies to the sender's other devices
+            String sessionId = headerAccessor.getSessionId();
+            sessionManager.sendToSession(senderId, sessionId, "/queue/messages", response);
+            sessionManager.sendToOtherSessions(senderId, sessionId, "/queue/messages",
+                    messageMapper.toReceivedResponse(sent, true));
 
-            log.info("WebSocket message sent: id={} from={} to={}", sent.getId(), senderId, receiverId);
+            log.info("WebSocket message sent: id={} from={} to={} recipient(s)", sent.getId(), senderId, recipients.size());
 
         } catch (Exception e) {
             log.error("Error in chat.message from {}: {}", senderId, e.getMessage(), e);
@@ -152,9 +163,11 @@ public class ChatWebSocketController {
 
         try {
             MessageDto updated = chatService.markAsDelivered(messageId, userId);
-            // Notify the original sender
-            sessionManager.sendToUser(updated.getSenderId(), "/queue/receipts",
-                    Map.of("type", "DELIVERED", "messageId", messageId, "timestamp", Instant.now().toString()));
+            // Notify the original sender (group senders get throttled summaries instead)
+            if (updated.getRecipientCount() == null) {
+                sessionManager.sendToUser(updated.getSenderId(), "/queue/receipts",
+                        Map.of("type", "DELIVERED", "messageId", messageId, "timestamp", Instant.now().toString()));
+            }
             log.debug("Delivery ACK: messageId={} by userId={}", messageId, userId);
         } catch (Exception e) {
             log.error("Error in chat.delivered: {}", e.getMessage(), e);
@@ -185,13 +198,87 @@ public class ChatWebSocketController {
 
         try {
             MessageDto updated = chatService.markAsRead(messageId, userId);
-            // Notify the original sender
-            sessionManager.sendToUser(updated.getSenderId(), "/queue/receipts",
-                    Map.of("type", "READ", "messageId", messageId, "timestamp", Instant.now().toString()));
+            // Notify the original sender (group senders get throttled summaries instead)
+            if (updated.getRecipientCount() == null) {
+                sessionManager.sendToUser(updated.getSenderId(), "/queue/receipts",
+                        Map.of("type", "READ", "messageId", messageId, "timestamp", Instant.now().toString()));
+            }
             log.debug("Read receipt: messageId={} by userId={}", messageId, userId);
         } catch (Exception e) {
             log.error("Error in chat.read: {}", e.getMessage(), e);
         }
     }
-}
 
+    // ---------------------------------------------------------------
+    // Typing indicator
+    // ---------------------------------------------------------------
+
+    /**
+     * Handle a typing indicator from the sender.
+     *
+     * Expected payload:
+     * <pre>{ "conversationId": "conv-abc", "receiverId": "user-456", "typing": "true" }</pre>
+     *
+     * Pushed to the receiver's local sessions; published for a push
+     * notification (dropped under load) when the receiver has none.
+     */
+    @MessageMapping("/chat.typing")
+    public void typing(
+            @Payload Map<String, String> payload,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        Principal principal = headerAccessor.getUser();
+        if (principal == null) return;
+
+        String senderId       = principal.getName();
+        String conversationId = payload.get("conversationId");
+        String receiverId     = payload.get("receiverId");
+        if (conversationId == null || receiverId == null) return;
+        boolean typing = !"false".equalsIgnoreCase(payload.get("typing"));
+
+        if (sessionManager.isUserConnected(receiverId)) {
+            sessionManager.sendToUser(receiverId, "/queue/typing",
+                    Map.of("conversationId", conversationId, "senderId", senderId, "typing", typing));
+        } else {
+            signalingPublisher.publishTyping(conversationId, senderId, receiverId, typing);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Call ring
+    // ---------------------------------------------------------------
+
+    /**
+     * Handle an outgoing call from the caller.
+     *
+     * Expected payload:
+     * <pre>{ "callId": "call-789", "calleeId": "user-456", "callerName": "Alice" }</pre>
+     *
+     * Pushed to the callee's local sessions and always published for a
+     * high-priority push (call lane of the notification service).
+     */
+    @MessageMapping("/call.ring")
+    public void ring(
+            @Payload Map<String, String> payload,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        Principal principal = headerAccessor.getUser();
+        if (principal == null) return;
+
+        String callerId = principal.getName();
+        String callId   = payload.get("callId");
+        String calleeId = payload.get("calleeId");
+        if (callId == null || calleeId == null) {
+            log.warn("Incomplete call.ring payload from {}: {}", callerId, payload);
+            return;
+        }
+
+        if (sessionManager.isUserConnected(calleeId)) {
+            sessionManager.sendToUser(calleeId, "/queue/calls",
+                    Map.of("type", "RING", "callId", callId, "callerId", callerId,
+                            "timestamp", Instant.now().toString()));
+        }
+        signalingPublisher.publishCallRing(callId, callerId, payload.get("callerName"), calleeId);
+        log.debug("Call ring: callId={} from={} to={}", callId, callerId, calleeId);
+    }
+}
@@ -2,7 +2,9 @@ package com.whatsapp.chat.interfaces.websocket;
 
 import com.whatsapp.chat.application.dto.MessageDto;
 import com.whatsapp.chat.application.dto.MessageReceivedResponse;
+import com.whatsapp.chat.application.dto.PresenceUpdateDto;
 import com.whatsapp.chat.application.service.MessageQueryService;
+import com.whatsapp.chat.infrastructure.presence.PresenceService;
 import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
 
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -26,6 +29,7 @@ import java.util.Map;
  * 1. React to STOMP subscription requests (e.g. client subscribes to
  *    a conversation topic → send missed messages since last sync).
  * 2. Forward domain events received from RabbitMQ over WebSocket.
+ * 3. Manage presence subscriptions (push-based online/last-seen).
  *
  * This handler works alongside {@link ChatWebSocketController} to
  * decouple event routing from message sending logic.
@@ -39,6 +43,7 @@ public class MessageEventHandler {
 
     private final MessageQueryService     messageQueryService;
     private final WebSocketSessionManager sessionManager;
+    private final PresenceService         presenceService;
 
     // ---------------------------------------------------------------
     // STOMP subscription hook
@@ -114,7 +119,7 @@ public class MessageEventHandler {
         String targetUserId  = payload.get("targetUserId");
         if (targetUserId == null) return;
 
-        boolean online = sessionManager.isUserConnected(targetUserId);
+        boolean online = presenceService.isOnline(targetUserId);
 
         sessionManager.sendToUser(requesterId, "/queue/status",
                 Map.of(
@@ -127,6 +132,54 @@ public class MessageEventHandler {
                 targetUserId, online ? "ONLINE" : "OFFLINE", requesterId);
     }
 
+    // ---------------------------------------------------------------
+    // Presence subscriptions
+    // ---------------------------------------------------------------
+
+    /**
+     * Watch the presence of users (e.g. the members of open conversations).
+     * Users the caller shares no conversation with are ignored. The current
+     * state is answered at once; later changes are pushed in batches to
+     * {@code /user/{userId}/queue/presence}.
+     *
+     * Expected payload:
+     * <pre>{ "userIds": ["user-456", "user-789"] }</pre>
+     */
+    @MessageMapping("/presence.subscribe")
+    public void handlePresenceSubscribe(
+            @Payload Map<String, List<String>> payload,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        Principal principal = headerAccessor.getUser();
+        if (principal == null) return;
+
+        List<String> userIds = payload.getOrDefault("userIds", List.of());
+        List<PresenceUpdateDto> snapshot = presenceService.subscribe(principal.getName(), userIds);
+
+        if (!snapshot.isEmpty()) {
+            sessionManager.sendToUser(principal.getName(), "/queue/presence",
+                    Map.of("updates", snapshot, "timestamp", Instant.now().toString()));
+        }
+        log.debug("User {} subscribed to presence of {} users", principal.getName(), snapshot.size());
+    }
+
+    /**
+     * Stop watching the presence of users (e.g. conversation closed).
+     *
+     * Expected payload:
+     * <pre>{ "userIds": ["user-456"] }</pre>
+     */
+    @MessageMapping("/presence.unsubscribe")
+    public void handlePresenceUnsubscribe(
+            @Payload Map<String, List<String>> payload,
+            SimpMessageHeaderAccessor headerAccessor) {
+
+        Principal principal = headerAccessor.getUser();
+        if (principal == null) return;
+
+        presenceService.unsubscribe(principal.getName(), payload.getOrDefault("userIds", List.of()));
+    }
+
     // ---------------------------------------------------------------
     // Unread count
     // ---------------------------------------------------------------
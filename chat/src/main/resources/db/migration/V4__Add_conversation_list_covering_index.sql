@@ -0,0 +1,13 @@
+-- ===================================================================
+-- WhatsApp Clone - Chat Service
+-- Covering index for the conversation list query
+-- ===================================================================
+
+-- Serves "conversations of user X that they have not left" from the index
+-- alone: user_id/left_at for the filter, conversation_id for the join and
+-- unread_count for the row (index-only scan, no heap access per member row)
+CREATE INDEX IF NOT EXISTS idx_conversation_participants_user_active
+    ON conversation_participants(user_id, left_at)
+    INCLUDE (conversation_id, unread_count);
+
+COMMENT ON INDEX idx_conversation_participants_user_active IS 'Covering index for the paginated conversation list';
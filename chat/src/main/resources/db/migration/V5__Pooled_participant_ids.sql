@@ -0,0 +1,9 @@
+-- ===================================================================
+-- WhatsApp Clone - Chat Service
+-- Pooled sequence ids for conversation_participants
+-- ===================================================================
+
+-- Hibernate reserves 50 ids per nextval (pooled optimizer), which lets
+-- participant inserts be JDBC-batched instead of one round trip per row.
+-- The column default keeps working for direct SQL inserts.
+ALTER SEQUENCE conversation_participants_id_seq INCREMENT BY 50;
@@ -0,0 +1,118 @@
+package com.whatsapp.chat.application.service;
+
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.model.vo.MessageContent;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.ReceiptUpdate;
+import com.whatsapp.chat.domain.repository.ConversationRepository;
+import com.whatsapp.chat.domain.repository.MessageReceiptRepository;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import com.whatsapp.chat.infrastructure.cache.InboxCacheService;
+import com.whatsapp.chat.infrastructure.cache.ReceiptJournal;
+import com.whatsapp.chat.infrastructure.messaging.MessageEventPublisher;
+import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.RecordId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Journal draining of {@link ReceiptAggregator}.
+ */
+class ReceiptAggregatorTest {
+
+    private static final MessageId GROUP_MESSAGE = MessageId.of("1000000000000000001");
+    private static final MessageId OTHER_MESSAGE = MessageId.of("1000000000000000002");
+
+    private ReceiptJournal journal;
+    private MessageReceiptRepository receiptRepository;
+    private MessageRepository messageRepository;
+    private MessageEventPublisher eventPublisher;
+    private ReceiptAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        journal = mock(ReceiptJournal.class);
+        receiptRepository = mock(MessageReceiptRepository.class);
+        messageRepository = mock(MessageRepository.class);
+        eventPublisher = mock(MessageEventPublisher.class);
+        aggregator = new ReceiptAggregator(journal, receiptRepository, messageRepository,
+                mock(ConversationRepository.class), mock(InboxCacheService.class), eventPublisher,
+                mock(SyncService.class), mock(WebSocketSessionManager.class), 100);
+        when(messageRepository.findAllById(any())).thenReturn(List.of(message(GROUP_MESSAGE), message(OTHER_MESSAGE)));
+    }
+
+    @Test
+    void receiptsAreJournaledBeforeTheCallReturns() {
+        aggregator.recordRead(message(GROUP_MESSAGE), "bob");
+
+        verify(journal).append(GROUP_MESSAGE.getValue(), "bob", true);
+    }
+
+    @Test
+    void onlyRecipientsTheWriteFlippedGetEvents() {
+        List<ReceiptJournal.Entry> entries = List.of(
+                entry("1-0", GROUP_MESSAGE, "bob", false),
+                entry("1-1", GROUP_MESSAGE, "carol", false));
+        when(journal.poll(100)).thenReturn(entries);
+        when(receiptRepository.markAll(anyMap(), anyMap())).thenReturn(Map.of(GROUP_MESSAGE,
+                ReceiptUpdate.of(Set.of("bob"), Set.of(), ReceiptProgress.of(3, 2, 0))));
+
+        aggregator.flush();
+
+        verify(eventPublisher).publishMessageDelivered(any(Message.class), eq("bob"));
+        verify(eventPublisher, never()).publishMessageDelivered(any(Message.class), eq("carol"));
+        verify(journal).ack(entries);
+    }
+
+    @Test
+    void receiptsOfAFailedWriteStayJournaled() {
+        ReceiptJournal.Entry applied = entry("1-0", GROUP_MESSAGE, "bob", false);
+        ReceiptJournal.Entry failed = entry("1-1", OTHER_MESSAGE, "bob", true);
+        when(journal.poll(100)).thenReturn(List.of(applied, failed));
+        when(receiptRepository.markAll(anyMap(), anyMap())).thenReturn(Map.of(GROUP_MESSAGE,
+                ReceiptUpdate.of(Set.of("bob"), Set.of(), ReceiptProgress.of(3, 1, 0))));
+
+        aggregator.flush();
+
+        verify(journal).ack(List.of(applied));
+    }
+
+    @Test
+    void nothingIsAcknowledgedWhenTheBatchCannotBeWritten() {
+        when(journal.poll(100)).thenReturn(List.of(entry("1-0", GROUP_MESSAGE, "bob", false)));
+        when(receiptRepository.markAll(anyMap(), anyMap())).thenThrow(new IllegalStateException("mongo down"));
+
+        aggregator.flush();
+
+        verify(journal, never()).ack(anyList());
+        verify(eventPublisher, never()).publishMessageDelivered(any(Message.class), anyString());
+    }
+
+    private static ReceiptJournal.Entry entry(String id, MessageId messageId, String userId, boolean read) {
+        return new ReceiptJournal.Entry(RecordId.of(id), messageId.getValue(), userId, read);
+    }
+
+    private static Message message(MessageId id) {
+        Instant now = Instant.now();
+        return Message.reconstitute(id, ConversationId.of("c1"), "alice", null, MessageContent.text("hi"),
+                MessageStatus.SENT, false, null, now, now, null, null, null, 1L, 3);
+    }
+}
@@ -0,0 +1,129 @@
+package com.whatsapp.chat.application.service;
+
+import com.whatsapp.chat.application.dto.SyncDeltaDto;
+import com.whatsapp.chat.application.dto.SyncEventDto;
+import com.whatsapp.chat.domain.model.SyncEvent;
+import com.whatsapp.chat.domain.model.SyncEventType;
+import com.whatsapp.chat.domain.repository.SyncLogRepository;
+import com.whatsapp.chat.infrastructure.cache.DeviceCursorStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deltas served by {@link SyncService}: contiguous watermark and compaction.
+ */
+class SyncServiceTest {
+
+    private static final String USER = "user-1";
+
+    private SyncLogRepository repository;
+    private SyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SyncLogRepository.class);
+        syncService = new SyncService(repository, mock(DeviceCursorStore.class));
+        when(repository.findOldestSeq(USER)).thenReturn(1L);
+        when(repository.findLatestSeq(USER)).thenReturn(100L);
+    }
+
+    @Test
+    void deltaStopsBeforeASequenceNumberStillBeingInserted() {
+        Instant now = Instant.now();
+        givenLog(event(5, now), event(6, now), event(8, now), event(9, now));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 4, 100);
+
+        assertThat(seqs(delta)).containsExactly(5L, 6L);
+        assertThat(delta.getNextSeq()).isEqualTo(6);
+        assertThat(delta.isHasMore()).isFalse();
+    }
+
+    @Test
+    void deltaIsEmptyWhileTheNextSequenceNumberIsInFlight() {
+        givenLog(event(6, Instant.now()));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 4, 100);
+
+        assertThat(delta.getEvents()).isEmpty();
+        assertThat(delta.getNextSeq()).isEqualTo(4);
+        assertThat(delta.isResetRequired()).isFalse();
+    }
+
+    @Test
+    void holesOlderThanTheGracePeriodAreSkipped() {
+        Instant old = Instant.now().minus(SyncService.GAP_GRACE).minusSeconds(1);
+        givenLog(event(5, old), event(7, old), event(8, Instant.now()));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 4, 100);
+
+        assertThat(seqs(delta)).containsExactly(5L, 7L, 8L);
+        assertThat(delta.getNextSeq()).isEqualTo(8);
+    }
+
+    @Test
+    void fullContiguousPageReportsMore() {
+        Instant now = Instant.now();
+        givenLog(event(1, now), event(2, now));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 0, 2);
+
+        assertThat(delta.isHasMore()).isTrue();
+        assertThat(delta.getNextSeq()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredHistoryRequiresAFullResync() {
+        when(repository.findOldestSeq(USER)).thenReturn(50L);
+        givenLog(event(50, Instant.now()));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 10, 100);
+
+        assertThat(delta.isResetRequired()).isTrue();
+        assertThat(delta.getNextSeq()).isEqualTo(100);
+        assertThat(delta.getEvents()).isEmpty();
+    }
+
+    @Test
+    void laterReceiptsSupersedeEarlierOnesAndDeletesDropTheMessage() {
+        Instant now = Instant.now();
+        givenLog(
+                event(1, now, SyncEventType.MESSAGE_NEW, "m1"),
+                event(2, now, SyncEventType.MESSAGE_DELIVERED, "m2"),
+                event(3, now, SyncEventType.MESSAGE_READ, "m2"),
+                event(4, now, SyncEventType.MESSAGE_READ, "m2"),
+                event(5, now, SyncEventType.MESSAGE_DELETED, "m1"));
+
+        SyncDeltaDto delta = syncService.getChangesSince(USER, 0, 100);
+
+        assertThat(seqs(delta)).containsExactly(2L, 4L, 5L);
+        assertThat(delta.getNextSeq()).isEqualTo(5);
+    }
+
+    private void givenLog(SyncEvent... events) {
+        when(repository.findAfter(eq(USER), anyLong(), anyInt())).thenReturn(List.of(events));
+    }
+
+    private static SyncEvent event(long seq, Instant createdAt) {
+        return event(seq, createdAt, SyncEventType.MESSAGE_NEW, "m" + seq);
+    }
+
+    private static SyncEvent event(long seq, Instant createdAt, SyncEventType type, String messageId) {
+        return SyncEvent.reconstitute(USER, seq, type, "conversation-1", messageId, Map.of(), createdAt);
+    }
+
+    private static List<Long> seqs(SyncDeltaDto delta) {
+        return delta.getEvents().stream().map(SyncEventDto::getSeq).toList();
+    }
+}
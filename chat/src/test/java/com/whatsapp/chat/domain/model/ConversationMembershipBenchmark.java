@@ -0,0 +1,123 @@
+package com.whatsapp.chat.domain.model;
+
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.model.vo.Participant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Membership checks of {@link Conversation} at 10 to 10,000 members.
+ *
+ * Compares the userId index of the aggregate with the linear scan over
+ * a participant list it replaced, for the newest member (worst case of
+ * the scan) and a non-member. Also measures rebuilding the aggregate
+ * from its participant rows, paid on every full load.
+ *
+ * Run: mvn -pl chat test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.whatsapp.chat.domain.model.ConversationMembershipBenchmark
+ *
+ * @author WhatsApp Clone Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversationMembershipBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int members;
+
+    private List<Participant> rows;
+    private Map<String, Integer> unread;
+    private Conversation conversation;
+    private String newestMember;
+    private String stranger;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(members);
+        unread = new HashMap<>();
+        for (int i = 0; i < members; i++) {
+            String userId = UUID.randomUUID().toString();
+            rows.add(i == 0 ? Participant.createAdmin(userId, "Admin") : Participant.create(userId, "Member " + i));
+            unread.put(userId, 0);
+        }
+        conversation = load();
+        newestMember = rows.get(members - 1).getUserId();
+        stranger = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean isParticipantIndexed() {
+        return conversation.isParticipant(newestMember);
+    }
+
+    @Benchmark
+    public boolean isParticipantIndexedMiss() {
+        return conversation.isParticipant(stranger);
+    }
+
+    @Benchmark
+    public boolean isAdminIndexed() {
+        return conversation.isAdmin(newestMember);
+    }
+
+    @Benchmark
+    public boolean isParticipantListScan() {
+        for (Participant participant : rows) {
+            if (participant.getUserId().equals(newestMember)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean isParticipantListScanMiss() {
+        for (Participant participant : rows) {
+            if (participant.getUserId().equals(stranger)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public Conversation reconstitute() {
+        return load();
+    }
+
+    private Conversation load() {
+        Instant now = Instant.EPOCH;
+        return Conversation.reconstitute(ConversationId.of("benchmark"), ConversationType.GROUP, "Benchmark", null,
+                null, rows, null, null, new HashMap<>(unread), true, now, now);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversationMembershipBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
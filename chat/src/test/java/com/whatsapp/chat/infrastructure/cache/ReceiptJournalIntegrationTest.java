@@ -0,0 +1,89 @@
+package com.whatsapp.chat.infrastructure.cache;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Journaling and hand-over of receipts by {@link ReceiptJournal} against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReceiptJournalIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(ReceiptJournal.STREAM_KEY);
+    }
+
+    @Test
+    void acknowledgedReceiptsLeaveTheJournal() {
+        ReceiptJournal journal = new ReceiptJournal(redisTemplate, "node-1", 30_000);
+        journal.append("m1", "bob", false);
+        journal.append("m1", "carol", true);
+
+        List<ReceiptJournal.Entry> entries = journal.poll(10);
+        assertThat(entries).extracting(ReceiptJournal.Entry::userId, ReceiptJournal.Entry::read)
+                .containsExactly(tuple("bob", false),
+                        tuple("carol", true));
+
+        journal.ack(entries);
+
+        assertThat(journal.poll(10)).isEmpty();
+        assertThat(redisTemplate.opsForStream().size(ReceiptJournal.STREAM_KEY)).isZero();
+    }
+
+    @Test
+    void unacknowledgedReceiptsArePolledAgain() {
+        ReceiptJournal journal = new ReceiptJournal(redisTemplate, "node-1", 30_000);
+        journal.append("m1", "bob", false);
+
+        journal.poll(10);
+        journal.append("m2", "bob", false);
+
+        assertThat(journal.poll(10)).extracting(ReceiptJournal.Entry::messageId).containsExactly("m1", "m2");
+    }
+
+    @Test
+    void receiptsOfACrashedNodeAreTakenOverAfterTheClaimTimeout() throws InterruptedException {
+        ReceiptJournal crashed = new ReceiptJournal(redisTemplate, "node-1", 30_000);
+        crashed.append("m1", "bob", true);
+        crashed.poll(10);
+
+        assertThat(new ReceiptJournal(redisTemplate, "node-2", 30_000).poll(10)).isEmpty();
+
+        Thread.sleep(50);
+        ReceiptJournal survivor = new ReceiptJournal(redisTemplate, "node-2", 20);
+        assertThat(survivor.poll(10)).extracting(ReceiptJournal.Entry::messageId).containsExactly("m1");
+    }
+}
@@ -0,0 +1,122 @@
+package com.whatsapp.chat.infrastructure.idgen;
+
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Allocation and recovery of {@link ConversationSequenceGenerator} against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ConversationSequenceGeneratorIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private MessageRepository messageRepository;
+    private ConversationSequenceGenerator generator;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        messageRepository = mock(MessageRepository.class);
+        generator = new ConversationSequenceGenerator(redisTemplate, messageRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void newConversationStartsAtOne() {
+        ConversationId conversation = ConversationId.of("fresh");
+        when(messageRepository.findMaxSeq(conversation)).thenReturn(0L);
+
+        assertThat(generator.next(conversation)).isEqualTo(1);
+        assertThat(generator.next(conversation)).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentRecoveryContinuesDenselyAfterTheHighWaterMark() throws Exception {
+        ConversationId conversation = ConversationId.of("recovered");
+        when(messageRepository.findMaxSeq(conversation)).thenReturn(41L);
+
+        int threads = 16;
+        int perThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Callable<List<Long>> allocate = () -> {
+                start.await();
+                List<Long> seqs = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    seqs.add(generator.next(conversation));
+                }
+                return seqs;
+            };
+            futures.add(executor.submit(allocate));
+        }
+        start.countDown();
+
+        List<Long> allocated = new ArrayList<>();
+        for (Future<List<Long>> future : futures) {
+            allocated.addAll(future.get());
+        }
+        executor.shutdown();
+
+        Collections.sort(allocated);
+        assertThat(allocated).containsExactlyElementsOf(
+                LongStream.rangeClosed(42, 41 + (long) threads * perThread).boxed().toList());
+    }
+
+    @Test
+    void resyncRaisesAStaleCounterButNeverLowersIt() {
+        ConversationId conversation = ConversationId.of("stale");
+        redisTemplate.opsForValue().set("conversation:seq:stale", "5");
+        when(messageRepository.findMaxSeq(conversation)).thenReturn(20L);
+
+        generator.resync(conversation);
+        assertThat(generator.next(conversation)).isEqualTo(21);
+
+        when(messageRepository.findMaxSeq(conversation)).thenReturn(3L);
+        generator.resync(conversation);
+        assertThat(generator.next(conversation)).isEqualTo(22);
+    }
+}
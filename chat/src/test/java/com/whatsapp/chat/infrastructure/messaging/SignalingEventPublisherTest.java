@@ -0,0 +1,81 @@
+package com.whatsapp.chat.infrastructure.messaging;
+
+import com.whatsapp.common.messaging.CallEvent;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.TypingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.net.ConnectException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Call ring and typing events of {@link SignalingEventPublisher}.
+ */
+class SignalingEventPublisherTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SignalingEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        publisher = new SignalingEventPublisher(rabbitTemplate, 30_000, 5_000);
+    }
+
+    @Test
+    void ringGoesToTheCallLaneAndExpires() throws Exception {
+        publisher.publishCallRing("call-1", "alice", "Alice", "bob");
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(eq(EventTopology.CALL_EXCHANGE), eq(EventTopology.CALL_RING_KEY),
+                event.capture(), postProcessor.capture());
+        CallEvent ring = (CallEvent) event.getValue();
+        assertThat(ring.getEventType()).isEqualTo(EventTopology.CALL_RING);
+        assertThat(ring.getCallId()).isEqualTo("call-1");
+        assertThat(ring.getCalleeId()).isEqualTo("bob");
+        assertThat(ring.getTimestamp()).isNotNull();
+
+        MessageProperties properties = postProcessor.getValue()
+                .postProcessMessage(new Message(new byte[0], new MessageProperties()))
+                .getMessageProperties();
+        assertThat(properties.getDeliveryMode()).isEqualTo(MessageDeliveryMode.NON_PERSISTENT);
+        assertThat(properties.getExpiration()).isEqualTo("30000");
+    }
+
+    @Test
+    void typingGoesToTheEphemeralLane() {
+        publisher.publishTyping("c1", "alice", "bob", true);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq(EventTopology.MESSAGE_EXCHANGE),
+                eq(EventTopology.MESSAGE_TYPING_KEY), event.capture(), any(MessagePostProcessor.class));
+        TypingEvent typing = (TypingEvent) event.getValue();
+        assertThat(typing.getEventType()).isEqualTo(EventTopology.TYPING);
+        assertThat(typing.getReceiverId()).isEqualTo("bob");
+        assertThat(typing.isTyping()).isTrue();
+    }
+
+    @Test
+    void failedPublishIsNotRethrown() {
+        doThrow(new AmqpConnectException(new ConnectException("refused"))).when(rabbitTemplate)
+                .convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        publisher.publishTyping("c1", "alice", "bob", true);
+    }
+}
@@ -0,0 +1,140 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.domain.model.vo.ReceiptProgress;
+import com.whatsapp.chat.domain.model.vo.ReceiptUpdate;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageReceiptDocument;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageRosterDocument;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Receipt bitmaps of {@link MessageReceiptRepositoryImpl} against a real MongoDB.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MessageReceiptRepositoryIntegrationTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static final MessageId MESSAGE = MessageId.of("1000000000000000001");
+    private static final List<String> MEMBERS = IntStream.range(0, 130)
+            .mapToObj(i -> String.format("u%03d", i))
+            .toList();
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "receipts_test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(MessageReceiptDocument.class);
+        mongoTemplate.dropCollection(MessageRosterDocument.class);
+        mongoTemplate.insert(MessageRosterDocument.builder()
+                .id("c1:roster")
+                .conversationId("c1")
+                .members(MEMBERS)
+                .createdAt(Instant.now())
+                .build());
+        mongoTemplate.insert(MessageReceiptDocument.builder()
+                .id(MESSAGE.getValue())
+                .conversationId("c1")
+                .rosterId("c1:roster")
+                .recipientCount(MEMBERS.size())
+                .delivered(new ArrayList<>(Collections.nCopies(3, 0L)))
+                .read(new ArrayList<>(Collections.nCopies(3, 0L)))
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    @Test
+    void receiptsAreReportedOnceAndReadImpliesDelivered() {
+        MessageReceiptRepositoryImpl repository = new MessageReceiptRepositoryImpl(mongoTemplate);
+
+        ReceiptUpdate first = repository.markAll(
+                Map.of(MESSAGE, Set.of("u001", "u100")), Map.of(MESSAGE, Set.of("u129", "mallory"))).get(MESSAGE);
+        ReceiptUpdate replay = repository.markAll(
+                Map.of(MESSAGE, Set.of("u001")), Map.of(MESSAGE, Set.of("u129"))).get(MESSAGE);
+
+        assertThat(first.getNewlyDelivered()).containsExactlyInAnyOrder("u001", "u100", "u129");
+        assertThat(first.getNewlyRead()).containsExactly("u129");
+        assertProgress(first.getProgress(), 3, 1);
+        assertThat(replay.hasChanges()).isFalse();
+        assertProgress(replay.getProgress(), 3, 1);
+        assertThat(repository.findRecipientStatuses(MESSAGE).get("u129").name()).isEqualTo("READ");
+    }
+
+    @Test
+    void concurrentNodesReportEveryReceiptExactlyOnce() throws Exception {
+        int nodes = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<ReceiptUpdate>>> futures = new ArrayList<>();
+        for (int node = 0; node < nodes; node++) {
+            MessageReceiptRepositoryImpl repository = new MessageReceiptRepositoryImpl(mongoTemplate);
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<ReceiptUpdate> updates = new ArrayList<>();
+                for (String member : MEMBERS) {
+                    updates.add(repository.markAll(Map.of(MESSAGE, Set.of(member)), Map.of()).get(MESSAGE));
+                    updates.add(repository.markAll(Map.of(), Map.of(MESSAGE, Set.of(member))).get(MESSAGE));
+                }
+                return updates;
+            }));
+        }
+        start.countDown();
+
+        List<String> delivered = new ArrayList<>();
+        List<String> read = new ArrayList<>();
+        for (Future<List<ReceiptUpdate>> future : futures) {
+            for (ReceiptUpdate update : future.get()) {
+                delivered.addAll(update.getNewlyDelivered());
+                read.addAll(update.getNewlyRead());
+            }
+        }
+        executor.shutdown();
+
+        assertThat(delivered).hasSize(MEMBERS.size()).containsExactlyInAnyOrderElementsOf(MEMBERS);
+        assertThat(read).hasSize(MEMBERS.size()).containsExactlyInAnyOrderElementsOf(MEMBERS);
+        assertProgress(new MessageReceiptRepositoryImpl(mongoTemplate).findProgress(List.of(MESSAGE)).get(MESSAGE),
+                MEMBERS.size(), MEMBERS.size());
+    }
+
+    private static void assertProgress(ReceiptProgress progress, int delivered, int read) {
+        assertThat(progress.getRecipientCount()).isEqualTo(MEMBERS.size());
+        assertThat(progress.getDeliveredCount()).isEqualTo(delivered);
+        assertThat(progress.getReadCount()).isEqualTo(read);
+    }
+}
@@ -0,0 +1,190 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.model.vo.MessageContent;
+import com.whatsapp.chat.domain.model.vo.MessageId;
+import com.whatsapp.chat.infrastructure.cache.MessageCounterCache;
+import com.whatsapp.chat.infrastructure.persistence.archive.MessageArchiveReader;
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageDocument;
+import com.whatsapp.common.archive.ArchivedMessage;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keyset history pages and bulk status updates of {@link MessageRepositoryImpl}.
+ */
+class MessageRepositoryImplTest {
+
+    private static final String CONVERSATION = "conversation-1";
+
+    /** Snowflake IDs of four messages created in the same millisecond */
+    private static final long SAME_MS = 1_900_000_000_000_000_000L;
+
+    private MessageMongoRepository mongoRepository;
+    private MongoTemplate mongoTemplate;
+    private MessageArchiveReader archiveReader;
+    private MessageRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoRepository = mock(MessageMongoRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        archiveReader = mock(MessageArchiveReader.class);
+        repository = new MessageRepositoryImpl(mongoRepository, mongoTemplate, archiveReader,
+                new MessageWriteMetrics(new SimpleMeterRegistry()), mock(MessageCounterCache.class));
+    }
+
+    @Test
+    void fullHotPageBoundsOnIdAndNeverTouchesTheArchive() {
+        when(mongoRepository.findByConversationIdAndIdLessThan(eq(CONVERSATION), eq(String.valueOf(SAME_MS + 3)), any()))
+                .thenReturn(List.of(doc(SAME_MS + 2), doc(SAME_MS + 1)));
+
+        List<Message> page = repository.findByConversationIdBefore(
+                ConversationId.of(CONVERSATION), MessageId.of(String.valueOf(SAME_MS + 3)), 2);
+
+        assertThat(page).extracting(message -> message.getId().getValue())
+                .containsExactly(String.valueOf(SAME_MS + 2), String.valueOf(SAME_MS + 1));
+        verify(archiveReader, never()).findBefore(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void pagesAreSortedByIdDescending() {
+        when(mongoRepository.findByConversationIdAndIdLessThan(any(), any(), any())).thenReturn(List.of());
+
+        repository.findByConversationIdBefore(ConversationId.of(CONVERSATION), null, 20);
+
+        verify(mongoRepository).findByConversationIdAndIdLessThan(eq(CONVERSATION), eq(String.valueOf(Long.MAX_VALUE)),
+                eq(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "_id"))));
+    }
+
+    @Test
+    void shortHotPageContinuesInTheArchiveBelowTheOldestHotMessage() {
+        when(mongoRepository.findByConversationIdAndIdLessThan(eq(CONVERSATION), any(), any()))
+                .thenReturn(List.of(doc(SAME_MS + 1), doc(SAME_MS)));
+        when(archiveReader.findBefore(CONVERSATION, SAME_MS, 3))
+                .thenReturn(List.of(archived(SAME_MS - 1), archived(SAME_MS - 2)));
+
+        List<Message> page = repository.findByConversationIdBefore(
+                ConversationId.of(CONVERSATION), MessageId.of(String.valueOf(SAME_MS + 2)), 5);
+
+        assertThat(page).extracting(message -> message.getId().getValue()).containsExactly(
+                String.valueOf(SAME_MS + 1), String.valueOf(SAME_MS),
+                String.valueOf(SAME_MS - 1), String.valueOf(SAME_MS - 2));
+    }
+
+    @Test
+    void emptyHotPageContinuesInTheArchiveBelowTheCursor() {
+        when(mongoRepository.findByConversationIdAndIdLessThan(any(), any(), any())).thenReturn(List.of());
+
+        repository.findByConversationIdBefore(ConversationId.of(CONVERSATION), MessageId.of(String.valueOf(SAME_MS)), 10);
+
+        verify(archiveReader).findBefore(CONVERSATION, SAME_MS, 10);
+    }
+
+    @Test
+    void rejectsCursorsThatAreNotSnowflakeIds() {
+        assertThatThrownBy(() -> repository.findByConversationIdBefore(
+                ConversationId.of(CONVERSATION), MessageId.of("12345"), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> repository.findByConversationIdBefore(
+                ConversationId.of(CONVERSATION), MessageId.of("19000000000000000x0"), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bulkUpdateLeavesRejectedMessagesDirty() {
+        Message applied = delivered();
+        Message rejected = delivered();
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getModifiedCount()).thenReturn(1);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.execute()).thenReturn(result);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageDocument.class)).thenReturn(bulk);
+        when(mongoTemplate.getCollectionName(MessageDocument.class)).thenReturn("messages");
+        // The rejected message was read meanwhile, so its SENT guard did not match
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("messages"))).thenReturn(List.of(
+                new Document("_id", applied.getId().getValue()).append("status", "DELIVERED"),
+                new Document("_id", rejected.getId().getValue()).append("status", "READ")));
+
+        int updated = repository.updateAll(List.of(applied, rejected));
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(applied.isDirty()).isFalse();
+        assertThat(rejected.isDirty()).isTrue();
+        assertThat(rejected.getPersistedStatus()).isEqualTo(MessageStatus.SENT);
+    }
+
+    @Test
+    void bulkUpdateWhoseGuardsAllMatchedSkipsTheReadBack() {
+        Message message = delivered();
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getMatchedCount()).thenReturn(1);
+        when(result.getModifiedCount()).thenReturn(1);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.execute()).thenReturn(result);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageDocument.class)).thenReturn(bulk);
+
+        repository.updateAll(List.of(message));
+
+        assertThat(message.isDirty()).isFalse();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+
+    private static Message delivered() {
+        Message message = Message.create(ConversationId.of(CONVERSATION), "alice", "bob", MessageContent.text("hi"));
+        message.markAsDelivered();
+        return message;
+    }
+
+    private static MessageDocument doc(long id) {
+        return MessageDocument.builder()
+                .id(String.valueOf(id))
+                .conversationId(CONVERSATION)
+                .senderId("alice")
+                .receiverId("bob")
+                .contentText("hello")
+                .contentType("TEXT")
+                .status("SENT")
+                .createdAt(Instant.ofEpochMilli(MessageId.of(String.valueOf(id)).getTimestamp()))
+                .build();
+    }
+
+    private static ArchivedMessage archived(long id) {
+        return ArchivedMessage.builder()
+                .id(id)
+                .conversationId(CONVERSATION)
+                .senderId("alice")
+                .receiverId("bob")
+                .contentText("old")
+                .contentType("TEXT")
+                .status("READ")
+                .createdAt(Instant.ofEpochMilli(MessageId.of(String.valueOf(id)).getTimestamp()))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sampling of {@link MessageWriteMetrics}.
+ */
+class MessageWriteMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MessageWriteMetrics metrics = new MessageWriteMetrics(registry);
+
+    @Test
+    void measuresTheSizeOfOneWriteInEverySampleInterval() {
+        long sampled = IntStream.range(0, MessageWriteMetrics.SIZE_SAMPLE_RATE * 10)
+                .filter(i -> metrics.sampleSize())
+                .count();
+
+        assertThat(sampled).isEqualTo(10);
+    }
+
+    @Test
+    void timesEveryWriteButRecordsOnlySampledSizes() {
+        for (int i = 0; i < MessageWriteMetrics.SIZE_SAMPLE_RATE; i++) {
+            metrics.record(MessageWriteMetrics.Mode.FULL, System.nanoTime());
+            if (metrics.sampleSize()) {
+                metrics.recordSize(MessageWriteMetrics.Mode.FULL, 120);
+            }
+        }
+
+        assertThat(registry.get("message_write_duration").tag("mode", "full").timer().count())
+                .isEqualTo(MessageWriteMetrics.SIZE_SAMPLE_RATE);
+        assertThat(registry.get("message_write_bytes").tag("mode", "full").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sizeIsTheEncodedBsonLength() {
+        // int32 length + (type, "a\0", int32) + terminator
+        assertThat(metrics.sizeOf(new Document("a", 1))).isEqualTo(4 + 1 + 2 + 4 + 1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.whatsapp.chat.infrastructure.persistence.mongodb.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.whatsapp.chat.domain.model.SyncEvent;
+import com.whatsapp.chat.domain.model.SyncEventType;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Sequence allocation of {@link SyncLogRepositoryImpl} against a real MongoDB.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SyncLogRepositoryIntegrationTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static SyncLogRepositoryImpl repository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "sync_test");
+        mongoTemplate.indexOps("sync_log").ensureIndex(
+                new CompoundIndexDefinition(new Document("userId", 1).append("seq", 1)).unique());
+        repository = new SyncLogRepositoryImpl(mongoTemplate);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void concurrentAppendsOfOneUserGetDenseUniqueSequenceNumbers() throws Exception {
+        String user = "concurrent-user";
+        int threads = 8;
+        int appendsPerThread = 50;
+        int batch = 3;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < appendsPerThread; i++) {
+                    List<SyncEvent> events = new ArrayList<>();
+                    for (int j = 0; j < batch; j++) {
+                        events.add(SyncEvent.create(user, SyncEventType.MESSAGE_NEW, "c1", "m", null));
+                    }
+                    repository.appendAll(events);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long total = (long) threads * appendsPerThread * batch;
+        List<Long> seqs = repository.findAfter(user, 0, (int) total + 10).stream().map(SyncEvent::getSeq).toList();
+        assertThat(seqs).containsExactlyElementsOf(LongStream.rangeClosed(1, total).boxed().toList());
+        assertThat(repository.findLatestSeq(user)).isEqualTo(total);
+        assertThat(repository.findOldestSeq(user)).isEqualTo(1);
+    }
+
+    @Test
+    void batchKeepsPerUserOrderAcrossUsers() {
+        List<SyncEvent> appended = repository.appendAll(List.of(
+                SyncEvent.create("a", SyncEventType.MESSAGE_NEW, "c1", "m1", null),
+                SyncEvent.create("b", SyncEventType.MESSAGE_NEW, "c1", "m1", null),
+                SyncEvent.create("a", SyncEventType.MESSAGE_READ, "c1", "m1", null)));
+
+        assertThat(repository.findAfter("a", 0, 10))
+                .extracting(SyncEvent::getSeq, SyncEvent::getType)
+                .containsExactly(
+                        tuple(1L, SyncEventType.MESSAGE_NEW),
+                        tuple(2L, SyncEventType.MESSAGE_READ));
+        assertThat(repository.findAfter("b", 0, 10)).extracting(SyncEvent::getSeq).containsExactly(1L);
+        assertThat(appended).hasSize(3);
+    }
+}
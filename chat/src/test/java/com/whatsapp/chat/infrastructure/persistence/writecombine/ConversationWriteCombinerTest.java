@@ -0,0 +1,109 @@
+package com.whatsapp.chat.infrastructure.persistence.writecombine;
+
+import com.whatsapp.chat.infrastructure.persistence.postgres.repository.ConversationJpaRepository;
+import com.whatsapp.chat.infrastructure.persistence.postgres.repository.ConversationParticipantJpaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Merge semantics of {@link ConversationWriteCombiner}.
+ */
+class ConversationWriteCombinerTest {
+
+    private static final String CONVERSATION = "c1";
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private ConversationJpaRepository conversations;
+    private ConversationParticipantJpaRepository participants;
+    private ConversationWriteCombiner combiner;
+
+    @BeforeEach
+    void setUp() {
+        conversations = mock(ConversationJpaRepository.class);
+        participants = mock(ConversationParticipantJpaRepository.class);
+        combiner = new ConversationWriteCombiner(conversations, participants,
+                mock(PlatformTransactionManager.class), 4);
+    }
+
+    @Test
+    void messagesOfOneIntervalCostOneWritePerRow() {
+        combiner.recordMessage(CONVERSATION, "m1", T0, "bob");
+        combiner.recordMessage(CONVERSATION, "m3", T0.plusMillis(2), "bob");
+        combiner.recordMessage(CONVERSATION, "m2", T0.plusMillis(1), "bob");
+
+        combiner.flush();
+
+        verify(conversations).updateLastMessageIfNewer(eq(CONVERSATION), eq("m3"), eq(T0.plusMillis(2)), any());
+        verify(participants).addUnreadCount(CONVERSATION, "bob", 3);
+    }
+
+    @Test
+    void resetDropsEarlierDeltasAndKeepsLaterOnes() {
+        combiner.recordMessage(CONVERSATION, "m1", T0, "bob");
+        combiner.resetUnread(CONVERSATION, "bob");
+        combiner.recordMessage(CONVERSATION, "m2", T0.plusMillis(1), "bob");
+
+        combiner.flush();
+
+        verify(participants).setUnreadCount(CONVERSATION, "bob", 1);
+        verify(participants, never()).addUnreadCount(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void groupDeltasAreWrittenBeforeResetsThatCountThem() {
+        combiner.resetUnread(CONVERSATION, "bob");
+        combiner.recordGroupMessage(CONVERSATION, "m1", T0, "alice");
+
+        combiner.flush();
+
+        InOrder order = inOrder(participants);
+        order.verify(participants).addUnreadCountExcept(CONVERSATION, "alice", 1);
+        order.verify(participants).setUnreadCount(CONVERSATION, "bob", 1);
+    }
+
+    @Test
+    void failedFlushIsRetriedUnderneathNewerWrites() {
+        when(participants.addUnreadCount(CONVERSATION, "bob", 1))
+                .thenThrow(new IllegalStateException("lock timeout"));
+        combiner.recordMessage(CONVERSATION, "m1", T0, "bob");
+        combiner.flush();
+
+        combiner.recordMessage(CONVERSATION, "m2", T0.plusMillis(1), "bob");
+        combiner.flush();
+
+        verify(participants).addUnreadCount(CONVERSATION, "bob", 2);
+        verify(conversations).updateLastMessageIfNewer(eq(CONVERSATION), eq("m2"), eq(T0.plusMillis(1)), any());
+    }
+
+    @Test
+    void nothingPendingWritesNothing() {
+        combiner.flush();
+
+        verifyNoInteractions(conversations, participants);
+    }
+
+    @Test
+    void eachIntervalIsFlushedOnce() {
+        combiner.recordMessage(CONVERSATION, "m1", T0, "bob");
+        combiner.flush();
+        combiner.flush();
+
+        verify(participants, times(1)).addUnreadCount(CONVERSATION, "bob", 1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.whatsapp.chat.infrastructure.persistence.writecombine;
+
+import com.whatsapp.chat.infrastructure.persistence.mongodb.document.MessageDocument;
+import com.whatsapp.chat.infrastructure.persistence.postgres.repository.ConversationJpaRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Startup replay of {@link ConversationWriteReplay}.
+ */
+class ConversationWriteReplayTest {
+
+    @Test
+    void movesLastMessagePointersForwardAndNothingElse() {
+        Instant sentAt = Instant.parse("2026-01-01T00:00:00Z");
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(MessageDocument.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "c1")
+                                .append("lastMessageId", "m9")
+                                .append("lastMessageAt", Date.from(sentAt))),
+                        new Document()));
+        ConversationJpaRepository conversations = mock(ConversationJpaRepository.class);
+
+        new ConversationWriteReplay(mongoTemplate, conversations, mock(PlatformTransactionManager.class), 300_000)
+                .replay();
+
+        verify(conversations).updateLastMessageIfNewer(eq("c1"), eq("m9"), eq(sentAt), any());
+        verifyNoMoreInteractions(conversations);
+    }
+}
@@ -0,0 +1,95 @@
+package com.whatsapp.chat.infrastructure.presence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.chat.application.dto.PresenceUpdateDto;
+import com.whatsapp.chat.domain.repository.ConversationRepository;
+import com.whatsapp.chat.infrastructure.websocket.WebSocketSessionManager;
+import com.whatsapp.common.presence.PresenceRegistry;
+import com.whatsapp.common.presence.SessionRoutes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscription authorisation and interest refresh of {@link PresenceService}.
+ */
+class PresenceServiceTest {
+
+    private static final String NODE = "node-1";
+
+    private PresenceStore store;
+    private ConversationRepository conversationRepository;
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(PresenceStore.class);
+        conversationRepository = mock(ConversationRepository.class);
+        when(store.areOnline(anyCollection())).thenReturn(Set.of());
+        presenceService = new PresenceService(store, mock(PresenceRegistry.class), mock(SessionRoutes.class),
+                conversationRepository, mock(WebSocketSessionManager.class),
+                mock(RedisMessageListenerContainer.class), new ObjectMapper(), NODE, 5000, 1000);
+    }
+
+    @Test
+    void onlyUsersSharingAConversationCanBeWatched() {
+        when(conversationRepository.findCoMemberIds(eq("alice"), anyCollection())).thenReturn(Set.of("bob"));
+
+        List<PresenceUpdateDto> snapshot = presenceService.subscribe("alice", List.of("bob", "mallory"));
+
+        assertThat(snapshot).extracting(PresenceUpdateDto::getUserId).containsExactly("bob");
+        verify(store).refreshInterest(List.of("bob"), NODE);
+    }
+
+    @Test
+    void failedAuthorisationSubscribesNothing() {
+        when(conversationRepository.findCoMemberIds(anyString(), anyCollection()))
+                .thenThrow(new IllegalStateException("database down"));
+
+        assertThat(presenceService.subscribe("alice", List.of("bob"))).isEmpty();
+
+        presenceService.heartbeatConnectedUsers();
+        verify(store, never()).refreshInterest(argThat(users -> !users.isEmpty()), any());
+    }
+
+    @Test
+    void heartbeatRefreshesInterestInEveryWatchedUser() {
+        when(conversationRepository.findCoMemberIds(eq("alice"), anyCollection())).thenReturn(Set.of("bob", "carol"));
+        when(conversationRepository.findCoMemberIds(eq("dave"), anyCollection())).thenReturn(Set.of("bob"));
+        presenceService.subscribe("alice", List.of("bob", "carol"));
+        presenceService.subscribe("dave", List.of("bob"));
+        clearInvocations(store);
+
+        presenceService.heartbeatConnectedUsers();
+
+        verify(store).refreshInterest(argThat((Collection<String> users) ->
+                users.size() == 2 && users.containsAll(List.of("bob", "carol"))), eq(NODE));
+    }
+
+    @Test
+    void resubscribingDoesNotAuthoriseAgain() {
+        when(conversationRepository.findCoMemberIds(eq("alice"), anyCollection())).thenReturn(Set.of("bob"));
+        presenceService.subscribe("alice", List.of("bob"));
+
+        assertThat(presenceService.subscribe("alice", List.of("bob"))).isEmpty();
+
+        verify(conversationRepository, times(1)).findCoMemberIds(anyString(), anyCollection());
+    }
+}
@@ -0,0 +1,199 @@
+package com.whatsapp.chat.infrastructure.websocket;
+
+import com.whatsapp.chat.application.dto.MessageDto;
+import com.whatsapp.chat.application.mapper.MessageMapper;
+import com.whatsapp.chat.domain.model.Message;
+import com.whatsapp.chat.domain.model.MessageStatus;
+import com.whatsapp.chat.domain.model.vo.ConversationId;
+import com.whatsapp.chat.domain.model.vo.MessageContent;
+import com.whatsapp.chat.domain.repository.MessageRepository;
+import com.whatsapp.chat.domain.service.DeliveryTrackingService;
+import com.whatsapp.chat.infrastructure.cache.MessageCounterCache;
+import com.whatsapp.chat.infrastructure.cache.UndeliveredMessageCache;
+import com.whatsapp.chat.infrastructure.presence.PresenceService;
+import com.whatsapp.common.presence.SessionRoutes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Offline re-drive of {@link OfflineInboxRedriver}: a message becomes
+ * DELIVERED, and leaves the inbox, only once it was pushed.
+ */
+class OfflineInboxRedriverTest {
+
+    private MessageRepository messageRepository;
+    private UndeliveredMessageCache undeliveredCache;
+    private MessageCounterCache counterCache;
+    private SimpMessagingTemplate messagingTemplate;
+    private OfflineInboxRedriver redriver;
+    private final List<String> pushedIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(MessageRepository.class);
+        when(messageRepository.updateAll(anyList()))
+                .thenAnswer(invocation -> invocation.<List<Message>>getArgument(0).size());
+        undeliveredCache = mock(UndeliveredMessageCache.class);
+        counterCache = mock(MessageCounterCache.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        redriver = new OfflineInboxRedriver(new DeliveryTrackingService(messageRepository), messageRepository,
+                undeliveredCache,
+                counterCache, new MessageMapper(), new WebSocketSessionManager(messagingTemplate),
+                mock(PresenceService.class), mock(SessionRoutes.class), mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void marksPushedMessagesDelivered() {
+        List<Message> pending = List.of(message(), message());
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(pending);
+        recordPushes(Integer.MAX_VALUE);
+
+        int pushed = redriver.flush("bob");
+
+        assertThat(pushed).isEqualTo(2);
+        assertThat(pushedIds).containsExactly(id(pending.get(0)), id(pending.get(1)));
+        assertThat(pending).extracting(Message::getStatus).containsOnly(MessageStatus.DELIVERED);
+        verify(counterCache).onMessagesDelivered("bob", 2);
+    }
+
+    @Test
+    void failedPushLeavesItAndLaterMessagesPending() {
+        List<Message> pending = List.of(message(), message(), message());
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(pending);
+        recordPushes(1);
+
+        int pushed = redriver.flush("bob");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Message>> written = ArgumentCaptor.forClass(List.class);
+        verify(messageRepository).updateAll(written.capture());
+        assertThat(pushed).isEqualTo(1);
+        assertThat(written.getValue()).containsExactly(pending.get(0));
+        assertThat(pending).extracting(Message::getStatus)
+                .containsExactly(MessageStatus.DELIVERED, MessageStatus.SENT, MessageStatus.SENT);
+        verify(counterCache).onMessagesDelivered("bob", 1);
+    }
+
+    @Test
+    void cachedCopiesOfPushedMessagesAreNotSentTwice() {
+        Message stored = message();
+        MessageDto cachedCopy = new MessageDto();
+        cachedCopy.setId(id(stored));
+        MessageDto cachedOnly = new MessageDto();
+        cachedOnly.setId("cached-only");
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(List.of(stored));
+        when(undeliveredCache.peekPending("bob")).thenReturn(inbox(cachedCopy, cachedOnly));
+        recordPushes(Integer.MAX_VALUE);
+
+        int pushed = redriver.flush("bob");
+
+        assertThat(pushed).isEqualTo(2);
+        assertThat(pushedIds).containsExactly(id(stored), "cached-only");
+        verify(undeliveredCache).acknowledge("bob", List.of(id(stored), "cached-only"));
+    }
+
+    @Test
+    void inboxEntriesWhosePushFailedStayPending() {
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(List.of());
+        when(undeliveredCache.peekPending("bob")).thenReturn(inbox(dto("a"), dto("b"), dto("c")));
+        recordPushes(1);
+
+        int pushed = redriver.flush("bob");
+
+        assertThat(pushed).isEqualTo(1);
+        verify(undeliveredCache).acknowledge("bob", List.of("a"));
+    }
+
+    @Test
+    void idOnlyEntriesAreLoadedFromMongoDb() {
+        Message shared = message();
+        Map<String, MessageDto> pending = new LinkedHashMap<>();
+        pending.put(id(shared), null);
+        pending.put("deleted", null);
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(List.of());
+        when(undeliveredCache.peekPending("bob")).thenReturn(pending);
+        when(messageRepository.findAllById(anyList())).thenReturn(List.of(shared));
+        recordPushes(Integer.MAX_VALUE);
+
+        int pushed = redriver.flush("bob");
+
+        assertThat(pushed).isEqualTo(1);
+        assertThat(pushedIds).containsExactly(id(shared));
+        verify(undeliveredCache).acknowledge("bob", List.of(id(shared), "deleted"));
+    }
+
+    @Test
+    void idOnlyEntriesStayWhenMongoDbIsUnavailable() {
+        Map<String, MessageDto> pending = new LinkedHashMap<>();
+        pending.put("m1", null);
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(List.of());
+        when(undeliveredCache.peekPending("bob")).thenReturn(pending);
+        when(messageRepository.findAllById(anyList())).thenThrow(new IllegalStateException("primary down"));
+
+        assertThat(redriver.flush("bob")).isZero();
+        verify(undeliveredCache, never()).acknowledge(any(), anyList());
+    }
+
+    @Test
+    void nothingPendingWritesNothing() {
+        when(messageRepository.findUndeliveredMessages("bob")).thenReturn(List.of());
+
+        assertThat(redriver.flush("bob")).isZero();
+        verifyNoInteractions(counterCache, messagingTemplate);
+    }
+
+    /**
+     * Let the first {@code accepted} pushes through, fail the rest
+     */
+    private void recordPushes(int accepted) {
+        doAnswer(invocation -> {
+            if (pushedIds.size() >= accepted) {
+                throw new MessagingException("session closed");
+            }
+            pushedIds.add(invocation.<MessageDto>getArgument(2).getId());
+            return null;
+        }).when(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/messages"), any(Object.class));
+    }
+
+    private static Map<String, MessageDto> inbox(MessageDto... messages) {
+        Map<String, MessageDto> pending = new LinkedHashMap<>();
+        for (MessageDto message : messages) {
+            pending.put(message.getId(), message);
+        }
+        return pending;
+    }
+
+    private static MessageDto dto(String id) {
+        MessageDto message = new MessageDto();
+        message.setId(id);
+        return message;
+    }
+
+    private static Message message() {
+        return Message.create(ConversationId.of("c1"), "alice", "bob", MessageContent.text("hi"));
+    }
+
+    private static String id(Message message) {
+        return message.getId().getValue();
+    }
+}
@@ -0,0 +1,62 @@
+package com.whatsapp.chat.infrastructure.websocket;
+
+import com.whatsapp.chat.application.mapper.MessageMapper;
+import com.whatsapp.chat.application.service.ChatApplicationService;
+import com.whatsapp.chat.application.service.SyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Device cursors of {@link WebSocketHandler} sync acks.
+ */
+class WebSocketHandlerTest {
+
+    private WebSocketSessionManager sessionManager;
+    private SyncService syncService;
+    private WebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        sessionManager = new WebSocketSessionManager(mock(SimpMessagingTemplate.class));
+        syncService = mock(SyncService.class);
+        handler = new WebSocketHandler(mock(ChatApplicationService.class), mock(OfflineInboxRedriver.class),
+                sessionManager, syncService, mock(MessageMapper.class));
+    }
+
+    @Test
+    void ackOfADeclaredDeviceAdvancesItsCursor() {
+        sessionManager.addSession("alice", "s1", "phone");
+
+        handler.handleSyncAck(Map.of("seq", "42"), headers("alice", "s1"));
+
+        verify(syncService).acknowledge("alice", "phone", 42L);
+    }
+
+    @Test
+    void acksOfSessionsWithoutADeviceKeepNoCursor() {
+        sessionManager.addSession("alice", "s1", null);
+        sessionManager.addSession("alice", "s2");
+
+        handler.handleSyncAck(Map.of("seq", "42"), headers("alice", "s1"));
+        handler.handleSyncAck(Map.of("seq", "43"), headers("alice", "s2"));
+
+        verify(syncService, never()).acknowledge(anyString(), anyString(), anyLong());
+    }
+
+    private static SimpMessageHeaderAccessor headers(String userId, String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId(sessionId);
+        accessor.setUser(() -> userId);
+        return accessor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.whatsapp.common.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Archived Message Record
+ *
+ * Flat representation of a message stored in a cold-tier segment file.
+ * Mirrors the fields of the hot MongoDB "messages" document so that the
+ * chat service can reconstitute the domain model without a lookup.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedMessage {
+
+    /**
+     * Snowflake message ID (time-ordered)
+     */
+    private long id;
+
+    private String conversationId;
+
+    /**
+     * Per-conversation sequence number (null for messages sent before sequencing)
+     */
+    private Long seq;
+
+    private String senderId;
+    private String receiverId;
+
+    /**
+     * Recipients of a shared (group/broadcast) message; null for one-to-one
+     * messages. Delivered/read progress stays in "message_receipts".
+     */
+    private Integer recipientCount;
+    private String contentText;
+    private String contentType;
+    private String status;
+    private boolean deleted;
+    private Instant createdAt;
+    private Instant deliveredAt;
+    private Instant readAt;
+    private Instant deletedAt;
+}
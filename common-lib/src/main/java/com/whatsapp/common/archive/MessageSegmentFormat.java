@@ -0,0 +1,129 @@
+package com.whatsapp.common.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Message Segment Format
+ *
+ * On-disk layout shared by the archival writer (scheduled-jobs) and the
+ * read-through reader (chat).
+ *
+ * Layout per conversation ({root}/{conversationId}/):
+ * - messages.seg: append-only sequence of compressed blocks. Each block is a
+ *   Deflate-compressed JSON array of {@link ArchivedMessage}, ascending by id.
+ * - messages.idx: append-only array of fixed-size entries, one per block:
+ *   [minId:8][maxId:8][offset:8][length:4][count:4] (big-endian, 32 bytes).
+ *
+ * Blocks are appended in id order, so the index is sorted by minId and a
+ * Snowflake id range can be located with a binary search. The data block is
+ * always forced to disk before its index entry is written; a trailing,
+ * partially written index entry is ignored by readers.
+ *
+ * Conversation IDs become directory names, so only plain IDs (letters,
+ * digits, '-' and '_') are accepted.
+ *
+ * @author WhatsApp Clone Team
+ */
+public final class MessageSegmentFormat {
+
+    private MessageSegmentFormat() {
+        // Prevent instantiation
+    }
+
+    public static final String DATA_FILE = "messages.seg";
+    public static final String INDEX_FILE = "messages.idx";
+    public static final int INDEX_ENTRY_SIZE = 32;
+
+    private static final Pattern CONVERSATION_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final TypeReference<List<ArchivedMessage>> BLOCK_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Directory holding the segment files of a conversation
+     *
+     * @throws IllegalArgumentException if the ID is not a plain conversation ID
+     *                                  (e.g. contains a path separator or "..")
+     */
+    public static Path conversationDir(Path root, String conversationId) {
+        if (!isValidConversationId(conversationId)) {
+            throw new IllegalArgumentException("Invalid conversation ID for archive: " + conversationId);
+        }
+        Path dir = root.resolve(conversationId).normalize();
+        if (!root.normalize().equals(dir.getParent())) {
+            throw new IllegalArgumentException("Invalid conversation ID for archive: " + conversationId);
+        }
+        return dir;
+    }
+
+    /**
+     * Whether a conversation ID can name a segment directory
+     */
+    public static boolean isValidConversationId(String conversationId) {
+        return conversationId != null && CONVERSATION_ID.matcher(conversationId).matches();
+    }
+
+    /**
+     * Serialize and compress a block of messages
+     */
+    public static byte[] encodeBlock(List<ArchivedMessage> messages) throws IOException {
+        byte[] raw = OBJECT_MAPPER.writeValueAsBytes(messages);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress and deserialize a block of messages
+     */
+    public static List<ArchivedMessage> decodeBlock(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated segment block");
+                }
+                out.write(buffer, 0, n);
+            }
+            return OBJECT_MAPPER.readValue(out.toByteArray(), BLOCK_TYPE);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt segment block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.whatsapp.common.archive;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Message Segment Reader
+ *
+ * Reads archived messages from per-conversation segment files.
+ * See {@link MessageSegmentFormat} for the on-disk layout.
+ *
+ * Performance:
+ * - Index files are memory-mapped and re-mapped only when they grow
+ * - Decoded blocks are kept in a bounded LRU cache
+ * - Range lookups binary-search the index by Snowflake id
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class MessageSegmentReader {
+
+    private final Path root;
+    private final Map<String, MappedIndex> indexCache;
+    private final Map<String, List<ArchivedMessage>> blockCache;
+
+    /**
+     * @param root            Archive root directory
+     * @param maxIndexes      Max number of memory-mapped index files kept open
+     * @param maxCachedBlocks Max number of decoded blocks kept in memory
+     */
+    public MessageSegmentReader(Path root, int maxIndexes, int maxCachedBlocks) {
+        this.root = root;
+        this.indexCache = Collections.synchronizedMap(lruMap(maxIndexes));
+        this.blockCache = Collections.synchronizedMap(lruMap(maxCachedBlocks));
+    }
+
+    /**
+     * Read archived messages older than a given id, newest first
+     *
+     * @param conversationId Conversation ID
+     * @param beforeId       Exclusive upper bound (use {@link Long#MAX_VALUE} for no bound)
+     * @param limit          Max number of messages
+     * @return messages ordered by id descending
+     */
+    public List<ArchivedMessage> readBefore(String conversationId, long beforeId, int limit) throws IOException {
+        MappedIndex index = index(conversationId);
+        List<ArchivedMessage> result = new ArrayList<>(Math.min(limit, 256));
+        if (index == null || limit <= 0) {
+            return result;
+        }
+
+        // Last block whose range starts below the bound
+        int lo = 0;
+        int hi = index.entries - 1;
+        int start = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (index.minId(mid) < beforeId) {
+                start = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+
+        for (int i = start; i >= 0 && result.size() < limit; i--) {
+            List<ArchivedMessage> block = block(conversationId, index, i);
+            for (int j = block.size() - 1; j >= 0 && result.size() < limit; j--) {
+                if (block.get(j).getId() < beforeId) {
+                    result.add(block.get(j));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read archived messages by position, newest first
+     *
+     * @param conversationId Conversation ID
+     * @param skip           Number of newest archived messages to skip
+     * @param limit          Max number of messages
+     * @return messages ordered by id descending
+     */
+    public List<ArchivedMessage> readNewest(String conversationId, long skip, int limit) throws IOException {
+        MappedIndex index = index(conversationId);
+        List<ArchivedMessage> result = new ArrayList<>(Math.min(limit, 256));
+        if (index == null || limit <= 0) {
+            return result;
+        }
+
+        long remainingSkip = skip;
+        for (int i = index.entries - 1; i >= 0 && result.size() < limit; i--) {
+            int count = index.count(i);
+            if (remainingSkip >= count) {
+                // Skip whole block without decompressing it
+                remainingSkip -= count;
+                continue;
+            }
+            List<ArchivedMessage> block = block(conversationId, index, i);
+            for (int j = block.size() - 1 - (int) remainingSkip; j >= 0 && result.size() < limit; j--) {
+                result.add(block.get(j));
+            }
+            remainingSkip = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Count archived messages for a conversation (index only, no decompression)
+     */
+    public long count(String conversationId) throws IOException {
+        MappedIndex index = index(conversationId);
+        if (index == null) {
+            return 0L;
+        }
+        long total = 0;
+        for (int i = 0; i < index.entries; i++) {
+            total += index.count(i);
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------
+    // Internals
+    // ---------------------------------------------------------------
+
+    private MappedIndex index(String conversationId) throws IOException {
+        Path indexFile = MessageSegmentFormat.conversationDir(root, conversationId)
+                .resolve(MessageSegmentFormat.INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+
+        long size = Files.size(indexFile);
+        MappedIndex cached = indexCache.get(conversationId);
+        if (cached != null && cached.size == size) {
+            return cached;
+        }
+
+        int entries = (int) (size / MessageSegmentFormat.INDEX_ENTRY_SIZE);
+        if (entries == 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    (long) entries * MessageSegmentFormat.INDEX_ENTRY_SIZE);
+            MappedIndex mapped = new MappedIndex(buffer, entries, size);
+            indexCache.put(conversationId, mapped);
+            return mapped;
+        }
+    }
+
+    private List<ArchivedMessage> block(String conversationId, MappedIndex index, int entry) throws IOException {
+        long offset = index.offset(entry);
+        String cacheKey = conversationId + ":" + offset;
+
+        List<ArchivedMessage> cached = blockCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path dataFile = MessageSegmentFormat.conversationDir(root, conversationId)
+                .resolve(MessageSegmentFormat.DATA_FILE);
+        byte[] payload = new byte[index.length(entry)];
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, position);
+                if (n < 0) {
+                    throw new IOException("Segment data truncated for conversation " + conversationId);
+                }
+                position += n;
+            }
+        }
+
+        List<ArchivedMessage> block = MessageSegmentFormat.decodeBlock(payload);
+        blockCache.put(cacheKey, block);
+        return block;
+    }
+
+    private static <V> LinkedHashMap<String, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Memory-mapped view of a conversation's index file
+     */
+    private static final class MappedIndex {
+
+        private final MappedByteBuffer buffer;
+        private final int entries;
+        private final long size;
+
+        private MappedIndex(MappedByteBuffer buffer, int entries, long size) {
+            this.buffer = buffer;
+            this.entries = entries;
+            this.size = size;
+        }
+
+        long minId(int entry) {
+            return buffer.getLong(entry * MessageSegmentFormat.INDEX_ENTRY_SIZE);
+        }
+
+        long offset(int entry) {
+            return buffer.getLong(entry * MessageSegmentFormat.INDEX_ENTRY_SIZE + 16);
+        }
+
+        int length(int entry) {
+            return buffer.getInt(entry * MessageSegmentFormat.INDEX_ENTRY_SIZE + 24);
+        }
+
+        int count(int entry) {
+            return buffer.getInt(entry * MessageSegmentFormat.INDEX_ENTRY_SIZE + 28);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.whatsapp.common.archive;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Message Segment Writer
+ *
+ * Appends compressed message blocks to per-conversation segment files.
+ * See {@link MessageSegmentFormat} for the on-disk layout.
+ *
+ * Guarantees:
+ * - Append-only: existing blocks are never rewritten
+ * - Ordered: a block is rejected if it overlaps already archived ids
+ * - Crash-safe: data is forced before the index entry that references it
+ *
+ * Not thread-safe per conversation; the archival job processes one
+ * conversation at a time.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class MessageSegmentWriter {
+
+    private final Path root;
+
+    public MessageSegmentWriter(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Highest message id already archived for a conversation
+     *
+     * @param conversationId Conversation ID
+     * @return last archived Snowflake id, or -1 if nothing is archived yet
+     */
+    public long lastArchivedId(String conversationId) throws IOException {
+        ByteBuffer entry = lastIndexEntry(MessageSegmentFormat.conversationDir(root, conversationId));
+        return entry != null ? entry.getLong(8) : -1L;
+    }
+
+    /**
+     * Message ids stored in the most recently appended block
+     *
+     * Messages re-read after an interrupted run are already durable in the
+     * segment only if they are in this set; other ids inside the block's
+     * range (e.g. delivered after the block was written) are not archived.
+     *
+     * @param conversationId Conversation ID
+     * @return ids of the last block, empty if nothing is archived yet
+     */
+    public Set<Long> lastBlockIds(String conversationId) throws IOException {
+        Path dir = MessageSegmentFormat.conversationDir(root, conversationId);
+        ByteBuffer entry = lastIndexEntry(dir);
+        if (entry == null) {
+            return Set.of();
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate(entry.getInt(24));
+        try (FileChannel data = FileChannel.open(dir.resolve(MessageSegmentFormat.DATA_FILE),
+                StandardOpenOption.READ)) {
+            long position = entry.getLong(16);
+            while (payload.hasRemaining()) {
+                int read = data.read(payload, position);
+                if (read < 0) {
+                    throw new IOException("Truncated last block for conversation " + conversationId);
+                }
+                position += read;
+            }
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (ArchivedMessage message : MessageSegmentFormat.decodeBlock(payload.array())) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Append one block of messages to the conversation's segment
+     *
+     * @param conversationId Conversation ID
+     * @param messages       Messages to archive (all with ids above {@link #lastArchivedId})
+     */
+    public void appendBlock(String conversationId, List<ArchivedMessage> messages) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<ArchivedMessage> block = messages.stream()
+                .sorted(Comparator.comparingLong(ArchivedMessage::getId))
+                .toList();
+        long minId = block.get(0).getId();
+        long maxId = block.get(block.size() - 1).getId();
+
+        if (minId <= lastArchivedId(conversationId)) {
+            throw new IllegalStateException("Block overlaps archived range for conversation " + conversationId);
+        }
+
+        Path dir = MessageSegmentFormat.conversationDir(root, conversationId);
+        Files.createDirectories(dir);
+
+        byte[] payload = MessageSegmentFormat.encodeBlock(block);
+
+        long offset;
+        try (FileChannel data = FileChannel.open(dir.resolve(MessageSegmentFormat.DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Start after the last indexed block so a torn previous write is overwritten
+            offset = indexedDataEnd(dir);
+            data.truncate(offset);
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += data.write(buffer, position);
+            }
+            data.force(false);
+        }
+
+        try (FileChannel index = FileChannel.open(dir.resolve(MessageSegmentFormat.INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long entries = index.size() / MessageSegmentFormat.INDEX_ENTRY_SIZE;
+            ByteBuffer entry = ByteBuffer.allocate(MessageSegmentFormat.INDEX_ENTRY_SIZE)
+                    .putLong(minId)
+                    .putLong(maxId)
+                    .putLong(offset)
+                    .putInt(payload.length)
+                    .putInt(block.size());
+            entry.flip();
+            long position = entries * MessageSegmentFormat.INDEX_ENTRY_SIZE;
+            index.truncate(position);
+            while (entry.hasRemaining()) {
+                position += index.write(entry, position);
+            }
+            index.force(false);
+        }
+
+        log.debug("Archived block of {} messages for conversation {} ({} bytes, ids {}..{})",
+                block.size(), conversationId, payload.length, minId, maxId);
+    }
+
+    /**
+     * End offset of the last block referenced by the index
+     */
+    private long indexedDataEnd(Path dir) throws IOException {
+        ByteBuffer entry = lastIndexEntry(dir);
+        return entry != null ? entry.getLong(16) + entry.getInt(24) : 0L;
+    }
+
+    /**
+     * Read the last complete index entry, ignoring a torn trailing write
+     */
+    private ByteBuffer lastIndexEntry(Path dir) throws IOException {
+        Path indexFile = dir.resolve(MessageSegmentFormat.INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long entries = channel.size() / MessageSegmentFormat.INDEX_ENTRY_SIZE;
+            if (entries == 0) {
+                return null;
+            }
+            ByteBuffer entry = ByteBuffer.allocate(MessageSegmentFormat.INDEX_ENTRY_SIZE);
+            long position = (entries - 1) * MessageSegmentFormat.INDEX_ENTRY_SIZE;
+            while (entry.hasRemaining()) {
+                position += channel.read(entry, position);
+            }
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.whatsapp.common.counter;
+
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Message Counters
+ *
+ * Key schema and delta updates of the incrementally maintained message
+ * counts, shared by every service that changes message documents (chat
+ * serves and seeds them, message-processor writes delivery status,
+ * scheduled-jobs archives and deletes).
+ *
+ * Data structure:
+ *   Key   : "counter:conversation:{conversationId}"  – non-deleted messages in MongoDB
+ *   Key   : "counter:undelivered:{receiverId}"       – non-deleted SENT messages
+ *   Value : integer (Redis string)
+ *   TTL   : {@link #COUNTER_TTL}, set when seeded or repaired
+ *
+ * Updates only touch existing counters, so a missing counter is never
+ * mistaken for zero; whoever reads it next seeds it from MongoDB. A
+ * counter never goes below zero.
+ *
+ * Every writer must adjust the counters by exactly the number of
+ * documents it changed (modified or deleted count, never the number it
+ * attempted). What still slips through (a crash between the write and
+ * the adjustment) is repaired by the chat service's reconciler.
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+public class MessageCounters {
+
+    public static final String CONVERSATION_KEY_PREFIX = "counter:conversation:";
+    public static final String UNDELIVERED_KEY_PREFIX = "counter:undelivered:";
+    public static final Duration COUNTER_TTL = Duration.ofDays(7);
+
+    /** INCRBY only if the counter exists, never below zero */
+    public static final String ADJUST_LUA =
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if value < 0 then redis.call('SET', KEYS[1], 0, 'KEEPTTL') return 0 end " +
+            "return value";
+
+    private static final byte[] ADJUST_SCRIPT = ADJUST_LUA.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * @param redisTemplate String-serialised Redis template on the chat data database
+     */
+    public MessageCounters(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // ---------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------
+
+    /**
+     * Adjust one counter by {@code delta} if it exists
+     */
+    public void adjust(String key, long delta) {
+        adjustAll(Map.of(key, delta));
+    }
+
+    /**
+     * Adjust many counters in one pipelined round trip (zero deltas skipped)
+     *
+     * @param deltas counter key → delta
+     */
+    public void adjustAll(Map<String, Long> deltas) {
+        if (deltas.values().stream().allMatch(delta -> delta == 0L)) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            deltas.forEach((key, delta) -> {
+                if (delta != 0L) {
+                    connection.scriptingCommands().eval(ADJUST_SCRIPT, ReturnType.INTEGER, 1,
+                            bytes(key), bytes(String.valueOf(delta)));
+                }
+            });
+            return null;
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Key schema
+    // ---------------------------------------------------------------
+
+    /**
+     * Counter of the messages of a conversation
+     */
+    public static String conversationKey(String conversationId) {
+        return CONVERSATION_KEY_PREFIX + conversationId;
+    }
+
+    /**
+     * Counter of the undelivered messages of a receiver
+     */
+    public static String undeliveredKey(String receiverId) {
+        return UNDELIVERED_KEY_PREFIX + receiverId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
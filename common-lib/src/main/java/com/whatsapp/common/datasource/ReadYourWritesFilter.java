@@ -0,0 +1,41 @@
+package com.whatsapp.common.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Read-Your-Writes Filter
+ *
+ * Binds the calling user to the request thread for
+ * {@link ReadYourWritesTracker}: the {@code X-User-Id} header set by the
+ * gateway, else the authenticated principal.
+ *
+ * @author WhatsApp Clone Team
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String userId = request.getHeader(USER_ID_HEADER);
+        if (userId == null || userId.isBlank()) {
+            Principal principal = request.getUserPrincipal();
+            userId = principal != null ? principal.getName() : null;
+        }
+
+        ReadYourWritesTracker.bindCurrentUser(userId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWritesTracker.clearCurrentUser();
+        }
+    }
+}
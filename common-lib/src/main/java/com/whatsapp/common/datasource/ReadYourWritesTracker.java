@@ -0,0 +1,147 @@
+package com.whatsapp.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-Your-Writes Tracker
+ *
+ * Remembers which users wrote recently so their reads can be pinned to
+ * the primary until replicas have caught up with their own changes.
+ *
+ * Data structure (shared by all instances of a service):
+ *   Key   : "ryw:user:{userId}"
+ *   Value : epoch millis of the user's last committed write
+ *   TTL   : the sticky window
+ *
+ * A write is recorded once its transaction committed, so the next request
+ * of the user sees it on whichever instance it lands. Instances keep the
+ * writes they saw in memory as well: a user who is sticky there is served
+ * without a Redis round trip, any other identified user costs one GET per
+ * read-only transaction. If Redis is unreachable, only the local writes
+ * are known.
+ *
+ * The current user is bound to the request thread by
+ * {@link ReadYourWritesFilter}. The sticky window must exceed the replica
+ * max-lag, since only replicas within max-lag receive reads.
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class ReadYourWritesTracker {
+
+    private static final String KEY_PREFIX = "ryw:user:";
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration window;
+    private final long windowMillis;
+    /** userId → epoch millis of the user's last write known to this instance */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisTemplate String-serialised Redis template shared by the service's instances
+     * @param window        How long reads stay on the primary after a write
+     */
+    public ReadYourWritesTracker(RedisTemplate<String, String> redisTemplate, Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.window = window;
+        this.windowMillis = window.toMillis();
+    }
+
+    // ---------------------------------------------------------------
+    // Current user (request thread)
+    // ---------------------------------------------------------------
+
+    public static void bindCurrentUser(String userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public static void clearCurrentUser() {
+        CURRENT_USER.remove();
+    }
+
+    public static String currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    // ---------------------------------------------------------------
+    // Stickiness
+    // ---------------------------------------------------------------
+
+    /**
+     * Record a committed write by the current user, if any
+     */
+    public void recordWrite() {
+        String userId = currentUser();
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        remember(userId, now);
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + userId, String.valueOf(now), window);
+        } catch (Exception e) {
+            log.warn("Failed to share write of user {}, sticky on this instance only: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the current user wrote within the sticky window, on any instance
+     */
+    public boolean isCurrentUserSticky() {
+        String userId = currentUser();
+        if (userId == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Long lastWrite = lastWrites.get(userId);
+        if (lastWrite != null) {
+            if (now - lastWrite <= windowMillis) {
+                return true;
+            }
+            lastWrites.remove(userId, lastWrite);
+        }
+
+        String shared;
+        try {
+            shared = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.debug("Failed to read writes of user {}: {}", userId, e.getMessage());
+            return false;
+        }
+        if (shared == null) {
+            return false;
+        }
+        long sharedWrite = Long.parseLong(shared);
+        if (now - sharedWrite > windowMillis) {
+            return false;
+        }
+        remember(userId, sharedWrite);
+        return true;
+    }
+
+    private void remember(String userId, long writtenAt) {
+        lastWrites.merge(userId, writtenAt, Math::max);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            purgeExpired();
+        }
+    }
+
+    private void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        for (Iterator<Long> it = lastWrites.values().iterator(); it.hasNext(); ) {
+            if (it.next() < cutoff) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.whatsapp.common.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replica Routing DataSource
+ *
+ * Sends read-only transactions ({@code @Transactional(readOnly = true)})
+ * to a pool of Postgres read replicas and everything else to the primary.
+ *
+ * Routing (decided when the transaction takes its connection):
+ * 1. Read-write transaction, or no transaction → primary
+ *    (its commit starts the current user's sticky window, shared by all
+ *    instances through {@link ReadYourWritesTracker})
+ * 2. Read-only, but the current user wrote within the sticky window → primary
+ * 3. Read-only → next healthy replica, round robin
+ * 4. No healthy replica → primary
+ *
+ * Lag awareness: a background probe measures every replica's replay lag;
+ * replicas that are unreachable or lag more than {@code max-lag} receive
+ * no traffic until they catch up.
+ *
+ * Must be wrapped in a {@link LazyConnectionDataSourceProxy} (see
+ * {@link #lazy()}): the transaction manager takes a connection before the
+ * read-only flag is visible, the proxy defers it to the first statement.
+ *
+ * Metrics:
+ * - datasource_routing_total: Connections handed out (tags pool, reason)
+ * - datasource_replica_lag_ms: Last measured replay lag (tag pool)
+ * - datasource_replica_healthy: 1 if the replica receives traffic (tag pool)
+ * - hikaricp_*: Pool metrics of every replica pool (tag pool)
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+    private ScheduledExecutorService lagProbe;
+
+    /**
+     * @param primary  Primary (read-write) DataSource
+     * @param replicas Replica DataSources by pool name
+     */
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    Map<String, DataSource> replicas,
+                                    ReadYourWritesTracker tracker,
+                                    ReplicaRoutingProperties properties,
+                                    MeterRegistry meterRegistry) {
+        if (properties.getStickyWindow().compareTo(properties.getMaxLag()) <= 0) {
+            throw new IllegalArgumentException("Sticky window must exceed the replica max-lag");
+        }
+        this.tracker = tracker;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.checkIntervalMillis = properties.getCheckInterval().toMillis();
+
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        List<Replica> pools = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> {
+            targets.put(name, dataSource);
+            pools.add(new Replica(name, dataSource));
+        });
+        this.replicas = List.copyOf(pools);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        registerRoute(meterRegistry, PRIMARY, "write");
+        registerRoute(meterRegistry, PRIMARY, "sticky");
+        registerRoute(meterRegistry, PRIMARY, "fallback");
+        for (Replica replica : this.replicas) {
+            registerRoute(meterRegistry, replica.name, "read");
+            Gauge.builder("datasource_replica_lag_ms", replica, r -> r.lagMillis)
+                    .description("Last measured replay lag of the read replica")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+            Gauge.builder("datasource_replica_healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the read replica receives traffic")
+                    .tag("pool", replica.name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Create a connection pool for a replica, based on the primary's pool
+     * settings and named after the replica (pool metrics are tagged with it)
+     */
+    public static HikariDataSource createReplicaPool(ReplicaRoutingProperties.Replica replica,
+                                                     HikariConfig primaryConfig,
+                                                     int poolSize,
+                                                     MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(replica.getUrl());
+        config.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryConfig.getUsername());
+        config.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryConfig.getPassword());
+        if (primaryConfig.getDriverClassName() != null) {
+            config.setDriverClassName(primaryConfig.getDriverClassName());
+        }
+        config.setConnectionTimeout(primaryConfig.getConnectionTimeout());
+        config.setIdleTimeout(primaryConfig.getIdleTimeout());
+        config.setMaxLifetime(primaryConfig.getMaxLifetime());
+        config.setDataSourceProperties(primaryConfig.getDataSourceProperties());
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(Math.min(primaryConfig.getMinimumIdle(), poolSize));
+        config.setPoolName(replica.getName());
+        config.setReadOnly(true);
+        config.setMetricRegistry(meterRegistry);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * DataSource to expose to JPA: defers routing to the first statement
+     */
+    public DataSource lazy() {
+        return new LazyConnectionDataSourceProxy(this);
+    }
+
+    // ---------------------------------------------------------------
+    // Routing
+    // ---------------------------------------------------------------
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (!readOnly) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        tracker.recordWrite();
+                    }
+                });
+            }
+            return route(PRIMARY, "write");
+        }
+        if (tracker.isCurrentUserSticky()) {
+            return route(PRIMARY, "sticky");
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return route(replica.name, "read");
+            }
+        }
+        return route(PRIMARY, "fallback");
+    }
+
+    private String route(String pool, String reason) {
+        Counter counter = routeCounters.get(pool + ":" + reason);
+        if (counter != null) {
+            counter.increment();
+        }
+        return pool;
+    }
+
+    private void registerRoute(MeterRegistry meterRegistry, String pool, String reason) {
+        routeCounters.put(pool + ":" + reason, Counter.builder("datasource_routing_total")
+                .description("Connections handed out by the routing DataSource")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(meterRegistry));
+    }
+
+    // ---------------------------------------------------------------
+    // Lag probe
+    // ---------------------------------------------------------------
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (replicas.isEmpty()) {
+            log.info("No read replicas configured, all transactions use the primary");
+            return;
+        }
+        lagProbe = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagProbe.scheduleWithFixedDelay(this::probeReplicas, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Routing read-only transactions to {} replicas (max lag {} ms)", replicas.size(), maxLagMillis);
+    }
+
+    private void probeReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(Math.max(1, (int) (checkIntervalMillis / 1000)));
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagMillis = rs.getDouble(1);
+                }
+                replica.healthy = replica.lagMillis <= maxLagMillis;
+            } catch (Exception e) {
+                replica.healthy = false;
+                log.debug("Replica {} probe failed: {}", replica.name, e.getMessage());
+            }
+
+            if (wasHealthy != replica.healthy) {
+                log.warn("Replica {} is now {} (lag {} ms)", replica.name,
+                        replica.healthy ? "in rotation" : "out of rotation", (long) replica.lagMillis);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (lagProbe != null) {
+            lagProbe.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * One replica and its last probe result
+     */
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        /** Out of rotation until the first successful probe */
+        private volatile boolean healthy;
+        private volatile double lagMillis;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.whatsapp.common.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replica Routing Properties
+ *
+ * Read-replica configuration of a service ({@code app.datasource.routing.*}).
+ * With no replicas configured, every transaction uses the primary.
+ *
+ * Example:
+ * <pre>
+ * app:
+ *   datasource:
+ *     routing:
+ *       max-lag: 1s
+ *       sticky-window: 5s
+ *       replicas:
+ *         - name: replica-1
+ *           url: jdbc:postgresql://localhost:5433/whatsapp
+ * </pre>
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    /** Replicas read-only transactions are spread over */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Replicas lagging further behind are skipped until they catch up */
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    /** After a user's own write, their reads stay on the primary this long */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /** How often replica lag is measured */
+    private Duration checkInterval = Duration.ofSeconds(1);
+
+    /** Connection pool size per replica */
+    private int poolSize = 10;
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        /** Defaults to the primary's credentials */
+        private String username;
+        private String password;
+    }
+}
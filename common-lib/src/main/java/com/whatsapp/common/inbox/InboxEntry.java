@@ -0,0 +1,32 @@
+package com.whatsapp.common.inbox;
+
+import lombok.Getter;
+
+/**
+ * Inbox Entry
+ *
+ * One pending message of a user's inbox: its ID and, if the writer stored
+ * one, its serialised payload (null for ID-only entries, or once the
+ * shared payload has expired).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+public class InboxEntry {
+
+    private final String messageId;
+    private final String payload;
+
+    private InboxEntry(String messageId, String payload) {
+        this.messageId = messageId;
+        this.payload = payload;
+    }
+
+    public static InboxEntry of(String messageId, String payload) {
+        return new InboxEntry(messageId, payload);
+    }
+
+    public boolean hasPayload() {
+        return payload != null;
+    }
+}
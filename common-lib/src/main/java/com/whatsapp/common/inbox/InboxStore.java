@@ -0,0 +1,348 @@
+package com.whatsapp.common.inbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inbox Store
+ *
+ * Single store of the per-user offline inboxes, shared by every service
+ * (chat writes and drains payloads, message-processor enqueues IDs and
+ * sweeps, scheduled-jobs maintains).
+ *
+ * Data structure (schema {@value #SCHEMA_VERSION}):
+ *   Inbox   : "inbox:v2:user:{userId}"   (Sorted Set)
+ *             Member = messageId, Score = epoch millis of the first enqueue
+ *   Payload : "inbox:v2:msg:{messageId}" (String, opaque JSON)
+ *             Written once per message, shared by all its recipients
+ *
+ * Entries are ordered oldest first, deduplicated per message, and expire
+ * individually after the TTL (trimmed on every enqueue; the whole key
+ * expires once nothing was enqueued for a TTL). An inbox holds at most
+ * {@code maxEntries} messages, the oldest are dropped beyond.
+ *
+ * Delivery is peek-then-ack: readers {@link #peek} the inbox, push, and
+ * {@link #ack} only the entries that went out, so an entry whose push
+ * failed (or whose reader crashed) stays for the next attempt. Two
+ * readers flushing the same inbox at once may both push an entry; clients
+ * deduplicate by message ID.
+ *
+ * Version 1 keys ("inbox:{userId}", a List of payloads in chat and a Set
+ * of IDs in message-processor) are not read; {@link #migrateLegacy} moves
+ * them to this schema ({@link #isLegacyKey}).
+ *
+ * Performance:
+ * - Enqueue: one Lua call (ZADD NX + trim + PEXPIRE), fan-out pipelined
+ * - Peek: one ZRANGE, payloads pipelined
+ * - Ack: one ZREM of the sent IDs
+ * - Sizes: one ZCARD per user, pipelined
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+public class InboxStore {
+
+    public static final String SCHEMA_VERSION = "v2";
+
+    private static final String LEGACY_PREFIX = "inbox:";
+    private static final String USER_PREFIX = "inbox:" + SCHEMA_VERSION + ":user:";
+    private static final String PAYLOAD_PREFIX = "inbox:" + SCHEMA_VERSION + ":msg:";
+
+    /**
+     * Enqueue ARGV[4..] at time ARGV[1]: drop entries older than ARGV[2] ms,
+     * keep the newest ARGV[3], refresh the key TTL; returns the inbox size
+     */
+    private static final String ENQUEUE_LUA =
+            "local now = tonumber(ARGV[1]) " +
+            "local ttl = tonumber(ARGV[2]) " +
+            "local max = tonumber(ARGV[3]) " +
+            "for i = 4, #ARGV do redis.call('ZADD', KEYS[1], 'NX', now, ARGV[i]) end " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - ttl) " +
+            "local n = redis.call('ZCARD', KEYS[1]) " +
+            "if n > max then redis.call('ZREMRANGEBYRANK', KEYS[1], 0, n - max - 1) n = max end " +
+            "redis.call('PEXPIRE', KEYS[1], ttl) " +
+            "return n";
+
+    private static final byte[] ENQUEUE_SCRIPT = ENQUEUE_LUA.getBytes(StandardCharsets.UTF_8);
+
+    private static final ObjectMapper LEGACY_PAYLOADS = new ObjectMapper();
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration ttl;
+    private final int maxEntries;
+
+    /**
+     * @param redisTemplate String-serialised Redis template
+     * @param ttl           Lifetime of an entry (and of an untouched inbox)
+     * @param maxEntries    Messages kept per inbox at most
+     */
+    public InboxStore(RedisTemplate<String, String> redisTemplate, Duration ttl, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Inbox size limit must be positive");
+        }
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    // ---------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------
+
+    /**
+     * Enqueue a message ID (no payload) for one user
+     */
+    public void add(String userId, String messageId) {
+        addAll(List.of(userId), messageId, null);
+    }
+
+    /**
+     * Enqueue a message with its payload for one user
+     */
+    public void add(String userId, String messageId, String payload) {
+        addAll(List.of(userId), messageId, payload);
+    }
+
+    /**
+     * Enqueue a message for many users (group fan-out): the payload is
+     * stored once, all inboxes are updated in one pipelined round trip
+     *
+     * @param payload Serialised message, or null to enqueue the ID only
+     */
+    public void addAll(Collection<String> userIds, String messageId, String payload) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        byte[] now = bytes(String.valueOf(System.currentTimeMillis()));
+        byte[] ttlMs = bytes(String.valueOf(ttl.toMillis()));
+        byte[] max = bytes(String.valueOf(maxEntries));
+        byte[] id = bytes(messageId);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            if (payload != null) {
+                connection.stringCommands().set(bytes(payloadKey(messageId)), bytes(payload),
+                        Expiration.from(ttl), RedisStringCommands.SetOption.upsert());
+            }
+            for (String userId : new LinkedHashSet<>(userIds)) {
+                connection.scriptingCommands().eval(ENQUEUE_SCRIPT, ReturnType.INTEGER, 1,
+                        bytes(userKey(userId)), now, ttlMs, max, id);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Remove a message from a user's inbox (delivered or read)
+     */
+    public void remove(String userId, String messageId) {
+        redisTemplate.opsForZSet().remove(userKey(userId), messageId);
+    }
+
+    /**
+     * Acknowledge the entries of a peek that were pushed: only these leave
+     * the inbox, entries enqueued meanwhile or not sent stay
+     */
+    public void ack(String userId, Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.opsForZSet().remove(userKey(userId), messageIds.toArray());
+    }
+
+    /**
+     * Delete a user's inbox (the shared payloads expire on their own)
+     */
+    public void clear(String userId) {
+        redisTemplate.delete(userKey(userId));
+    }
+
+    // ---------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------
+
+    /**
+     * Entries of a user's inbox without removing them, oldest first
+     * ({@link #ack} the ones pushed)
+     */
+    public List<InboxEntry> peek(String userId) {
+        return withPayloads(messageIds(userId));
+    }
+
+    /**
+     * Message IDs of a user's inbox, oldest first
+     */
+    public List<String> messageIds(String userId) {
+        Set<String> ids = redisTemplate.opsForZSet().range(userKey(userId), 0, -1);
+        return ids != null ? new ArrayList<>(ids) : List.of();
+    }
+
+    /**
+     * Number of pending messages of a user
+     */
+    public long size(String userId) {
+        Long size = redisTemplate.opsForZSet().zCard(userKey(userId));
+        return size != null ? size : 0L;
+    }
+
+    /**
+     * Number of pending messages of many users (one pipelined round trip)
+     */
+    public Map<String, Long> sizes(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> users = new ArrayList<>(userIds);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            users.forEach(userId -> connection.zSetCommands().zCard(bytes(userKey(userId))));
+            return null;
+        });
+
+        Map<String, Long> sizes = new HashMap<>(users.size() * 2);
+        for (int i = 0; i < users.size() && i < results.size(); i++) {
+            sizes.put(users.get(i), results.get(i) instanceof Number size ? size.longValue() : 0L);
+        }
+        return sizes;
+    }
+
+    // ---------------------------------------------------------------
+    // Migration
+    // ---------------------------------------------------------------
+
+    /**
+     * Move a version 1 inbox into this schema, then delete it
+     *
+     * Set members are message IDs (enqueued ID-only); list elements are
+     * message payloads, keyed by their "id" field (unreadable ones are
+     * dropped). Entries are enqueued now, in the old order, and keep the
+     * usual TTL and size limit. Safe to repeat: an interrupted migration
+     * enqueues nothing twice.
+     *
+     * @return entries moved (0 for keys that are not version 1 inboxes)
+     */
+    public int migrateLegacy(String legacyKey) {
+        if (!isLegacyKey(legacyKey)) {
+            return 0;
+        }
+        String userId = legacyKey.substring(LEGACY_PREFIX.length());
+        DataType type = redisTemplate.type(legacyKey);
+        int moved = 0;
+        if (type == DataType.SET) {
+            Set<String> ids = redisTemplate.opsForSet().members(legacyKey);
+            for (String id : ids != null ? ids : Set.<String>of()) {
+                add(userId, id);
+                moved++;
+            }
+        } else if (type == DataType.LIST) {
+            List<String> payloads = redisTemplate.opsForList().range(legacyKey, 0, -1);
+            for (String payload : payloads != null ? payloads : List.<String>of()) {
+                String id = legacyMessageId(payload);
+                if (id != null) {
+                    add(userId, id, payload);
+                    moved++;
+                }
+            }
+        }
+        redisTemplate.delete(legacyKey);
+        return moved;
+    }
+
+    private static String legacyMessageId(String payload) {
+        try {
+            String id = LEGACY_PAYLOADS.readTree(payload).path("id").asText(null);
+            return id != null && !id.isEmpty() ? id : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Key schema
+    // ---------------------------------------------------------------
+
+    /**
+     * Inbox key of a user
+     */
+    public static String userKey(String userId) {
+        return USER_PREFIX + userId;
+    }
+
+    /**
+     * Key pattern matching every inbox (not the payloads)
+     */
+    public static String keyPattern() {
+        return USER_PREFIX + "*";
+    }
+
+    /**
+     * User ID of an inbox key
+     */
+    public static String userIdOf(String inboxKey) {
+        return inboxKey.substring(USER_PREFIX.length());
+    }
+
+    /**
+     * Key pattern matching every inbox key, current and legacy (filter
+     * with {@link #isLegacyKey})
+     */
+    public static String anyVersionKeyPattern() {
+        return LEGACY_PREFIX + "*";
+    }
+
+    /**
+     * Whether a key is a version 1 inbox ("inbox:{userId}"), which no
+     * service reads any more ({@link #migrateLegacy})
+     */
+    public static boolean isLegacyKey(String key) {
+        return key.startsWith(LEGACY_PREFIX) && !key.startsWith(LEGACY_PREFIX + SCHEMA_VERSION + ":");
+    }
+
+    private static String payloadKey(String messageId) {
+        return PAYLOAD_PREFIX + messageId;
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    /**
+     * Pair message IDs with their shared payloads (pipelined GETs, so the
+     * payload keys may live on different cluster slots)
+     */
+    private List<InboxEntry> withPayloads(List<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> payloads = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            messageIds.forEach(id -> connection.stringCommands().get(bytes(payloadKey(id))));
+            return null;
+        });
+
+        List<InboxEntry> entries = new ArrayList<>(messageIds.size());
+        for (int i = 0; i < messageIds.size(); i++) {
+            Object payload = i < payloads.size() ? payloads.get(i) : null;
+            entries.add(InboxEntry.of(messageIds.get(i), payload != null ? String.valueOf(payload) : null));
+        }
+        return entries;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.whatsapp.common.messaging;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Call Event
+ *
+ * Payload of the call signaling events on
+ * {@value EventTopology#CALL_EXCHANGE} (CALL_RING): an incoming call
+ * the callee has to be woken up for.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CallEvent {
+
+    private String eventType;
+    private String callId;
+    private String callerId;
+    private String callerName;
+    private String calleeId;
+    private String timestamp;
+
+    /**
+     * Time the event happened, or now if it carries no timestamp
+     */
+    @JsonIgnore
+    public Instant getOccurredAt() {
+        return timestamp != null ? Instant.parse(timestamp) : Instant.now();
+    }
+}
@@ -0,0 +1,150 @@
+package com.whatsapp.common.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Event Dispatcher
+ *
+ * Routes raw event bodies to typed handlers by their "eventType". The
+ * body is parsed once into a tree; only the matching handler's payload
+ * type is bound from it.
+ *
+ * Bodies published as a JSON string (a JSON converter fed an already
+ * serialised payload) are unwrapped first.
+ *
+ * Outcomes:
+ * - HANDLED: the handler ran
+ * - UNROUTED: no handler for the event type (nothing to do here)
+ * - INVALID: unreadable body or payload, or the handler rejected it with
+ *   an IllegalArgumentException (retrying will not help)
+ * - RETRY: the handler could not take the event now
+ *   ({@link RetryableEventException}), or a store it needs is unavailable
+ *   (transient or resource-failure {@link DataAccessException}, e.g. Redis
+ *   or MongoDB down); the caller should requeue it
+ * - FAILED: the handler threw anything else
+ *
+ * Handlers are registered once, before the first dispatch; dispatching
+ * is thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class EventDispatcher {
+
+    public enum Outcome {
+        HANDLED, UNROUTED, INVALID, RETRY, FAILED
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Route<?>> routes = new LinkedHashMap<>();
+
+    public EventDispatcher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Register the handler of an event type
+     *
+     * @param eventType   Value of "eventType"
+     * @param payloadType Type the event is bound to
+     * @param handler     Handler of the bound event
+     * @return this dispatcher
+     */
+    public <T> EventDispatcher on(String eventType, Class<T> payloadType, Consumer<? super T> handler) {
+        if (routes.putIfAbsent(eventType, new Route<>(payloadType, handler)) != null) {
+            throw new IllegalStateException("Duplicate handler for event type " + eventType);
+        }
+        return this;
+    }
+
+    /**
+     * Event types with a handler
+     */
+    public Set<String> eventTypes() {
+        return Collections.unmodifiableSet(routes.keySet());
+    }
+
+    /**
+     * Parse an event body and hand it to the handler of its type
+     */
+    public Outcome dispatch(byte[] body) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(body);
+            if (event != null && event.isTextual()) {
+                event = objectMapper.readTree(event.asText());
+            }
+        } catch (IOException e) {
+            log.warn("Dropping unreadable event: {}", e.getMessage());
+            return Outcome.INVALID;
+        }
+        if (event == null || !event.isObject()) {
+            log.warn("Dropping event that is not a JSON object");
+            return Outcome.INVALID;
+        }
+
+        String eventType = event.path("eventType").asText(null);
+        Route<?> route = eventType != null ? routes.get(eventType) : null;
+        if (route == null) {
+            log.debug("No handler for event type {}", eventType);
+            return Outcome.UNROUTED;
+        }
+        return route.handle(eventType, event);
+    }
+
+    // ---------------------------------------------------------------
+    // Routes
+    // ---------------------------------------------------------------
+
+    private final class Route<T> {
+        private final Class<T> payloadType;
+        private final Consumer<? super T> handler;
+
+        Route(Class<T> payloadType, Consumer<? super T> handler) {
+            this.payloadType = payloadType;
+            this.handler = handler;
+        }
+
+        Outcome handle(String eventType, JsonNode event) {
+            T payload;
+            try {
+                payload = objectMapper.treeToValue(event, payloadType);
+            } catch (IOException e) {
+                log.warn("Dropping {} event that does not bind to {}: {}",
+                        eventType, payloadType.getSimpleName(), e.getMessage());
+                return Outcome.INVALID;
+            }
+
+            try {
+                handler.accept(payload);
+                return Outcome.HANDLED;
+            } catch (RetryableEventException e) {
+                log.debug("Deferred {} event: {}", eventType, e.getMessage());
+                return Outcome.RETRY;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | DataAccessResourceFailureException e) {
+                log.warn("Deferred {} event, store unavailable: {}", eventType, e.getMessage());
+                return Outcome.RETRY;
+            } catch (IllegalArgumentException e) {
+                log.warn("Rejected {} event: {}", eventType, e.getMessage());
+                return Outcome.INVALID;
+            } catch (RuntimeException e) {
+                log.error("Error handling {} event", eventType, e);
+                return Outcome.FAILED;
+            }
+        }
+    }
+}
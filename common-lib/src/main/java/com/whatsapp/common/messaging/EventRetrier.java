@@ -0,0 +1,195 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Event Retrier
+ *
+ * Hands events that could not be handled to the delayed retry tiers of
+ * their work queue ({@link RetryTopology}), and to its parking lot once
+ * the tiers are used up. The original is then acked: a failing event
+ * never loops through the work queue, and never gets lost.
+ *
+ * Every copy is published with a correlated publisher confirm and the
+ * call waits for it: only a copy the broker confirmed and routed counts,
+ * anything else throws, so the caller leaves the original unacked (it is
+ * requeued). Requires publisher confirms (correlated) and returns on the
+ * template's connection factory, and a mandatory template.
+ *
+ * Attempts are counted in the {@value #ATTEMPT_HEADER} header; attempt n
+ * waits for tier n (e.g. 1s, 10s, 1m, 10m).
+ *
+ * Metrics:
+ * - event_retry_scheduled_total: events sent to a retry tier (tags queue, tier)
+ * - event_parked_total: events sent to a parking lot (tag queue)
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class EventRetrier {
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String REASON_HEADER = "x-retry-reason";
+    public static final String PARKED_AT_HEADER = "x-parked-at";
+
+    private static final Duration DEFAULT_CONFIRM_TIMEOUT = Duration.ofSeconds(5);
+
+    public enum Result {
+        SCHEDULED, PARKED
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Duration> tiers;
+    private final MeterRegistry meterRegistry;
+    private final String service;
+    private final Duration confirmTimeout;
+
+    /**
+     * @param rabbitTemplate Template used to publish the retried copies
+     * @param tiers          Delay of each retry attempt, in order
+     * @param meterRegistry  Registry of the retry metrics
+     * @param service        Value of the "service" metric tag
+     */
+    public EventRetrier(RabbitTemplate rabbitTemplate, List<Duration> tiers,
+                        MeterRegistry meterRegistry, String service) {
+        this(rabbitTemplate, tiers, meterRegistry, service, DEFAULT_CONFIRM_TIMEOUT);
+    }
+
+    /**
+     * @param confirmTimeout How long to wait for the broker to confirm a copy
+     */
+    public EventRetrier(RabbitTemplate rabbitTemplate, List<Duration> tiers,
+                        MeterRegistry meterRegistry, String service, Duration confirmTimeout) {
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        if (connectionFactory != null && !connectionFactory.isPublisherConfirms()) {
+            throw new IllegalStateException("EventRetrier needs correlated publisher confirms "
+                    + "(spring.rabbitmq.publisher-confirm-type: correlated)");
+        }
+        this.rabbitTemplate = rabbitTemplate;
+        this.tiers = List.copyOf(tiers);
+        this.meterRegistry = meterRegistry;
+        this.service = service;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    public List<Duration> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Settle an event after dispatching it: failed or deferred events go to
+     * the next retry tier, invalid ones straight to the parking lot
+     *
+     * @return false if the event was handled (or had no handler)
+     * @throws AmqpException if the broker did not confirm the copy
+     */
+    public boolean settle(String queue, Message message, EventDispatcher.Outcome outcome) {
+        switch (outcome) {
+            case HANDLED, UNROUTED -> {
+                return false;
+            }
+            case INVALID -> park(queue, message, outcome.name());
+            default -> retry(queue, message, outcome.name());
+        }
+        return true;
+    }
+
+    /**
+     * Schedule the next attempt of an event, or park it after the last tier
+     *
+     * @throws AmqpException if the broker did not confirm the copy
+     */
+    public Result retry(String queue, Message message, String reason) {
+        int attempt = attemptOf(message);
+        if (attempt >= tiers.size()) {
+            park(queue, message, reason);
+            return Result.PARKED;
+        }
+
+        String tier = RetryTopology.tierKey(tiers.get(attempt));
+        Message copy = MessageBuilder.fromClonedMessage(message)
+                .setHeader(ATTEMPT_HEADER, attempt + 1)
+                .setHeader(REASON_HEADER, reason)
+                .build();
+        publish(RetryTopology.retryExchange(queue), tier, copy);
+
+        Counter.builder("event_retry_scheduled_total")
+                .description("Events sent to a delayed retry tier")
+                .tag("service", service)
+                .tag("queue", queue)
+                .tag("tier", tier)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Scheduled attempt {} of an event of {} in {} ({})", attempt + 1, queue, tier, reason);
+        return Result.SCHEDULED;
+    }
+
+    /**
+     * Move an event to the parking lot of its queue
+     *
+     * @throws AmqpException if the broker did not confirm the copy
+     */
+    public void park(String queue, Message message, String reason) {
+        Message copy = MessageBuilder.fromClonedMessage(message)
+                .setHeader(REASON_HEADER, reason)
+                .setHeader(PARKED_AT_HEADER, Instant.now().toString())
+                .build();
+        publish(RetryTopology.retryExchange(queue), RetryTopology.PARKING_LOT_KEY, copy);
+
+        Counter.builder("event_parked_total")
+                .description("Events moved to a parking lot")
+                .tag("service", service)
+                .tag("queue", queue)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Parked an event of {} after {} attempts ({})", queue, attemptOf(message), reason);
+    }
+
+    /**
+     * Publish a copy and wait until the broker confirmed and routed it
+     */
+    private void publish(String exchange, String routingKey, Message copy) {
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.send(exchange, routingKey, copy, correlation);
+
+        CorrelationData.Confirm confirm;
+        try {
+            confirm = correlation.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for the confirm of a copy to " + exchange, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("No confirm for a copy to " + exchange + " within " + confirmTimeout, e);
+        }
+        if (!confirm.isAck()) {
+            throw new AmqpException("Broker rejected a copy to " + exchange + ": " + confirm.getReason());
+        }
+        if (correlation.getReturned() != null) {
+            throw new AmqpException("Copy to " + exchange + " with key " + routingKey + " was unroutable: "
+                    + correlation.getReturned().getReplyText());
+        }
+    }
+
+    /**
+     * Retries of an event so far (0 on its first delivery)
+     */
+    public static int attemptOf(Message message) {
+        Object attempt = message.getMessageProperties().getHeader(ATTEMPT_HEADER);
+        return attempt instanceof Number number ? number.intValue() : 0;
+    }
+}
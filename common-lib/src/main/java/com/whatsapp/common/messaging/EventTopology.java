@@ -0,0 +1,74 @@
+package com.whatsapp.common.messaging;
+
+/**
+ * Event Topology
+ *
+ * Names shared by every service publishing or consuming domain events.
+ *
+ * Layout:
+ * - One durable topic exchange per event family ({@value #MESSAGE_EXCHANGE},
+ *   {@value #USER_EXCHANGE}, {@value #CALL_EXCHANGE}); publishers only know the exchange and the
+ *   routing key
+ * - Every consuming service declares and binds its own queues, one per
+ *   purpose, named {@code <service>.<purpose>} (e.g.
+ *   {@code notification.message-push}), so services never compete for
+ *   the same events
+ * - Events carry their type in "eventType"; consumers route them with an
+ *   {@link EventDispatcher}
+ * - Message events carry their conversation in the
+ *   {@value #CONVERSATION_HEADER} header, so consumers can partition them
+ *   by conversation without parsing the body ({@link PartitionTopology})
+ *
+ * @author WhatsApp Clone Team
+ */
+public final class EventTopology {
+
+    // ---------------------------------------------------------------
+    // Exchanges
+    // ---------------------------------------------------------------
+
+    public static final String MESSAGE_EXCHANGE = "message.exchange";
+    public static final String USER_EXCHANGE = "user.events";
+    public static final String CALL_EXCHANGE = "call.events";
+
+    // ---------------------------------------------------------------
+    // Routing keys
+    // ---------------------------------------------------------------
+
+    public static final String MESSAGE_SENT_KEY = "message.sent";
+    public static final String MESSAGE_DELIVERED_KEY = "message.delivered";
+    public static final String MESSAGE_READ_KEY = "message.read";
+    public static final String MESSAGE_TYPING_KEY = "message.typing";
+
+    public static final String USER_CREATED_KEY = "user.created";
+    public static final String USER_UPDATED_KEY = "user.updated";
+    public static final String USER_DELETED_KEY = "user.deleted";
+    public static final String USER_STATUS_CHANGED_KEY = "user.status.changed";
+
+    public static final String CALL_RING_KEY = "call.ring";
+
+    // ---------------------------------------------------------------
+    // Event types ("eventType" of the payload)
+    // ---------------------------------------------------------------
+
+    public static final String MESSAGE_SENT = "MESSAGE_SENT";
+    public static final String MESSAGE_DELIVERED = "MESSAGE_DELIVERED";
+    public static final String MESSAGE_READ = "MESSAGE_READ";
+    public static final String TYPING = "TYPING";
+
+    public static final String USER_CREATED = "USER_CREATED";
+    public static final String USER_UPDATED = "USER_UPDATED";
+    public static final String USER_DELETED = "USER_DELETED";
+    public static final String USER_STATUS_CHANGED = "USER_STATUS_CHANGED";
+
+    public static final String CALL_RING = "CALL_RING";
+
+    // ---------------------------------------------------------------
+    // Headers
+    // ---------------------------------------------------------------
+
+    public static final String CONVERSATION_HEADER = "conversation-id";
+
+    private EventTopology() {
+    }
+}
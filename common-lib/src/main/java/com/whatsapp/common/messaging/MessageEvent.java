@@ -0,0 +1,78 @@
+package com.whatsapp.common.messaging;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Message Event
+ *
+ * Payload of the events on {@value EventTopology#MESSAGE_EXCHANGE}
+ * (MESSAGE_SENT, MESSAGE_DELIVERED, MESSAGE_READ), as published by the
+ * chat service.
+ *
+ * Shared (group/broadcast) messages have no receiver: MESSAGE_SENT
+ * carries "recipientIds", receipts carry the "recipientId" they are for.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MessageEvent {
+
+    private String eventType;
+    private String messageId;
+    private String conversationId;
+    private Long seq;
+    private String senderId;
+    private String senderName;
+    private String receiverId;
+
+    /**
+     * Recipient a receipt is for (set on every receipt)
+     */
+    private String recipientId;
+
+    /**
+     * Recipients of a shared MESSAGE_SENT
+     */
+    private List<String> recipientIds;
+
+    private String status;
+    private String contentType;
+    private String content;
+    private String sentAt;
+    private String timestamp;
+
+    /**
+     * Whether the event belongs to a group/broadcast message
+     */
+    @JsonIgnore
+    public boolean isShared() {
+        return receiverId == null;
+    }
+
+    /**
+     * Recipient of a receipt, falling back to the receiver for events
+     * published before "recipientId" was added
+     */
+    @JsonIgnore
+    public String getRecipient() {
+        return recipientId != null ? recipientId : receiverId;
+    }
+
+    /**
+     * Time the event happened, or now if it carries no timestamp
+     */
+    @JsonIgnore
+    public Instant getOccurredAt() {
+        return timestamp != null ? Instant.parse(timestamp) : Instant.now();
+    }
+}
@@ -0,0 +1,291 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Partition Assignor
+ *
+ * Spreads the partitions of a logical queue ({@link PartitionTopology})
+ * over the live replicas of a service and runs one single-threaded
+ * consumer per owned partition.
+ *
+ * Membership:
+ * - Every replica heartbeats into the sorted set
+ *   "partitions:{queue}:members" (score = last heartbeat)
+ * - Members without a heartbeat for {@code member-ttl} are dropped, so a
+ *   crashed replica's partitions move after at most one TTL; a replica
+ *   that stops cleanly leaves at once
+ *
+ * Assignment (computed by every replica from the same member list):
+ * - Each member gets N/M partitions (the first N%M members one more)
+ * - A partition goes to the member with the highest rendezvous hash
+ *   that still has room, so a membership change moves few partitions
+ *
+ * Handover is safe without coordination: the partitions are
+ * single-active-consumer queues, so the new owner's consumer stays on
+ * standby until the old owner has stopped its own. If Redis is
+ * unreachable the current assignment is kept.
+ *
+ * Metrics (tagged queue):
+ * - event_partitions_owned: partitions consumed by this replica
+ * - event_partition_members: live replicas
+ * - event_partition_rebalances_total: assignment changes of this replica
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class PartitionAssignor implements SmartLifecycle {
+
+    private final String queue;
+    private final List<String> partitions;
+    private final ConnectionFactory connectionFactory;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BiConsumer<String, Message> listener;
+    private final int prefetch;
+    private final long heartbeatMs;
+    private final long memberTtlMs;
+
+    private final String memberId;
+    private final String membersKey;
+    private final Map<String, SimpleMessageListenerContainer> containers = new ConcurrentHashMap<>();
+    private volatile int members;
+    private volatile ScheduledExecutorService scheduler;
+
+    private final Counter rebalances;
+
+    /**
+     * @param queue          Logical queue (partitions named by {@link PartitionTopology})
+     * @param partitionCount Partitions of the queue
+     * @param listener       Handles an event of a partition (partition queue, message),
+     *                       one at a time per partition
+     * @param prefetch       Unacked events per partition consumer
+     * @param heartbeat      Interval of heartbeats and rebalancing
+     * @param memberTtl      Silence after which a replica counts as gone
+     * @param service        Value of the "service" metric tag
+     */
+    public PartitionAssignor(String queue, int partitionCount, ConnectionFactory connectionFactory,
+                             RedisTemplate<String, String> redisTemplate, BiConsumer<String, Message> listener,
+                             int prefetch, Duration heartbeat, Duration memberTtl,
+                             MeterRegistry meterRegistry, String service) {
+        if (memberTtl.compareTo(heartbeat.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("Member TTL must cover at least two heartbeats");
+        }
+        this.queue = queue;
+        this.partitions = PartitionTopology.partitions(queue, partitionCount);
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.listener = listener;
+        this.prefetch = prefetch;
+        this.heartbeatMs = heartbeat.toMillis();
+        this.memberTtlMs = memberTtl.toMillis();
+        this.memberId = service + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.membersKey = "partitions:" + queue + ":members";
+        this.rebalances = Counter.builder("event_partition_rebalances_total")
+                .description("Changes of the partitions consumed by this replica")
+                .tag("service", service)
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("event_partitions_owned", this, assignor -> assignor.owned().size())
+                .description("Partitions consumed by this replica")
+                .tag("service", service)
+                .tag("queue", queue)
+                .register(meterRegistry);
+        Gauge.builder("event_partition_members", this, assignor -> assignor.members)
+                .description("Live replicas sharing the partitions")
+                .tag("service", service)
+                .tag("queue", queue)
+                .register(meterRegistry);
+    }
+
+    // ---------------------------------------------------------------
+    // Lifecycle
+    // ---------------------------------------------------------------
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        log.info("Joining partition group of {} as {} ({} partitions)", queue, memberId, partitions.size());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-assignor-" + queue);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebalance, 0, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(heartbeatMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+
+        containers.values().forEach(SimpleMessageListenerContainer::stop);
+        try {
+            // Leave at once so the others take the partitions over on their next heartbeat
+            redisTemplate.opsForZSet().remove(membersKey, memberId);
+        } catch (Exception e) {
+            log.error("Failed to leave partition group of {}: {}", queue, e.getMessage(), e);
+        }
+        log.info("Left partition group of {}", queue);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // ---------------------------------------------------------------
+    // Rebalancing
+    // ---------------------------------------------------------------
+
+    /**
+     * Heartbeat, then start and stop consumers to match the assignment
+     */
+    private void rebalance() {
+        Set<String> live;
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().add(membersKey, memberId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(membersKey, 0, now - memberTtlMs);
+            live = redisTemplate.opsForZSet().range(membersKey, 0, -1);
+        } catch (Exception e) {
+            log.error("Partition heartbeat of {} failed, keeping current assignment: {}", queue, e.getMessage(), e);
+            return;
+        }
+        if (live == null || !live.contains(memberId)) {
+            return;
+        }
+        members = live.size();
+
+        Set<String> assigned = assign(partitions, live).getOrDefault(memberId, Set.of());
+        Set<String> owned = owned();
+        if (assigned.equals(owned)) {
+            return;
+        }
+
+        try {
+            for (String partition : owned) {
+                if (!assigned.contains(partition)) {
+                    containers.get(partition).stop();
+                }
+            }
+            for (String partition : assigned) {
+                if (!owned.contains(partition)) {
+                    containers.computeIfAbsent(partition, this::createContainer).start();
+                }
+            }
+        } catch (Exception e) {
+            // Retried on the next heartbeat (a failure must not cancel the schedule)
+            log.error("Failed to rebalance partitions of {}: {}", queue, e.getMessage(), e);
+            return;
+        }
+        rebalances.increment();
+        log.info("Partitions of {} rebalanced over {} members: consuming {}", queue, live.size(), assigned);
+    }
+
+    /**
+     * Partitions per member: balanced, each partition on the member with the
+     * highest rendezvous hash that has room left
+     */
+    static Map<String, Set<String>> assign(List<String> partitions, Collection<String> members) {
+        List<String> sorted = new ArrayList<>(new TreeSet<>(members));
+        Map<String, Set<String>> assignment = new HashMap<>();
+        Map<String, Integer> room = new HashMap<>();
+        int base = partitions.size() / sorted.size();
+        int extra = partitions.size() % sorted.size();
+        for (int i = 0; i < sorted.size(); i++) {
+            room.put(sorted.get(i), base + (i < extra ? 1 : 0));
+        }
+
+        for (String partition : partitions) {
+            String owner = null;
+            long best = Long.MIN_VALUE;
+            for (String member : sorted) {
+                long weight = weight(member, partition);
+                if (room.get(member) > 0 && (owner == null || weight > best)) {
+                    owner = member;
+                    best = weight;
+                }
+            }
+            room.merge(owner, -1, Integer::sum);
+            assignment.computeIfAbsent(owner, key -> new TreeSet<>()).add(partition);
+        }
+        return assignment;
+    }
+
+    /**
+     * Rendezvous weight of a member for a partition (64-bit mix of both names)
+     */
+    private static long weight(String member, String partition) {
+        long h = member.hashCode() * 0x9E3779B97F4A7C15L + partition.hashCode();
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // ---------------------------------------------------------------
+    // Consumers
+    // ---------------------------------------------------------------
+
+    private Set<String> owned() {
+        Set<String> owned = new TreeSet<>();
+        containers.forEach((partition, container) -> {
+            if (container.isRunning()) {
+                owned.add(partition);
+            }
+        });
+        return owned;
+    }
+
+    /**
+     * One consumer thread per partition: events of a partition are handled
+     * strictly one after another
+     */
+    private SimpleMessageListenerContainer createContainer(String partition) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueueNames(partition);
+        container.setConcurrentConsumers(1);
+        container.setMaxConcurrentConsumers(1);
+        container.setPrefetchCount(prefetch);
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setMessageListener(message -> listener.accept(partition, message));
+        container.afterPropertiesSet();
+        return container;
+    }
+}
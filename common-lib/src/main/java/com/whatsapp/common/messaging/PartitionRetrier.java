@@ -0,0 +1,134 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Partition Retrier
+ *
+ * Retries for the events of a partition ({@link PartitionTopology}),
+ * which must stay in order. A failed or deferred event is retried on the
+ * partition's consumer thread, so the partition is blocked meanwhile:
+ * later events of the conversation never overtake it. The partition's
+ * consumer is single-threaded, so waiting keeps the order however long
+ * it takes.
+ *
+ * Backoff doubles from the initial to the maximum wait. How long an event
+ * is retried depends on why it failed:
+ * - RETRY (deferred, or a store such as Redis or MongoDB unavailable):
+ *   retried until it succeeds or the retry bound elapses, so an outage
+ *   shorter than the bound parks nothing
+ * - FAILED (any other error, e.g. a bug): retried a few times, then parked
+ * - INVALID: settled (parked) right away
+ * A parked event goes to the partition's parking lot
+ * ({@link EventRetrier#park}) and the partition moves on.
+ *
+ * The retry bound must stay below the broker's consumer timeout (RabbitMQ
+ * consumer_timeout, 30 minutes by default): the event is unacked while it
+ * is retried.
+ *
+ * Delayed retry tiers would unblock the partition, but the retried event
+ * would then come back behind the later events of its conversation.
+ *
+ * A consumer interrupted while backing off (shutdown, rebalance) throws
+ * {@link ImmediateRequeueAmqpException}: the event is requeued and its
+ * next consumer starts over.
+ *
+ * Metrics:
+ * - event_inline_retries_total: attempts repeated in place (tag queue)
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class PartitionRetrier {
+
+    private final EventRetrier eventRetrier;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retryFor;
+    private final int failedAttempts;
+    private final MeterRegistry meterRegistry;
+    private final String service;
+
+    /**
+     * @param eventRetrier   Parks the events that still fail
+     * @param initialBackoff Wait before the first repeated attempt
+     * @param maxBackoff     Cap of the doubling wait
+     * @param retryFor       How long a deferred (RETRY) event is retried before it is parked
+     * @param failedAttempts Repeated attempts of a FAILED event before it is parked
+     * @param meterRegistry  Registry of the retry metric
+     * @param service        Value of the "service" metric tag
+     */
+    public PartitionRetrier(EventRetrier eventRetrier, Duration initialBackoff, Duration maxBackoff,
+                            Duration retryFor, int failedAttempts, MeterRegistry meterRegistry, String service) {
+        this.eventRetrier = eventRetrier;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retryFor = retryFor;
+        this.failedAttempts = failedAttempts;
+        this.meterRegistry = meterRegistry;
+        this.service = service;
+    }
+
+    /**
+     * Handle an event of a partition, repeating failed attempts in place
+     *
+     * @param partition Partition queue the event came from
+     * @param attempt   One attempt at handling the event
+     * @return Outcome of the last attempt
+     * @throws ImmediateRequeueAmqpException if interrupted while backing off
+     */
+    public EventDispatcher.Outcome handle(String partition, Message message,
+                                          Supplier<EventDispatcher.Outcome> attempt) {
+        long deadline = System.nanoTime() + retryFor.toNanos();
+        Duration delay = initialBackoff;
+        int failures = 0;
+
+        EventDispatcher.Outcome outcome = attempt.get();
+        while (retryable(outcome)) {
+            if (outcome == EventDispatcher.Outcome.FAILED && ++failures > failedAttempts) {
+                break;
+            }
+            if (System.nanoTime() + delay.toNanos() - deadline > 0) {
+                break;
+            }
+            log.debug("Attempt of an event of {} ended {}, retrying in {}", partition, outcome, delay);
+            pause(partition, delay);
+            Counter.builder("event_inline_retries_total")
+                    .description("Event attempts repeated in place on an ordered queue")
+                    .tag("service", service)
+                    .tag("queue", partition)
+                    .register(meterRegistry)
+                    .increment();
+            outcome = attempt.get();
+            delay = delay.multipliedBy(2).compareTo(maxBackoff) < 0 ? delay.multipliedBy(2) : maxBackoff;
+        }
+
+        if (retryable(outcome)) {
+            log.warn("Parking an event of {} still ending {} after retrying in place", partition, outcome);
+            eventRetrier.park(partition, message, outcome.name());
+        } else {
+            eventRetrier.settle(partition, message, outcome);
+        }
+        return outcome;
+    }
+
+    private static boolean retryable(EventDispatcher.Outcome outcome) {
+        return outcome == EventDispatcher.Outcome.RETRY || outcome == EventDispatcher.Outcome.FAILED;
+    }
+
+    private static void pause(String partition, Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImmediateRequeueAmqpException("Interrupted backing off an event of " + partition, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.whatsapp.common.messaging;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition Topology
+ *
+ * Splits one logical work queue into partitions by conversation, so that
+ * the events of a conversation are consumed in order while different
+ * conversations are consumed in parallel.
+ *
+ * Per logical queue "q" with N partitions:
+ *   Exchange   : "q.sharded"     (x-consistent-hash, hashing the
+ *                                {@value EventTopology#CONVERSATION_HEADER}
+ *                                header), bound to the source exchange
+ *                                with the queue's routing keys
+ *   Partitions : "q.p0" .. "q.p{N-1}" (x-single-active-consumer), each
+ *                                bound with weight 1
+ *
+ * Single active consumer makes the broker deliver a partition to one
+ * consumer at a time even while replicas hand it over
+ * ({@link PartitionAssignor}). Changing N remaps conversations to
+ * partitions: drain the partitions before resizing.
+ *
+ * Requires the rabbitmq_consistent_hash_exchange plugin.
+ *
+ * @author WhatsApp Clone Team
+ */
+public final class PartitionTopology {
+
+    public static final String CONSISTENT_HASH_EXCHANGE = "x-consistent-hash";
+
+    /** Binding key of a partition: its weight on the hash ring */
+    private static final String PARTITION_WEIGHT = "1";
+
+    private PartitionTopology() {
+    }
+
+    public static String shardExchange(String queue) {
+        return queue + ".sharded";
+    }
+
+    public static String partition(String queue, int index) {
+        return queue + ".p" + index;
+    }
+
+    /**
+     * Names of all partitions of a logical queue, in index order
+     */
+    public static List<String> partitions(String queue, int count) {
+        List<String> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(partition(queue, i));
+        }
+        return partitions;
+    }
+
+    /**
+     * Hash exchange, partitions and bindings of a logical queue
+     *
+     * @param sourceExchange Exchange the events are published to
+     * @param routingKeys    Routing keys the logical queue consumes
+     */
+    public static Declarables declarables(String queue, int count, String sourceExchange, String... routingKeys) {
+        List<Declarable> declarables = new ArrayList<>();
+        String exchange = shardExchange(queue);
+        declarables.add(new CustomExchange(exchange, CONSISTENT_HASH_EXCHANGE, true, false,
+                Map.of("hash-header", EventTopology.CONVERSATION_HEADER)));
+        for (String routingKey : routingKeys) {
+            declarables.add(new Binding(exchange, Binding.DestinationType.EXCHANGE, sourceExchange, routingKey, null));
+        }
+
+        for (String partition : partitions(queue, count)) {
+            Queue partitionQueue = QueueBuilder.durable(partition)
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(partitionQueue);
+            declarables.add(new Binding(partition, Binding.DestinationType.QUEUE, exchange, PARTITION_WEIGHT, null));
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Retry exchange and parking lot of every partition ({@link RetryTopology}),
+     * without delayed tiers: a tier would return a retried event behind the
+     * later events of its conversation, so partitions retry in place
+     * ({@link PartitionRetrier}) and only park
+     */
+    public static Declarables parkingLotDeclarables(String queue, int count) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String partition : partitions(queue, count)) {
+            declarables.addAll(RetryTopology.declarables(partition, List.of()).getDeclarables());
+        }
+        return new Declarables(declarables);
+    }
+}
@@ -0,0 +1,97 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Processed Events
+ *
+ * Idempotency keys of events whose side effects (inbox writes, push
+ * notifications) must happen once, while the broker delivers at least
+ * once: a retried copy published by {@link EventRetrier} next to an
+ * original whose ack got lost, a requeue after a failed confirm, a
+ * parking-lot replay.
+ *
+ * Data structure (per consumer service):
+ *   Key   : "event:processed:{consumer}:{eventType}:{id}"
+ *   Value : epoch millis of the successful handling
+ *   TTL   : well beyond the last retry tier
+ *
+ * A consumer checks the key before handling an event and sets it once the
+ * handling succeeded. A failed attempt therefore leaves no key and is
+ * retried in full; only a crash between the side effects and the mark can
+ * still repeat them.
+ *
+ * Metrics:
+ * - event_duplicates_skipped_total: events skipped as already processed
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class ProcessedEvents {
+
+    private static final String KEY_PREFIX = "event:processed:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String consumer;
+    private final Duration ttl;
+    private final Counter skipped;
+
+    /**
+     * @param redisTemplate String-serialised Redis template
+     * @param consumer      Name of the consuming service (key namespace and metric tag)
+     * @param ttl           How long a processed event is remembered
+     * @param meterRegistry Registry of the duplicate metric
+     */
+    public ProcessedEvents(RedisTemplate<String, String> redisTemplate, String consumer, Duration ttl,
+                           MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.consumer = consumer;
+        this.ttl = ttl;
+        this.skipped = Counter.builder("event_duplicates_skipped_total")
+                .description("Events skipped because they were processed before")
+                .tag("service", consumer)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Idempotency key of an event: its type and the ID of what it is about
+     */
+    public static String keyOf(String eventType, String id) {
+        return eventType + ":" + id;
+    }
+
+    /**
+     * Whether the event was handled before; counts the skip if so
+     */
+    public boolean isProcessed(String key) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(redisKey(key)))) {
+            skipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remember a successfully handled event
+     *
+     * A failure is only logged: the event was handled, at worst a later
+     * duplicate of it is handled again.
+     */
+    public void markProcessed(String key) {
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), String.valueOf(System.currentTimeMillis()), ttl);
+        } catch (Exception e) {
+            log.warn("Failed to record processed event {}, a duplicate would be handled again: {}",
+                    key, e.getMessage());
+        }
+    }
+
+    private String redisKey(String key) {
+        return KEY_PREFIX + consumer + ":" + key;
+    }
+}
@@ -0,0 +1,90 @@
+package com.whatsapp.common.messaging;
+
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retry Topology
+ *
+ * Delayed retry tiers and a parking lot for one work queue.
+ *
+ * Per work queue "q":
+ *   Exchange : "q.retry"              (direct)
+ *   Tiers    : "q.retry.{delay}"      (e.g. q.retry.10s; x-message-ttl = delay,
+ *                                     dead-lettered back to "q" through the
+ *                                     default exchange), routing key "{delay}"
+ *   Parking  : "q.parking-lot"        (no TTL), routing key "parking-lot"
+ *
+ * Every message of a tier queue has the same TTL, so expiry is FIFO and a
+ * delayed event never waits behind a longer one. Only the owning work
+ * queue gets the retried event back, not the other services' queues.
+ *
+ * @author WhatsApp Clone Team
+ */
+public final class RetryTopology {
+
+    public static final String PARKING_LOT_KEY = "parking-lot";
+
+    private RetryTopology() {
+    }
+
+    public static String retryExchange(String queue) {
+        return queue + ".retry";
+    }
+
+    public static String tierQueue(String queue, Duration delay) {
+        return retryExchange(queue) + "." + tierKey(delay);
+    }
+
+    public static String parkingLot(String queue) {
+        return queue + "." + PARKING_LOT_KEY;
+    }
+
+    /**
+     * Routing key of a tier: its delay in the largest whole unit (1s, 10m, 2h)
+     */
+    public static String tierKey(Duration delay) {
+        long millis = delay.toMillis();
+        if (millis % 3_600_000 == 0) return millis / 3_600_000 + "h";
+        if (millis % 60_000 == 0) return millis / 60_000 + "m";
+        if (millis % 1_000 == 0) return millis / 1_000 + "s";
+        return millis + "ms";
+    }
+
+    /**
+     * Exchange, tier queues, parking lot and bindings of a work queue
+     */
+    public static Declarables declarables(String queue, List<Duration> tiers) {
+        List<Declarable> declarables = new ArrayList<>();
+        DirectExchange exchange = new DirectExchange(retryExchange(queue));
+        declarables.add(exchange);
+
+        for (Duration delay : tiers) {
+            Queue tier = QueueBuilder.durable(tierQueue(queue, delay))
+                    .ttl(Math.toIntExact(delay.toMillis()))
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queue)
+                    .build();
+            declarables.add(tier);
+            declarables.add(bind(tier, exchange, tierKey(delay)));
+        }
+
+        Queue parkingLot = QueueBuilder.durable(parkingLot(queue)).build();
+        declarables.add(parkingLot);
+        declarables.add(bind(parkingLot, exchange, PARKING_LOT_KEY));
+        return new Declarables(declarables);
+    }
+
+    private static Binding bind(Queue queue, DirectExchange exchange, String routingKey) {
+        return BindingBuilder.bind(queue).to(exchange).with(routingKey);
+    }
+}
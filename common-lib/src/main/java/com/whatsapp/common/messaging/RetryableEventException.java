@@ -0,0 +1,17 @@
+package com.whatsapp.common.messaging;
+
+/**
+ * Retryable Event Exception
+ *
+ * Thrown by an event handler that cannot take an event right now (e.g. a
+ * full write buffer); {@link EventDispatcher} reports it as RETRY so the
+ * consumer can requeue the event instead of dropping it.
+ *
+ * @author WhatsApp Clone Team
+ */
+public class RetryableEventException extends RuntimeException {
+
+    public RetryableEventException(String message) {
+        super(message);
+    }
+}
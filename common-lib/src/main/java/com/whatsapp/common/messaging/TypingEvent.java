@@ -0,0 +1,41 @@
+package com.whatsapp.common.messaging;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Typing Event
+ *
+ * Payload of the ephemeral TYPING events on
+ * {@value EventTopology#MESSAGE_EXCHANGE} (routing key
+ * {@value EventTopology#MESSAGE_TYPING_KEY}). Worthless once a few
+ * seconds old; consumers may drop them under load.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TypingEvent {
+
+    private String eventType;
+    private String conversationId;
+    private String senderId;
+    private String receiverId;
+    private boolean typing;
+    private String timestamp;
+
+    /**
+     * Time the event happened, or now if it carries no timestamp
+     */
+    @JsonIgnore
+    public Instant getOccurredAt() {
+        return timestamp != null ? Instant.parse(timestamp) : Instant.now();
+    }
+}
@@ -0,0 +1,35 @@
+package com.whatsapp.common.messaging;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * User Event
+ *
+ * Payload of the events on {@value EventTopology#USER_EXCHANGE}
+ * (USER_CREATED, USER_UPDATED, USER_DELETED, USER_STATUS_CHANGED), as
+ * published by the user service. Status changes only carry the user,
+ * status and online flag.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserEvent {
+
+    private String eventType;
+    private String eventId;
+    private String timestamp;
+    private String userId;
+    private String username;
+    private String email;
+    private String phoneNumber;
+    private String displayName;
+    private String status;
+    private Boolean active;
+    private Boolean online;
+}
@@ -0,0 +1,274 @@
+package com.whatsapp.common.presence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Presence Near-Cache
+ *
+ * Node-local cache of online checks in front of {@link PresenceRegistry},
+ * for consumers that check the same users over and over (group bursts).
+ *
+ * Consistency:
+ * - Entries (online and offline answers) live for a short TTL
+ * - Entries of users announced on "presence:changes" are dropped as soon
+ *   as the announcement arrives (register this cache as a listener of
+ *   {@value PresenceRegistry#CHANGES_CHANNEL})
+ * - A lookup that raced an announcement of its user is answered but not
+ *   cached (announcements of other users do not affect it)
+ * So an answer is at most one TTL old, and in practice only as old as
+ * the pub/sub delivery of the last change.
+ *
+ * Batched lookups answer the cached users locally and fetch the rest in
+ * one pipelined {@link PresenceRegistry#areOnline} call.
+ *
+ * The cache holds at most maxEntries users; beyond that the least recently
+ * used entry is evicted (access-ordered map, O(1) per store).
+ *
+ * Metrics:
+ * - presence_cache_hits_total / presence_cache_misses_total: per user looked up
+ * - presence_cache_invalidations_total: entries dropped by announcements
+ * - presence_cache_hit_age: age of the entries answering hits (staleness)
+ * - presence_cache_size: cached users
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class PresenceNearCache implements MessageListener {
+
+    private final PresenceRegistry registry;
+    private final long ttlMs;
+    private final int maxEntries;
+
+    /** Access-ordered LRU of cached answers, guarded by itself */
+    private final LinkedHashMap<String, Entry> entries;
+    /** Token of each user's load in flight, dropped by its invalidation; guarded by entries */
+    private final Map<String, Object> loading = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer hitAge;
+
+    /**
+     * @param registry      Shared presence store
+     * @param ttl           Max age of a cached answer
+     * @param maxEntries    Cached users at most (least recently used are evicted beyond)
+     * @param meterRegistry Registry of the cache metrics
+     * @param service       Value of the "service" metric tag
+     */
+    public PresenceNearCache(PresenceRegistry registry, Duration ttl, int maxEntries,
+                             MeterRegistry meterRegistry, String service) {
+        this.registry = registry;
+        this.ttlMs = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("presence_cache_hits_total")
+                .description("Online checks answered by the presence near-cache")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.misses = Counter.builder("presence_cache_misses_total")
+                .description("Online checks fetched from Redis")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("presence_cache_invalidations_total")
+                .description("Presence near-cache entries dropped by change announcements")
+                .tag("service", service)
+                .register(meterRegistry);
+        this.hitAge = Timer.builder("presence_cache_hit_age")
+                .description("Age of the presence near-cache entries answering hits")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("presence_cache_size", this, PresenceNearCache::size)
+                .description("Users in the presence near-cache")
+                .tag("service", service)
+                .register(meterRegistry);
+    }
+
+    // ---------------------------------------------------------------
+    // Lookups
+    // ---------------------------------------------------------------
+
+    /**
+     * Check whether a user is online
+     */
+    public boolean isOnline(String userId) {
+        long now = System.currentTimeMillis();
+        Boolean cached = lookup(userId, now);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+
+        Map<String, Object> tokens = beginLoads(List.of(userId));
+        boolean online;
+        try {
+            online = registry.isOnline(userId);
+        } catch (RuntimeException e) {
+            abandonLoads(tokens);
+            throw e;
+        }
+        store(userId, online, now, tokens.get(userId));
+        return online;
+    }
+
+    /**
+     * Batch online check for fan-out: one Redis round trip for the
+     * users that are not cached
+     *
+     * @return the subset of users that are online
+     */
+    public Set<String> areOnline(Collection<String> userIds) {
+        long now = System.currentTimeMillis();
+        Set<String> online = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : new HashSet<>(userIds)) {
+            Boolean cached = lookup(userId, now);
+            if (cached == null) {
+                missing.add(userId);
+            } else if (cached) {
+                online.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return online;
+        }
+        misses.increment(missing.size());
+
+        Map<String, Object> tokens = beginLoads(missing);
+        Set<String> fetched;
+        try {
+            fetched = registry.areOnline(missing);
+        } catch (RuntimeException e) {
+            abandonLoads(tokens);
+            throw e;
+        }
+        for (String userId : missing) {
+            store(userId, fetched.contains(userId), now, tokens.get(userId));
+        }
+        online.addAll(fetched);
+        return online;
+    }
+
+    // ---------------------------------------------------------------
+    // Invalidation
+    // ---------------------------------------------------------------
+
+    /**
+     * Drop the entries of users whose presence changed
+     */
+    public void invalidate(Collection<String> userIds) {
+        int dropped = 0;
+        synchronized (entries) {
+            for (String userId : userIds) {
+                loading.remove(userId);
+                if (entries.remove(userId) != null) {
+                    dropped++;
+                }
+            }
+        }
+        invalidations.increment(dropped);
+    }
+
+    /**
+     * Number of cached users
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Receive a "presence:changes" announcement
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            invalidate(PresenceRegistry.parseChanges(message.getBody()));
+        } catch (Exception e) {
+            log.error("Failed to handle presence change announcement: {}", e.getMessage(), e);
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    private Boolean lookup(String userId, long now) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAt > ttlMs) {
+                entries.remove(userId);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        hits.increment();
+        hitAge.record(Duration.ofMillis(now - entry.loadedAt));
+        return entry.online;
+    }
+
+    /**
+     * Register loads of users before reading them from Redis
+     *
+     * @return token of each user's load
+     */
+    private Map<String, Object> beginLoads(Collection<String> userIds) {
+        Map<String, Object> tokens = new HashMap<>(userIds.size() * 2);
+        synchronized (entries) {
+            for (String userId : userIds) {
+                Object token = new Object();
+                loading.put(userId, token);
+                tokens.put(userId, token);
+            }
+        }
+        return tokens;
+    }
+
+    private void abandonLoads(Map<String, Object> tokens) {
+        synchronized (entries) {
+            tokens.forEach(loading::remove);
+        }
+    }
+
+    /**
+     * Cache a fresh answer unless an invalidation of this user (or a newer
+     * load of it) arrived while it was loaded
+     */
+    private void store(String userId, boolean online, long loadedAt, Object token) {
+        synchronized (entries) {
+            if (loading.remove(userId, token)) {
+                entries.put(userId, new Entry(online, loadedAt));
+            }
+        }
+    }
+
+    private record Entry(boolean online, long loadedAt) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.whatsapp.common.presence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Presence Registry
+ *
+ * Single presence store shared by all services: a user is online while
+ * their last heartbeat is younger than the TTL.
+ *
+ * Data structure:
+ *   Key    : "presence:hb:{bucket}"   (Sorted Set, one per bucket)
+ *   Member : userId
+ *   Score  : epoch millis of the user's last heartbeat
+ *
+ * Users are spread over a fixed number of buckets by hash, so no single
+ * key holds every online user and buckets can live on different Redis
+ * cluster slots.
+ *
+ * Changes (connect heartbeat, disconnect, expiry) are announced on the
+ * "presence:changes" channel as newline-separated user IDs, so near-caches
+ * ({@link PresenceNearCache}) can drop their entries. Batched periodic
+ * heartbeats only refresh users and are not announced.
+ *
+ * Performance:
+ * - Online check: one ZSCORE
+ * - Heartbeats: batched per bucket (one ZADD with many members), pipelined
+ * - areOnline: one ZMSCORE per bucket touched, pipelined
+ * - Expiry sweep: score-range scan per bucket, no per-user TTL keys
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class PresenceRegistry {
+
+    public static final String CHANGES_CHANNEL = "presence:changes";
+
+    private static final String KEY_PREFIX = "presence:hb:";
+
+    /** Pop up to ARGV[2] members with a score at or below ARGV[1] */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SWEEP_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2])) " +
+            "if #ids > 0 then redis.call('ZREM', KEYS[1], unpack(ids)) end " +
+            "return ids",
+            List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int buckets;
+    private final Duration ttl;
+
+    /**
+     * @param redisTemplate String-serialised Redis template
+     * @param buckets       Number of sorted sets users are spread over (must be stable across deployments)
+     * @param ttl           Heartbeat validity; clients must heartbeat more often than this
+     */
+    public PresenceRegistry(RedisTemplate<String, String> redisTemplate, int buckets, Duration ttl) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Presence bucket count must be positive");
+        }
+        this.redisTemplate = redisTemplate;
+        this.buckets = buckets;
+        this.ttl = ttl;
+    }
+
+    // ---------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------
+
+    /**
+     * Record a heartbeat for one user (marks the user online)
+     */
+    public void heartbeat(String userId) {
+        redisTemplate.opsForZSet().add(key(userId), userId, System.currentTimeMillis());
+        announce(List.of(userId));
+    }
+
+    /**
+     * Record heartbeats for many users: one ZADD per bucket, all pipelined
+     */
+    public void heartbeatAll(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        double now = System.currentTimeMillis();
+        Map<String, List<String>> byBucket = groupByBucket(userIds);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byBucket.forEach((key, members) -> {
+                Set<Tuple> tuples = new HashSet<>();
+                members.forEach(member -> tuples.add(new DefaultTuple(bytes(member), now)));
+                connection.zSetCommands().zAdd(bytes(key), tuples);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Mark a user offline immediately (graceful disconnect)
+     */
+    public void markOffline(String userId) {
+        redisTemplate.opsForZSet().remove(key(userId), userId);
+        announce(List.of(userId));
+    }
+
+    // ---------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------
+
+    /**
+     * Check whether a user has a live heartbeat
+     */
+    public boolean isOnline(String userId) {
+        Double score = redisTemplate.opsForZSet().score(key(userId), userId);
+        return isLive(score, System.currentTimeMillis());
+    }
+
+    /**
+     * Time of a user's last heartbeat, or null if none is recorded
+     */
+    public Instant lastHeartbeat(String userId) {
+        Double score = redisTemplate.opsForZSet().score(key(userId), userId);
+        return score != null ? Instant.ofEpochMilli(score.longValue()) : null;
+    }
+
+    /**
+     * Batch online check for fan-out
+     *
+     * @return the subset of users that are online
+     */
+    public Set<String> areOnline(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, List<String>>> groups = new ArrayList<>(groupByBucket(userIds).entrySet());
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, List<String>> group : groups) {
+                byte[][] members = group.getValue().stream().map(PresenceRegistry::bytes).toArray(byte[][]::new);
+                connection.zSetCommands().zMScore(bytes(group.getKey()), members);
+            }
+            return null;
+        });
+
+        Set<String> online = new HashSet<>();
+        for (int i = 0; i < groups.size() && i < results.size(); i++) {
+            List<String> members = groups.get(i).getValue();
+            if (!(results.get(i) instanceof List<?> scores)) {
+                continue;
+            }
+            for (int j = 0; j < members.size() && j < scores.size(); j++) {
+                Object score = scores.get(j);
+                if (score instanceof Number number && isLive(number.doubleValue(), now)) {
+                    online.add(members.get(j));
+                }
+            }
+        }
+        return online;
+    }
+
+    /**
+     * Number of users with a live heartbeat (one ZCOUNT per bucket)
+     */
+    public long countOnline() {
+        double min = System.currentTimeMillis() - ttl.toMillis();
+        long total = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            Long count = redisTemplate.opsForZSet().count(bucketKey(bucket), min, Double.POSITIVE_INFINITY);
+            total += count != null ? count : 0L;
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------
+    // Expiry
+    // ---------------------------------------------------------------
+
+    /**
+     * Remove users whose heartbeat expired, bucket by bucket
+     *
+     * Each expired user is returned to exactly one caller, so several nodes
+     * can sweep concurrently and each can emit the offline transitions it got.
+     *
+     * @param maxPerBucket Max users removed per bucket in one call
+     * @return users that went offline by expiry
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> sweepExpired(int maxPerBucket) {
+        String cutoff = String.valueOf(System.currentTimeMillis() - ttl.toMillis());
+        List<String> expired = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            try {
+                List<Object> ids = redisTemplate.execute(SWEEP_SCRIPT, List.of(bucketKey(bucket)),
+                        cutoff, String.valueOf(maxPerBucket));
+                if (ids != null) {
+                    ids.forEach(id -> expired.add(String.valueOf(id)));
+                }
+            } catch (Exception e) {
+                log.error("Failed to sweep presence bucket {}: {}", bucket, e.getMessage(), e);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.debug("Presence sweep expired {} users", expired.size());
+            announce(expired);
+        }
+        return expired;
+    }
+
+    // ---------------------------------------------------------------
+    // Change announcements
+    // ---------------------------------------------------------------
+
+    /**
+     * User IDs of a "presence:changes" message
+     */
+    public static List<String> parseChanges(byte[] body) {
+        String payload = new String(body, StandardCharsets.UTF_8);
+        return Arrays.stream(payload.split("\n")).filter(userId -> !userId.isBlank()).toList();
+    }
+
+    /**
+     * Best effort: a lost announcement only leaves near-cache entries
+     * stale until they expire
+     */
+    private void announce(List<String> userIds) {
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, String.join("\n", userIds));
+        } catch (Exception e) {
+            log.warn("Failed to announce presence change of {} users: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------
+
+    private boolean isLive(Double score, long now) {
+        return score != null && score >= now - ttl.toMillis();
+    }
+
+    private String key(String userId) {
+        return bucketKey(Math.floorMod(userId.hashCode(), buckets));
+    }
+
+    private String bucketKey(int bucket) {
+        // Hash tag keeps each bucket addressable as its own cluster slot
+        return KEY_PREFIX + "{" + bucket + "}";
+    }
+
+    private Map<String, List<String>> groupByBucket(Collection<String> userIds) {
+        Map<String, List<String>> byBucket = new HashMap<>();
+        for (String userId : new HashSet<>(userIds)) {
+            byBucket.computeIfAbsent(key(userId), k -> new ArrayList<>()).add(userId);
+        }
+        return byBucket;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
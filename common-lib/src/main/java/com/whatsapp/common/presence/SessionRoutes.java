@@ -0,0 +1,128 @@
+package com.whatsapp.common.presence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Session Routes
+ *
+ * Which chat nodes hold WebSocket sessions of a user, so other services
+ * can ask the right node to deliver to them.
+ *
+ * Data structure:
+ *   Key     : "presence:route:{userId}"   (Set of chat node IDs)
+ *   TTL     : refreshed on every connect (a crashed node's entry ages out)
+ *   Channel : "delivery:redrive:{nodeId}" (pub/sub, one per chat node)
+ *
+ * Re-drive requests carry newline-separated user IDs; the receiving node
+ * flushes the pending inbox of each of them that it still has sessions for.
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+public class SessionRoutes {
+
+    private static final String KEY_PREFIX = "presence:route:";
+    private static final String REDRIVE_CHANNEL_PREFIX = "delivery:redrive:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration ttl;
+
+    /**
+     * @param redisTemplate String-serialised Redis template
+     * @param ttl           Lifetime of a route without a new connect
+     */
+    public SessionRoutes(RedisTemplate<String, String> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    // ---------------------------------------------------------------
+    // Routes (written by chat nodes)
+    // ---------------------------------------------------------------
+
+    /**
+     * A node got a session of the user
+     */
+    public void addRoute(String userId, String nodeId) {
+        String key = KEY_PREFIX + userId;
+        redisTemplate.opsForSet().add(key, nodeId);
+        redisTemplate.expire(key, ttl);
+    }
+
+    /**
+     * The last session of the user on a node closed
+     */
+    public void removeRoute(String userId, String nodeId) {
+        redisTemplate.opsForSet().remove(KEY_PREFIX + userId, nodeId);
+    }
+
+    /**
+     * Nodes holding sessions of each user: one SMEMBERS per user, pipelined
+     *
+     * @return userId → node IDs (users without a route are left out)
+     */
+    public Map<String, Set<String>> routesOf(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> users = new ArrayList<>(new HashSet<>(userIds));
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            users.forEach(userId -> connection.setCommands().sMembers(bytes(KEY_PREFIX + userId)));
+            return null;
+        });
+
+        Map<String, Set<String>> routes = new HashMap<>();
+        for (int i = 0; i < users.size() && i < results.size(); i++) {
+            if (results.get(i) instanceof Collection<?> nodes && !nodes.isEmpty()) {
+                Set<String> nodeIds = new HashSet<>();
+                nodes.forEach(node -> nodeIds.add(String.valueOf(node)));
+                routes.put(users.get(i), nodeIds);
+            }
+        }
+        return routes;
+    }
+
+    // ---------------------------------------------------------------
+    // Re-drive requests
+    // ---------------------------------------------------------------
+
+    public String redriveChannel(String nodeId) {
+        return REDRIVE_CHANNEL_PREFIX + nodeId;
+    }
+
+    /**
+     * Ask a node to flush the pending inboxes of some of its users
+     */
+    public void requestRedrive(String nodeId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.convertAndSend(redriveChannel(nodeId), String.join("\n", userIds));
+    }
+
+    /**
+     * User IDs of a re-drive request
+     */
+    public static List<String> parseRedrive(String payload) {
+        return Arrays.stream(payload.split("\n")).filter(userId -> !userId.isBlank()).toList();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
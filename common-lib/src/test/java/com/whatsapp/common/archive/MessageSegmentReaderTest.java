@@ -0,0 +1,107 @@
+package com.whatsapp.common.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round trips of segments through {@link MessageSegmentWriter} and
+ * {@link MessageSegmentReader}.
+ */
+class MessageSegmentReaderTest {
+
+    private static final String CONVERSATION = "5f0c2a4e-8d7b-4f7e-9a51-0d3c4b2a1e9f";
+
+    @TempDir
+    Path root;
+
+    private MessageSegmentWriter writer;
+    private MessageSegmentReader reader;
+
+    @BeforeEach
+    void setUp() {
+        writer = new MessageSegmentWriter(root);
+        reader = new MessageSegmentReader(root, 16, 16);
+    }
+
+    @Test
+    void readBeforePagesAcrossBlocksNewestFirst() throws Exception {
+        writer.appendBlock(CONVERSATION, messages(100, 110));
+        writer.appendBlock(CONVERSATION, messages(110, 120));
+
+        assertThat(ids(reader.readBefore(CONVERSATION, 115, 8)))
+                .containsExactly(114L, 113L, 112L, 111L, 110L, 109L, 108L, 107L);
+        assertThat(ids(reader.readBefore(CONVERSATION, 103, 10)))
+                .containsExactly(102L, 101L, 100L);
+        assertThat(reader.count(CONVERSATION)).isEqualTo(20);
+    }
+
+    @Test
+    void readNewestSkipsWholeBlocks() throws Exception {
+        writer.appendBlock(CONVERSATION, messages(100, 110));
+        writer.appendBlock(CONVERSATION, messages(110, 120));
+
+        assertThat(ids(reader.readNewest(CONVERSATION, 12, 3))).containsExactly(107L, 106L, 105L);
+    }
+
+    @Test
+    void sharedMessagesKeepTheirRecipientCount() throws Exception {
+        List<ArchivedMessage> block = messages(100, 102);
+        block.get(1).setReceiverId(null);
+        block.get(1).setRecipientCount(42);
+        writer.appendBlock(CONVERSATION, block);
+
+        List<ArchivedMessage> read = reader.readBefore(CONVERSATION, Long.MAX_VALUE, 10);
+
+        assertThat(read).extracting(ArchivedMessage::getRecipientCount).containsExactly(42, null);
+    }
+
+    @Test
+    void missingConversationHasNoArchive() throws Exception {
+        assertThat(reader.readBefore(CONVERSATION, Long.MAX_VALUE, 10)).isEmpty();
+        assertThat(reader.count(CONVERSATION)).isZero();
+    }
+
+    @Test
+    void rejectsConversationIdsThatEscapeTheRoot() {
+        assertThat(MessageSegmentFormat.isValidConversationId("../other")).isFalse();
+        assertThat(MessageSegmentFormat.isValidConversationId("a/b")).isFalse();
+        assertThat(MessageSegmentFormat.isValidConversationId("..")).isFalse();
+        assertThat(MessageSegmentFormat.isValidConversationId("")).isFalse();
+        assertThat(MessageSegmentFormat.isValidConversationId(CONVERSATION)).isTrue();
+
+        assertThatThrownBy(() -> reader.readBefore("../../etc", Long.MAX_VALUE, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> writer.appendBlock("../escape", messages(1, 2)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<ArchivedMessage> messages(long fromId, long toId) {
+        List<ArchivedMessage> messages = new ArrayList<>();
+        for (long id = fromId; id < toId; id++) {
+            messages.add(ArchivedMessage.builder()
+                    .id(id)
+                    .conversationId(CONVERSATION)
+                    .senderId("alice")
+                    .receiverId("bob")
+                    .contentText("message " + id)
+                    .contentType("TEXT")
+                    .status("READ")
+                    .createdAt(Instant.ofEpochMilli(id))
+                    .build());
+        }
+        return messages;
+    }
+
+    private static List<Long> ids(List<ArchivedMessage> messages) {
+        return messages.stream().map(ArchivedMessage::getId).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.whatsapp.common.counter;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Delta updates of {@link MessageCounters} against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MessageCountersIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private MessageCounters counters;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        counters = new MessageCounters(redisTemplate);
+    }
+
+    @Test
+    void adjustsExistingCountersInOneCall() {
+        redisTemplate.opsForValue().set(MessageCounters.conversationKey("c1"), "10");
+        redisTemplate.opsForValue().set(MessageCounters.undeliveredKey("u1"), "4");
+
+        counters.adjustAll(Map.of(
+                MessageCounters.conversationKey("c1"), -3L,
+                MessageCounters.undeliveredKey("u1"), -1L));
+
+        assertThat(redisTemplate.opsForValue().get(MessageCounters.conversationKey("c1"))).isEqualTo("7");
+        assertThat(redisTemplate.opsForValue().get(MessageCounters.undeliveredKey("u1"))).isEqualTo("3");
+    }
+
+    @Test
+    void missingCounterStaysMissing() {
+        counters.adjust(MessageCounters.undeliveredKey("nobody"), -1);
+
+        assertThat(redisTemplate.hasKey(MessageCounters.undeliveredKey("nobody"))).isFalse();
+    }
+
+    @Test
+    void neverGoesBelowZeroAndKeepsTtl() {
+        String key = MessageCounters.undeliveredKey("u2");
+        redisTemplate.opsForValue().set(key, "1", MessageCounters.COUNTER_TTL);
+
+        counters.adjust(key, -5);
+
+        assertThat(redisTemplate.opsForValue().get(key)).isEqualTo("0");
+        assertThat(redisTemplate.getExpire(key)).isPositive();
+    }
+}
@@ -0,0 +1,120 @@
+package com.whatsapp.common.inbox;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Peek-then-ack and version 1 migration of {@link InboxStore} against a
+ * real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class InboxStoreIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private InboxStore inboxStore;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        inboxStore = new InboxStore(redisTemplate, Duration.ofDays(7), 1000);
+    }
+
+    @Test
+    void peekLeavesEntriesPending() {
+        inboxStore.add("bob", "m1", "{\"id\":\"m1\"}");
+        inboxStore.add("bob", "m2");
+
+        List<InboxEntry> first = inboxStore.peek("bob");
+        List<InboxEntry> second = inboxStore.peek("bob");
+
+        assertThat(first).extracting(InboxEntry::getMessageId).containsExactly("m1", "m2");
+        assertThat(first).extracting(InboxEntry::getPayload).containsExactly("{\"id\":\"m1\"}", null);
+        assertThat(second).extracting(InboxEntry::getMessageId).containsExactly("m1", "m2");
+    }
+
+    @Test
+    void ackRemovesOnlyTheGivenEntries() {
+        inboxStore.add("bob", "m1");
+        inboxStore.add("bob", "m2");
+        inboxStore.add("bob", "m3");
+
+        inboxStore.ack("bob", List.of("m1", "m3"));
+
+        assertThat(inboxStore.messageIds("bob")).containsExactly("m2");
+    }
+
+    @Test
+    void entriesEnqueuedAfterThePeekSurviveTheAck() {
+        inboxStore.add("bob", "m1");
+        List<InboxEntry> peeked = inboxStore.peek("bob");
+        inboxStore.add("bob", "m2");
+
+        inboxStore.ack("bob", peeked.stream().map(InboxEntry::getMessageId).toList());
+
+        assertThat(inboxStore.messageIds("bob")).containsExactly("m2");
+    }
+
+    @Test
+    void migratesLegacySetsAsIdOnlyEntries() {
+        redisTemplate.opsForSet().add("inbox:bob", "m1", "m2");
+
+        int moved = inboxStore.migrateLegacy("inbox:bob");
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(inboxStore.peek("bob")).extracting(InboxEntry::getMessageId).containsExactlyInAnyOrder("m1", "m2");
+        assertThat(inboxStore.peek("bob")).allMatch(entry -> !entry.hasPayload());
+        assertThat(redisTemplate.hasKey("inbox:bob")).isFalse();
+    }
+
+    @Test
+    void migratesLegacyListsWithTheirPayloads() {
+        redisTemplate.opsForList().rightPushAll("inbox:bob",
+                "{\"id\":\"m1\",\"content\":\"hi\"}", "not json", "{\"id\":\"m2\",\"content\":\"there\"}");
+
+        int moved = inboxStore.migrateLegacy("inbox:bob");
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(inboxStore.peek("bob")).extracting(InboxEntry::getPayload)
+                .containsExactlyInAnyOrder("{\"id\":\"m1\",\"content\":\"hi\"}", "{\"id\":\"m2\",\"content\":\"there\"}");
+        assertThat(redisTemplate.hasKey("inbox:bob")).isFalse();
+    }
+
+    @Test
+    void migrationLeavesCurrentInboxesAlone() {
+        inboxStore.add("bob", "m1");
+
+        assertThat(inboxStore.migrateLegacy(InboxStore.userKey("bob"))).isZero();
+        assertThat(inboxStore.messageIds("bob")).containsExactly("m1");
+    }
+}
@@ -0,0 +1,125 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Publisher confirms of the copies sent by {@link EventRetrier}.
+ */
+class EventRetrierTest {
+
+    private static final String QUEUE = "notification.messages";
+    private static final List<Duration> TIERS = List.of(Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private EventRetrier retrier;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        retrier = new EventRetrier(rabbitTemplate, TIERS, meterRegistry, "test", Duration.ofMillis(100));
+    }
+
+    @Test
+    void confirmedCopyIsScheduled() {
+        onSend(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+
+        assertThat(retrier.retry(QUEUE, message(0), "RETRY")).isEqualTo(EventRetrier.Result.SCHEDULED);
+        verify(rabbitTemplate).send(eq(RetryTopology.retryExchange(QUEUE)),
+                eq(RetryTopology.tierKey(TIERS.get(0))), any(Message.class), any(CorrelationData.class));
+        assertThat(meterRegistry.get("event_retry_scheduled_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void nackedCopyThrows() {
+        onSend(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(false, "disk alarm")));
+
+        assertThatThrownBy(() -> retrier.retry(QUEUE, message(0), "RETRY"))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("disk alarm");
+        assertThat(meterRegistry.find("event_retry_scheduled_total").counter()).isNull();
+    }
+
+    @Test
+    void unroutableCopyThrows() {
+        onSend(correlation -> {
+            correlation.setReturned(new ReturnedMessage(message(0), 312, "NO_ROUTE",
+                    RetryTopology.retryExchange(QUEUE), RetryTopology.PARKING_LOT_KEY));
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+        });
+
+        assertThatThrownBy(() -> retrier.park(QUEUE, message(2), "FAILED"))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("NO_ROUTE");
+        assertThat(meterRegistry.find("event_parked_total").counter()).isNull();
+    }
+
+    @Test
+    void unconfirmedCopyTimesOut() {
+        onSend(correlation -> { });
+
+        assertThatThrownBy(() -> retrier.settle(QUEUE, message(0), EventDispatcher.Outcome.RETRY))
+                .isInstanceOf(AmqpException.class)
+                .hasMessageContaining("No confirm");
+    }
+
+    @Test
+    void lastTierParksTheConfirmedCopy() {
+        onSend(correlation -> correlation.getFuture().complete(new CorrelationData.Confirm(true, null)));
+
+        assertThat(retrier.retry(QUEUE, message(TIERS.size()), "RETRY")).isEqualTo(EventRetrier.Result.PARKED);
+        verify(rabbitTemplate).send(eq(RetryTopology.retryExchange(QUEUE)), eq(RetryTopology.PARKING_LOT_KEY),
+                any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void refusesATemplateWithoutPublisherConfirms() {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory("localhost");
+        try {
+            RabbitTemplate template = new RabbitTemplate(connectionFactory);
+
+            assertThatThrownBy(() -> new EventRetrier(template, TIERS, meterRegistry, "test"))
+                    .isInstanceOf(IllegalStateException.class);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private void onSend(Consumer<CorrelationData> broker) {
+        doAnswer(invocation -> {
+            broker.accept(invocation.getArgument(3));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static Message message(int attempt) {
+        MessageProperties properties = new MessageProperties();
+        if (attempt > 0) {
+            properties.setHeader(EventRetrier.ATTEMPT_HEADER, attempt);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+}
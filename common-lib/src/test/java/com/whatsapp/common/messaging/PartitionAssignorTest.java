@@ -0,0 +1,86 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Partition assignment of {@link PartitionAssignor}.
+ */
+class PartitionAssignorTest {
+
+    private static final List<String> PARTITIONS = PartitionTopology.partitions("message-processor.delivery", 8);
+
+    @Test
+    void everyPartitionHasExactlyOneOwner() {
+        Map<String, Set<String>> assignment = PartitionAssignor.assign(PARTITIONS, List.of("a", "b", "c"));
+
+        List<String> owned = new ArrayList<>();
+        assignment.values().forEach(owned::addAll);
+        assertThat(owned).containsExactlyInAnyOrderElementsOf(PARTITIONS);
+    }
+
+    @Test
+    void partitionsAreBalanced() {
+        Map<String, Set<String>> assignment = PartitionAssignor.assign(PARTITIONS, List.of("a", "b", "c"));
+
+        assertThat(assignment.values()).extracting(Set::size).containsExactlyInAnyOrder(3, 3, 2);
+    }
+
+    @Test
+    void everyReplicaComputesTheSameAssignment() {
+        assertThat(PartitionAssignor.assign(PARTITIONS, List.of("c", "a", "b")))
+                .isEqualTo(PartitionAssignor.assign(PARTITIONS, List.of("b", "c", "a")));
+    }
+
+    @Test
+    void singleReplicaOwnsEverything() {
+        assertThat(PartitionAssignor.assign(PARTITIONS, List.of("a")).get("a"))
+                .containsExactlyInAnyOrderElementsOf(PARTITIONS);
+    }
+
+    @Test
+    void surplusReplicasStayIdle() {
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add("member-" + i);
+        }
+
+        Map<String, Set<String>> assignment = PartitionAssignor.assign(PARTITIONS, members);
+
+        assertThat(assignment).hasSize(PARTITIONS.size());
+        assertThat(assignment.values()).allSatisfy(owned -> assertThat(owned).hasSize(1));
+    }
+
+    @Test
+    void joiningReplicaOnlyMovesThePartitionsItTakesOver() {
+        Map<String, Set<String>> before = PartitionAssignor.assign(PARTITIONS, List.of("a", "b"));
+        Map<String, Set<String>> after = PartitionAssignor.assign(PARTITIONS, List.of("a", "b", "c"));
+
+        assertThat(after.get("c")).hasSizeBetween(2, 3);
+        assertThat(before.get("a")).containsAll(after.get("a"));
+        assertThat(before.get("b")).containsAll(after.get("b"));
+    }
+
+    @Test
+    void memberTtlMustCoverTwoHeartbeats() {
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+
+        assertThatThrownBy(() -> new PartitionAssignor("q", 8, mock(ConnectionFactory.class), redisTemplate,
+                (partition, message) -> { }, 20, Duration.ofSeconds(5), Duration.ofSeconds(9),
+                new SimpleMeterRegistry(), "test"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
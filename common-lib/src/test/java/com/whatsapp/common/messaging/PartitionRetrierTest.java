@@ -0,0 +1,132 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * In-place retries of {@link PartitionRetrier}.
+ */
+class PartitionRetrierTest {
+
+    private static final String PARTITION = "message-processor.delivery.p3";
+
+    private EventRetrier eventRetrier;
+    private SimpleMeterRegistry meterRegistry;
+    private final Message message = new Message("{}".getBytes(), new MessageProperties());
+
+    @BeforeEach
+    void setUp() {
+        eventRetrier = mock(EventRetrier.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void eventThatRecoversIsSettledWithoutLeavingThePartition() {
+        Deque<EventDispatcher.Outcome> outcomes = new ArrayDeque<>(List.of(
+                EventDispatcher.Outcome.FAILED, EventDispatcher.Outcome.RETRY, EventDispatcher.Outcome.HANDLED));
+
+        EventDispatcher.Outcome outcome = retrier(Duration.ofMinutes(1), 3).handle(PARTITION, message, outcomes::poll);
+
+        assertThat(outcome).isEqualTo(EventDispatcher.Outcome.HANDLED);
+        assertThat(outcomes).isEmpty();
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.HANDLED);
+        verify(eventRetrier, never()).park(anyString(), any(), anyString());
+        verify(eventRetrier, never()).retry(anyString(), any(), anyString());
+        assertThat(meterRegistry.get("event_inline_retries_total").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void deferredEventIsRetriedThroughAnOutageLongerThanTheFailedAttempts() {
+        int[] attempts = {0};
+
+        EventDispatcher.Outcome outcome = retrier(Duration.ofMinutes(1), 2).handle(PARTITION, message, () ->
+                ++attempts[0] <= 20 ? EventDispatcher.Outcome.RETRY : EventDispatcher.Outcome.HANDLED);
+
+        assertThat(outcome).isEqualTo(EventDispatcher.Outcome.HANDLED);
+        assertThat(attempts[0]).isEqualTo(21);
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.HANDLED);
+        verify(eventRetrier, never()).park(anyString(), any(), anyString());
+    }
+
+    @Test
+    void deferredEventIsParkedOnceTheRetryBoundElapses() {
+        int[] attempts = {0};
+
+        EventDispatcher.Outcome outcome = retrier(Duration.ofMillis(20), 2).handle(PARTITION, message, () -> {
+            attempts[0]++;
+            return EventDispatcher.Outcome.RETRY;
+        });
+
+        assertThat(outcome).isEqualTo(EventDispatcher.Outcome.RETRY);
+        assertThat(attempts[0]).isGreaterThan(3);
+        verify(eventRetrier).park(PARTITION, message, "RETRY");
+    }
+
+    @Test
+    void failedEventIsParkedAfterItsAttempts() {
+        int[] attempts = {0};
+
+        EventDispatcher.Outcome outcome = retrier(Duration.ofMinutes(1), 2).handle(PARTITION, message, () -> {
+            attempts[0]++;
+            return EventDispatcher.Outcome.FAILED;
+        });
+
+        assertThat(outcome).isEqualTo(EventDispatcher.Outcome.FAILED);
+        assertThat(attempts[0]).isEqualTo(3);
+        verify(eventRetrier).park(PARTITION, message, "FAILED");
+        verify(eventRetrier, never()).settle(anyString(), any(), any());
+    }
+
+    @Test
+    void invalidEventIsNotRetried() {
+        int[] attempts = {0};
+
+        retrier(Duration.ofMinutes(1), 2).handle(PARTITION, message, () -> {
+            attempts[0]++;
+            return EventDispatcher.Outcome.INVALID;
+        });
+
+        assertThat(attempts[0]).isEqualTo(1);
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.INVALID);
+    }
+
+    @Test
+    void interruptedBackoffRequeuesTheEvent() {
+        PartitionRetrier retrier = new PartitionRetrier(eventRetrier, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofHours(1), 3, meterRegistry, "test");
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> retrier.handle(PARTITION, message, () -> EventDispatcher.Outcome.RETRY))
+                    .isInstanceOf(ImmediateRequeueAmqpException.class);
+            verifyNoInteractions(eventRetrier);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Retrier with 1ms backoff (capped at 2ms)
+     */
+    private PartitionRetrier retrier(Duration retryFor, int failedAttempts) {
+        return new PartitionRetrier(eventRetrier, Duration.ofMillis(1), Duration.ofMillis(2), retryFor,
+                failedAttempts, meterRegistry, "test");
+    }
+}
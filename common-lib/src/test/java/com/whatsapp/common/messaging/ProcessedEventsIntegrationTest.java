@@ -0,0 +1,76 @@
+package com.whatsapp.common.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Idempotency keys of {@link ProcessedEvents} against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProcessedEventsIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessedEvents processedEvents;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        meterRegistry = new SimpleMeterRegistry();
+        processedEvents = new ProcessedEvents(redisTemplate, "message-processor", Duration.ofDays(1), meterRegistry);
+    }
+
+    @Test
+    void markedEventIsSkippedAndCounted() {
+        String key = ProcessedEvents.keyOf(EventTopology.MESSAGE_SENT, "m1");
+
+        assertThat(processedEvents.isProcessed(key)).isFalse();
+        processedEvents.markProcessed(key);
+
+        assertThat(processedEvents.isProcessed(key)).isTrue();
+        assertThat(meterRegistry.get("event_duplicates_skipped_total").counter().count()).isEqualTo(1);
+        assertThat(redisTemplate.getExpire("event:processed:message-processor:" + key)).isPositive();
+    }
+
+    @Test
+    void consumersKeepSeparateKeys() {
+        String key = ProcessedEvents.keyOf(EventTopology.MESSAGE_SENT, "m1");
+        ProcessedEvents notification = new ProcessedEvents(redisTemplate, "notification", Duration.ofDays(1),
+                new SimpleMeterRegistry());
+
+        processedEvents.markProcessed(key);
+
+        assertThat(notification.isProcessed(key)).isFalse();
+    }
+}
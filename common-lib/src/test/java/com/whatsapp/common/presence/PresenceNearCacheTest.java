@@ -0,0 +1,96 @@
+package com.whatsapp.common.presence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-user invalidation and LRU bound of {@link PresenceNearCache}.
+ */
+class PresenceNearCacheTest {
+
+    private PresenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(PresenceRegistry.class);
+    }
+
+    @Test
+    void changeOfAnotherUserDuringALoadStillCachesIt() {
+        PresenceNearCache cache = cache(100);
+        when(registry.isOnline("bob")).thenAnswer(invocation -> {
+            cache.invalidate(List.of("alice"));
+            return true;
+        });
+
+        assertThat(cache.isOnline("bob")).isTrue();
+        assertThat(cache.isOnline("bob")).isTrue();
+
+        verify(registry, times(1)).isOnline("bob");
+    }
+
+    @Test
+    void changeOfTheSameUserDuringALoadIsNotCached() {
+        PresenceNearCache cache = cache(100);
+        when(registry.isOnline("bob")).thenAnswer(invocation -> {
+            cache.invalidate(List.of("bob"));
+            return true;
+        });
+
+        cache.isOnline("bob");
+        cache.isOnline("bob");
+
+        verify(registry, times(2)).isOnline("bob");
+    }
+
+    @Test
+    void batchLoadDiscardsOnlyTheChangedUsers() {
+        PresenceNearCache cache = cache(100);
+        when(registry.areOnline(anyCollection())).thenAnswer(invocation -> {
+            cache.invalidate(List.of("carol"));
+            return Set.of("bob", "carol");
+        });
+
+        assertThat(cache.areOnline(List.of("bob", "carol", "dave"))).containsExactlyInAnyOrder("bob", "carol");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.isOnline("bob")).isTrue();
+        assertThat(cache.isOnline("dave")).isFalse();
+        verify(registry, times(1)).areOnline(anyCollection());
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlyUsedUser() {
+        PresenceNearCache cache = cache(2);
+        when(registry.isOnline("a")).thenReturn(true);
+        when(registry.isOnline("b")).thenReturn(true);
+        when(registry.isOnline("c")).thenReturn(true);
+
+        cache.isOnline("a");
+        cache.isOnline("b");
+        cache.isOnline("a");
+        cache.isOnline("c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.isOnline("a");
+        cache.isOnline("b");
+        verify(registry, times(1)).isOnline("a");
+        verify(registry, times(2)).isOnline("b");
+    }
+
+    private PresenceNearCache cache(int maxEntries) {
+        return new PresenceNearCache(registry, Duration.ofMinutes(1), maxEntries, new SimpleMeterRegistry(), "test");
+    }
+}
@@ -1,24 +1,67 @@
 package com.whatsapp.messageprocessor.config;
 
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.ParkingLot;
+import com.whatsapp.common.messaging.PartitionAssignor;
+import com.whatsapp.common.messaging.PartitionRetrier;
+import com.whatsapp.common.messaging.PartitionTopology;
+import com.whatsapp.common.messaging.RetryTopology;
+import com.whatsapp.messageprocessor.consumer.MessageConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * RabbitMQ Configuration for Message Processor
  *
  * Configures message consumers for processing message events.
  *
- * Queues:
- * - message.sent: New messages to process
- * - message.delivered: Message delivery confirmations
- * - message.read: Message read receipts
+ * Queues (owned by this service, bound to {@value EventTopology#MESSAGE_EXCHANGE}):
+ * - message-processor.delivery.p0..pN-1: New messages to process
+ *   (message.sent), partitioned by conversation ({@link PartitionTopology});
+ *   the partitions are spread over the replicas, one consumer each
+ *   ({@link PartitionAssignor}), so a conversation's messages are
+ *   delivered in order
+ * - message-processor.receipts: Delivery confirmations and read receipts
+ *   (message.delivered, message.read)
+ *
+ * Retries (per queue, see {@link RetryTopology}):
+ * - Delivery partitions retry a failed event in place, blocking the
+ *   partition so the conversation stays in order ({@link PartitionRetrier}):
+ *   backoff doubling from {@code app.rabbitmq.partitions.retry.initial-backoff}
+ *   (200ms) to {@code max-backoff} (30s); deferred events and store outages
+ *   are retried for {@code retry-for} (15m), other failures
+ *   {@code failed-attempts} (3) times, then parked
+ * - Failed receipts are acked and republished to delayed retry tiers
+ *   ({@code app.rabbitmq.retry.tiers}, default 1s, 10s, 1m, 10m), then to
+ *   the queue's parking lot
+ * - Parked events are replayed over REST
+ *
+ * Listener factories:
+ * - rabbitListenerContainerFactory: one message per call
+ * - {@value #BATCH_LISTENER_FACTORY}: batches of receipts with a large
+ *   prefetch and manual per-message ack/nack (receipts)
  *
  * @author WhatsApp Clone Team
  */
@@ -26,40 +69,146 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class RabbitMQConfig {
 
-    @Value("${app.rabbitmq.queues.message-sent:message.sent}")
-    private String messageSentQueue;
+    public static final String BATCH_LISTENER_FACTORY = "batchListenerContainerFactory";
+
+    @Value("${app.rabbitmq.queues.delivery:message-processor.delivery}")
+    private String deliveryQueue;
+
+    @Value("${app.rabbitmq.queues.receipts:message-processor.receipts}")
+    private String receiptsQueue;
+
+    @Value("${app.rabbitmq.partitions.count:8}")
+    private int partitionCount;
+
+    @Value("${app.rabbitmq.partitions.prefetch:20}")
+    private int partitionPrefetch;
+
+    @Value("${app.rabbitmq.partitions.heartbeat-ms:5000}")
+    private long partitionHeartbeatMs;
+
+    @Value("${app.rabbitmq.partitions.member-ttl-ms:15000}")
+    private long partitionMemberTtlMs;
+
+    @Value("${app.rabbitmq.partitions.retry.initial-backoff:200ms}")
+    private Duration partitionRetryInitialBackoff;
+
+    @Value("${app.rabbitmq.partitions.retry.max-backoff:30s}")
+    private Duration partitionRetryMaxBackoff;
+
+    @Value("${app.rabbitmq.partitions.retry.retry-for:15m}")
+    private Duration partitionRetryFor;
+
+    @Value("${app.rabbitmq.partitions.retry.failed-attempts:3}")
+    private int partitionRetryFailedAttempts;
+
+    @Value("${app.rabbitmq.retry.tiers:1s,10s,1m,10m}")
+    private List<Duration> retryTiers;
+
+    @Value("${app.rabbitmq.batch.size:500}")
+    private int batchSize;
 
-    @Value("${app.rabbitmq.queues.message-delivered:message.delivered}")
-    private String messageDeliveredQueue;
+    @Value("${app.rabbitmq.batch.receive-timeout-ms:100}")
+    private long batchReceiveTimeoutMs;
 
-    @Value("${app.rabbitmq.queues.message-read:message.read}")
-    private String messageReadQueue;
+    @Value("${app.rabbitmq.batch.prefetch:5000}")
+    private int batchPrefetch;
+
+    @Value("${app.rabbitmq.batch.concurrency:2}")
+    private int batchConcurrency;
+
+    @Value("${app.rabbitmq.batch.max-concurrency:4}")
+    private int batchMaxConcurrency;
 
     /**
-     * Declare message.sent queue
+     * Declare the message events exchange (shared with the chat service)
      */
     @Bean
-    public Queue messageSentQueue() {
-        log.info("Creating message.sent queue: {}", messageSentQueue);
-        return new Queue(messageSentQueue, true);
+    public TopicExchange messageExchange() {
+        return new TopicExchange(EventTopology.MESSAGE_EXCHANGE);
     }
 
     /**
-     * Declare message.delivered queue
+     * Declare the delivery partitions (new messages) and their hash exchange
      */
     @Bean
-    public Queue messageDeliveredQueue() {
-        log.info("Creating message.delivered queue: {}", messageDeliveredQueue);
-        return new Queue(messageDeliveredQueue, true);
+    public Declarables deliveryPartitions() {
+        log.info("Creating {} delivery partitions of {}", partitionCount, deliveryQueue);
+        return PartitionTopology.declarables(deliveryQueue, partitionCount,
+                EventTopology.MESSAGE_EXCHANGE, EventTopology.MESSAGE_SENT_KEY);
     }
 
     /**
-     * Declare message.read queue
+     * Declare receipts queue (delivered and read receipts)
      */
     @Bean
-    public Queue messageReadQueue() {
-        log.info("Creating message.read queue: {}", messageReadQueue);
-        return new Queue(messageReadQueue, true);
+    public Queue receiptsQueue() {
+        log.info("Creating receipts queue: {}", receiptsQueue);
+        return QueueBuilder.durable(receiptsQueue).build();
+    }
+
+    @Bean
+    public Binding messageDeliveredBinding(Queue receiptsQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(receiptsQueue)
+                .to(messageExchange)
+                .with(EventTopology.MESSAGE_DELIVERED_KEY);
+    }
+
+    @Bean
+    public Binding messageReadBinding(Queue receiptsQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(receiptsQueue)
+                .to(messageExchange)
+                .with(EventTopology.MESSAGE_READ_KEY);
+    }
+
+    /**
+     * Declare the parking lot of every delivery partition (retries happen in place)
+     */
+    @Bean
+    public Declarables deliveryParkingLots() {
+        return PartitionTopology.parkingLotDeclarables(deliveryQueue, partitionCount);
+    }
+
+    /**
+     * Declare retry tiers and parking lot of the receipts queue
+     */
+    @Bean
+    public Declarables receiptsRetryTopology() {
+        return RetryTopology.declarables(receiptsQueue, retryTiers);
+    }
+
+    @Bean
+    public EventRetrier eventRetrier(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        log.info("Event retry tiers: {}", retryTiers);
+        return new EventRetrier(rabbitTemplate, retryTiers, meterRegistry, "message-processor");
+    }
+
+    @Bean
+    public PartitionRetrier partitionRetrier(EventRetrier eventRetrier, MeterRegistry meterRegistry) {
+        log.info("Delivery partition retries: backoff {}..{}, deferred events for {}, failed events {} times",
+                partitionRetryInitialBackoff, partitionRetryMaxBackoff, partitionRetryFor,
+                partitionRetryFailedAttempts);
+        return new PartitionRetrier(eventRetrier, partitionRetryInitialBackoff, partitionRetryMaxBackoff,
+                partitionRetryFor, partitionRetryFailedAttempts, meterRegistry, "message-processor");
+    }
+
+    @Bean
+    public ParkingLot parkingLot(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+        List<String> queues = new ArrayList<>(PartitionTopology.partitions(deliveryQueue, partitionCount));
+        queues.add(receiptsQueue);
+        return new ParkingLot(rabbitTemplate, amqpAdmin, queues, meterRegistry, "message-processor");
+    }
+
+    /**
+     * Consume the delivery partitions assigned to this replica
+     */
+    @Bean
+    public PartitionAssignor deliveryPartitionAssignor(ConnectionFactory connectionFactory,
+                                                       RedisTemplate<String, String> stringRedisTemplate,
+                                                       MessageConsumer messageConsumer,
+                                                       MeterRegistry meterRegistry) {
+        return new PartitionAssignor(deliveryQueue, partitionCount, connectionFactory, stringRedisTemplate,
+                messageConsumer::onEvent, partitionPrefetch, Duration.ofMillis(partitionHeartbeatMs),
+                Duration.ofMillis(partitionMemberTtlMs), meterRegistry, "message-processor");
     }
 
     /**
@@ -94,4 +243,37 @@ public class RabbitMQConfig {
 
         return factory;
     }
+
+    /**
+     * Configure batch listener container factory
+     *
+     * Settings:
+     * - Consumer-side batches of up to {@code app.rabbitmq.batch.size}
+     *   messages, closed early after the receive timeout
+     * - Prefetch large enough to fill several batches per consumer while
+     *   receipts of earlier batches wait for the status flush (they are
+     *   acked by it, so prefetch / flush interval bounds a consumer's rate)
+     * - Manual acknowledge: the listener acks or nacks every message of
+     *   the batch on its own
+     */
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            ConnectionFactory connectionFactory) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchReceiveTimeoutMs);
+        factory.setPrefetchCount(batchPrefetch);
+        factory.setConcurrentConsumers(batchConcurrency);
+        factory.setMaxConcurrentConsumers(batchMaxConcurrency);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+
+        log.info("RabbitMQ batch listener container factory configured: batch size {}, prefetch {}",
+                batchSize, batchPrefetch);
+
+        return factory;
+    }
 }
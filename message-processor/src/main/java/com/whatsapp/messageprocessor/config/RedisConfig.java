@@ -1,23 +1,38 @@
 package com.whatsapp.messageprocessor.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.common.counter.MessageCounters;
+import com.whatsapp.common.inbox.InboxStore;
+import com.whatsapp.common.messaging.ProcessedEvents;
+import com.whatsapp.common.presence.PresenceNearCache;
+import com.whatsapp.common.presence.PresenceRegistry;
+import com.whatsapp.common.presence.SessionRoutes;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * Redis Configuration for Message Processor
  *
  * Configures Redis for caching and user status tracking.
  *
  * Use Cases:
- * - User online/offline status
- * - Inbox cache for offline messages
+ * - User online/offline status (node-local near-cache, invalidated over pub/sub)
+ * - Inbox cache for offline messages (shared {@link InboxStore} schema)
+ * - Undelivered message counters (shared {@link MessageCounters} schema)
  * - Message delivery tracking
+ * - Session routes of online users (offline inbox re-drive)
+ * - Idempotency keys of handled delivery events ({@link ProcessedEvents})
  *
  * @author WhatsApp Clone Team
  */
@@ -73,6 +88,82 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Shared presence store (same buckets and TTL as the chat service)
+     */
+    @Bean
+    public PresenceRegistry presenceRegistry(
+            RedisTemplate<String, String> stringRedisTemplate,
+            @Value("${app.presence.buckets:64}") int buckets,
+            @Value("${app.presence.heartbeat-ttl-ms:90000}") long heartbeatTtlMs) {
+        return new PresenceRegistry(stringRedisTemplate, buckets, Duration.ofMillis(heartbeatTtlMs));
+    }
+
+    /**
+     * Node-local cache of online checks (group fan-out checks the same
+     * users over and over)
+     */
+    @Bean
+    public PresenceNearCache presenceNearCache(
+            PresenceRegistry presenceRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${app.presence.near-cache.ttl-ms:2000}") long ttlMs,
+            @Value("${app.presence.near-cache.max-entries:100000}") int maxEntries) {
+        return new PresenceNearCache(presenceRegistry, Duration.ofMillis(ttlMs), maxEntries,
+                meterRegistry, "message-processor");
+    }
+
+    /**
+     * Pub/sub listener container (presence change announcements)
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            PresenceNearCache presenceNearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(presenceNearCache, new ChannelTopic(PresenceRegistry.CHANGES_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Shared offline inboxes (same TTL and size limit as the chat service)
+     */
+    @Bean
+    public InboxStore inboxStore(
+            RedisTemplate<String, String> stringRedisTemplate,
+            @Value("${app.inbox.ttl:7d}") Duration ttl,
+            @Value("${app.inbox.max-entries:1000}") int maxEntries) {
+        return new InboxStore(stringRedisTemplate, ttl, maxEntries);
+    }
+
+    /**
+     * Shared message counters (seeded and reconciled by the chat service)
+     */
+    @Bean
+    public MessageCounters messageCounters(RedisTemplate<String, String> stringRedisTemplate) {
+        return new MessageCounters(stringRedisTemplate);
+    }
+
+    /**
+     * Delivery events handled so far (idempotency of retries and redeliveries)
+     */
+    @Bean
+    public ProcessedEvents processedEvents(
+            RedisTemplate<String, String> stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.idempotency.ttl:1d}") Duration ttl) {
+        return new ProcessedEvents(stringRedisTemplate, "message-processor", ttl, meterRegistry);
+    }
+
+    /**
+     * Shared user → chat node routes (written by the chat service)
+     */
+    @Bean
+    public SessionRoutes sessionRoutes(RedisTemplate<String, String> stringRedisTemplate) {
+        return new SessionRoutes(stringRedisTemplate, Duration.ofDays(1));
+    }
+
     /**
      * Provide ObjectMapper bean for JSON serialization
      */
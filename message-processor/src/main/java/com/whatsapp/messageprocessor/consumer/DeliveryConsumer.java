@@ -1,99 +1,213 @@
 package com.whatsapp.messageprocessor.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.common.messaging.RetryableEventException;
+import com.whatsapp.messageprocessor.config.RabbitMQConfig;
+import com.whatsapp.messageprocessor.processor.MessageDeliveryProcessor;
 import com.whatsapp.messageprocessor.service.DeliveryTrackingService;
-import lombok.RequiredArgsConstructor;
+import com.whatsapp.messageprocessor.service.StatusWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Delivery Consumer
  *
- * Consumes message delivery and read receipt events from RabbitMQ.
- * Updates message status in MongoDB accordingly.
+ * Consumes message delivery and read receipt events from RabbitMQ in
+ * batches and updates message status in MongoDB accordingly.
  *
- * Queues:
- * - message.delivered: Updates status to DELIVERED
- * - message.read: Updates status to READ
+ * Queue message-processor.receipts (routed by type with an
+ * {@link EventDispatcher}):
+ * - MESSAGE_DELIVERED: Updates status to DELIVERED
+ * - MESSAGE_READ: Updates status to READ
+ *
+ * Per batch:
+ * 1. Dispatch every event
+ * 2. Remove the delivered/read messages from the recipients' inbox cache
+ * 3. Hand the status transitions of one-to-one messages to the status
+ *    write-behind buffer (group/broadcast status is aggregated by the
+ *    chat service); these receipts stay unacknowledged until the flush
+ *    that writes them, then are acked, or sent to the retry tiers if the
+ *    write failed
+ * 4. Receipts the buffer cannot take go to the delayed retry tiers,
+ *    invalid ones to the parking lot ({@link EventRetrier})
+ * 5. Ack every other message (nack with requeue if its retry copy could
+ *    not be published)
+ *
+ * A receipt is therefore acked only once its status is in MongoDB or its
+ * retry copy is queued; the batch prefetch bounds how many wait for a
+ * flush per consumer.
+ *
+ * Metrics:
+ * - receipt_batch_duration: time per batch
  *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DeliveryConsumer {
 
     private final DeliveryTrackingService deliveryTrackingService;
-    private final ObjectMapper objectMapper;
+    private final MessageDeliveryProcessor deliveryProcessor;
+    private final EventRetrier eventRetrier;
+    private final String queue;
+    private final EventDispatcher dispatcher;
+    private final Timer batchDuration;
+    /** Delivery being dispatched on this listener thread */
+    private final ThreadLocal<Delivery> current = new ThreadLocal<>();
+
+    public DeliveryConsumer(DeliveryTrackingService deliveryTrackingService,
+                            MessageDeliveryProcessor deliveryProcessor,
+                            EventRetrier eventRetrier,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.rabbitmq.queues.receipts:message-processor.receipts}") String queue) {
+        this.deliveryTrackingService = deliveryTrackingService;
+        this.deliveryProcessor = deliveryProcessor;
+        this.eventRetrier = eventRetrier;
+        this.queue = queue;
+        this.dispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.MESSAGE_DELIVERED, MessageEvent.class, event -> handleReceipt(event, false))
+                .on(EventTopology.MESSAGE_READ, MessageEvent.class, event -> handleReceipt(event, true));
+        this.batchDuration = Timer.builder("receipt_batch_duration")
+                .description("Time to apply one batch of receipt events")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+    }
 
     /**
-     * Consume message.delivered events
-     *
-     * Updates message status to DELIVERED in database.
+     * Consume batches of the receipts queue
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-delivered:message.delivered}")
-    public void handleMessageDelivered(String messageJson) {
-        log.debug("Received message.delivered event");
-
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
+    @RabbitListener(queues = "${app.rabbitmq.queues.receipts:message-processor.receipts}",
+            containerFactory = RabbitMQConfig.BATCH_LISTENER_FACTORY)
+    public void handleReceipts(List<Message> messages, Channel channel) {
+        batchDuration.record(() -> handleBatch(messages, channel));
+    }
 
-            String eventType = (String) event.get("eventType");
-            if (!"MESSAGE_DELIVERED".equals(eventType)) {
-                log.warn("Unexpected event type: {}", eventType);
-                return;
+    // ---------------------------------------------------------------
+    // Batch processing
+    // ---------------------------------------------------------------
+
+    private void handleBatch(List<Message> messages, Channel channel) {
+        log.debug("Received batch of {} receipt events", messages.size());
+
+        Map<EventDispatcher.Outcome, Integer> outcomes = new EnumMap<>(EventDispatcher.Outcome.class);
+        for (Message message : messages) {
+            Delivery delivery = new Delivery(channel, message);
+            EventDispatcher.Outcome outcome;
+            current.set(delivery);
+            try {
+                outcome = dispatcher.dispatch(message.getBody());
+            } finally {
+                current.remove();
             }
+            outcomes.merge(outcome, 1, Integer::sum);
+            if (!delivery.awaitsWrite) {
+                settle(delivery, outcome);
+            }
+        }
 
-            String messageId = (String) event.get("messageId");
-            String receiverId = (String) event.get("receiverId");
-
-            log.info("Processing message delivered: {} to {}", messageId, receiverId);
-
-            // Update message status
-            deliveryTrackingService.markAsDelivered(messageId);
-
-            log.info("Message delivered status updated: {}", messageId);
+        log.info("Processed {} receipt events: {}", messages.size(), outcomes);
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing message.delivered event", e);
-            // Message will be requeued by RabbitMQ based on retry configuration
+    /**
+     * Ack a delivery, after sending it to the retry tiers or the parking
+     * lot if its outcome asks for it
+     */
+    private void settle(Delivery delivery, EventDispatcher.Outcome outcome) {
+        try {
+            eventRetrier.settle(queue, delivery.message, outcome);
+            ack(delivery.channel, delivery.message);
+        } catch (AmqpException e) {
+            log.error("Failed to schedule retry of a {} receipt: {}", outcome, e.getMessage());
+            nack(delivery.channel, delivery.message, true);
         }
     }
 
     /**
-     * Consume message.read events
+     * Settle a receipt once the flush of its status write was attempted
+     * (write-behind thread)
+     */
+    private void settleWrite(Delivery delivery, boolean written) {
+        settle(delivery, written ? EventDispatcher.Outcome.HANDLED : EventDispatcher.Outcome.RETRY);
+    }
+
+    /**
+     * Apply one receipt
      *
-     * Updates message status to READ in database.
+     * Receipts of shared messages have no receiver, only a "recipientId".
+     * The status write is handed over last: once the buffer took it, the
+     * delivery is settled by the flush only.
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-read:message.read}")
-    public void handleMessageRead(String messageJson) {
-        log.debug("Received message.read event");
+    private void handleReceipt(MessageEvent event, boolean read) {
+        String messageId = event.getMessageId();
+        if (messageId == null) {
+            throw new IllegalArgumentException("Receipt without messageId");
+        }
 
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
+        // Clear from inbox cache since it's now delivered / read
+        if (read) {
+            deliveryProcessor.handleMessageRead(messageId, event.getRecipient());
+        } else {
+            deliveryProcessor.handleMessageDelivered(messageId, event.getRecipient());
+        }
 
-            String eventType = (String) event.get("eventType");
-            if (!"MESSAGE_READ".equals(eventType)) {
-                log.warn("Unexpected event type: {}", eventType);
-                return;
+        if (!event.isShared()) {
+            Delivery delivery = current.get();
+            StatusWriteBehind.Settlement settlement = written -> settleWrite(delivery, written);
+            boolean accepted = read
+                    ? deliveryTrackingService.markAsRead(messageId, event.getOccurredAt(), settlement)
+                    : deliveryTrackingService.markAsDelivered(messageId, event.getOccurredAt(), settlement);
+            if (!accepted) {
+                throw new RetryableEventException("Status write buffer full");
             }
+            delivery.awaitsWrite = true;
+        }
+    }
 
-            String messageId = (String) event.get("messageId");
-            String receiverId = (String) event.get("receiverId");
-
-            log.info("Processing message read: {} by {}", messageId, receiverId);
-
-            // Update message status
-            deliveryTrackingService.markAsRead(messageId);
+    private void ack(Channel channel, Message message) {
+        try {
+            channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+        } catch (IOException e) {
+            log.error("Failed to ack delivery {}", message.getMessageProperties().getDeliveryTag(), e);
+        }
+    }
 
-            log.info("Message read status updated: {}", messageId);
+    private void nack(Channel channel, Message message, boolean requeue) {
+        try {
+            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, requeue);
+        } catch (IOException e) {
+            log.error("Failed to nack delivery {}", message.getMessageProperties().getDeliveryTag(), e);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing message.read event", e);
-            // Message will be requeued by RabbitMQ based on retry configuration
+    /**
+     * One message of a batch and the channel to settle it on
+     */
+    private static final class Delivery {
+        private final Channel channel;
+        private final Message message;
+        /** Settled by the status write-behind instead of the listener */
+        private boolean awaitsWrite;
+
+        private Delivery(Channel channel, Message message) {
+            this.channel = channel;
+            this.message = message;
         }
     }
 }
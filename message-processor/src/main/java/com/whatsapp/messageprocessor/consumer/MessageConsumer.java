@@ -1,125 +1,128 @@
 package com.whatsapp.messageprocessor.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.common.messaging.PartitionAssignor;
+import com.whatsapp.common.messaging.PartitionRetrier;
+import com.whatsapp.common.messaging.ProcessedEvents;
 import com.whatsapp.messageprocessor.processor.MessageDeliveryProcessor;
+import com.whatsapp.messageprocessor.service.DeliveryTrackingService;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.core.Message;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 /**
  * Message Consumer
  *
  * Consumes messages from RabbitMQ queues and processes them.
  *
  * Queues:
- * - message.sent: New messages that need to be delivered
- * - message.delivered: Messages that were delivered (for status update)
- * - message.read: Messages that were read (for status update)
+ * - message-processor.delivery.p*: New messages that need to be delivered
+ *   (MESSAGE_SENT), partitioned by conversation; the partitions this
+ *   replica owns are consumed one event at a time each
+ *   ({@link PartitionAssignor}), so a conversation's messages are
+ *   processed in order
+ *
+ * Receipts (MESSAGE_DELIVERED, MESSAGE_READ) are consumed in batches by
+ * {@link DeliveryConsumer}.
+ *
+ * Group and broadcast messages arrive as one event with "recipientIds"
+ * instead of a receiver.
+ *
+ * Events that fail are retried in place, holding up their partition so no
+ * later event of the conversation overtakes them ({@link PartitionRetrier}):
+ * through a store outage (e.g. Redis unavailable) for as long as the retry
+ * bound allows, other errors a few times; then they are parked. Every
+ * failed attempt is also counted on the message document. Only a parked
+ * event, once replayed, arrives out of order.
+ *
+ * A MESSAGE_SENT event is handled once per message ({@link ProcessedEvents}):
+ * duplicates (a retry copy next to a redelivered original, a parking-lot
+ * replay of an event handled meanwhile) add no inbox entry and queue no
+ * push again.
  *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MessageConsumer {
 
     private final MessageDeliveryProcessor deliveryProcessor;
-    private final ObjectMapper objectMapper;
+    private final DeliveryTrackingService deliveryTrackingService;
+    private final PartitionRetrier partitionRetrier;
+    private final ProcessedEvents processedEvents;
+    private final EventDispatcher dispatcher;
+
+    public MessageConsumer(MessageDeliveryProcessor deliveryProcessor,
+                           DeliveryTrackingService deliveryTrackingService,
+                           PartitionRetrier partitionRetrier,
+                           ProcessedEvents processedEvents,
+                           ObjectMapper objectMapper) {
+        this.deliveryProcessor = deliveryProcessor;
+        this.deliveryTrackingService = deliveryTrackingService;
+        this.partitionRetrier = partitionRetrier;
+        this.processedEvents = processedEvents;
+        this.dispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.MESSAGE_SENT, MessageEvent.class, this::handleMessageSent);
+    }
 
     /**
-     * Consume message.sent events
+     * Consume an event of a delivery partition
      *
-     * Triggered when a new message is sent.
-     * Process message delivery to receiver.
+     * @param partition Partition queue the event came from
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-sent:message.sent}")
-    public void handleMessageSent(String messageJson) {
-        log.debug("Received message.sent event");
-
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
-
-            String eventType = (String) event.get("eventType");
-            if (!"MESSAGE_SENT".equals(eventType)) {
-                log.warn("Unexpected event type: {}", eventType);
-                return;
-            }
-
-            String messageId = (String) event.get("messageId");
-            String senderId = (String) event.get("senderId");
-            String receiverId = (String) event.get("receiverId");
-            String content = (String) event.get("content");
-
-            log.info("Processing message delivery: {} from {} to {}", messageId, senderId, receiverId);
-
-            // Process message delivery
-            deliveryProcessor.processMessageDelivery(messageId, senderId, receiverId, content);
-
-            log.info("Message delivery processed successfully: {}", messageId);
-
-        } catch (Exception e) {
-            log.error("Error processing message.sent event", e);
-            // Message will be requeued by RabbitMQ based on retry configuration
-        }
+    public void onEvent(String partition, Message message) {
+        log.debug("Received delivery event on {} (attempt {})", partition, EventRetrier.attemptOf(message));
+        partitionRetrier.handle(partition, message, () -> dispatcher.dispatch(message.getBody()));
     }
 
     /**
-     * Consume message.delivered events
+     * Handle MESSAGE_SENT events
      *
-     * Triggered when a message is delivered to receiver's device.
-     * Update delivery status in database.
+     * Triggered when a new message is sent.
+     * Process message delivery to receiver.
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-delivered:message.delivered}")
-    public void handleMessageDelivered(String messageJson) {
-        log.debug("Received message.delivered event");
+    private void handleMessageSent(MessageEvent event) {
+        if (event.getMessageId() == null) {
+            throw new IllegalArgumentException("MESSAGE_SENT without messageId");
+        }
+        String key = ProcessedEvents.keyOf(EventTopology.MESSAGE_SENT, event.getMessageId());
+        if (processedEvents.isProcessed(key)) {
+            log.info("Skipping duplicate delivery event of message {}", event.getMessageId());
+            return;
+        }
 
         try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
-
-            String messageId = (String) event.get("messageId");
-            String receiverId = (String) event.get("receiverId");
-
-            log.info("Processing message delivered: {} to {}", messageId, receiverId);
-
-            // Clear from inbox cache since it's now delivered
-            deliveryProcessor.handleMessageDelivered(messageId, receiverId);
-
-            log.info("Message delivered processed successfully: {}", messageId);
-
-        } catch (Exception e) {
-            log.error("Error processing message.delivered event", e);
+            deliver(event);
+        } catch (RuntimeException e) {
+            deliveryTrackingService.incrementDeliveryAttempts(event.getMessageId());
+            throw e;
         }
+        processedEvents.markProcessed(key);
     }
 
-    /**
-     * Consume message.read events
-     *
-     * Triggered when a message is read by receiver.
-     * Update read status and clear caches.
-     */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-read:message.read}")
-    public void handleMessageRead(String messageJson) {
-        log.debug("Received message.read event");
-
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
-
-            String messageId = (String) event.get("messageId");
-            String receiverId = (String) event.get("receiverId");
+    private void deliver(MessageEvent event) {
+        String messageId = event.getMessageId();
+        String senderId = event.getSenderId();
 
-            log.debug("Processing message read: {} by {}", messageId, receiverId);
+        if (event.getRecipientIds() != null) {
+            log.info("Processing shared message delivery: {} from {} to {} recipients",
+                    messageId, senderId, event.getRecipientIds().size());
+            deliveryProcessor.processSharedMessageDelivery(messageId, event.getConversationId(), senderId,
+                    event.getSenderName(), event.getRecipientIds(), event.getContent());
+            return;
+        }
 
-            // Clear all related caches
-            deliveryProcessor.handleMessageRead(messageId, receiverId);
+        log.info("Processing message delivery: {} from {} to {}", messageId, senderId, event.getReceiverId());
 
-            log.debug("Message read processed successfully: {}", messageId);
+        // Process message delivery
+        deliveryProcessor.processMessageDelivery(messageId, event.getConversationId(), senderId,
+                event.getSenderName(), event.getReceiverId(), event.getContent());
 
-        } catch (Exception e) {
-            log.error("Error processing message.read event", e);
-        }
+        log.info("Message delivery processed successfully: {}", messageId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.whatsapp.messageprocessor.controller;
+
+import com.whatsapp.common.dto.BaseResponse;
+import com.whatsapp.common.messaging.ParkingLot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Parking Lot REST Controller
+ *
+ * Inspects and replays events that used up their retry tiers.
+ *
+ * Endpoints:
+ * - GET /parking-lot - Parked events per queue
+ * - POST /parking-lot/{queue}/replay?max=100 - Move parked events back to the queue
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@RestController
+@RequestMapping("/parking-lot")
+@RequiredArgsConstructor
+public class ParkingLotController {
+
+    private final ParkingLot parkingLot;
+
+    /**
+     * Parked events per queue
+     *
+     * GET /parking-lot
+     */
+    @GetMapping
+    public ResponseEntity<BaseResponse<Map<String, Integer>>> getSizes() {
+        return ResponseEntity.ok(BaseResponse.success(parkingLot.sizes()));
+    }
+
+    /**
+     * Replay parked events of a queue
+     *
+     * POST /parking-lot/{queue}/replay
+     */
+    @PostMapping("/{queue}/replay")
+    public ResponseEntity<BaseResponse<Integer>> replay(
+            @PathVariable String queue,
+            @RequestParam(defaultValue = "100") int max) {
+
+        log.info("Replaying up to {} parked events of {}", max, queue);
+
+        try {
+            int replayed = parkingLot.replay(queue, max);
+            return ResponseEntity.ok(BaseResponse.success("Parked events replayed", replayed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BaseResponse.error(e.getMessage()));
+        }
+    }
+}
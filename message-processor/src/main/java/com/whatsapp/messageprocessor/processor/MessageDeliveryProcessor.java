@@ -1,13 +1,17 @@
 package com.whatsapp.messageprocessor.processor;
 
 import com.whatsapp.messageprocessor.service.InboxCacheService;
-import com.whatsapp.messageprocessor.service.PushNotificationService;
+import com.whatsapp.messageprocessor.service.PushAggregator;
 import com.whatsapp.messageprocessor.service.UserStatusService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Message Delivery Processor
  *
@@ -19,7 +23,7 @@ import org.springframework.stereotype.Component;
  * 2. If online: WebSocket delivery (handled by Chat Service)
  * 3. If offline:
  *    - Add to inbox cache for quick delivery when user comes online
- *    - Send push notification
+ *    - Send push notification (aggregated per conversation, see {@link PushAggregator})
  * 4. Update message status
  *
  * @author WhatsApp Clone Team
@@ -31,14 +35,15 @@ public class MessageDeliveryProcessor {
 
     private final UserStatusService userStatusService;
     private final InboxCacheService inboxCacheService;
-    private final PushNotificationService pushNotificationService;
+    private final PushAggregator pushAggregator;
 
     /**
      * Process message delivery
      *
      * Main logic for handling message delivery to receiver.
      */
-    public void processMessageDelivery(String messageId, String senderId, String receiverId, String content) {
+    public void processMessageDelivery(String messageId, String conversationId, String senderId,
+                                       String senderName, String receiverId, String content) {
         log.debug("Processing message delivery: {} to {}", messageId, receiverId);
 
         try {
@@ -57,7 +62,7 @@ public class MessageDeliveryProcessor {
                 inboxCacheService.addToInbox(receiverId, messageId);
 
                 // Send push notification
-                sendPushNotification(receiverId, senderId, content);
+                sendPushNotification(receiverId, conversationId, messageId, senderId, senderName, content);
             }
 
         } catch (Exception e) {
@@ -66,6 +71,41 @@ public class MessageDeliveryProcessor {
         }
     }
 
+    /**
+     * Process delivery of a group/broadcast message
+     *
+     * One batched online check for all recipients; only offline ones get
+     * the message id in their inbox (one pipelined write for all of them)
+     * and a push notification.
+     */
+    public void processSharedMessageDelivery(String messageId, String conversationId, String senderId,
+                                             String senderName, List<String> recipientIds, String content) {
+        log.debug("Processing shared message delivery: {} to {} recipients", messageId, recipientIds.size());
+
+        try {
+            Set<String> online = userStatusService.getOnlineUsers(recipientIds);
+
+            List<String> offline = new ArrayList<>();
+            for (String recipientId : recipientIds) {
+                if (recipientId.equals(senderId) || online.contains(recipientId)) {
+                    continue; // WebSocket delivery is handled by Chat Service
+                }
+                offline.add(recipientId);
+            }
+
+            inboxCacheService.addToInboxes(offline, messageId);
+            for (String recipientId : offline) {
+                sendPushNotification(recipientId, conversationId, messageId, senderId, senderName, content);
+            }
+
+            log.info("Shared message {}: {} online, {} offline recipients", messageId, online.size(), offline.size());
+
+        } catch (Exception e) {
+            log.error("Error processing shared message delivery: {}", messageId, e);
+            throw new RuntimeException("Failed to process message delivery", e);
+        }
+    }
+
     /**
      * Handle message delivered event
      *
@@ -105,22 +145,24 @@ public class MessageDeliveryProcessor {
     }
 
     /**
-     * Send push notification to offline user
+     * Queue a push notification to an offline user; messages of the same
+     * conversation are collapsed into one notification
      */
-    private void sendPushNotification(String receiverId, String senderId, String content) {
+    private void sendPushNotification(String receiverId, String conversationId, String messageId,
+                                      String senderId, String senderName, String content) {
         try {
-            log.debug("Sending push notification to user: {}", receiverId);
+            log.debug("Queueing push notification to user: {}", receiverId);
 
-            pushNotificationService.sendMessageNotification(
+            pushAggregator.add(
                     receiverId,
-                    senderId,
+                    conversationId,
+                    messageId,
+                    senderName != null ? senderName : senderId,
                     truncateContent(content)
             );
 
-            log.debug("Push notification sent successfully to user: {}", receiverId);
-
         } catch (Exception e) {
-            log.error("Failed to send push notification to user: {}", receiverId, e);
+            log.error("Failed to queue push notification to user: {}", receiverId, e);
             // Don't throw exception - push notification failure shouldn't break message delivery
         }
     }
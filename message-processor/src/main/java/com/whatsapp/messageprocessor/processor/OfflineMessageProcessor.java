@@ -1,66 +1,225 @@
 package com.whatsapp.messageprocessor.processor;
 
+import com.whatsapp.common.presence.SessionRoutes;
 import com.whatsapp.messageprocessor.service.InboxCacheService;
 import com.whatsapp.messageprocessor.service.PushNotificationService;
 import com.whatsapp.messageprocessor.service.UserStatusService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Offline Message Processor
  *
- * Background processor for handling offline message delivery.
- * Runs periodically to check for users coming online and deliver cached messages.
+ * Background sweeper for pending inboxes of users who are online again.
+ * Fallback for the chat node's own flush on connect (missed when the
+ * message was cached after the user connected, or the flush failed).
  *
- * Processing Logic:
- * 1. Scan inbox cache for users with pending messages
- * 2. Check if users are now online
- * 3. Trigger message delivery for online users
- * 4. Clear inbox cache after successful delivery
+ * Sweep (every interval):
+ * 1. Take SCAN steps over "inbox:v2:user:*" keys (never KEYS) from the
+ *    cursor shared by all replicas in Redis: each step atomically reads
+ *    the cursor, runs one SCAN and stores the next cursor, so a step is
+ *    taken by exactly one replica and replicas split the keyspace between
+ *    them, however many there are
+ * 2. Per batch, check presence (pipelined) and look up the chat node
+ *    holding each online user's sessions (pipelined)
+ * 3. Ask each of those nodes, in one re-drive request per node and batch,
+ *    to flush the users' inboxes over their WebSocket sessions
  *
- * Note: This is a fallback mechanism. Primary delivery happens via WebSocket.
+ * A sweep ends when its time budget is spent or the shared scan completed
+ * a pass; the next sweep continues from the stored cursor, so every key is
+ * reached once per pass however large the keyspace. The cursor lives next
+ * to the keys it scans (a single Redis, not a cluster).
+ *
+ * Metrics:
+ * - offline_sweep_keys_scanned_total: inbox keys returned by SCAN
+ * - offline_sweep_passes_total: completed passes over the keyspace
+ * - offline_sweep_messages_redriven_total: pending entries handed to chat nodes
+ * - offline_sweep_duration: time per sweep
  *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OfflineMessageProcessor {
 
+    /** Cursor of the scan shared by all replicas ("0": start of a pass) */
+    static final String CURSOR_KEY = "inbox:v2:sweep:cursor";
+
+    /**
+     * One SCAN step from the shared cursor, storing the next cursor
+     * Returns {nextCursor, key...}
+     */
+    private static final RedisScript<List> SCAN_STEP_SCRIPT = new DefaultRedisScript<>(
+            "local cursor = redis.call('GET', KEYS[1]) or '0' " +
+            "local result = redis.call('SCAN', cursor, 'MATCH', ARGV[1], 'COUNT', ARGV[2]) " +
+            "redis.call('SET', KEYS[1], result[1]) " +
+            "local step = {result[1]} " +
+            "for _, key in ipairs(result[2]) do step[#step + 1] = key end " +
+            "return step",
+            List.class);
+
     private final UserStatusService userStatusService;
     private final InboxCacheService inboxCacheService;
     private final PushNotificationService pushNotificationService;
+    private final SessionRoutes sessionRoutes;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final int scanCount;
+    private final int batchSize;
+    private final long timeBudgetMs;
+
+    private final Counter keysScanned;
+    private final Counter passes;
+    private final Counter messagesRedriven;
+    private final Timer sweepDuration;
+
+    public OfflineMessageProcessor(
+            UserStatusService userStatusService,
+            InboxCacheService inboxCacheService,
+            PushNotificationService pushNotificationService,
+            SessionRoutes sessionRoutes,
+            RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.offline-sweeper.scan-count:500}") int scanCount,
+            @Value("${app.offline-sweeper.batch-size:200}") int batchSize,
+            @Value("${app.offline-sweeper.time-budget-ms:10000}") long timeBudgetMs) {
+        this.userStatusService = userStatusService;
+        this.inboxCacheService = inboxCacheService;
+        this.pushNotificationService = pushNotificationService;
+        this.sessionRoutes = sessionRoutes;
+        this.redisTemplate = redisTemplate;
+        this.scanCount = scanCount;
+        this.batchSize = batchSize;
+        this.timeBudgetMs = timeBudgetMs;
+        this.keysScanned = Counter.builder("offline_sweep_keys_scanned_total")
+                .description("Inbox keys returned by the offline sweeper's SCAN")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.passes = Counter.builder("offline_sweep_passes_total")
+                .description("Completed passes of the shared offline sweep over all inbox keys")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.messagesRedriven = Counter.builder("offline_sweep_messages_redriven_total")
+                .description("Pending inbox entries handed to chat nodes for delivery")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.sweepDuration = Timer.builder("offline_sweep_duration")
+                .description("Duration of one offline inbox sweep")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+    }
 
     /**
-     * Process offline messages periodically
+     * Sweep pending inboxes, continuing the shared scan
      *
-     * Runs every 30 seconds to check for users coming online.
+     * Runs every 30 seconds by default
      */
-    @Scheduled(fixedDelay = 30000, initialDelay = 10000) // 30 seconds
+    @Scheduled(fixedDelayString = "${app.offline-sweeper.interval-ms:30000}", initialDelay = 10000)
     public void processOfflineMessages() {
-        log.trace("Running offline message processor...");
+        log.trace("Running offline message sweep...");
 
         try {
-            // In a real implementation, you would:
-            // 1. Scan Redis for all inbox keys
-            // 2. Check if users are online
-            // 3. Deliver messages to online users
-            // 4. Clear inbox cache
-
-            // This is a simplified implementation
-            // In production, use Redis SCAN to iterate over inbox keys
-
-            log.trace("Offline message processing completed");
+            SweepResult result = sweepDuration.recordCallable(this::sweep);
+            if (result != null && result.redrivenUsers > 0) {
+                log.info("Offline message sweep done: {}", result);
+            } else {
+                log.trace("Offline message sweep done: {}", result);
+            }
 
         } catch (Exception e) {
             log.error("Error processing offline messages", e);
         }
     }
 
+    /**
+     * Take shared SCAN steps until the pass completes or the budget is spent
+     */
+    SweepResult sweep() {
+        SweepResult result = new SweepResult();
+        long deadline = System.currentTimeMillis() + timeBudgetMs;
+        List<String> batch = new ArrayList<>(batchSize);
+        do {
+            List<String> step = redisTemplate.execute(SCAN_STEP_SCRIPT, List.of(CURSOR_KEY),
+                    InboxCacheService.inboxKeyPattern(), String.valueOf(scanCount));
+            if (step == null || step.isEmpty()) {
+                break;
+            }
+            for (String key : step.subList(1, step.size())) {
+                result.scanned++;
+                keysScanned.increment();
+                batch.add(InboxCacheService.userIdOf(key));
+                if (batch.size() >= batchSize) {
+                    redrive(batch, result);
+                    batch.clear();
+                }
+            }
+            if ("0".equals(step.get(0))) {
+                result.passCompleted = true;
+                passes.increment();
+            }
+        } while (!result.passCompleted && System.currentTimeMillis() < deadline);
+        result.budgetExceeded = !result.passCompleted;
+        redrive(batch, result);
+        return result;
+    }
+
+    /**
+     * Hand the inboxes of the online users of a batch to their chat nodes
+     */
+    private void redrive(Collection<String> userIds, SweepResult result) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        result.checked += userIds.size();
+
+        Set<String> online = userStatusService.getOnlineUsers(userIds);
+        if (online.isEmpty()) {
+            return;
+        }
+        Map<String, Set<String>> routes = sessionRoutes.routesOf(online);
+        Map<String, Long> sizes = inboxCacheService.getInboxSizes(routes.keySet());
+
+        Map<String, List<String>> usersByNode = new HashMap<>();
+        routes.forEach((userId, nodes) -> {
+            long pending = sizes.getOrDefault(userId, 0L);
+            if (pending == 0) {
+                return; // delivered or expired since the scan
+            }
+            // One node per user: a second node would race the first one on the same inbox
+            String nodeId = new TreeSet<>(nodes).first();
+            usersByNode.computeIfAbsent(nodeId, n -> new ArrayList<>()).add(userId);
+            result.redrivenUsers++;
+            result.redrivenMessages += pending;
+            messagesRedriven.increment(pending);
+        });
+        result.unrouted += online.size() - routes.size();
+
+        usersByNode.forEach((nodeId, users) -> {
+            try {
+                sessionRoutes.requestRedrive(nodeId, users);
+            } catch (Exception e) {
+                log.error("Failed to request re-drive of {} inboxes from node {}: {}",
+                        users.size(), nodeId, e.getMessage(), e);
+            }
+        });
+    }
+
     /**
      * Process messages for specific user
      *
@@ -78,20 +237,10 @@ public class OfflineMessageProcessor {
                 return;
             }
 
-            // Get all cached messages
-            Set<String> messageIds = inboxCacheService.getInboxMessages(userId);
-
-            log.info("Found {} cached messages for user: {}", messageIds.size(), userId);
+            SweepResult result = new SweepResult();
+            redrive(List.of(userId), result);
 
-            // In a real implementation, you would:
-            // 1. Fetch message details from MongoDB
-            // 2. Send via WebSocket
-            // 3. Clear from inbox cache
-
-            // For now, just clear the inbox
-            inboxCacheService.clearInbox(userId);
-
-            log.info("Cached messages processed for user: {}", userId);
+            log.info("Cached messages processed for user: {} ({})", userId, result);
 
         } catch (Exception e) {
             log.error("Error processing messages for user: {}", userId, e);
@@ -113,9 +262,9 @@ public class OfflineMessageProcessor {
 
             if (isOnline) {
                 log.info("User is online, attempting delivery: {}", userId);
-                // WebSocket delivery would be triggered here
-                // Remove from inbox after successful delivery
-                inboxCacheService.removeFromInbox(userId, messageId);
+                // The chat node holding the user's sessions flushes the inbox;
+                // the entry is removed once the delivery receipt comes back
+                redrive(List.of(userId), new SweepResult());
 
             } else {
                 log.debug("User is still offline: {}", userId);
@@ -147,4 +296,28 @@ public class OfflineMessageProcessor {
             log.error("Error during inbox cleanup", e);
         }
     }
+
+    /**
+     * Per-sweep summary
+     */
+    static final class SweepResult {
+        private long scanned;
+        private long checked;
+        private long unrouted;
+        private long redrivenUsers;
+        private long redrivenMessages;
+        private boolean passCompleted;
+        private boolean budgetExceeded;
+
+        boolean isPassCompleted() {
+            return passCompleted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("scanned=%d checked=%d unrouted=%d redrivenUsers=%d redrivenMessages=%d "
+                            + "passCompleted=%s budgetExceeded=%s",
+                    scanned, checked, unrouted, redrivenUsers, redrivenMessages, passCompleted, budgetExceeded);
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package com.whatsapp.messageprocessor.service;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Aggregated Push
+ *
+ * One push notification standing for one or more new messages of a
+ * conversation to one recipient ("5 new messages from Alice").
+ *
+ * The collapse key is the conversation: a newer push for the same
+ * conversation replaces the one still shown on the device (FCM
+ * collapse_key, APNs apns-collapse-id).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+public class AggregatedPush {
+
+    private final String recipientId;
+    private final String conversationId;
+    private final String collapseKey;
+    private final String title;
+    private final String body;
+    private final int messageCount;
+    private final Instant lastMessageAt;
+
+    private AggregatedPush(String recipientId, String conversationId, String title, String body,
+                           int messageCount, Instant lastMessageAt) {
+        this.recipientId = recipientId;
+        this.conversationId = conversationId;
+        this.collapseKey = conversationId != null ? "conv:" + conversationId : null;
+        this.title = title;
+        this.body = body;
+        this.messageCount = messageCount;
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    /**
+     * Push for a single message: its preview as the body
+     */
+    public static AggregatedPush single(String recipientId, String conversationId,
+                                        String sender, String preview, Instant messageAt) {
+        return new AggregatedPush(recipientId, conversationId, "New message from " + sender,
+                preview, 1, messageAt);
+    }
+
+    /**
+     * Push summarising several messages
+     *
+     * @param senders     Distinct senders of the messages
+     * @param lastPreview Preview of the latest message
+     */
+    public static AggregatedPush summary(String recipientId, String conversationId, int messageCount,
+                                         Collection<String> senders, String lastPreview,
+                                         Instant lastMessageAt) {
+        String from = senders.size() == 1 ? senders.iterator().next() : senders.size() + " people";
+        return new AggregatedPush(recipientId, conversationId,
+                messageCount + " new messages from " + from, lastPreview, messageCount, lastMessageAt);
+    }
+}
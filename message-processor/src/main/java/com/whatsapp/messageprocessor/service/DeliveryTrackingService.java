@@ -23,6 +23,10 @@ import java.util.Map;
  *   ↓
  * FAILED
  *
+ * DELIVERED and READ go through {@link StatusWriteBehind}: transitions of
+ * the same message are merged and written in bulk, never moving a
+ * message's status back.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -31,53 +35,76 @@ import java.util.Map;
 public class DeliveryTrackingService {
 
     private final MongoTemplate mongoTemplate;
+    private final StatusWriteBehind statusWriteBehind;
 
     /**
-     * Update message status to DELIVERED
+     * Update message status to DELIVERED, stamped now (write-behind)
      *
      * @param messageId Message ID
+     * @return false if the write buffer is full
      */
-    public void markAsDelivered(String messageId) {
-        log.info("Marking message as delivered: {}", messageId);
-
-        try {
-            Query query = new Query(Criteria.where("_id").is(messageId));
-            Update update = new Update()
-                    .set("status", "DELIVERED")
-                    .set("deliveredAt", Instant.now())
-                    .set("updatedAt", Instant.now());
-
-            mongoTemplate.updateFirst(query, update, "messages");
-
-            log.info("Message marked as delivered: {}", messageId);
-
-        } catch (Exception e) {
-            log.error("Error marking message as delivered: {}", messageId, e);
-        }
+    public boolean markAsDelivered(String messageId) {
+        return markAsDelivered(messageId, Instant.now());
     }
 
     /**
-     * Update message status to READ
+     * Update message status to DELIVERED (write-behind)
      *
      * @param messageId Message ID
+     * @param deliveredAt Time of delivery
+     * @return false if the write buffer is full
      */
-    public void markAsRead(String messageId) {
-        log.info("Marking message as read: {}", messageId);
+    public boolean markAsDelivered(String messageId, Instant deliveredAt) {
+        log.debug("Marking message as delivered: {}", messageId);
+        return statusWriteBehind.submit(StatusTransition.delivered(messageId, deliveredAt));
+    }
 
-        try {
-            Query query = new Query(Criteria.where("_id").is(messageId));
-            Update update = new Update()
-                    .set("status", "READ")
-                    .set("readAt", Instant.now())
-                    .set("updatedAt", Instant.now());
+    /**
+     * Update message status to DELIVERED (write-behind), reporting the write
+     *
+     * @param messageId Message ID
+     * @param deliveredAt Time of delivery
+     * @param settlement Called once the write was attempted
+     * @return false if the write buffer is full
+     */
+    public boolean markAsDelivered(String messageId, Instant deliveredAt, StatusWriteBehind.Settlement settlement) {
+        log.debug("Marking message as delivered: {}", messageId);
+        return statusWriteBehind.submit(StatusTransition.delivered(messageId, deliveredAt), settlement);
+    }
 
-            mongoTemplate.updateFirst(query, update, "messages");
+    /**
+     * Update message status to READ, stamped now (write-behind)
+     *
+     * @param messageId Message ID
+     * @return false if the write buffer is full
+     */
+    public boolean markAsRead(String messageId) {
+        return markAsRead(messageId, Instant.now());
+    }
 
-            log.info("Message marked as read: {}", messageId);
+    /**
+     * Update message status to READ (write-behind)
+     *
+     * @param messageId Message ID
+     * @param readAt Time of reading
+     * @return false if the write buffer is full
+     */
+    public boolean markAsRead(String messageId, Instant readAt) {
+        log.debug("Marking message as read: {}", messageId);
+        return statusWriteBehind.submit(StatusTransition.read(messageId, readAt));
+    }
 
-        } catch (Exception e) {
-            log.error("Error marking message as read: {}", messageId, e);
-        }
+    /**
+     * Update message status to READ (write-behind), reporting the write
+     *
+     * @param messageId Message ID
+     * @param readAt Time of reading
+     * @param settlement Called once the write was attempted
+     * @return false if the write buffer is full
+     */
+    public boolean markAsRead(String messageId, Instant readAt, StatusWriteBehind.Settlement settlement) {
+        log.debug("Marking message as read: {}", messageId);
+        return statusWriteBehind.submit(StatusTransition.read(messageId, readAt), settlement);
     }
 
     /**
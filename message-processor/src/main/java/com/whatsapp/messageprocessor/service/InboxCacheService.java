@@ -1,11 +1,13 @@
 package com.whatsapp.messageprocessor.service;
 
+import com.whatsapp.common.inbox.InboxStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -15,10 +17,13 @@ import java.util.Set;
  * Messages are cached in Redis when users are offline,
  * and delivered when they come back online.
  *
- * Cache Structure:
- * - Key: inbox:{userId}
- * - Value: Set of message IDs
- * - TTL: 7 days
+ * Cache Structure (shared with the chat service, see {@link InboxStore}):
+ * - Key: inbox:v2:user:{userId}
+ * - Value: Sorted set of message IDs, oldest first
+ * - TTL: 7 days per entry
+ *
+ * This service enqueues IDs only; the chat service stores the payloads
+ * of the messages it caches and drains the inbox on reconnect.
  *
  * @author WhatsApp Clone Team
  */
@@ -27,10 +32,7 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class InboxCacheService {
 
-    private static final String INBOX_PREFIX = "inbox:";
-    private static final Duration INBOX_TTL = Duration.ofDays(7);
-
-    private final RedisTemplate<String, String> redisTemplate;
+    private final InboxStore inboxStore;
 
     /**
      * Add message to user's inbox
@@ -42,18 +44,33 @@ public class InboxCacheService {
         log.debug("Adding message to inbox: user={}, message={}", userId, messageId);
 
         try {
-            String key = getInboxKey(userId);
-
-            // Add message to set
-            redisTemplate.opsForSet().add(key, messageId);
-
-            // Set TTL
-            redisTemplate.expire(key, INBOX_TTL);
+            inboxStore.add(userId, messageId);
 
             log.debug("Message added to inbox successfully: {}", messageId);
 
         } catch (Exception e) {
             log.error("Error adding message to inbox: user={}, message={}", userId, messageId, e);
+            // Propagate so the event is retried instead of losing the entry
+            throw new RuntimeException("Failed to add message to inbox", e);
+        }
+    }
+
+    /**
+     * Add message to the inboxes of many users (one pipelined round trip)
+     *
+     * @param userIds User IDs
+     * @param messageId Message ID
+     */
+    public void addToInboxes(Collection<String> userIds, String messageId) {
+        log.debug("Adding message to {} inboxes: message={}", userIds.size(), messageId);
+
+        try {
+            inboxStore.addAll(userIds, messageId, null);
+
+        } catch (Exception e) {
+            log.error("Error adding message to {} inboxes: message={}", userIds.size(), messageId, e);
+            // Propagate so the event is retried instead of losing the entries
+            throw new RuntimeException("Failed to add message to inboxes", e);
         }
     }
 
@@ -67,8 +84,7 @@ public class InboxCacheService {
         log.debug("Removing message from inbox: user={}, message={}", userId, messageId);
 
         try {
-            String key = getInboxKey(userId);
-            redisTemplate.opsForSet().remove(key, messageId);
+            inboxStore.remove(userId, messageId);
 
             log.debug("Message removed from inbox successfully: {}", messageId);
 
@@ -81,16 +97,15 @@ public class InboxCacheService {
      * Get all messages in user's inbox
      *
      * @param userId User ID
-     * @return Set of message IDs
+     * @return Set of message IDs, oldest first
      */
     public Set<String> getInboxMessages(String userId) {
         log.debug("Getting inbox messages for user: {}", userId);
 
         try {
-            String key = getInboxKey(userId);
-            Set<String> messages = redisTemplate.opsForSet().members(key);
+            Set<String> messages = new LinkedHashSet<>(inboxStore.messageIds(userId));
 
-            log.debug("Found {} messages in inbox for user: {}", messages != null ? messages.size() : 0, userId);
+            log.debug("Found {} messages in inbox for user: {}", messages.size(), userId);
 
             return messages;
 
@@ -109,8 +124,7 @@ public class InboxCacheService {
         log.debug("Clearing inbox for user: {}", userId);
 
         try {
-            String key = getInboxKey(userId);
-            redisTemplate.delete(key);
+            inboxStore.clear(userId);
 
             log.debug("Inbox cleared successfully for user: {}", userId);
 
@@ -126,16 +140,7 @@ public class InboxCacheService {
      * @return true if inbox is not empty
      */
     public boolean hasMessages(String userId) {
-        try {
-            String key = getInboxKey(userId);
-            Long size = redisTemplate.opsForSet().size(key);
-
-            return size != null && size > 0;
-
-        } catch (Exception e) {
-            log.error("Error checking inbox for user: {}", userId, e);
-            return false;
-        }
+        return getInboxSize(userId) > 0;
     }
 
     /**
@@ -146,10 +151,7 @@ public class InboxCacheService {
      */
     public long getInboxSize(String userId) {
         try {
-            String key = getInboxKey(userId);
-            Long size = redisTemplate.opsForSet().size(key);
-
-            return size != null ? size : 0;
+            return inboxStore.size(userId);
 
         } catch (Exception e) {
             log.error("Error getting inbox size for user: {}", userId, e);
@@ -158,9 +160,32 @@ public class InboxCacheService {
     }
 
     /**
-     * Get inbox key for user
+     * Get inbox sizes of many users (one pipelined round trip)
+     *
+     * @param userIds User IDs
+     * @return userId → number of pending entries, empty on error
+     */
+    public Map<String, Long> getInboxSizes(Collection<String> userIds) {
+        try {
+            return inboxStore.sizes(userIds);
+
+        } catch (Exception e) {
+            log.error("Error getting inbox sizes of {} users", userIds.size(), e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * User ID of an inbox key
+     */
+    public static String userIdOf(String inboxKey) {
+        return InboxStore.userIdOf(inboxKey);
+    }
+
+    /**
+     * Key pattern matching every inbox
      */
-    private String getInboxKey(String userId) {
-        return INBOX_PREFIX + userId;
+    public static String inboxKeyPattern() {
+        return InboxStore.keyPattern();
     }
 }
@@ -0,0 +1,193 @@
+package com.whatsapp.messageprocessor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Push Aggregator
+ *
+ * Collapses the push notifications of an offline recipient per
+ * conversation: a burst of messages into a conversation becomes one
+ * notification ("5 new messages from Alice") instead of one per message.
+ *
+ * Window (per recipient and conversation):
+ * - Opens with the first message and slides with every further one
+ * - Flushed once no message arrived for {@code window-ms}, or
+ *   {@code max-delay-ms} after the first message (a steady stream still
+ *   notifies), or as soon as {@code max-messages} are pending
+ *
+ * Flushed notifications are sent through {@link PushNotificationService}
+ * in multicast batches, with the conversation as collapse key. Messages
+ * are counted once per message ID, so redelivered events do not inflate
+ * the count.
+ *
+ * Metrics:
+ * - push_aggregation_messages_total: messages handed in
+ * - push_aggregation_notifications_total: notifications sent
+ * - push_aggregation_pending: open windows
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+public class PushAggregator {
+
+    private final PushNotificationService pushNotificationService;
+    private final long windowMs;
+    private final long maxDelayMs;
+    private final int maxMessages;
+    private final int batchSize;
+
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+
+    private final Counter messagesIn;
+    private final Counter notificationsOut;
+
+    public PushAggregator(PushNotificationService pushNotificationService,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.push-aggregation.window-ms:3000}") long windowMs,
+                          @Value("${app.push-aggregation.max-delay-ms:15000}") long maxDelayMs,
+                          @Value("${app.push-aggregation.max-messages:20}") int maxMessages,
+                          @Value("${app.push-aggregation.batch-size:500}") int batchSize) {
+        this.pushNotificationService = pushNotificationService;
+        this.windowMs = windowMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxMessages = maxMessages;
+        this.batchSize = batchSize;
+        this.messagesIn = Counter.builder("push_aggregation_messages_total")
+                .description("Messages handed to the push aggregation window")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.notificationsOut = Counter.builder("push_aggregation_notifications_total")
+                .description("Aggregated push notifications sent")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        Gauge.builder("push_aggregation_pending", windows, Map::size)
+                .description("Open push aggregation windows")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+    }
+
+    // ---------------------------------------------------------------
+    // Aggregation
+    // ---------------------------------------------------------------
+
+    /**
+     * Add a message to the recipient's window of its conversation
+     *
+     * @param sender  Display name of the sender (or their ID)
+     * @param preview Truncated content of the message
+     */
+    public void add(String recipientId, String conversationId, String messageId, String sender, String preview) {
+        long now = System.currentTimeMillis();
+        windows.compute(new WindowKey(recipientId, conversationId), (key, window) ->
+                (window != null ? window : new Window(now)).add(messageId, sender, preview, now));
+        messagesIn.increment();
+    }
+
+    // ---------------------------------------------------------------
+    // Flushing
+    // ---------------------------------------------------------------
+
+    /**
+     * Send the notifications of all windows that are due
+     */
+    @Scheduled(fixedDelayString = "${app.push-aggregation.flush-interval-ms:250}")
+    public void flushDue() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Sending {} pending aggregated pushes before shutdown", windows.size());
+        flush(true);
+    }
+
+    private void flush(boolean all) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<AggregatedPush> due = new ArrayList<>();
+        for (Map.Entry<WindowKey, Window> entry : windows.entrySet()) {
+            WindowKey key = entry.getKey();
+            Window window = entry.getValue();
+            // Only remove the window we looked at: a concurrent add keeps it open
+            if ((all || isDue(window, now)) && windows.remove(key, window)) {
+                due.add(window.toPush(key));
+            }
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<AggregatedPush> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            pushNotificationService.sendMulticast(batch);
+            notificationsOut.increment(batch.size());
+        }
+        if (!due.isEmpty()) {
+            log.debug("Flushed {} aggregated pushes", due.size());
+        }
+    }
+
+    private boolean isDue(Window window, long now) {
+        return now - window.lastAt >= windowMs
+                || now - window.firstAt >= maxDelayMs
+                || window.messageIds.size() >= maxMessages;
+    }
+
+    // ---------------------------------------------------------------
+    // Windows
+    // ---------------------------------------------------------------
+
+    private record WindowKey(String recipientId, String conversationId) {
+    }
+
+    /**
+     * Messages pending for one recipient and conversation (only touched
+     * inside {@code compute}, or after being removed from the map)
+     */
+    private static final class Window {
+        private final long firstAt;
+        private long lastAt;
+        private final Set<String> messageIds = new LinkedHashSet<>();
+        private final Set<String> senders = new LinkedHashSet<>();
+        private String lastPreview;
+
+        Window(long firstAt) {
+            this.firstAt = firstAt;
+            this.lastAt = firstAt;
+        }
+
+        Window add(String messageId, String sender, String preview, long now) {
+            if (messageIds.add(messageId)) {
+                senders.add(sender);
+                lastPreview = preview;
+                lastAt = now;
+            }
+            return this;
+        }
+
+        AggregatedPush toPush(WindowKey key) {
+            Instant last = Instant.ofEpochMilli(lastAt);
+            if (messageIds.size() == 1) {
+                return AggregatedPush.single(key.recipientId(), key.conversationId(),
+                        senders.iterator().next(), lastPreview, last);
+            }
+            return AggregatedPush.summary(key.recipientId(), key.conversationId(),
+                    messageIds.size(), senders, lastPreview, last);
+        }
+    }
+}
@@ -4,6 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Push Notification Service
  *
@@ -15,7 +19,8 @@ import org.springframework.stereotype.Service;
  * - Web Push API for web browsers
  *
  * Notification Types:
- * - New message notification
+ * - New message notification (aggregated per conversation by
+ *   {@link PushAggregator}, sent in multicast batches)
  * - Typing indicator (optional)
  * - Call notification (optional)
  *
@@ -96,29 +101,52 @@ public class PushNotificationService {
     }
 
     /**
-     * Send bulk notifications (batch processing)
+     * Send a batch of aggregated message notifications in one multicast
      *
-     * @param userIds List of user IDs
-     * @param senderId Sender user ID
-     * @param messagePreview Message preview
+     * Each notification carries the conversation as collapse key, so the
+     * device only keeps the latest one per conversation.
+     *
+     * @param pushes Notifications of one batch (up to the provider's batch limit)
      */
-    public void sendBulkNotifications(Iterable<String> userIds, String senderId, String messagePreview) {
-        log.info("Sending bulk push notifications from sender: {}", senderId);
+    public void sendMulticast(List<AggregatedPush> pushes) {
+        if (pushes.isEmpty()) {
+            return;
+        }
+        log.info("Sending multicast of {} push notifications", pushes.size());
 
         try {
-            // TODO: Implement bulk notification logic
-            // Most push services support batch sending for efficiency
+            // TODO: Implement actual multicast logic
+            // Example with FCM:
+            // fcmService.sendEach(pushes.stream().map(this::createFcmMessage).toList());
 
-            int count = 0;
-            for (String userId : userIds) {
-                sendMessageNotification(userId, senderId, messagePreview);
-                count++;
+            for (AggregatedPush push : pushes) {
+                log.debug("Push notification queued: user={}, collapseKey={}, messages={}, title={}",
+                        push.getRecipientId(), push.getCollapseKey(), push.getMessageCount(), push.getTitle());
             }
 
-            log.info("Bulk push notifications sent: {} recipients", count);
+            log.info("Multicast sent: {} push notifications", pushes.size());
 
         } catch (Exception e) {
-            log.error("Failed to send bulk notifications from sender: {}", senderId, e);
+            log.error("Failed to send multicast of {} push notifications", pushes.size(), e);
+            // Don't throw exception - notification failure shouldn't break message flow
+        }
+    }
+
+    /**
+     * Send bulk notifications (batch processing)
+     *
+     * @param userIds List of user IDs
+     * @param senderId Sender user ID
+     * @param messagePreview Message preview
+     */
+    public void sendBulkNotifications(Iterable<String> userIds, String senderId, String messagePreview) {
+        log.info("Sending bulk push notifications from sender: {}", senderId);
+
+        List<AggregatedPush> pushes = new ArrayList<>();
+        Instant now = Instant.now();
+        for (String userId : userIds) {
+            pushes.add(AggregatedPush.single(userId, null, senderId, messagePreview, now));
         }
+        sendMulticast(pushes);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.whatsapp.messageprocessor.service;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Status Transition
+ *
+ * Receipt-driven move of a message's status (DELIVERED and/or READ),
+ * buffered and written in bulk by {@link StatusWriteBehind}.
+ *
+ * Transitions of the same message merge: READ supersedes DELIVERED and
+ * both timestamps are kept (the earliest of each), so the merge order
+ * does not matter.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+public class StatusTransition {
+
+    public static final String DELIVERED = "DELIVERED";
+    public static final String READ = "READ";
+
+    private final String messageId;
+    private final Instant deliveredAt;
+    private final Instant readAt;
+    /** Receipts merged into this transition */
+    private final int receipts;
+
+    private StatusTransition(String messageId, Instant deliveredAt, Instant readAt, int receipts) {
+        this.messageId = messageId;
+        this.deliveredAt = deliveredAt;
+        this.readAt = readAt;
+        this.receipts = receipts;
+    }
+
+    public static StatusTransition delivered(String messageId, Instant at) {
+        return new StatusTransition(messageId, at, null, 1);
+    }
+
+    public static StatusTransition read(String messageId, Instant at) {
+        return new StatusTransition(messageId, null, at, 1);
+    }
+
+    /**
+     * Combine with a later or earlier transition of the same message
+     */
+    public StatusTransition merge(StatusTransition other) {
+        return new StatusTransition(messageId,
+                earliest(deliveredAt, other.deliveredAt),
+                earliest(readAt, other.readAt),
+                receipts + other.receipts);
+    }
+
+    public boolean isRead() {
+        return readAt != null;
+    }
+
+    public String getStatus() {
+        return isRead() ? READ : DELIVERED;
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,401 @@
+package com.whatsapp.messageprocessor.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.whatsapp.common.counter.MessageCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Status Write-Behind
+ *
+ * Buffers DELIVERED/READ transitions per message and writes them to
+ * MongoDB in bulk. A message delivered and read within the same window
+ * costs one update instead of two.
+ *
+ * Flow (every flush interval):
+ * 1. Drain the buffered transitions (one merged entry per message)
+ * 2. Move messages still SENT one by one, guarded by status SENT, and
+ *    decrement their receivers' undelivered counters by what was moved
+ * 3. Write the rest (mirrors of the chat service's own writes) in one
+ *    unordered bulk write
+ * 4. Settle the receipts merged into each entry: written or failed
+ *
+ * Monotonic status:
+ * - In the buffer, READ supersedes DELIVERED (both timestamps kept)
+ * - In MongoDB, DELIVERED only matches a SENT message and READ anything
+ *   but a READ one, so late or replayed receipts never move a message back
+ *
+ * Counters: a message leaves SENT exactly once, by whichever writer's
+ * guarded update matched it, and only that writer decrements
+ * "counter:undelivered:{receiverId}" ({@link MessageCounters}). Status only
+ * moves forward, so a message that is not SENT at the pre-read can not be
+ * SENT at the bulk write.
+ *
+ * Receipts are settled only after their write ({@link Settlement}): the
+ * consumer keeps a receipt unacknowledged until then, acks it once
+ * written and hands it to the retry tiers if the write failed. A crash
+ * before the flush leaves it on the broker, which redelivers it (writes
+ * are idempotent). A full buffer rejects new receipts so the consumer can
+ * retry them.
+ *
+ * Metrics:
+ * - status_write_behind_saved_total: receipts absorbed by merging
+ * - status_write_behind_written_total: message updates that changed a document
+ * - status_write_behind_flush_duration: time per flush (bulk write)
+ * - status_write_behind_lag: age of the oldest entry when it got written
+ * - status_write_behind_pending: messages waiting for the next flush
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+public class StatusWriteBehind {
+
+    private static final String COLLECTION = "messages";
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageCounters messageCounters;
+    private final int maxPending;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    /** Arrival of the oldest buffered entry (epoch millis, 0 when empty) */
+    private volatile long oldestPendingAt;
+
+    private final Counter saved;
+    private final Counter written;
+    private final Timer flushDuration;
+    private final Timer lag;
+
+    public StatusWriteBehind(MongoTemplate mongoTemplate,
+                             MessageCounters messageCounters,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.status-write-behind.max-pending:100000}") int maxPending) {
+        this.mongoTemplate = mongoTemplate;
+        this.messageCounters = messageCounters;
+        this.maxPending = maxPending;
+        this.saved = Counter.builder("status_write_behind_saved_total")
+                .description("Status receipts merged into another pending write")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.written = Counter.builder("status_write_behind_written_total")
+                .description("Message status updates that changed a document in MongoDB")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.flushDuration = Timer.builder("status_write_behind_flush_duration")
+                .description("Time to write one batch of buffered status transitions")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        this.lag = Timer.builder("status_write_behind_lag")
+                .description("Age of the oldest buffered status transition when written")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+        Gauge.builder("status_write_behind_pending", pending, Map::size)
+                .description("Messages with a status write waiting for the next flush")
+                .tag("service", "message-processor")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Settles a receipt once the write of its transition was attempted
+     */
+    @FunctionalInterface
+    public interface Settlement {
+
+        /**
+         * @param written whether the write reached MongoDB (if not, the receipt must be retried)
+         */
+        void settle(boolean written);
+    }
+
+    // ---------------------------------------------------------------
+    // Buffering
+    // ---------------------------------------------------------------
+
+    /**
+     * Buffer a transition nobody waits for
+     *
+     * @return false if the buffer is full
+     */
+    public boolean submit(StatusTransition transition) {
+        return submit(transition, written -> { });
+    }
+
+    /**
+     * Buffer a transition, merged with any pending one of the same message
+     *
+     * @param settlement called after the flush that writes it
+     * @return false if the buffer is full (the receipt should be retried)
+     */
+    public boolean submit(StatusTransition transition, Settlement settlement) {
+        String messageId = transition.getMessageId();
+        if (pending.size() >= maxPending && !pending.containsKey(messageId)) {
+            return false;
+        }
+        if (pending.isEmpty()) {
+            oldestPendingAt = System.currentTimeMillis();
+        }
+        Pending entry = new Pending(transition, List.of(settlement));
+        if (pending.merge(messageId, entry, Pending::merge) != entry) {
+            saved.increment();
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------
+    // Flushing
+    // ---------------------------------------------------------------
+
+    /**
+     * Write all buffered transitions
+     */
+    @Scheduled(fixedDelayString = "${app.status-write-behind.flush-interval-ms:250}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long oldest = oldestPendingAt;
+        oldestPendingAt = System.currentTimeMillis();
+
+        List<Pending> drained = new ArrayList<>(pending.size());
+        for (String messageId : pending.keySet()) {
+            Pending entry = pending.remove(messageId);
+            if (entry != null) {
+                drained.add(entry);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<StatusTransition> batch = drained.stream().map(Pending::transition).toList();
+        WriteResult result = flushDuration.record(() -> write(batch));
+        if (oldest > 0) {
+            lag.record(Duration.ofMillis(System.currentTimeMillis() - oldest));
+        }
+        written.increment(result.modified());
+
+        for (int i = 0; i < drained.size(); i++) {
+            settle(drained.get(i), !result.failed().contains(i));
+        }
+        if (!result.failed().isEmpty()) {
+            log.warn("{} of {} status writes failed, their receipts are retried",
+                    result.failed().size(), batch.size());
+        }
+        log.debug("Flushed {} status writes ({} changed)", batch.size(), result.modified());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Writing buffered status transitions before shutdown");
+        flush();
+    }
+
+    private void settle(Pending entry, boolean written) {
+        for (Settlement settlement : entry.settlements()) {
+            try {
+                settlement.settle(written);
+            } catch (Exception e) {
+                log.error("Failed to settle a receipt of message {}: {}",
+                        entry.transition().getMessageId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Guarded single updates of the still-SENT messages, then one unordered
+     * bulk write of the rest
+     *
+     * @return indexes of the transitions that failed (all of them if the
+     *         write as a whole failed) and the number of documents changed
+     */
+    private WriteResult write(List<StatusTransition> batch) {
+        Set<Integer> failed = new HashSet<>();
+        Map<String, Document> sent;
+        try {
+            sent = findSent(batch);
+        } catch (Exception e) {
+            log.error("Error reading status of {} messages", batch.size(), e);
+            return new WriteResult(allIndexes(batch), 0);
+        }
+
+        long modified = 0;
+        Map<String, Long> undelivered = new HashMap<>();
+        List<Integer> mirrors = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            StatusTransition transition = batch.get(i);
+            Document message = sent.get(transition.getMessageId());
+            if (message == null) {
+                mirrors.add(i);
+                continue;
+            }
+            try {
+                UpdateResult result = mongoTemplate.updateFirst(sentQuery(transition),
+                        transitionUpdate(transition), COLLECTION);
+                if (result.getModifiedCount() == 0) {
+                    // Moved on by the chat service since the pre-read
+                    mirrors.add(i);
+                    continue;
+                }
+                modified++;
+                if (message.getString("receiverId") != null) {
+                    undelivered.merge(MessageCounters.undeliveredKey(message.getString("receiverId")),
+                            -1L, Long::sum);
+                }
+            } catch (Exception e) {
+                log.error("Error moving message {} out of SENT", transition.getMessageId(), e);
+                failed.add(i);
+            }
+        }
+        adjustCounters(undelivered);
+
+        if (!mirrors.isEmpty()) {
+            WriteResult mirrored = writeMirrors(batch, mirrors);
+            failed.addAll(mirrored.failed());
+            modified += mirrored.modified();
+        }
+        return new WriteResult(failed, modified);
+    }
+
+    /**
+     * One unordered bulk write of transitions whose message had already
+     * left SENT (no counter changes)
+     *
+     * @return batch indexes of the transitions that failed, documents changed
+     */
+    private WriteResult writeMirrors(List<StatusTransition> batch, List<Integer> indexes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        for (int index : indexes) {
+            StatusTransition transition = batch.get(index);
+            bulk.updateOne(transitionQuery(transition), transitionUpdate(transition));
+        }
+
+        try {
+            BulkWriteResult result = bulk.execute();
+            log.debug("Applied {} status transitions ({} modified)", indexes.size(), result.getModifiedCount());
+            return new WriteResult(Set.of(), result.getModifiedCount());
+
+        } catch (BulkOperationException e) {
+            return new WriteResult(e.getErrors().stream()
+                    .map(error -> indexes.get(error.getIndex()))
+                    .collect(Collectors.toCollection(HashSet::new)), e.getResult().getModifiedCount());
+
+        } catch (Exception e) {
+            log.error("Error applying {} status transitions", indexes.size(), e);
+            return new WriteResult(new HashSet<>(indexes), 0);
+        }
+    }
+
+    /**
+     * Messages of the batch still SENT and not deleted (those counted as
+     * undelivered), by ID
+     */
+    private Map<String, Document> findSent(List<StatusTransition> batch) {
+        List<String> ids = batch.stream().map(StatusTransition::getMessageId).toList();
+        Query query = new Query(Criteria.where("_id").in(ids)
+                .and("status").is("SENT")
+                .and("deleted").ne(true));
+        query.fields().include("receiverId");
+
+        Map<String, Document> sent = new HashMap<>();
+        for (Document message : mongoTemplate.find(query, Document.class, COLLECTION)) {
+            sent.put(String.valueOf(message.get("_id")), message);
+        }
+        return sent;
+    }
+
+    private void adjustCounters(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            messageCounters.adjustAll(deltas);
+        } catch (Exception e) {
+            // Repaired by the chat service's counter reconciler
+            log.error("Failed to adjust {} undelivered counters: {}", deltas.size(), e.getMessage(), e);
+        }
+    }
+
+    private static Set<Integer> allIndexes(List<StatusTransition> batch) {
+        Set<Integer> all = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            all.add(i);
+        }
+        return all;
+    }
+
+    /**
+     * Matches the message only while the transition moves it forward
+     * (DELIVERED from SENT, READ from anything but READ)
+     */
+    private Query transitionQuery(StatusTransition transition) {
+        Criteria criteria = Criteria.where("_id").is(transition.getMessageId());
+        return new Query(transition.isRead()
+                ? criteria.and("status").ne(StatusTransition.READ)
+                : criteria.and("status").is("SENT"));
+    }
+
+    /**
+     * Matches the message only while it is SENT (the transition decides
+     * whether it becomes DELIVERED or READ)
+     */
+    private Query sentQuery(StatusTransition transition) {
+        return new Query(Criteria.where("_id").is(transition.getMessageId()).and("status").is("SENT"));
+    }
+
+    private Update transitionUpdate(StatusTransition transition) {
+        Update update = new Update()
+                .set("status", transition.getStatus())
+                .set("updatedAt", Instant.now());
+        if (transition.isRead()) {
+            update.set("readAt", transition.getReadAt());
+            // A read message was delivered by then at the latest
+            update.min("deliveredAt", transition.getDeliveredAt() != null
+                    ? transition.getDeliveredAt() : transition.getReadAt());
+        } else {
+            update.set("deliveredAt", transition.getDeliveredAt());
+        }
+        return update;
+    }
+
+    /**
+     * A buffered transition and the receipts waiting for its write
+     */
+    private record Pending(StatusTransition transition, List<Settlement> settlements) {
+
+        Pending merge(Pending other) {
+            List<Settlement> all = new ArrayList<>(settlements.size() + other.settlements.size());
+            all.addAll(settlements);
+            all.addAll(other.settlements);
+            return new Pending(transition.merge(other.transition), all);
+        }
+    }
+
+    private record WriteResult(Set<Integer> failed, long modified) {
+    }
+}
@@ -1,22 +1,29 @@
 package com.whatsapp.messageprocessor.service;
 
+import com.whatsapp.common.presence.PresenceNearCache;
+import com.whatsapp.common.presence.PresenceRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
 
 /**
  * User Status Service
  *
- * Manages user online/offline status using Redis.
+ * Reads user online/offline status from the shared heartbeat store
+ * ({@link PresenceRegistry}) written by the chat service.
  * Used to determine if users are online for message delivery.
  *
  * Status Tracking:
- * - Users marked as online when they connect (WebSocket/HTTP)
- * - Users marked as offline when they disconnect
- * - TTL of 5 minutes (auto-expire if no heartbeat)
+ * - Chat nodes heartbeat their connected users in batches
+ * - Users are removed on disconnect, or expire once their heartbeat
+ *   is older than the TTL
+ *
+ * Reads go through a node-local {@link PresenceNearCache}: answers are
+ * at most {@code app.presence.near-cache.ttl-ms} old and dropped as soon
+ * as a presence change is announced.
  *
  * @author WhatsApp Clone Team
  */
@@ -25,10 +32,8 @@ import java.time.Duration;
 @RequiredArgsConstructor
 public class UserStatusService {
 
-    private static final String ONLINE_USERS_PREFIX = "user:online:";
-    private static final Duration ONLINE_TTL = Duration.ofMinutes(5);
-
-    private final RedisTemplate<String, String> redisTemplate;
+    private final PresenceRegistry presenceRegistry;
+    private final PresenceNearCache presenceNearCache;
 
     /**
      * Check if user is online
@@ -38,12 +43,11 @@ public class UserStatusService {
      */
     public boolean isUserOnline(String userId) {
         try {
-            String key = getOnlineKey(userId);
-            Boolean exists = redisTemplate.hasKey(key);
+            boolean online = presenceNearCache.isOnline(userId);
 
-            log.debug("User online status: {} -> {}", userId, exists);
+            log.debug("User online status: {} -> {}", userId, online);
 
-            return Boolean.TRUE.equals(exists);
+            return online;
 
         } catch (Exception e) {
             log.error("Error checking user online status: {}", userId, e);
@@ -58,8 +62,7 @@ public class UserStatusService {
      */
     public void markUserOnline(String userId) {
         try {
-            String key = getOnlineKey(userId);
-            redisTemplate.opsForValue().set(key, "1", ONLINE_TTL);
+            presenceRegistry.heartbeat(userId);
 
             log.debug("User marked as online: {}", userId);
 
@@ -75,8 +78,7 @@ public class UserStatusService {
      */
     public void markUserOffline(String userId) {
         try {
-            String key = getOnlineKey(userId);
-            redisTemplate.delete(key);
+            presenceRegistry.markOffline(userId);
 
             log.debug("User marked as offline: {}", userId);
 
@@ -92,8 +94,7 @@ public class UserStatusService {
      */
     public void refreshOnlineStatus(String userId) {
         try {
-            String key = getOnlineKey(userId);
-            redisTemplate.expire(key, ONLINE_TTL);
+            presenceRegistry.heartbeat(userId);
 
             log.trace("User online status refreshed: {}", userId);
 
@@ -103,9 +104,18 @@ public class UserStatusService {
     }
 
     /**
-     * Get online key for user
+     * Check which of the given users are online (one pipelined round trip)
+     *
+     * @param userIds User IDs
+     * @return the online subset, empty on error
      */
-    private String getOnlineKey(String userId) {
-        return ONLINE_USERS_PREFIX + userId;
+    public Set<String> getOnlineUsers(Collection<String> userIds) {
+        try {
+            return presenceNearCache.areOnline(userIds);
+
+        } catch (Exception e) {
+            log.error("Error checking online status of {} users", userIds.size(), e);
+            return Set.of();
+        }
     }
 }
@@ -0,0 +1,148 @@
+package com.whatsapp.messageprocessor.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.messageprocessor.processor.MessageDeliveryProcessor;
+import com.whatsapp.messageprocessor.service.DeliveryTrackingService;
+import com.whatsapp.messageprocessor.service.StatusWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Receipt handling of {@link DeliveryConsumer}.
+ */
+class DeliveryConsumerTest {
+
+    private static final String QUEUE = "message-processor.receipts";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private DeliveryTrackingService trackingService;
+    private MessageDeliveryProcessor deliveryProcessor;
+    private EventRetrier eventRetrier;
+    private DeliveryConsumer consumer;
+    private final List<StatusWriteBehind.Settlement> settlements = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        trackingService = mock(DeliveryTrackingService.class);
+        deliveryProcessor = mock(MessageDeliveryProcessor.class);
+        eventRetrier = mock(EventRetrier.class);
+        when(trackingService.markAsDelivered(anyString(), any(), any())).thenAnswer(this::buffer);
+        when(trackingService.markAsRead(anyString(), any(), any())).thenAnswer(this::buffer);
+        consumer = new DeliveryConsumer(trackingService, deliveryProcessor, eventRetrier,
+                objectMapper, new SimpleMeterRegistry(), QUEUE);
+    }
+
+    @Test
+    void oneToOneReceiptsMoveTheMessageStatus() throws Exception {
+        consumer.handleReceipts(List.of(
+                receipt(EventTopology.MESSAGE_DELIVERED, "m1", "bob", null),
+                receipt(EventTopology.MESSAGE_READ, "m2", "bob", null)), mock(Channel.class));
+
+        verify(trackingService).markAsDelivered(eq("m1"), any(), any());
+        verify(trackingService).markAsRead(eq("m2"), any(), any());
+        verify(deliveryProcessor).handleMessageDelivered("m1", "bob");
+        verify(deliveryProcessor).handleMessageRead("m2", "bob");
+    }
+
+    @Test
+    void sharedReceiptsOnlyClearTheRecipientsInbox() throws Exception {
+        consumer.handleReceipts(List.of(
+                receipt(EventTopology.MESSAGE_DELIVERED, "g1", null, "bob"),
+                receipt(EventTopology.MESSAGE_READ, "g1", null, "carol")), mock(Channel.class));
+
+        verify(trackingService, never()).markAsDelivered(anyString(), any(), any());
+        verify(trackingService, never()).markAsRead(anyString(), any(), any());
+        verify(deliveryProcessor).handleMessageDelivered("g1", "bob");
+        verify(deliveryProcessor).handleMessageRead("g1", "carol");
+    }
+
+    @Test
+    void statusReceiptsStayUnackedUntilTheirWrite() throws Exception {
+        Channel channel = mock(Channel.class);
+        Message shared = receipt(EventTopology.MESSAGE_DELIVERED, "g1", null, "bob", 1);
+        Message delivered = receipt(EventTopology.MESSAGE_DELIVERED, "m1", "bob", null, 2);
+        Message read = receipt(EventTopology.MESSAGE_READ, "m2", "bob", null, 3);
+
+        consumer.handleReceipts(List.of(shared, delivered, read), channel);
+
+        verify(channel).basicAck(1, false);
+        verify(channel, never()).basicAck(2, false);
+        verify(channel, never()).basicAck(3, false);
+
+        settlements.get(0).settle(true);
+        settlements.get(1).settle(false);
+
+        verify(channel).basicAck(2, false);
+        verify(eventRetrier).settle(QUEUE, read, EventDispatcher.Outcome.RETRY);
+        verify(channel).basicAck(3, false);
+    }
+
+    @Test
+    void receiptsTheBufferRejectsAreRetriedAtOnce() throws Exception {
+        when(trackingService.markAsDelivered(anyString(), any(), any())).thenReturn(false);
+        Channel channel = mock(Channel.class);
+        Message delivered = receipt(EventTopology.MESSAGE_DELIVERED, "m1", "bob", null, 7);
+
+        consumer.handleReceipts(List.of(delivered), channel);
+
+        verify(eventRetrier).settle(QUEUE, delivered, EventDispatcher.Outcome.RETRY);
+        verify(channel).basicAck(7, false);
+    }
+
+    @Test
+    void failedRetryPublishRequeuesTheReceipt() throws Exception {
+        when(eventRetrier.settle(eq(QUEUE), any(), eq(EventDispatcher.Outcome.RETRY)))
+                .thenThrow(new AmqpException("broker unreachable"));
+        Channel channel = mock(Channel.class);
+
+        consumer.handleReceipts(List.of(receipt(EventTopology.MESSAGE_DELIVERED, "m1", "bob", null, 9)), channel);
+        settlements.get(0).settle(false);
+
+        verify(channel).basicNack(9, false, true);
+        verify(channel, never()).basicAck(9, false);
+    }
+
+    private boolean buffer(InvocationOnMock invocation) {
+        settlements.add(invocation.getArgument(2));
+        return true;
+    }
+
+    private Message receipt(String type, String messageId, String receiverId, String recipientId) throws Exception {
+        return receipt(type, messageId, receiverId, recipientId, 0);
+    }
+
+    private Message receipt(String type, String messageId, String receiverId, String recipientId,
+                            long deliveryTag) throws Exception {
+        MessageEvent event = new MessageEvent();
+        event.setEventType(type);
+        event.setMessageId(messageId);
+        event.setConversationId("c1");
+        event.setReceiverId(receiverId);
+        event.setRecipientId(recipientId);
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(objectMapper.writeValueAsBytes(event), properties);
+    }
+}
@@ -0,0 +1,253 @@
+package com.whatsapp.messageprocessor.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.rabbitmq.client.Channel;
+import com.whatsapp.common.counter.MessageCounters;
+import com.whatsapp.common.inbox.InboxStore;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.common.messaging.RetryTopology;
+import com.whatsapp.messageprocessor.config.RabbitMQConfig;
+import com.whatsapp.messageprocessor.processor.MessageDeliveryProcessor;
+import com.whatsapp.messageprocessor.service.DeliveryTrackingService;
+import com.whatsapp.messageprocessor.service.InboxCacheService;
+import com.whatsapp.messageprocessor.service.PushAggregator;
+import com.whatsapp.messageprocessor.service.StatusWriteBehind;
+import com.whatsapp.messageprocessor.service.UserStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Receipt throughput of the {@link DeliveryConsumer} batch path against
+ * real RabbitMQ, MongoDB and Redis containers (target: 50k events/s).
+ *
+ * Seeds {@code -Devents} SENT messages, queues one MESSAGE_DELIVERED
+ * receipt per message, then starts the consumer on the production batch
+ * listener factory ({@link RabbitMQConfig}, default settings) with the
+ * status write-behind flushed every 250 ms, and reports:
+ * - consumed: receipts handled by the listener per second
+ * - written:  receipts visible as DELIVERED in MongoDB per second
+ *
+ * The queue is filled before the consumer starts, so the numbers are the
+ * drain rate of one service instance, not the publish rate.
+ *
+ * Run (Docker required):
+ *   mvn -pl message-processor test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.whatsapp.messageprocessor.consumer.DeliveryConsumerThroughputBenchmark
+ *       -Devents=500000
+ *
+ * @author WhatsApp Clone Team
+ */
+public class DeliveryConsumerThroughputBenchmark {
+
+    private static final String QUEUE = "message-processor.receipts";
+    private static final List<Duration> RETRY_TIERS = List.of(Duration.ofSeconds(1), Duration.ofSeconds(10));
+    private static final int USERS = 10_000;
+    private static final int SEED_CHUNK = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int events = Integer.getInteger("events", 500_000);
+
+        try (GenericContainer<?> rabbit = new GenericContainer<>("rabbitmq:3.13-alpine")
+                     .withExposedPorts(5672)
+                     .waitingFor(Wait.forLogMessage(".*Server startup complete.*", 1));
+             MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+             GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379)) {
+            rabbit.start();
+            mongo.start();
+            redis.start();
+            run(events, rabbit, mongo, redis);
+        }
+    }
+
+    private static void run(int events, GenericContainer<?> rabbit, MongoDBContainer mongo,
+                            GenericContainer<?> redis) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CachingConnectionFactory rabbitConnections = new CachingConnectionFactory(rabbit.getHost(),
+                rabbit.getFirstMappedPort());
+        rabbitConnections.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        rabbitConnections.setPublisherReturns(true);
+        LettuceConnectionFactory redisConnections = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getFirstMappedPort()));
+        redisConnections.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnections);
+        MongoClient client = MongoClients.create(mongo.getReplicaSetUrl());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "benchmark");
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+
+        try {
+            RabbitTemplate rabbitTemplate = new RabbitTemplate(rabbitConnections);
+            rabbitTemplate.setMandatory(true);
+            declareTopology(new RabbitAdmin(rabbitConnections));
+            seedMessages(mongoTemplate, events);
+            publishReceipts(rabbitTemplate, objectMapper, events);
+            System.out.printf("Seeded and queued %,d receipts%n", events);
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            StatusWriteBehind writeBehind = new StatusWriteBehind(mongoTemplate, new MessageCounters(redisTemplate),
+                    meterRegistry, 100_000);
+            MessageDeliveryProcessor deliveryProcessor = new MessageDeliveryProcessor(mock(UserStatusService.class),
+                    new InboxCacheService(new InboxStore(redisTemplate, Duration.ofDays(7), 1000)),
+                    mock(PushAggregator.class));
+            DeliveryConsumer consumer = new DeliveryConsumer(new DeliveryTrackingService(mongoTemplate, writeBehind),
+                    deliveryProcessor, new EventRetrier(rabbitTemplate, RETRY_TIERS, meterRegistry, "benchmark"),
+                    objectMapper, meterRegistry, QUEUE);
+
+            AtomicLong consumed = new AtomicLong();
+            SimpleMessageListenerContainer container = listenerContainer(rabbitConnections, consumer, consumed);
+
+            long start = System.nanoTime();
+            container.start();
+            flusher.scheduleWithFixedDelay(writeBehind::flush, 250, 250, TimeUnit.MILLISECONDS);
+
+            long consumedAt = 0;
+            long written = 0;
+            while (written < events) {
+                Thread.sleep(200);
+                if (consumedAt == 0 && consumed.get() >= events) {
+                    consumedAt = System.nanoTime();
+                }
+                written = mongoTemplate.count(new Query(Criteria.where("status").is("DELIVERED")), "messages");
+            }
+            long writtenAt = System.nanoTime();
+            container.stop();
+
+            report("consumed", events, consumedAt == 0 ? writtenAt : consumedAt, start);
+            report("written", events, writtenAt, start);
+            System.out.println(meterRegistry.getMetersAsString());
+        } finally {
+            flusher.shutdownNow();
+            client.close();
+            redisConnections.destroy();
+            rabbitConnections.destroy();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Setup
+    // ---------------------------------------------------------------
+
+    private static void declareTopology(RabbitAdmin admin) {
+        TopicExchange exchange = new TopicExchange(EventTopology.MESSAGE_EXCHANGE);
+        Queue queue = new Queue(QUEUE);
+        admin.declareExchange(exchange);
+        admin.declareQueue(queue);
+        admin.declareBinding(BindingBuilder.bind(queue).to(exchange).with(EventTopology.MESSAGE_DELIVERED_KEY));
+        for (Declarable declarable : RetryTopology.declarables(QUEUE, RETRY_TIERS).getDeclarables()) {
+            if (declarable instanceof Exchange retryExchange) {
+                admin.declareExchange(retryExchange);
+            } else if (declarable instanceof Queue retryQueue) {
+                admin.declareQueue(retryQueue);
+            } else if (declarable instanceof Binding binding) {
+                admin.declareBinding(binding);
+            }
+        }
+    }
+
+    private static void seedMessages(MongoTemplate mongoTemplate, int events) {
+        List<Document> chunk = new ArrayList<>(SEED_CHUNK);
+        for (int i = 0; i < events; i++) {
+            chunk.add(new Document("_id", messageId(i))
+                    .append("conversationId", "c" + (i % USERS))
+                    .append("receiverId", "user-" + (i % USERS))
+                    .append("status", "SENT"));
+            if (chunk.size() == SEED_CHUNK) {
+                mongoTemplate.getCollection("messages").insertMany(chunk);
+                chunk = new ArrayList<>(SEED_CHUNK);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            mongoTemplate.getCollection("messages").insertMany(chunk);
+        }
+    }
+
+    private static void publishReceipts(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper, int events)
+            throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        for (int i = 0; i < events; i++) {
+            MessageEvent event = new MessageEvent();
+            event.setEventType(EventTopology.MESSAGE_DELIVERED);
+            event.setMessageId(messageId(i));
+            event.setConversationId("c" + (i % USERS));
+            event.setReceiverId("user-" + (i % USERS));
+            rabbitTemplate.send(EventTopology.MESSAGE_EXCHANGE, EventTopology.MESSAGE_DELIVERED_KEY,
+                    new Message(objectMapper.writeValueAsBytes(event), properties));
+        }
+    }
+
+    /**
+     * A container from the production batch factory, with its default settings
+     */
+    private static SimpleMessageListenerContainer listenerContainer(CachingConnectionFactory connectionFactory,
+                                                                    DeliveryConsumer consumer, AtomicLong consumed) {
+        RabbitMQConfig config = new RabbitMQConfig();
+        ReflectionTestUtils.setField(config, "batchSize", 500);
+        ReflectionTestUtils.setField(config, "batchReceiveTimeoutMs", 100L);
+        ReflectionTestUtils.setField(config, "batchPrefetch", 5000);
+        ReflectionTestUtils.setField(config, "batchConcurrency", 2);
+        ReflectionTestUtils.setField(config, "batchMaxConcurrency", 4);
+        SimpleRabbitListenerContainerFactory factory = config.batchListenerContainerFactory(connectionFactory);
+
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("receipts-benchmark");
+        endpoint.setQueueNames(QUEUE);
+        endpoint.setMessageListener(new ChannelAwareBatchMessageListener() {
+            @Override
+            public void onMessageBatch(List<Message> messages, Channel channel) {
+                consumer.handleReceipts(messages, channel);
+                consumed.addAndGet(messages.size());
+            }
+        });
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        container.afterPropertiesSet();
+        return container;
+    }
+
+    private static String messageId(int i) {
+        return String.valueOf(1_000_000_000_000_000L + i);
+    }
+
+    private static void report(String what, int events, long endNanos, long startNanos) {
+        double seconds = (endNanos - startNanos) / 1e9;
+        System.out.printf("%-8s %,d receipts in %.2f s = %,.0f events/s%n", what, events, seconds, events / seconds);
+    }
+}
@@ -0,0 +1,149 @@
+package com.whatsapp.messageprocessor.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.common.messaging.PartitionRetrier;
+import com.whatsapp.common.messaging.ProcessedEvents;
+import com.whatsapp.messageprocessor.processor.MessageDeliveryProcessor;
+import com.whatsapp.messageprocessor.service.DeliveryTrackingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Idempotent MESSAGE_SENT handling and in-place retries of {@link MessageConsumer}.
+ */
+class MessageConsumerTest {
+
+    private static final String PARTITION = "message-processor.delivery.p0";
+    private static final String KEY = ProcessedEvents.keyOf(EventTopology.MESSAGE_SENT, "m1");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> processed = new HashSet<>();
+
+    private MessageDeliveryProcessor deliveryProcessor;
+    private DeliveryTrackingService trackingService;
+    private EventRetrier eventRetrier;
+    private ProcessedEvents processedEvents;
+    private MessageConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        deliveryProcessor = mock(MessageDeliveryProcessor.class);
+        trackingService = mock(DeliveryTrackingService.class);
+        eventRetrier = mock(EventRetrier.class);
+        processedEvents = mock(ProcessedEvents.class);
+        when(processedEvents.isProcessed(anyString())).thenAnswer(invocation -> processed.contains(
+                invocation.<String>getArgument(0)));
+        doAnswer(invocation -> processed.add(invocation.getArgument(0)))
+                .when(processedEvents).markProcessed(anyString());
+        consumer = consumer(0);
+    }
+
+    @Test
+    void duplicateEventIsDeliveredOnce() throws Exception {
+        Message original = messageSent("m1");
+        Message retryCopy = messageSent("m1");
+
+        consumer.onEvent(PARTITION, original);
+        consumer.onEvent(PARTITION, retryCopy);
+
+        verify(deliveryProcessor, times(1)).processMessageDelivery("m1", "c1", "alice", null, "bob", "hi");
+        verify(eventRetrier).settle(PARTITION, original, EventDispatcher.Outcome.HANDLED);
+        verify(eventRetrier).settle(PARTITION, retryCopy, EventDispatcher.Outcome.HANDLED);
+    }
+
+    @Test
+    void failedDeliveryIsNotMarkedAndParked() throws Exception {
+        doThrow(new IllegalStateException("redis down"))
+                .when(deliveryProcessor).processMessageDelivery(anyString(), anyString(), anyString(), any(),
+                        anyString(), anyString());
+        Message message = messageSent("m1");
+
+        consumer.onEvent(PARTITION, message);
+
+        verify(processedEvents, never()).markProcessed(KEY);
+        verify(trackingService).incrementDeliveryAttempts("m1");
+        verify(eventRetrier).park(PARTITION, message, EventDispatcher.Outcome.FAILED.name());
+    }
+
+    @Test
+    void failedDeliveryIsRetriedInPlaceBeforeTheNextEvent() throws Exception {
+        consumer = consumer(1);
+        doThrow(new IllegalStateException("redis down")).doNothing()
+                .when(deliveryProcessor).processMessageDelivery(anyString(), anyString(), anyString(), any(),
+                        anyString(), anyString());
+        Message message = messageSent("m1");
+
+        consumer.onEvent(PARTITION, message);
+
+        verify(deliveryProcessor, times(2)).processMessageDelivery("m1", "c1", "alice", null, "bob", "hi");
+        verify(processedEvents).markProcessed(KEY);
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.HANDLED);
+        verify(eventRetrier, never()).park(anyString(), any(), anyString());
+    }
+
+    @Test
+    void redisOutageIsWaitedOutInsteadOfParked() throws Exception {
+        RedisConnectionFailureException down = new RedisConnectionFailureException("redis down");
+        doThrow(down, down, down, down, down).doNothing()
+                .when(deliveryProcessor).processMessageDelivery(anyString(), anyString(), anyString(), any(),
+                        anyString(), anyString());
+        Message message = messageSent("m1");
+
+        consumer.onEvent(PARTITION, message);
+
+        verify(deliveryProcessor, times(6)).processMessageDelivery("m1", "c1", "alice", null, "bob", "hi");
+        verify(processedEvents).markProcessed(KEY);
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.HANDLED);
+        verify(eventRetrier, never()).park(anyString(), any(), anyString());
+    }
+
+    @Test
+    void eventWithoutMessageIdIsInvalid() throws Exception {
+        Message message = messageSent(null);
+
+        consumer.onEvent(PARTITION, message);
+
+        verify(eventRetrier).settle(PARTITION, message, EventDispatcher.Outcome.INVALID);
+        verify(processedEvents, never()).isProcessed(anyString());
+    }
+
+    private MessageConsumer consumer(int failedAttempts) {
+        return new MessageConsumer(deliveryProcessor, trackingService,
+                new PartitionRetrier(eventRetrier, Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMinutes(1),
+                        failedAttempts, new SimpleMeterRegistry(), "test"), processedEvents,
+                objectMapper);
+    }
+
+    private Message messageSent(String messageId) throws Exception {
+        MessageEvent event = new MessageEvent();
+        event.setEventType(EventTopology.MESSAGE_SENT);
+        event.setMessageId(messageId);
+        event.setConversationId("c1");
+        event.setSenderId("alice");
+        event.setReceiverId("bob");
+        event.setContent("hi");
+        return new Message(objectMapper.writeValueAsBytes(event), new MessageProperties());
+    }
+}
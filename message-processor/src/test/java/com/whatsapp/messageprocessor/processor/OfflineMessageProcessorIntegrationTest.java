@@ -0,0 +1,117 @@
+package com.whatsapp.messageprocessor.processor;
+
+import com.whatsapp.common.inbox.InboxStore;
+import com.whatsapp.common.presence.SessionRoutes;
+import com.whatsapp.messageprocessor.service.InboxCacheService;
+import com.whatsapp.messageprocessor.service.PushNotificationService;
+import com.whatsapp.messageprocessor.service.UserStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared scan of {@link OfflineMessageProcessor} replicas against a real Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OfflineMessageProcessorIntegrationTest {
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static final List<String> USERS = IntStream.range(0, 2000).mapToObj(i -> "user-" + i).toList();
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        for (String user : USERS) {
+            redisTemplate.opsForZSet().add(InboxStore.userKey(user), "m-" + user, 1);
+        }
+        redisTemplate.opsForValue().set("presence:other", "not an inbox");
+    }
+
+    @Test
+    void replicasSplitOnePassWithoutOverlap() {
+        List<String> seenByA = new ArrayList<>();
+        List<String> seenByB = new ArrayList<>();
+        OfflineMessageProcessor replicaA = replica(seenByA, 0);
+        OfflineMessageProcessor replicaB = replica(seenByB, 0);
+
+        boolean passCompleted = false;
+        for (int step = 0; step < 10_000 && !passCompleted; step++) {
+            passCompleted = (step % 2 == 0 ? replicaA : replicaB).sweep().isPassCompleted();
+        }
+
+        assertThat(passCompleted).isTrue();
+        assertThat(seenByA).isNotEmpty();
+        assertThat(seenByB).isNotEmpty();
+        List<String> seen = new ArrayList<>(seenByA);
+        seen.addAll(seenByB);
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(USERS);
+    }
+
+    @Test
+    void sweepsCutShortByTheBudgetContinueWhereTheyStopped() {
+        List<String> seen = new ArrayList<>();
+        OfflineMessageProcessor replica = replica(seen, 0);
+
+        replica.sweep();
+        int afterFirstSweep = seen.size();
+        assertThat(afterFirstSweep).isLessThan(USERS.size());
+        assertThat(redisTemplate.opsForValue().get(OfflineMessageProcessor.CURSOR_KEY)).isNotEqualTo("0");
+
+        while (!replica.sweep().isPassCompleted()) {
+            assertThat(seen.size()).isLessThanOrEqualTo(USERS.size());
+        }
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(USERS);
+    }
+
+    /**
+     * A replica taking one SCAN step per sweep, recording the users it checks
+     */
+    @SuppressWarnings("unchecked")
+    private static OfflineMessageProcessor replica(List<String> seen, long timeBudgetMs) {
+        UserStatusService userStatusService = mock(UserStatusService.class);
+        when(userStatusService.getOnlineUsers(anyCollection())).thenAnswer(invocation -> {
+            seen.addAll((Collection<String>) invocation.getArgument(0));
+            return Set.of();
+        });
+        return new OfflineMessageProcessor(userStatusService, mock(InboxCacheService.class),
+                mock(PushNotificationService.class), mock(SessionRoutes.class), redisTemplate,
+                new SimpleMeterRegistry(), 20, 50, timeBudgetMs);
+    }
+}
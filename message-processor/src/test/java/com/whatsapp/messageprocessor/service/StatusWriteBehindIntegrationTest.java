@@ -0,0 +1,156 @@
+package com.whatsapp.messageprocessor.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.whatsapp.common.counter.MessageCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Status writes and counter updates of {@link StatusWriteBehind} against
+ * a real MongoDB and Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StatusWriteBehindIntegrationTest {
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StatusWriteBehind writeBehind;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "status_test");
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+        client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection("messages");
+        redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new StatusWriteBehind(mongoTemplate, new MessageCounters(redisTemplate), meterRegistry, 1000);
+    }
+
+    @Test
+    void movingSentMessagesDecrementsTheReceiversUndeliveredCounter() {
+        insert("m1", "bob", "SENT");
+        insert("m2", "bob", "SENT");
+        insert("m3", "carol", "SENT");
+        setCounter("bob", 5);
+        setCounter("carol", 1);
+
+        writeBehind.submit(StatusTransition.delivered("m1", Instant.now()));
+        writeBehind.submit(StatusTransition.read("m2", Instant.now()));
+        writeBehind.submit(StatusTransition.delivered("m3", Instant.now()));
+        writeBehind.flush();
+
+        assertThat(status("m1")).isEqualTo("DELIVERED");
+        assertThat(status("m2")).isEqualTo("READ");
+        assertThat(status("m3")).isEqualTo("DELIVERED");
+        assertThat(counter("bob")).isEqualTo("3");
+        assertThat(counter("carol")).isEqualTo("0");
+    }
+
+    @Test
+    void mirrorsOfTheChatServicesWritesLeaveCountersAlone() {
+        insert("m1", "bob", "DELIVERED");
+        insert("m2", "bob", "READ");
+        setCounter("bob", 2);
+
+        writeBehind.submit(StatusTransition.read("m1", Instant.now()));
+        writeBehind.submit(StatusTransition.delivered("m2", Instant.now()));
+        writeBehind.flush();
+
+        assertThat(status("m1")).isEqualTo("READ");
+        assertThat(status("m2")).isEqualTo("READ");
+        assertThat(counter("bob")).isEqualTo("2");
+    }
+
+    @Test
+    void replayedReceiptsDecrementOnlyOnce() {
+        insert("m1", "bob", "SENT");
+        setCounter("bob", 1);
+
+        writeBehind.submit(StatusTransition.delivered("m1", Instant.now()));
+        writeBehind.flush();
+        writeBehind.submit(StatusTransition.delivered("m1", Instant.now()));
+        writeBehind.submit(StatusTransition.read("m1", Instant.now()));
+        writeBehind.flush();
+
+        assertThat(status("m1")).isEqualTo("READ");
+        assertThat(counter("bob")).isEqualTo("0");
+    }
+
+    @Test
+    void receiptsAreSettledAfterTheirWriteAndNoOpsAreNotCountedAsWritten() {
+        insert("m1", "bob", "SENT");
+        insert("m2", "bob", "READ");
+        List<String> settled = new ArrayList<>();
+
+        writeBehind.submit(StatusTransition.delivered("m1", Instant.now()), written -> settled.add("m1:" + written));
+        writeBehind.submit(StatusTransition.read("m1", Instant.now()), written -> settled.add("m1:" + written));
+        writeBehind.submit(StatusTransition.delivered("m2", Instant.now()), written -> settled.add("m2:" + written));
+        assertThat(settled).isEmpty();
+        writeBehind.flush();
+
+        assertThat(settled).containsExactlyInAnyOrder("m1:true", "m1:true", "m2:true");
+        assertThat(meterRegistry.get("status_write_behind_written_total").counter().count()).isEqualTo(1.0);
+    }
+
+    private void insert(String id, String receiverId, String status) {
+        mongoTemplate.insert(new Document("_id", id)
+                .append("conversationId", "c1")
+                .append("receiverId", receiverId)
+                .append("status", status), "messages");
+    }
+
+    private String status(String id) {
+        return mongoTemplate.findById(id, Document.class, "messages").getString("status");
+    }
+
+    private void setCounter(String receiverId, long value) {
+        redisTemplate.opsForValue().set(MessageCounters.undeliveredKey(receiverId), String.valueOf(value));
+    }
+
+    private String counter(String receiverId) {
+        return redisTemplate.opsForValue().get(MessageCounters.undeliveredKey(receiverId));
+    }
+}
@@ -0,0 +1,58 @@
+package com.whatsapp.messageprocessor.service;
+
+import com.whatsapp.common.counter.MessageCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Settlement of receipts by {@link StatusWriteBehind} when MongoDB fails.
+ */
+class StatusWriteBehindTest {
+
+    @Test
+    void failedWritesAreHandedBackInsteadOfRetriedInTheBuffer() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("messages")))
+                .thenThrow(new DataAccessResourceFailureException("primary down"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StatusWriteBehind writeBehind = new StatusWriteBehind(mongoTemplate, mock(MessageCounters.class),
+                meterRegistry, 10);
+        List<Boolean> settled = new ArrayList<>();
+
+        writeBehind.submit(StatusTransition.delivered("m1", Instant.now()), settled::add);
+        writeBehind.submit(StatusTransition.read("m2", Instant.now()), settled::add);
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertThat(settled).containsExactly(false, false);
+        assertThat(meterRegistry.get("status_write_behind_written_total").counter().count()).isZero();
+        assertThat(meterRegistry.get("status_write_behind_pending").gauge().value()).isZero();
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("messages"));
+    }
+
+    @Test
+    void fullBufferRejectsNewMessagesButMergesKnownOnes() {
+        StatusWriteBehind writeBehind = new StatusWriteBehind(mock(MongoTemplate.class), mock(MessageCounters.class),
+                new SimpleMeterRegistry(), 1);
+
+        assertThat(writeBehind.submit(StatusTransition.delivered("m1", Instant.now()), written -> { })).isTrue();
+        assertThat(writeBehind.submit(StatusTransition.read("m1", Instant.now()), written -> { })).isTrue();
+        assertThat(writeBehind.submit(StatusTransition.delivered("m2", Instant.now()), written -> { })).isFalse();
+    }
+}
@@ -14,6 +14,10 @@ import java.util.concurrent.Executor;
  * Configures async execution for notification sending.
  * Allows sending notifications without blocking the main thread.
  *
+ * Each priority lane (NotificationLane) gets its own bounded executor
+ * running its Rabbit consumers, so a backlog of messages or typing events
+ * can never occupy the threads call signaling needs.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -41,4 +45,47 @@ public class AsyncConfig {
 
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Consumer threads of the call lane
+     */
+    @Bean(name = "callLaneExecutor")
+    public ThreadPoolTaskExecutor callLaneExecutor(NotificationProperties properties) {
+        return laneExecutor("lane-call-", properties.getLanes().getCall());
+    }
+
+    /**
+     * Consumer threads of the message lane
+     */
+    @Bean(name = "messageLaneExecutor")
+    public ThreadPoolTaskExecutor messageLaneExecutor(NotificationProperties properties) {
+        return laneExecutor("lane-message-", properties.getLanes().getMessage());
+    }
+
+    /**
+     * Consumer threads of the ephemeral lane
+     */
+    @Bean(name = "ephemeralLaneExecutor")
+    public ThreadPoolTaskExecutor ephemeralLaneExecutor(NotificationProperties properties) {
+        return laneExecutor("lane-ephemeral-", properties.getLanes().getEphemeral());
+    }
+
+    /**
+     * One thread per lane consumer and no task queue: the lane's backlog
+     * stays in its Rabbit queue
+     */
+    private ThreadPoolTaskExecutor laneExecutor(String threadNamePrefix, NotificationProperties.LaneSettings lane) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(lane.getThreads());
+        executor.setMaxPoolSize(lane.getThreads());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+
+        log.info("Lane executor configured: {} threads={}", threadNamePrefix, lane.getThreads());
+
+        return executor;
+    }
+}
@@ -1,6 +1,8 @@
 package com.whatsapp.notification.config;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,6 +22,7 @@ public class NotificationProperties {
     private MessageSettings message = new MessageSettings();
     private TypingSettings typing = new TypingSettings();
     private SystemSettings system = new SystemSettings();
+    private LanesSettings lanes = new LanesSettings();
 
     @Data
     public static class DefaultSettings {
@@ -48,4 +51,32 @@ public class NotificationProperties {
         private String priority = "NORMAL";
         private String sound = "default";
     }
-}
\ No newline at end of file
+
+    /**
+     * Priority lanes (see NotificationLane): call signaling, messages
+     * and ephemeral events each get their own consumers, rate limit and
+     * latency SLO
+     */
+    @Data
+    public static class LanesSettings {
+        private LaneSettings call = new LaneSettings(4, 0, 1000L);
+        private LaneSettings message = new LaneSettings(8, 500, 5000L);
+        private LaneSettings ephemeral = new LaneSettings(2, 100, 2000L);
+        /** Longest a message send stays paused while call notifications are in flight */
+        private Long callPreemptMaxMs = 5000L;
+        /** Typing events kept queued at most (oldest dropped first) */
+        private Integer ephemeralMaxQueued = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LaneSettings {
+        /** Dedicated consumer threads */
+        private Integer threads;
+        /** Sends per second (0 = unlimited); ignored by the call lane, which is never limited */
+        private Integer ratePerSecond;
+        /** Latency objective from event to push, in milliseconds */
+        private Long sloMs;
+    }
+}
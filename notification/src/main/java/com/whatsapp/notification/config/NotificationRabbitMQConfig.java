@@ -1,48 +1,200 @@
 package com.whatsapp.notification.config;
 
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.ParkingLot;
+import com.whatsapp.common.messaging.RetryTopology;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * RabbitMQ Configuration for Notification Service
  *
  * Configures message consumers for notification events.
  *
+ * Queues (owned by this service), one per priority lane:
+ * - notification.call-ring: incoming calls (call.ring on
+ *   {@value EventTopology#CALL_EXCHANGE}); rings expire after
+ *   {@code call-ring-ttl-ms} unconsumed
+ * - notification.message-push: new messages to notify about
+ *   (message.sent on {@value EventTopology#MESSAGE_EXCHANGE})
+ * - notification.typing: typing indicators (message.typing); expire after
+ *   {@code typing-ttl-ms} and drop the oldest beyond the length limit
+ * - notification.user-status: presence changes
+ *   (user.status.changed on {@value EventTopology#USER_EXCHANGE})
+ *
+ * Each lane queue is consumed by its own listener container factory on
+ * the lane's executor (AsyncConfig), so lanes never share consumer
+ * threads. Failed message and user events go to per-queue delayed retry
+ * tiers, then to the queue's parking lot ({@link RetryTopology}); calls
+ * and typing indicators are not retried, a late one is useless.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Configuration
 public class NotificationRabbitMQConfig {
 
-    @Value("${app.rabbitmq.queues.message-sent:message.sent}")
-    private String messageSentQueue;
+    @Value("${app.rabbitmq.queues.message-push:notification.message-push}")
+    private String messagePushQueue;
+
+    @Value("${app.rabbitmq.queues.user-status:notification.user-status}")
+    private String userStatusQueue;
+
+    @Value("${app.rabbitmq.queues.call-ring:notification.call-ring}")
+    private String callRingQueue;
+
+    @Value("${app.rabbitmq.queues.typing:notification.typing}")
+    private String typingQueue;
 
-    @Value("${app.rabbitmq.queues.user-status-changed:user.status.changed}")
-    private String userStatusChangedQueue;
+    @Value("${app.rabbitmq.call-ring-ttl-ms:30000}")
+    private int callRingTtlMs;
+
+    @Value("${app.rabbitmq.typing-ttl-ms:5000}")
+    private int typingTtlMs;
+
+    @Value("${app.rabbitmq.retry.tiers:1s,10s,1m,10m}")
+    private List<Duration> retryTiers;
+
+    /**
+     * Declare the message events exchange (published by the chat service)
+     */
+    @Bean
+    public TopicExchange messageExchange() {
+        return new TopicExchange(EventTopology.MESSAGE_EXCHANGE);
+    }
+
+    /**
+     * Declare the user events exchange (published by the user service)
+     */
+    @Bean
+    public TopicExchange userEventsExchange() {
+        return new TopicExchange(EventTopology.USER_EXCHANGE);
+    }
+
+    /**
+     * Declare the call events exchange (call signaling)
+     */
+    @Bean
+    public TopicExchange callEventsExchange() {
+        return new TopicExchange(EventTopology.CALL_EXCHANGE);
+    }
 
     /**
-     * Declare message.sent queue
+     * Declare call ring queue
      */
     @Bean
-    public Queue messageSentQueue() {
-        log.info("Creating message.sent queue: {}", messageSentQueue);
-        return new Queue(messageSentQueue, true);
+    public Queue callRingQueue() {
+        log.info("Creating call ring queue: {}", callRingQueue);
+        return QueueBuilder.durable(callRingQueue)
+                .ttl(callRingTtlMs)
+                .build();
     }
 
     /**
-     * Declare user.status.changed queue
+     * Declare typing queue (transient, bounded)
      */
     @Bean
-    public Queue userStatusChangedQueue() {
-        log.info("Creating user.status.changed queue: {}", userStatusChangedQueue);
-        return new Queue(userStatusChangedQueue, true);
+    public Queue typingQueue(NotificationProperties properties) {
+        log.info("Creating typing queue: {}", typingQueue);
+        return QueueBuilder.nonDurable(typingQueue)
+                .ttl(typingTtlMs)
+                .maxLength(properties.getLanes().getEphemeralMaxQueued())
+                .overflow(QueueBuilder.Overflow.dropHead)
+                .build();
+    }
+
+    /**
+     * Declare message push queue
+     */
+    @Bean
+    public Queue messagePushQueue() {
+        log.info("Creating message push queue: {}", messagePushQueue);
+        return QueueBuilder.durable(messagePushQueue).build();
+    }
+
+    /**
+     * Declare user status queue
+     */
+    @Bean
+    public Queue userStatusQueue() {
+        log.info("Creating user status queue: {}", userStatusQueue);
+        return QueueBuilder.durable(userStatusQueue).build();
+    }
+
+    @Bean
+    public Binding messagePushBinding(Queue messagePushQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(messagePushQueue)
+                .to(messageExchange)
+                .with(EventTopology.MESSAGE_SENT_KEY);
+    }
+
+    @Bean
+    public Binding callRingBinding(Queue callRingQueue, TopicExchange callEventsExchange) {
+        return BindingBuilder.bind(callRingQueue)
+                .to(callEventsExchange)
+                .with(EventTopology.CALL_RING_KEY);
+    }
+
+    @Bean
+    public Binding typingBinding(Queue typingQueue, TopicExchange messageExchange) {
+        return BindingBuilder.bind(typingQueue)
+                .to(messageExchange)
+                .with(EventTopology.MESSAGE_TYPING_KEY);
+    }
+
+    @Bean
+    public Binding userStatusBinding(Queue userStatusQueue, TopicExchange userEventsExchange) {
+        return BindingBuilder.bind(userStatusQueue)
+                .to(userEventsExchange)
+                .with(EventTopology.USER_STATUS_CHANGED_KEY);
+    }
+
+    /**
+     * Declare retry tiers and parking lot of the message push queue
+     */
+    @Bean
+    public Declarables messagePushRetryTopology() {
+        return RetryTopology.declarables(messagePushQueue, retryTiers);
+    }
+
+    /**
+     * Declare retry tiers and parking lot of the user status queue
+     */
+    @Bean
+    public Declarables userStatusRetryTopology() {
+        return RetryTopology.declarables(userStatusQueue, retryTiers);
+    }
+
+    @Bean
+    public EventRetrier eventRetrier(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        return new EventRetrier(rabbitTemplate, retryTiers, meterRegistry, "notification");
+    }
+
+    @Bean
+    public ParkingLot parkingLot(RabbitTemplate rabbitTemplate, AmqpAdmin amqpAdmin, MeterRegistry meterRegistry) {
+        return new ParkingLot(rabbitTemplate, amqpAdmin, List.of(messagePushQueue, userStatusQueue),
+                meterRegistry, "notification");
     }
 
     /**
@@ -72,4 +224,69 @@ public class NotificationRabbitMQConfig {
 
         return factory;
     }
-}
\ No newline at end of file
+
+    /**
+     * Listener container factory of the call lane: one ring per consumer
+     * at a time, so a slow send never holds back rings prefetched behind it
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory callLaneContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Qualifier("callLaneExecutor") ThreadPoolTaskExecutor callLaneExecutor,
+            NotificationProperties properties) {
+        return laneContainerFactory(connectionFactory, messageConverter, callLaneExecutor,
+                properties.getLanes().getCall(), 1, false);
+    }
+
+    /**
+     * Listener container factory of the message lane
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory messageLaneContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Qualifier("messageLaneExecutor") ThreadPoolTaskExecutor messageLaneExecutor,
+            NotificationProperties properties) {
+        return laneContainerFactory(connectionFactory, messageConverter, messageLaneExecutor,
+                properties.getLanes().getMessage(), 10, true);
+    }
+
+    /**
+     * Listener container factory of the ephemeral lane
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory ephemeralLaneContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Qualifier("ephemeralLaneExecutor") ThreadPoolTaskExecutor ephemeralLaneExecutor,
+            NotificationProperties properties) {
+        return laneContainerFactory(connectionFactory, messageConverter, ephemeralLaneExecutor,
+                properties.getLanes().getEphemeral(), 50, false);
+    }
+
+    /**
+     * Fixed number of consumers, one per thread of the lane's executor
+     *
+     * @param requeueRejected false for lanes whose events are worthless
+     *                        when late (a failed ring is not redelivered)
+     */
+    private SimpleRabbitListenerContainerFactory laneContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            ThreadPoolTaskExecutor executor,
+            NotificationProperties.LaneSettings lane,
+            int prefetch,
+            boolean requeueRejected) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setTaskExecutor(executor);
+        factory.setConcurrentConsumers(lane.getThreads());
+        factory.setMaxConcurrentConsumers(lane.getThreads());
+        factory.setPrefetchCount(prefetch);
+        factory.setDefaultRequeueRejected(requeueRejected);
+        return factory;
+    }
+}
@@ -1,5 +1,7 @@
 package com.whatsapp.notification.config;
 
+import com.whatsapp.common.messaging.ProcessedEvents;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -10,10 +12,13 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * Redis Configuration
  *
- * Configures Redis connection for device token storage.
+ * Configures Redis connection for device token storage and the
+ * idempotency keys of handled message events.
  *
  * @author WhatsApp Clone Team
  */
@@ -75,4 +80,14 @@ public class NotificationRedisConfig {
 
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * Message events pushed so far (idempotency of retries and redeliveries)
+     */
+    @Bean
+    public ProcessedEvents processedEvents(RedisTemplate<String, String> redisTemplate,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${app.idempotency.ttl:1d}") Duration ttl) {
+        return new ProcessedEvents(redisTemplate, "notification", ttl, meterRegistry);
+    }
+}
@@ -1,133 +1,203 @@
 package com.whatsapp.notification.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.common.messaging.CallEvent;
+import com.whatsapp.common.messaging.EventDispatcher;
+import com.whatsapp.common.messaging.EventRetrier;
+import com.whatsapp.common.messaging.EventTopology;
+import com.whatsapp.common.messaging.MessageEvent;
+import com.whatsapp.common.messaging.ProcessedEvents;
+import com.whatsapp.common.messaging.TypingEvent;
+import com.whatsapp.common.messaging.UserEvent;
 import com.whatsapp.notification.service.NotificationService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
-
 /**
  * Notification Consumer
  *
  * Consumes messages from RabbitMQ and sends push notifications.
  *
  * Queues:
- * - message.sent: Triggers notification when new message is sent
- * - user.status.changed: Triggers notification when user status changes
+ * - notification.call-ring: Triggers call notification (CALL lane)
+ * - notification.message-push: Triggers notification when new message is sent
+ *   (MESSAGE lane)
+ * - notification.typing: Triggers typing indicator (EPHEMERAL lane)
+ * - notification.user-status: Triggers notification when user status changes
  * (optional)
  *
+ * Each lane queue is consumed on its lane's own threads; see
+ * NotificationLanes for the admission rules of each lane.
+ *
  * Event Processing:
  * 1. Receive event from RabbitMQ
- * 2. Parse event payload
+ * 2. Parse event payload and route it by type ({@link EventDispatcher})
  * 3. Extract notification data
  * 4. Invoke NotificationService to send notification
  * 5. Log result
  *
+ * Message and user events that fail go to the queue's delayed retry
+ * tiers, then to its parking lot ({@link EventRetrier}). Failed calls and
+ * typing events are only logged: retried later, they would ring or type
+ * after the fact. A message is pushed once however often its MESSAGE_SENT
+ * event arrives ({@link ProcessedEvents}).
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class NotificationConsumer {
 
     private final NotificationService notificationService;
-    private final ObjectMapper objectMapper;
+    private final EventRetrier eventRetrier;
+    private final ProcessedEvents processedEvents;
+    private final String messagePushQueue;
+    private final String userStatusQueue;
+    private final EventDispatcher messageDispatcher;
+    private final EventDispatcher userDispatcher;
+    private final EventDispatcher callDispatcher;
+    private final EventDispatcher typingDispatcher;
+
+    public NotificationConsumer(NotificationService notificationService,
+                                ObjectMapper objectMapper,
+                                EventRetrier eventRetrier,
+                                ProcessedEvents processedEvents,
+                                @Value("${app.rabbitmq.queues.message-push:notification.message-push}") String messagePushQueue,
+                                @Value("${app.rabbitmq.queues.user-status:notification.user-status}") String userStatusQueue) {
+        this.notificationService = notificationService;
+        this.eventRetrier = eventRetrier;
+        this.processedEvents = processedEvents;
+        this.messagePushQueue = messagePushQueue;
+        this.userStatusQueue = userStatusQueue;
+        this.messageDispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.MESSAGE_SENT, MessageEvent.class, this::handleMessageSent);
+        this.userDispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.USER_STATUS_CHANGED, UserEvent.class, this::handleUserStatusChanged);
+        this.callDispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.CALL_RING, CallEvent.class, this::handleCallRing);
+        this.typingDispatcher = new EventDispatcher(objectMapper)
+                .on(EventTopology.TYPING, TypingEvent.class, this::handleTyping);
+    }
 
     /**
-     * Consume message.sent events
-     *
-     * Triggered when a new message is sent.
-     * Sends push notification to receiver.
+     * Consume the call ring queue
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.message-sent:message.sent}")
-    public void handleMessageSent(String messageJson) {
-        log.debug("Received message.sent event");
+    @RabbitListener(queues = "${app.rabbitmq.queues.call-ring:notification.call-ring}",
+            containerFactory = "callLaneContainerFactory")
+    public void onCallEvent(Message message) {
+        log.debug("Received call event");
+        EventDispatcher.Outcome outcome = callDispatcher.dispatch(message.getBody());
+        if (outcome != EventDispatcher.Outcome.HANDLED) {
+            log.warn("Call event not handled: {}", outcome);
+        }
+    }
 
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
+    /**
+     * Consume the message push queue
+     */
+    @RabbitListener(queues = "${app.rabbitmq.queues.message-push:notification.message-push}",
+            containerFactory = "messageLaneContainerFactory")
+    public void onMessageEvent(Message message) {
+        log.debug("Received message event");
+        eventRetrier.settle(messagePushQueue, message, messageDispatcher.dispatch(message.getBody()));
+    }
 
-            String eventType = (String) event.get("eventType");
-            if (!"MESSAGE_SENT".equals(eventType)) {
-                log.warn("Unexpected event type: {}", eventType);
-                return;
-            }
+    /**
+     * Consume the typing queue
+     */
+    @RabbitListener(queues = "${app.rabbitmq.queues.typing:notification.typing}",
+            containerFactory = "ephemeralLaneContainerFactory")
+    public void onTypingEvent(Message message) {
+        log.trace("Received typing event");
+        EventDispatcher.Outcome outcome = typingDispatcher.dispatch(message.getBody());
+        if (outcome != EventDispatcher.Outcome.HANDLED) {
+            log.debug("Typing event not handled: {}", outcome);
+        }
+    }
 
-            String messageId = (String) event.get("messageId");
-            String senderId = (String) event.get("senderId");
-            String receiverId = (String) event.get("receiverId");
-            String senderName = (String) event.get("senderName");
-            String content = (String) event.get("content");
+    /**
+     * Consume the user status queue
+     */
+    @RabbitListener(queues = "${app.rabbitmq.queues.user-status:notification.user-status}")
+    public void onUserEvent(Message message) {
+        log.debug("Received user event");
+        eventRetrier.settle(userStatusQueue, message, userDispatcher.dispatch(message.getBody()));
+    }
 
-            log.info("Processing message notification: {} from {} to {}", messageId, senderId, receiverId);
+    /**
+     * Handle MESSAGE_SENT events
+     *
+     * Triggered when a new message is sent.
+     * Sends push notification to receiver.
+     */
+    private void handleMessageSent(MessageEvent event) {
+        String messageId = event.getMessageId();
+        String receiverId = event.getReceiverId();
+        String content = event.getContent();
+        if (messageId == null) {
+            throw new IllegalArgumentException("MESSAGE_SENT without messageId");
+        }
+        String key = ProcessedEvents.keyOf(EventTopology.MESSAGE_SENT, messageId);
+        if (processedEvents.isProcessed(key)) {
+            log.info("Skipping duplicate notification event of message {}", messageId);
+            return;
+        }
 
-            // Truncate content for preview (max 100 characters)
-            String preview = content != null && content.length() > 100
-                    ? content.substring(0, 97) + "..."
-                    : content;
+        log.info("Processing message notification: {} from {} to {}", messageId, event.getSenderId(), receiverId);
 
-            // Send notification
-            notificationService.sendMessageNotification(receiverId, senderId, senderName, preview);
+        // Truncate content for preview (max 100 characters)
+        String preview = content != null && content.length() > 100
+                ? content.substring(0, 97) + "..."
+                : content;
 
-            log.info("Message notification sent successfully: {}", messageId);
+        // Send notification
+        notificationService.sendMessageNotification(receiverId, event.getSenderId(), event.getSenderName(), preview,
+                event.getOccurredAt());
 
-        } catch (Exception e) {
-            log.error("Error processing message.sent event", e);
-            // Message will be requeued by RabbitMQ based on retry configuration
-        }
+        processedEvents.markProcessed(key);
+        log.info("Message notification sent successfully: {}", messageId);
     }
 
     /**
-     * Consume user.status.changed events
+     * Handle USER_STATUS_CHANGED events
      *
      * Triggered when user status changes (online/offline).
      * Can be used for presence notifications.
      */
-    @RabbitListener(queues = "${app.rabbitmq.queues.user-status-changed:user.status.changed}")
-    public void handleUserStatusChanged(String messageJson) {
-        log.debug("Received user.status.changed event");
-
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
-
-            String userId = (String) event.get("userId");
-            String status = (String) event.get("status");
+    private void handleUserStatusChanged(UserEvent event) {
+        log.debug("User status changed: {} -> {}", event.getUserId(), event.getStatus());
 
-            log.debug("User status changed: {} -> {}", userId, status);
-
-            // Optional: Send notifications to user's contacts about status change
-            // For WhatsApp-like behavior, this is typically not done
-            // But can be used for "last seen" updates
-
-        } catch (Exception e) {
-            log.error("Error processing user.status.changed event", e);
-        }
+        // Optional: Send notifications to user's contacts about status change
+        // For WhatsApp-like behavior, this is typically not done
+        // But can be used for "last seen" updates
     }
 
     /**
-     * Consume typing events (optional)
+     * Handle CALL_RING events
      *
-     * Can be used to send typing indicator notifications.
+     * Wakes the callee's devices up for an incoming call.
      */
-    public void handleTypingEvent(String messageJson) {
-        log.trace("Received typing event");
-
-        try {
-            Map<String, Object> event = objectMapper.readValue(messageJson, Map.class);
+    private void handleCallRing(CallEvent event) {
+        log.info("Processing call notification: {} from {} to {}",
+                event.getCallId(), event.getCallerId(), event.getCalleeId());
 
-            String senderId = (String) event.get("senderId");
-            String receiverId = (String) event.get("receiverId");
-            boolean isTyping = Boolean.TRUE.equals(event.get("isTyping"));
-
-            if (isTyping) {
-                log.trace("User {} is typing to {}", senderId, receiverId);
-                notificationService.sendTypingNotification(receiverId, senderId);
-            }
+        notificationService.sendCallNotification(event.getCalleeId(), event.getCallerId(), event.getCallerName(),
+                event.getOccurredAt());
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing typing event", e);
+    /**
+     * Handle TYPING events
+     *
+     * Sends typing indicator notifications (dropped under load).
+     */
+    private void handleTyping(TypingEvent event) {
+        if (event.isTyping()) {
+            log.trace("User {} is typing to {}", event.getSenderId(), event.getReceiverId());
+            notificationService.sendTypingNotification(event.getReceiverId(), event.getSenderId(),
+                    event.getOccurredAt());
         }
     }
 }
@@ -113,6 +113,7 @@ public class NotificationController {
         notificationService.sendMessageNotification(
                 request.getUserId(),
                 request.getSenderName(),
+                request.getSenderName(),
                 request.getMessage()
         );
 
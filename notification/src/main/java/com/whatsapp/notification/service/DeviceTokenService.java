@@ -76,7 +76,7 @@ public class DeviceTokenService {
 
         } catch (Exception e) {
             log.error("Failed to get tokens for user: {}", userId, e);
-            return new HashSet<>();
+            throw new RuntimeException("Failed to get device tokens", e);
         }
     }
 
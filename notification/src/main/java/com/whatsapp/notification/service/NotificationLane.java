@@ -0,0 +1,44 @@
+package com.whatsapp.notification.service;
+
+import com.whatsapp.notification.domain.model.PushNotification;
+import lombok.Getter;
+
+/**
+ * Notification Lane
+ *
+ * Priority lanes of outgoing notifications, from most to least urgent:
+ * - CALL: call signaling, never throttled, preempts the other lanes
+ * - MESSAGE: new messages, rate limited with backpressure (never dropped)
+ * - EPHEMERAL: typing indicators, dropped under load
+ *
+ * @author WhatsApp Clone Team
+ */
+@Getter
+public enum NotificationLane {
+
+    CALL(PushNotification.NotificationType.CALL, PushNotification.Priority.HIGH, 60, false),
+    MESSAGE(PushNotification.NotificationType.MESSAGE, PushNotification.Priority.HIGH, 86400, false),
+    EPHEMERAL(PushNotification.NotificationType.TYPING, PushNotification.Priority.NORMAL, 10, true);
+
+    private final PushNotification.NotificationType type;
+    private final PushNotification.Priority priority;
+    /** Push TTL in seconds: a ring or typing push is worthless once stale */
+    private final int ttlSeconds;
+    /** Whether sends may be dropped instead of waiting for capacity */
+    private final boolean droppable;
+
+    NotificationLane(PushNotification.NotificationType type, PushNotification.Priority priority,
+                     int ttlSeconds, boolean droppable) {
+        this.type = type;
+        this.priority = priority;
+        this.ttlSeconds = ttlSeconds;
+        this.droppable = droppable;
+    }
+
+    /**
+     * Metric tag value
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
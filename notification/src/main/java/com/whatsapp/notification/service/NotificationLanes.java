@@ -0,0 +1,254 @@
+package com.whatsapp.notification.service;
+
+import com.whatsapp.notification.config.NotificationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Notification Lanes
+ *
+ * Admission control of the priority lanes ({@link NotificationLane}).
+ * Every send runs on a thread of its lane (the lane's own Rabbit
+ * consumers, see NotificationRabbitMQConfig) and passes its lane's gate:
+ * - CALL: admitted right away, never rate limited; while a call
+ *   notification is in flight it preempts the other lanes
+ * - MESSAGE: the lane's consumers pause while calls are in flight (at
+ *   most {@code call-preempt-max-ms} per send, so a stream of calls
+ *   cannot starve messages), then wait for a token of the lane's rate
+ *   limit (backpressure onto the queue)
+ * - EPHEMERAL: dropped while a call is in flight or the rate limit is
+ *   exhausted
+ *
+ * A message send already running when a call arrives finishes; the pause
+ * applies to the sends its consumers would start next.
+ *
+ * Metrics (tagged lane=call|message|ephemeral):
+ * - notification_lane_latency: event to push sent, with the lane's SLO
+ *   as histogram boundary
+ * - notification_lane_slo_breaches_total: sends slower than the SLO
+ * - notification_lane_dropped_total: sends dropped by the gate
+ * - notification_lane_in_flight: sends currently running
+ * - notification_lane_preempted_total: sends paused for in-flight calls
+ *
+ * Thread-safe.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Service
+public class NotificationLanes {
+
+    private final Map<NotificationLane, Lane> lanes = new EnumMap<>(NotificationLane.class);
+    private final long callPreemptMaxMs;
+    /** Signalled when the last in-flight call notification finished */
+    private final Object callsDone = new Object();
+
+    public NotificationLanes(NotificationProperties properties, MeterRegistry meterRegistry) {
+        NotificationProperties.LanesSettings settings = properties.getLanes();
+        this.callPreemptMaxMs = settings.getCallPreemptMaxMs();
+        lanes.put(NotificationLane.CALL, new Lane(NotificationLane.CALL, settings.getCall(), meterRegistry));
+        lanes.put(NotificationLane.MESSAGE, new Lane(NotificationLane.MESSAGE, settings.getMessage(), meterRegistry));
+        lanes.put(NotificationLane.EPHEMERAL,
+                new Lane(NotificationLane.EPHEMERAL, settings.getEphemeral(), meterRegistry));
+    }
+
+    // ---------------------------------------------------------------
+    // Sending
+    // ---------------------------------------------------------------
+
+    /**
+     * Run a send on the calling thread through its lane's gate
+     *
+     * @param occurredAt When the triggering event happened (latency start)
+     * @param send       The send itself; its exceptions propagate
+     * @return false if the lane dropped the send
+     * @throws IllegalStateException if interrupted waiting on a lane that never drops
+     */
+    public boolean run(NotificationLane lane, Instant occurredAt, Runnable send) {
+        Lane gate = lanes.get(lane);
+        if (!admit(gate)) {
+            if (!lane.isDroppable()) {
+                // Interrupted while waiting (shutdown): let the event be retried
+                throw new IllegalStateException("Interrupted waiting for " + gate.tag + " lane capacity");
+            }
+            gate.dropped.increment();
+            log.debug("Dropped {} notification under load", gate.tag);
+            return false;
+        }
+
+        gate.inFlight.incrementAndGet();
+        try {
+            send.run();
+        } finally {
+            if (gate.inFlight.decrementAndGet() == 0 && lane == NotificationLane.CALL) {
+                synchronized (callsDone) {
+                    callsDone.notifyAll();
+                }
+            }
+        }
+
+        Duration latency = Duration.between(occurredAt, Instant.now());
+        gate.latency.record(latency.isNegative() ? Duration.ZERO : latency);
+        if (latency.compareTo(gate.slo) > 0) {
+            gate.sloBreaches.increment();
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------
+    // Admission
+    // ---------------------------------------------------------------
+
+    private boolean admit(Lane gate) {
+        if (gate.lane == NotificationLane.CALL) {
+            return true;
+        }
+        if (gate.lane.isDroppable()) {
+            return !callsInFlight() && (gate.bucket == null || gate.bucket.tryAcquire());
+        }
+        return awaitCalls(gate) && (gate.bucket == null || gate.bucket.acquire());
+    }
+
+    /**
+     * Pause a bulk send while call notifications are in flight
+     *
+     * @return false if interrupted while paused
+     */
+    private boolean awaitCalls(Lane gate) {
+        if (!callsInFlight()) {
+            return true;
+        }
+        gate.preempted.increment();
+        long deadline = System.currentTimeMillis() + callPreemptMaxMs;
+        synchronized (callsDone) {
+            try {
+                long remaining;
+                while (callsInFlight() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                    callsDone.wait(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private boolean callsInFlight() {
+        return lanes.get(NotificationLane.CALL).inFlight.get() > 0;
+    }
+
+    // ---------------------------------------------------------------
+    // Lanes
+    // ---------------------------------------------------------------
+
+    private static final class Lane {
+        private final NotificationLane lane;
+        private final String tag;
+        private final Duration slo;
+        private final TokenBucket bucket;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer latency;
+        private final Counter sloBreaches;
+        private final Counter dropped;
+        private final Counter preempted;
+
+        Lane(NotificationLane lane, NotificationProperties.LaneSettings settings, MeterRegistry meterRegistry) {
+            this.lane = lane;
+            this.tag = lane.tag();
+            this.slo = Duration.ofMillis(settings.getSloMs());
+            this.bucket = lane != NotificationLane.CALL && settings.getRatePerSecond() > 0
+                    ? new TokenBucket(settings.getRatePerSecond())
+                    : null;
+            this.latency = Timer.builder("notification_lane_latency")
+                    .description("Time from event to push notification sent")
+                    .tag("service", "notification")
+                    .tag("lane", tag)
+                    .serviceLevelObjectives(slo)
+                    .register(meterRegistry);
+            this.sloBreaches = Counter.builder("notification_lane_slo_breaches_total")
+                    .description("Notifications sent later than their lane's latency objective")
+                    .tag("service", "notification")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("notification_lane_dropped_total")
+                    .description("Notifications dropped by their lane under load")
+                    .tag("service", "notification")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.preempted = Counter.builder("notification_lane_preempted_total")
+                    .description("Notifications paused while call notifications were in flight")
+                    .tag("service", "notification")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("notification_lane_in_flight", inFlight, AtomicInteger::get)
+                    .description("Notifications currently being sent")
+                    .tag("service", "notification")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Token bucket holding up to one second of sends
+     */
+    private static final class TokenBucket {
+        private final double ratePerMs;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int ratePerSecond) {
+            this.ratePerMs = ratePerSecond / 1000.0;
+            this.capacity = ratePerSecond;
+            this.tokens = capacity;
+            this.refilledAt = System.currentTimeMillis();
+        }
+
+        synchronized boolean tryAcquire() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        /**
+         * Wait for a token
+         *
+         * @return false if interrupted while waiting
+         */
+        boolean acquire() {
+            try {
+                while (!tryAcquire()) {
+                    Thread.sleep(waitMs());
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private synchronized long waitMs() {
+            return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerMs));
+        }
+
+        private void refill() {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerMs);
+            refilledAt = now;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.stereotype.Service;
  * Metrics:
  * - notification_sent_total: Total notifications sent
  * - notification_failed_total: Total notifications failed
+ * - notification_skipped_total: Notifications for users without devices
  * - notification_send_duration: Time to send notification
  * - device_token_registered_total: Total tokens registered
  *
@@ -26,6 +27,7 @@ public class NotificationMetrics {
 
     private final Counter notificationSentCounter;
     private final Counter notificationFailedCounter;
+    private final Counter notificationSkippedCounter;
     private final Counter deviceTokenRegisteredCounter;
     private final Timer notificationSendTimer;
 
@@ -40,6 +42,11 @@ public class NotificationMetrics {
                 .tag("service", "notification")
                 .register(meterRegistry);
 
+        this.notificationSkippedCounter = Counter.builder("notification_skipped_total")
+                .description("Total number of notifications skipped for users without device tokens")
+                .tag("service", "notification")
+                .register(meterRegistry);
+
         this.deviceTokenRegisteredCounter = Counter.builder("device_token_registered_total")
                 .description("Total number of device tokens registered")
                 .tag("service", "notification")
@@ -67,6 +74,13 @@ public class NotificationMetrics {
         notificationFailedCounter.increment();
     }
 
+    /**
+     * Record notification skipped (no device tokens)
+     */
+    public void recordNotificationSkipped() {
+        notificationSkippedCounter.increment();
+    }
+
     /**
      * Record device token registered
      */
@@ -4,10 +4,10 @@ import com.whatsapp.notification.domain.model.DeviceToken;
 import com.whatsapp.notification.domain.model.PushNotification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -18,6 +18,10 @@ import java.util.UUID;
  * Main orchestration service for sending push notifications.
  * Coordinates between device token management and platform-specific services.
  *
+ * Every notification goes through its priority lane
+ * ({@link NotificationLanes}): calls, messages and typing indicators get
+ * their own push priority and TTL, rate limit and latency SLO.
+ *
  * @author WhatsApp Clone Team
  */
 @Slf4j
@@ -29,20 +33,40 @@ public class NotificationService {
     private final FCMService fcmService;
     private final APNSNotificationService apnsNotificationService;
     private final NotificationMetrics notificationMetrics;
+    private final NotificationLanes notificationLanes;
 
     /**
      * Send notification to user
      *
-     * Fetches all device tokens for the user and sends notification to each device.
+     * Sent on the MESSAGE lane.
      *
      * @param userId Target user ID
      * @param title  Notification title
      * @param body   Notification body
      * @param data   Additional data payload
      */
-    @Async
     public void sendNotification(String userId, String title, String body, Map<String, String> data) {
-        log.info("Sending notification to user: {}", userId);
+        sendNotification(NotificationLane.MESSAGE, Instant.now(), userId, title, body, data);
+    }
+
+    /**
+     * Send notification to user on a priority lane
+     *
+     * Runs on the calling thread (the lane's consumer) once the lane
+     * admits it. Fetches all device tokens for the user and sends
+     * notification to each device.
+     *
+     * @param lane       Priority lane (push type, priority and TTL)
+     * @param occurredAt When the triggering event happened
+     * @return false if the lane dropped the notification under load
+     */
+    public boolean sendNotification(NotificationLane lane, Instant occurredAt, String userId,
+                                    String title, String body, Map<String, String> data) {
+        return notificationLanes.run(lane, occurredAt, () -> deliver(lane, userId, title, body, data));
+    }
+
+    private void deliver(NotificationLane lane, String userId, String title, String body, Map<String, String> data) {
+        log.info("Sending {} notification to user: {}", lane.tag(), userId);
 
         try {
             // Get all device tokens for user
@@ -60,12 +84,12 @@ public class NotificationService {
             PushNotification notification = PushNotification.builder()
                     .id(UUID.randomUUID().toString())
                     .userId(userId)
-                    .type(PushNotification.NotificationType.MESSAGE)
+                    .type(lane.getType())
                     .title(title)
                     .body(body)
                     .data(data)
-                    .priority(PushNotification.Priority.HIGH)
-                    .ttl(86400) // 24 hours
+                    .priority(lane.getPriority())
+                    .ttl(lane.getTtlSeconds())
                     .createdAt(Instant.now())
                     .status(PushNotification.DeliveryStatus.PENDING)
                     .build();
@@ -87,6 +111,8 @@ public class NotificationService {
         } catch (Exception e) {
             log.error("Failed to send notification to user: {}", userId, e);
             notificationMetrics.recordNotificationFailed();
+            // Propagate so the triggering event is retried
+            throw new RuntimeException("Failed to send notification", e);
         }
     }
 
@@ -126,30 +152,42 @@ public class NotificationService {
      *
      * @param userId         Receiver user ID
      * @param senderId       Sender user ID
-     * @param senderName     Sender display name
+     * @param senderName     Sender display name (falls back to the sender ID)
      * @param messagePreview Message content preview
      */
     public void sendMessageNotification(String userId, String senderId, String senderName, String messagePreview) {
+        sendMessageNotification(userId, senderId, senderName, messagePreview, Instant.now());
+    }
+
+    /**
+     * Send message notification for a message sent at the given time
+     */
+    public void sendMessageNotification(String userId, String senderId, String senderName, String messagePreview,
+                                        Instant sentAt) {
         log.info("Sending message notification: user={}, sender={}", userId, senderId);
 
-        Map<String, String> data = Map.of(
-                "type", "message",
-                "senderId", senderId,
-                "senderName", senderName);
+        String from = senderName != null ? senderName : senderId;
+        Map<String, String> data = new HashMap<>();
+        data.put("type", "message");
+        data.put("senderId", senderId);
+        data.put("senderName", from);
 
-        String title = "New message from " + senderName;
+        String title = "New message from " + from;
         String body = messagePreview;
 
-        sendNotification(userId, title, body, data);
+        sendNotification(NotificationLane.MESSAGE, sentAt, userId, title, body, data);
     }
 
     /**
      * Send typing notification
      *
+     * Dropped under load: a late typing indicator is worse than none.
+     *
      * @param userId   User to notify
      * @param senderId User who is typing
+     * @param typedAt  When the typing event happened
      */
-    public void sendTypingNotification(String userId, String senderId) {
+    public void sendTypingNotification(String userId, String senderId, Instant typedAt) {
         log.debug("Sending typing notification: user={}, sender={}", userId, senderId);
 
         Map<String, String> data = Map.of(
@@ -157,7 +195,7 @@ public class NotificationService {
                 "senderId", senderId);
 
         // Typing notifications are silent (data-only)
-        sendNotification(userId, "", "", data);
+        sendNotification(NotificationLane.EPHEMERAL, typedAt, userId, "", "", data);
     }
 
     /**
@@ -165,19 +203,21 @@ public class NotificationService {
      *
      * @param userId     User to notify
      * @param callerId   Caller ID
-     * @param callerName Caller name
+     * @param callerName Caller name (falls back to the caller ID)
+     * @param ringAt     When the call started ringing
      */
-    public void sendCallNotification(String userId, String callerId, String callerName) {
+    public void sendCallNotification(String userId, String callerId, String callerName, Instant ringAt) {
         log.info("Sending call notification: user={}, caller={}", userId, callerId);
 
-        Map<String, String> data = Map.of(
-                "type", "call",
-                "callerId", callerId,
-                "callerName", callerName);
+        String from = callerName != null ? callerName : callerId;
+        Map<String, String> data = new HashMap<>();
+        data.put("type", "call");
+        data.put("callerId", callerId);
+        data.put("callerName", from);
 
         String title = "Incoming call";
-        String body = callerName + " is calling...";
+        String body = from + " is calling...";
 
-        sendNotification(userId, title, body, data);
+        sendNotification(NotificationLane.CALL, ringAt, userId, title, body, data);
     }
 }
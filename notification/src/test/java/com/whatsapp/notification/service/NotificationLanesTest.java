@@ -0,0 +1,129 @@
+package com.whatsapp.notification.service;
+
+import com.whatsapp.notification.config.NotificationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Call preemption and rate limits of {@link NotificationLanes}.
+ */
+class NotificationLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void messageConsumersPauseUntilCallsFinish() throws Exception {
+        NotificationLanes lanes = new NotificationLanes(properties(10_000L, 1), meterRegistry);
+        CountDownLatch ringing = new CountDownLatch(1);
+        CountDownLatch hangUp = new CountDownLatch(1);
+        CountDownLatch messageSent = new CountDownLatch(1);
+
+        threads.submit(() -> lanes.run(NotificationLane.CALL, Instant.now(), () -> {
+            ringing.countDown();
+            await(hangUp);
+        }));
+        assertThat(ringing.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Boolean> message = threads.submit(() ->
+                lanes.run(NotificationLane.MESSAGE, Instant.now(), messageSent::countDown));
+
+        assertThat(messageSent.await(500, TimeUnit.MILLISECONDS)).isFalse();
+        hangUp.countDown();
+
+        assertThat(messageSent.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(message.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(counter("notification_lane_preempted_total", "message")).isEqualTo(1);
+    }
+
+    @Test
+    void pauseIsBoundedSoCallsCannotStarveMessages() throws Exception {
+        NotificationLanes lanes = new NotificationLanes(properties(100L, 1), meterRegistry);
+        CountDownLatch ringing = new CountDownLatch(1);
+        CountDownLatch hangUp = new CountDownLatch(1);
+
+        threads.submit(() -> lanes.run(NotificationLane.CALL, Instant.now(), () -> {
+            ringing.countDown();
+            await(hangUp);
+        }));
+        assertThat(ringing.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            Future<Boolean> message = threads.submit(() -> lanes.run(NotificationLane.MESSAGE, Instant.now(), () -> { }));
+
+            assertThat(message.get(2, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            hangUp.countDown();
+        }
+    }
+
+    @Test
+    void typingIsDroppedWhileACallIsInFlight() throws Exception {
+        NotificationLanes lanes = new NotificationLanes(properties(10_000L, 1), meterRegistry);
+        CountDownLatch ringing = new CountDownLatch(1);
+        CountDownLatch hangUp = new CountDownLatch(1);
+
+        threads.submit(() -> lanes.run(NotificationLane.CALL, Instant.now(), () -> {
+            ringing.countDown();
+            await(hangUp);
+        }));
+        assertThat(ringing.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThat(lanes.run(NotificationLane.EPHEMERAL, Instant.now(), () -> { })).isFalse();
+            assertThat(counter("notification_lane_dropped_total", "ephemeral")).isEqualTo(1);
+        } finally {
+            hangUp.countDown();
+        }
+    }
+
+    @Test
+    void callsAreNeverRateLimited() {
+        NotificationLanes lanes = new NotificationLanes(properties(10_000L, 1), meterRegistry);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertThat(lanes.run(NotificationLane.CALL, Instant.now(), () -> { })).isTrue();
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        assertThat(counter("notification_lane_preempted_total", "call")).isZero();
+    }
+
+    /**
+     * Lanes with the given pause bound and the same rate limit on every lane
+     */
+    private static NotificationProperties properties(long callPreemptMaxMs, int ratePerSecond) {
+        NotificationProperties properties = new NotificationProperties();
+        NotificationProperties.LanesSettings lanes = properties.getLanes();
+        lanes.setCallPreemptMaxMs(callPreemptMaxMs);
+        lanes.setCall(new NotificationProperties.LaneSettings(1, ratePerSecond, 1000L));
+        lanes.setMessage(new NotificationProperties.LaneSettings(1, 100, 5000L));
+        lanes.setEphemeral(new NotificationProperties.LaneSettings(1, 100, 2000L));
+        return properties;
+    }
+
+    private double counter(String name, String lane) {
+        return meterRegistry.get(name).tag("lane", lane).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.whatsapp.scheduler.config;
+
+import com.whatsapp.common.counter.MessageCounters;
+import com.whatsapp.common.inbox.InboxStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Redis Configuration
+ *
+ * The jobs maintain data owned by the chat service (offline inboxes,
+ * message counters), so they connect to the chat service's Redis
+ * database (spring.data.redis.database, 1 by default).
+ *
+ * @author WhatsApp Clone Team
+ */
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Shared message counters, adjusted when jobs remove messages
+     */
+    @Bean
+    public MessageCounters messageCounters(StringRedisTemplate stringRedisTemplate) {
+        return new MessageCounters(stringRedisTemplate);
+    }
+
+    /**
+     * Shared offline inboxes, into which version 1 inbox keys are migrated
+     * (same settings as the chat service)
+     */
+    @Bean
+    public InboxStore inboxStore(
+            StringRedisTemplate stringRedisTemplate,
+            @Value("${app.inbox.ttl:7d}") Duration ttl,
+            @Value("${app.inbox.max-entries:1000}") int maxEntries) {
+        return new InboxStore(stringRedisTemplate, ttl, maxEntries);
+    }
+}
@@ -1,11 +1,13 @@
 package com.whatsapp.scheduler.jobs;
 
+import com.whatsapp.common.inbox.InboxStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -14,7 +16,7 @@ import java.util.Set;
  * Scheduled job to clean up expired and orphaned cache entries.
  *
  * Cleanup Tasks:
- * 1. Remove orphaned inbox entries
+ * 1. Migrate version 1 inbox keys
  * 2. Clean up expired device tokens
  * 3. Remove stale user sessions
  * 4. Clear temporary cache entries
@@ -29,39 +31,43 @@ import java.util.Set;
 public class CacheCleanupJob {
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final InboxStore inboxStore;
 
     /**
-     * Clean up orphaned inbox entries
+     * Migrate version 1 inbox keys
+     *
+     * Inboxes ({@link InboxStore}) expire entry by entry and disappear
+     * once empty; what is left are version 1 inbox keys ("inbox:{userId}"),
+     * which no service reads any more. Their entries are moved into the
+     * current schema ({@link InboxStore#migrateLegacy}), so messages
+     * queued before the upgrade are still delivered.
      *
      * Runs every hour
      */
     @Scheduled(fixedRate = 3600000) // 1 hour
     public void cleanupOrphanedInboxEntries() {
-        log.info("Starting cleanup of orphaned inbox entries...");
+        log.info("Starting migration of version 1 inbox keys...");
 
         try {
-            Set<String> inboxKeys = redisTemplate.keys("inbox:*");
+            Set<String> inboxKeys = redisTemplate.keys(InboxStore.anyVersionKeyPattern());
 
             if (inboxKeys == null || inboxKeys.isEmpty()) {
                 log.debug("No inbox entries found");
                 return;
             }
 
-            int cleanedCount = 0;
-            for (String key : inboxKeys) {
-                Long size = redisTemplate.opsForSet().size(key);
-
-                // If inbox is empty, remove the key
-                if (size != null && size == 0) {
-                    redisTemplate.delete(key);
-                    cleanedCount++;
-                }
+            List<String> legacyKeys = inboxKeys.stream()
+                    .filter(InboxStore::isLegacyKey)
+                    .toList();
+            int migrated = 0;
+            for (String legacyKey : legacyKeys) {
+                migrated += inboxStore.migrateLegacy(legacyKey);
             }
 
-            log.info("Cleaned up {} orphaned inbox entries", cleanedCount);
+            log.info("Migrated {} version 1 inbox keys ({} entries)", legacyKeys.size(), migrated);
 
         } catch (Exception e) {
-            log.error("Error during inbox cleanup", e);
+            log.error("Error during inbox migration", e);
         }
     }
 
@@ -124,7 +130,7 @@ public class CacheCleanupJob {
         log.info("Generating cache statistics...");
 
         try {
-            long inboxCount = countKeys("inbox:*");
+            long inboxCount = countKeys(InboxStore.keyPattern());
             long tokenCount = countKeys("device:token:*");
             long userTokensCount = countKeys("user:tokens:*");
             long statusCount = countKeys("user:status:*");
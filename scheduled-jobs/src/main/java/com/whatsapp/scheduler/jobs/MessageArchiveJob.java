@@ -0,0 +1,222 @@
+package com.whatsapp.scheduler.jobs;
+
+import com.whatsapp.common.archive.ArchivedMessage;
+import com.whatsapp.common.archive.MessageSegmentWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Message Archive Job
+ *
+ * Moves delivered messages past the hot retention window out of MongoDB
+ * into cold-tier segment files, instead of deleting them.
+ *
+ * Flow (per conversation):
+ * 1. Stream eligible messages oldest-first from the "messages" collection
+ * 2. Group them into blocks and append each block to the conversation's
+ *    compressed segment (see MessageSegmentFormat in common-lib)
+ * 3. Delete the archived documents from MongoDB once the block is durable
+ *    ({@link MessageRemover}, which also adjusts the message counters)
+ *
+ * Re-running after a crash is safe: messages already contained in the last
+ * appended block are only deleted, never appended twice. Messages that became
+ * eligible late (e.g. delivered long after sending) with an id at or below the
+ * last archived id stay in MongoDB, since segments only grow forward; this
+ * holds inside the last block's id range too, where only the ids actually
+ * stored in the block count as archived.
+ *
+ * The archive root can be a local disk or any object-store bucket mounted
+ * as a filesystem (e.g. s3fs, gcsfuse). The chat service reads the same root.
+ *
+ * Schedule: Daily at 3:00 AM
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+public class MessageArchiveJob {
+
+    private static final String COLLECTION = "messages";
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageRemover messageRemover;
+    private final MessageSegmentWriter segmentWriter;
+    private final int retentionDays;
+    private final int blockSize;
+
+    public MessageArchiveJob(
+            MongoTemplate mongoTemplate,
+            MessageRemover messageRemover,
+            @Value("${app.scheduler.archive.root-path:data/archive/messages}") String rootPath,
+            @Value("${app.scheduler.archive.retention-days:90}") int retentionDays,
+            @Value("${app.scheduler.archive.block-size:500}") int blockSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.messageRemover = messageRemover;
+        this.segmentWriter = new MessageSegmentWriter(Path.of(rootPath));
+        this.retentionDays = retentionDays;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Archive delivered messages older than the retention window
+     *
+     * Runs daily at 3:00 AM
+     */
+    @Scheduled(cron = "${app.scheduler.cron.message-archive:0 0 3 * * *}")
+    public void archiveDeliveredMessages() {
+        log.info("Starting archival of delivered messages...");
+
+        try {
+            Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+
+            List<String> conversationIds = mongoTemplate.findDistinct(
+                    new Query(eligible(cutoff)), "conversationId", COLLECTION, String.class);
+
+            long archived = 0;
+            int failedConversations = 0;
+            for (String conversationId : conversationIds) {
+                try {
+                    archived += archiveConversation(conversationId, cutoff);
+                } catch (Exception e) {
+                    failedConversations++;
+                    log.error("Failed to archive conversation: {}", conversationId, e);
+                }
+            }
+
+            log.info("Archived {} messages older than {} days across {} conversations ({} failed)",
+                    archived, retentionDays, conversationIds.size(), failedConversations);
+
+        } catch (Exception e) {
+            log.error("Error during message archival", e);
+        }
+    }
+
+    /**
+     * Archive one conversation, block by block
+     *
+     * @return number of messages removed from the hot store
+     */
+    private long archiveConversation(String conversationId, Instant cutoff) throws IOException {
+        Query query = new Query(eligible(cutoff).and("conversationId").is(conversationId))
+                // Snowflake ids are fixed-width decimal strings, so _id order is id order
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+
+        Set<Long> lastBlockIds = segmentWriter.lastBlockIds(conversationId);
+        long lastArchivedId = segmentWriter.lastArchivedId(conversationId);
+        long moved = 0;
+        List<Document> batch = new ArrayList<>(blockSize);
+
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, COLLECTION)) {
+            Iterator<Document> cursor = documents.iterator();
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= blockSize) {
+                    moved += flush(conversationId, batch, lastBlockIds, lastArchivedId);
+                    lastBlockIds = segmentWriter.lastBlockIds(conversationId);
+                    lastArchivedId = segmentWriter.lastArchivedId(conversationId);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            moved += flush(conversationId, batch, lastBlockIds, lastArchivedId);
+        }
+
+        log.debug("Archived {} messages for conversation {}", moved, conversationId);
+        return moved;
+    }
+
+    /**
+     * Append a block to the segment, then drop the documents from MongoDB
+     *
+     * @return number of documents removed from MongoDB
+     */
+    private long flush(String conversationId, List<Document> batch,
+                       Set<Long> lastBlockIds, long lastArchivedId) throws IOException {
+        List<ArchivedMessage> block = new ArrayList<>(batch.size());
+        List<Object> ids = new ArrayList<>(batch.size());
+
+        for (Document doc : batch) {
+            Object rawId = doc.get("_id");
+            long id;
+            try {
+                id = Long.parseLong(String.valueOf(rawId));
+            } catch (NumberFormatException e) {
+                log.warn("Skipping message with non-Snowflake id: {}", rawId);
+                continue;
+            }
+
+            if (id <= lastArchivedId) {
+                if (lastBlockIds.contains(id)) {
+                    // Already archived by a previous, interrupted run
+                    ids.add(rawId);
+                } else {
+                    log.warn("Message {} is inside the archived range of conversation {} but not archived, "
+                            + "keeping it hot", id, conversationId);
+                }
+                continue;
+            }
+            ids.add(rawId);
+            block.add(toArchived(id, doc));
+        }
+
+        segmentWriter.appendBlock(conversationId, block);
+
+        if (!ids.isEmpty()) {
+            messageRemover.remove(ids);
+        }
+        return ids.size();
+    }
+
+    private Criteria eligible(Instant cutoff) {
+        return Criteria.where("undelivered").ne(true)
+                .and("status").ne("SENT")
+                .and("createdAt").lt(cutoff);
+    }
+
+    private ArchivedMessage toArchived(long id, Document doc) {
+        return ArchivedMessage.builder()
+                .id(id)
+                .conversationId(doc.getString("conversationId"))
+                .seq(toLong(doc.get("seq")))
+                .senderId(doc.getString("senderId"))
+                .receiverId(doc.getString("receiverId"))
+                .recipientCount(doc.getInteger("recipientCount"))
+                .contentText(doc.getString("contentText"))
+                .contentType(doc.getString("contentType"))
+                .status(doc.getString("status"))
+                .deleted(Boolean.TRUE.equals(doc.getBoolean("deleted")))
+                .createdAt(toInstant(doc.getDate("createdAt")))
+                .deliveredAt(toInstant(doc.getDate("deliveredAt")))
+                .readAt(toInstant(doc.getDate("readAt")))
+                .deletedAt(toInstant(doc.getDate("deletedAt")))
+                .build();
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
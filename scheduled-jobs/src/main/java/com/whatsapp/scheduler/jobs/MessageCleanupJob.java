@@ -1,15 +1,19 @@
 package com.whatsapp.scheduler.jobs;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Message Cleanup Job
@@ -18,8 +22,13 @@ import java.time.temporal.ChronoUnit;
  *
  * Cleanup Rules:
  * 1. Undelivered messages older than 1 year → DELETE
- * 2. Delivered messages older than user's policy (0-90 days) → DELETE
- * 3. Messages marked as deleted → DELETE after grace period
+ * 2. Messages marked as deleted → DELETE after grace period
+ *
+ * Delivered messages past the retention window are no longer deleted here;
+ * they are moved to cold storage by {@link MessageArchiveJob}.
+ *
+ * Deletions go through {@link MessageRemover} in batches, so the chat
+ * service's message counters follow.
  *
  * Schedule: Daily at 2:00 AM
  *
@@ -27,10 +36,20 @@ import java.time.temporal.ChronoUnit;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MessageCleanupJob {
 
     private final MongoTemplate mongoTemplate;
+    private final MessageRemover messageRemover;
+    private final int batchSize;
+
+    public MessageCleanupJob(
+            MongoTemplate mongoTemplate,
+            MessageRemover messageRemover,
+            @Value("${app.scheduler.message-cleanup.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.messageRemover = messageRemover;
+        this.batchSize = batchSize;
+    }
 
     /**
      * Clean up undelivered messages older than 1 year
@@ -50,7 +69,7 @@ public class MessageCleanupJob {
                             .and("createdAt").lt(oneYearAgo)
             );
 
-            long deletedCount = mongoTemplate.remove(query, "messages").getDeletedCount();
+            long deletedCount = removeMatching(query);
 
             log.info("Cleaned up {} undelivered messages older than 1 year", deletedCount);
 
@@ -59,34 +78,6 @@ public class MessageCleanupJob {
         }
     }
 
-    /**
-     * Clean up delivered messages based on retention policy
-     *
-     * Runs daily at 3:00 AM
-     */
-    @Scheduled(cron = "0 0 3 * * *")
-    public void cleanupDeliveredMessages() {
-        log.info("Starting cleanup of delivered messages...");
-
-        try {
-            // Default: Keep delivered messages for 90 days
-            Instant ninetyDaysAgo = Instant.now().minus(90, ChronoUnit.DAYS);
-
-            Query query = new Query();
-            query.addCriteria(
-                    Criteria.where("undelivered").ne(true)
-                            .and("createdAt").lt(ninetyDaysAgo)
-            );
-
-            long deletedCount = mongoTemplate.remove(query, "messages").getDeletedCount();
-
-            log.info("Cleaned up {} delivered messages older than 90 days", deletedCount);
-
-        } catch (Exception e) {
-            log.error("Error during delivered message cleanup", e);
-        }
-    }
-
     /**
      * Clean up deleted messages after grace period
      *
@@ -106,7 +97,7 @@ public class MessageCleanupJob {
                             .and("deletedAt").lt(thirtyDaysAgo)
             );
 
-            long deletedCount = mongoTemplate.remove(query, "messages").getDeletedCount();
+            long deletedCount = removeMatching(query);
 
             log.info("Cleaned up {} deleted messages after grace period", deletedCount);
 
@@ -142,4 +133,29 @@ public class MessageCleanupJob {
             log.error("Error generating message statistics", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Remove every message matching the query, batch by batch
+     *
+     * @return number of documents removed
+     */
+    private long removeMatching(Query query) {
+        query.fields().include("_id");
+        long removed = 0;
+        List<Object> ids = new ArrayList<>(batchSize);
+
+        try (CloseableIterator<Document> cursor = mongoTemplate.stream(query, Document.class, MessageRemover.COLLECTION)) {
+            while (cursor.hasNext()) {
+                ids.add(cursor.next().get("_id"));
+                if (ids.size() >= batchSize) {
+                    removed += messageRemover.remove(ids);
+                    ids.clear();
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            removed += messageRemover.remove(ids);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,97 @@
+package com.whatsapp.scheduler.jobs;
+
+import com.whatsapp.common.counter.MessageCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Message Remover
+ *
+ * Deletes message documents on behalf of the archive and cleanup jobs and
+ * adjusts the chat service's message counters ({@link MessageCounters}) by
+ * what was actually deleted:
+ * - "counter:conversation:{id}": every removed message that was not deleted
+ * - "counter:undelivered:{receiverId}": every removed, non-deleted SENT message
+ *
+ * Counter failures are logged and left to the chat service's reconciler.
+ *
+ * @author WhatsApp Clone Team
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageRemover {
+
+    static final String COLLECTION = "messages";
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageCounters messageCounters;
+
+    /**
+     * Remove messages by ID
+     *
+     * @return number of documents removed
+     */
+    public long remove(Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Query byId = new Query(Criteria.where("_id").in(ids));
+        Query counted = Query.of(byId);
+        counted.fields().include("conversationId", "receiverId", "status", "deleted");
+        List<Document> messages = mongoTemplate.find(counted, Document.class, COLLECTION);
+
+        long removed = mongoTemplate.remove(byId, COLLECTION).getDeletedCount();
+        if (removed < messages.size()) {
+            // Some were removed concurrently: count only what is gone now,
+            // the reconciler settles a double count by another remover
+            Set<Object> survivors = new HashSet<>(mongoTemplate.findDistinct(byId, "_id", COLLECTION, Object.class));
+            messages = messages.stream().filter(message -> !survivors.contains(message.get("_id"))).toList();
+        }
+
+        adjustCounters(messages);
+        return removed;
+    }
+
+    /**
+     * Counter deltas of removed messages
+     */
+    static Map<String, Long> deltas(List<Document> removed) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Document message : removed) {
+            if (Boolean.TRUE.equals(message.getBoolean("deleted"))) {
+                continue; // Not counted any more
+            }
+            String conversationId = message.getString("conversationId");
+            if (conversationId != null) {
+                deltas.merge(MessageCounters.conversationKey(conversationId), -1L, Long::sum);
+            }
+            String receiverId = message.getString("receiverId");
+            if (receiverId != null && "SENT".equals(message.getString("status"))) {
+                deltas.merge(MessageCounters.undeliveredKey(receiverId), -1L, Long::sum);
+            }
+        }
+        return deltas;
+    }
+
+    private void adjustCounters(List<Document> removed) {
+        Map<String, Long> deltas = deltas(removed);
+        try {
+            messageCounters.adjustAll(deltas);
+        } catch (Exception e) {
+            log.error("Failed to adjust {} message counters after removal: {}", deltas.size(), e.getMessage(), e);
+        }
+    }
+}
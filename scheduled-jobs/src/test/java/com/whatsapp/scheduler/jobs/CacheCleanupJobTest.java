@@ -0,0 +1,34 @@
+package com.whatsapp.scheduler.jobs;
+
+import com.whatsapp.common.inbox.InboxStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Version 1 inbox migration of {@link CacheCleanupJob}.
+ */
+class CacheCleanupJobTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void legacyInboxesAreMigratedNotDeleted() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        InboxStore inboxStore = mock(InboxStore.class);
+        when(redisTemplate.keys(InboxStore.anyVersionKeyPattern()))
+                .thenReturn(Set.of("inbox:alice", InboxStore.userKey("bob")));
+
+        new CacheCleanupJob(redisTemplate, inboxStore).cleanupOrphanedInboxEntries();
+
+        verify(inboxStore).migrateLegacy("inbox:alice");
+        verify(inboxStore, never()).migrateLegacy(InboxStore.userKey("bob"));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+}
@@ -0,0 +1,83 @@
+package com.whatsapp.scheduler.jobs;
+
+import com.whatsapp.common.archive.ArchivedMessage;
+import com.whatsapp.common.archive.MessageSegmentWriter;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Crash recovery of {@link MessageArchiveJob}: only messages stored in the
+ * last block are deleted without being appended again.
+ */
+class MessageArchiveJobTest {
+
+    private static final String CONVERSATION = "c1";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void lateDeliveredMessageInsideTheLastBlockRangeStaysHot() throws Exception {
+        MessageSegmentWriter writer = new MessageSegmentWriter(root);
+        writer.appendBlock(CONVERSATION, List.of(archived(100), archived(102), archived(104)));
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("conversationId"), eq("messages"), eq(String.class)))
+                .thenReturn(List.of(CONVERSATION));
+        // 102 was archived by an interrupted run, 103 was delivered after the block was written
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("messages")))
+                .thenReturn(Stream.of(document(102), document(103), document(105)));
+        MessageRemover messageRemover = mock(MessageRemover.class);
+
+        new MessageArchiveJob(mongoTemplate, messageRemover, root.toString(), 90, 500).archiveDeliveredMessages();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Object>> removed = ArgumentCaptor.forClass(Collection.class);
+        verify(messageRemover).remove(removed.capture());
+        assertThat(removed.getValue()).containsExactly("102", "105");
+        assertThat(writer.lastArchivedId(CONVERSATION)).isEqualTo(105);
+        assertThat(writer.lastBlockIds(CONVERSATION)).containsExactly(105L);
+    }
+
+    private static ArchivedMessage archived(long id) {
+        return ArchivedMessage.builder()
+                .id(id)
+                .conversationId(CONVERSATION)
+                .senderId("alice")
+                .receiverId("bob")
+                .contentText("message " + id)
+                .contentType("TEXT")
+                .status("READ")
+                .createdAt(Instant.ofEpochMilli(id))
+                .build();
+    }
+
+    private static Document document(long id) {
+        return new Document("_id", String.valueOf(id))
+                .append("conversationId", CONVERSATION)
+                .append("senderId", "alice")
+                .append("receiverId", "bob")
+                .append("contentText", "message " + id)
+                .append("contentType", "TEXT")
+                .append("status", "DELIVERED")
+                .append("createdAt", new Date(id));
+    }
+}
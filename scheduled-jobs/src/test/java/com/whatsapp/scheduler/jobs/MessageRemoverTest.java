@@ -0,0 +1,56 @@
+package com.whatsapp.scheduler.jobs;
+
+import com.whatsapp.common.counter.MessageCounters;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Counter deltas of {@link MessageRemover}.
+ */
+class MessageRemoverTest {
+
+    @Test
+    void removedMessagesLeaveTheirConversationCounter() {
+        List<Document> removed = List.of(
+                message("c1", "u1", "DELIVERED", false),
+                message("c1", "u1", "READ", false),
+                message("c2", "u2", "READ", false));
+
+        assertThat(MessageRemover.deltas(removed)).containsOnly(
+                entry(MessageCounters.conversationKey("c1"), -2L),
+                entry(MessageCounters.conversationKey("c2"), -1L));
+    }
+
+    @Test
+    void removedSentMessagesLeaveTheUndeliveredCounterToo() {
+        List<Document> removed = List.of(
+                message("c1", "u1", "SENT", false),
+                message("c1", "u1", "SENT", false));
+
+        assertThat(MessageRemover.deltas(removed)).containsOnly(
+                entry(MessageCounters.conversationKey("c1"), -2L),
+                entry(MessageCounters.undeliveredKey("u1"), -2L));
+    }
+
+    @Test
+    void deletedAndSharedMessagesAreNotCountedTwice() {
+        List<Document> removed = List.of(
+                message("c1", "u1", "SENT", true),
+                message("g1", null, "SENT", false));
+
+        assertThat(MessageRemover.deltas(removed)).containsOnly(
+                entry(MessageCounters.conversationKey("g1"), -1L));
+    }
+
+    private static Document message(String conversationId, String receiverId, String status, boolean deleted) {
+        return new Document("conversationId", conversationId)
+                .append("receiverId", receiverId)
+                .append("status", status)
+                .append("deleted", deleted);
+    }
+}
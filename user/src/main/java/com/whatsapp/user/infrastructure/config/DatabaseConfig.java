@@ -1,26 +1,39 @@
 package com.whatsapp.user.infrastructure.config;
 
+import com.whatsapp.common.datasource.ReadYourWritesFilter;
+import com.whatsapp.common.datasource.ReadYourWritesTracker;
+import com.whatsapp.common.datasource.ReplicaRoutingDataSource;
+import com.whatsapp.common.datasource.ReplicaRoutingProperties;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Database Configuration
  *
  * Configures PostgreSQL database connection with HikariCP.
+ * Read-only transactions are routed to the read replicas configured under
+ * app.datasource.routing (primary only if none).
  *
  * @author WhatsApp Clone Team
  */
 @Slf4j
 @Configuration
 @EnableTransactionManagement
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
 @EnableJpaRepositories(basePackages = "com.whatsapp.user.infrastructure.persistence.repository")
 public class DatabaseConfig {
 
@@ -40,10 +53,10 @@ public class DatabaseConfig {
     private int minimumIdle;
 
     /**
-     * Configure HikariCP DataSource
+     * Configure HikariCP DataSource (primary, read-write)
      */
     @Bean
-    public DataSource dataSource() {
+    public HikariDataSource primaryDataSource() {
         log.info("Configuring HikariCP DataSource...");
 
         HikariConfig config = new HikariConfig();
@@ -66,4 +79,37 @@ public class DatabaseConfig {
 
         return new HikariDataSource(config);
     }
-}
\ No newline at end of file
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaRoutingProperties routing,
+                                                       StringRedisTemplate stringRedisTemplate) {
+        return new ReadYourWritesTracker(stringRedisTemplate, routing.getStickyWindow());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter() {
+        return new ReadYourWritesFilter();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            ReplicaRoutingProperties routing,
+            ReadYourWritesTracker tracker,
+            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        routing.getReplicas().forEach(replica -> replicas.put(replica.getName(),
+                ReplicaRoutingDataSource.createReplicaPool(
+                        replica, primaryDataSource, routing.getPoolSize(), meterRegistry)));
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, tracker, routing, meterRegistry);
+    }
+
+    /**
+     * DataSource used by JPA and the transaction manager
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return routingDataSource.lazy();
+    }
+}
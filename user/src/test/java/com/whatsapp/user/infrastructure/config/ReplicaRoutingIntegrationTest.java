@@ -0,0 +1,193 @@
+package com.whatsapp.user.infrastructure.config;
+
+import com.whatsapp.common.datasource.ReadYourWritesTracker;
+import com.whatsapp.common.datasource.ReplicaRoutingDataSource;
+import com.whatsapp.common.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read routing of {@link ReplicaRoutingDataSource} against a streaming
+ * Postgres primary/replica pair, with two service instances sharing the
+ * read-your-writes state through Redis.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingIntegrationTest {
+
+    private static final String PASSWORD = "secret";
+    private static final String DATABASE = "whatsapp";
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    static final GenericContainer<?> PRIMARY = new GenericContainer<>("postgres:16-alpine")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("pg-primary")
+            .withEnv("POSTGRES_PASSWORD", PASSWORD)
+            .withEnv("POSTGRES_DB", DATABASE)
+            .withCopyToContainer(Transferable.of(
+                    "echo 'host replication all all trust' >> \"$PGDATA/pg_hba.conf\"\n"),
+                    "/docker-entrypoint-initdb.d/replication.sh")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4")
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*database system is ready to accept connections.*", 2));
+
+    @Container
+    static final GenericContainer<?> REPLICA = new GenericContainer<>("postgres:16-alpine")
+            .withNetwork(NETWORK)
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+            .withCommand("sh", "-c",
+                    "until pg_basebackup -h pg-primary -U postgres -D /tmp/replica -R -X stream; do sleep 1; done; "
+                            + "exec postgres -D /tmp/replica")
+            .withExposedPorts(5432)
+            .dependsOn(PRIMARY)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1));
+
+    @Container
+    static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static Instance instanceA;
+    private static Instance instanceB;
+
+    @BeforeAll
+    static void start() throws InterruptedException {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        instanceA = new Instance(redisTemplate);
+        instanceB = new Instance(redisTemplate);
+        instanceA.jdbc.execute("CREATE TABLE profiles (user_id TEXT PRIMARY KEY, name TEXT NOT NULL)");
+
+        instanceA.awaitReplica();
+        instanceB.awaitReplica();
+    }
+
+    @AfterAll
+    static void stop() {
+        instanceA.routing.destroy();
+        instanceB.routing.destroy();
+        connectionFactory.destroy();
+    }
+
+    @AfterEach
+    void unbind() {
+        ReadYourWritesTracker.clearCurrentUser();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        ReadYourWritesTracker.bindCurrentUser("carol");
+
+        assertThat(instanceA.readsFromReplica()).isTrue();
+        assertThat(instanceB.readsFromReplica()).isTrue();
+    }
+
+    @Test
+    void writerReadsItsWriteOnAnotherInstance() {
+        ReadYourWritesTracker.bindCurrentUser("alice");
+        instanceA.write.executeWithoutResult(status ->
+                instanceA.jdbc.update("INSERT INTO profiles (user_id, name) VALUES ('alice', 'Alice')"));
+
+        String name = instanceB.read.execute(status -> {
+            assertThat(instanceB.inRecovery()).isFalse();
+            return instanceB.jdbc.queryForObject("SELECT name FROM profiles WHERE user_id = 'alice'", String.class);
+        });
+        assertThat(name).isEqualTo("Alice");
+
+        ReadYourWritesTracker.bindCurrentUser("bob");
+        assertThat(instanceB.readsFromReplica()).isTrue();
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        ReadYourWritesTracker.bindCurrentUser("dave");
+        instanceA.write.executeWithoutResult(status -> {
+            instanceA.jdbc.update("INSERT INTO profiles (user_id, name) VALUES ('dave', 'Dave')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(instanceA.readsFromReplica()).isTrue();
+        assertThat(instanceB.readsFromReplica()).isTrue();
+    }
+
+    // ---------------------------------------------------------------
+    // One service instance: own pools and tracker, shared Redis
+    // ---------------------------------------------------------------
+
+    private static final class Instance {
+        private final ReplicaRoutingDataSource routing;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate write;
+        private final TransactionTemplate read;
+
+        private Instance(StringRedisTemplate redisTemplate) {
+            ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+            properties.setMaxLag(Duration.ofSeconds(1));
+            properties.setStickyWindow(Duration.ofSeconds(30));
+            properties.setCheckInterval(Duration.ofMillis(200));
+
+            routing = new ReplicaRoutingDataSource(pool(PRIMARY), Map.of("replica-1", pool(REPLICA)),
+                    new ReadYourWritesTracker(redisTemplate, properties.getStickyWindow()),
+                    properties, new SimpleMeterRegistry());
+            routing.afterPropertiesSet();
+
+            DataSource dataSource = routing.lazy();
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbc = new JdbcTemplate(dataSource);
+            write = new TransactionTemplate(transactionManager);
+            read = new TransactionTemplate(transactionManager);
+            read.setReadOnly(true);
+        }
+
+        private boolean inRecovery() {
+            return Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_is_in_recovery()", Boolean.class));
+        }
+
+        private boolean readsFromReplica() {
+            return Boolean.TRUE.equals(read.execute(status -> inRecovery()));
+        }
+
+        private void awaitReplica() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (!readsFromReplica()) {
+                assertThat(System.currentTimeMillis()).as("replica in rotation").isLessThan(deadline);
+                Thread.sleep(100);
+            }
+        }
+
+        private static HikariDataSource pool(GenericContainer<?> container) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl("jdbc:postgresql://" + container.getHost() + ":" + container.getMappedPort(5432)
+                    + "/" + DATABASE);
+            pool.setUsername("postgres");
+            pool.setPassword(PASSWORD);
+            pool.setMaximumPoolSize(2);
+            return pool;
+        }
+    }
+}